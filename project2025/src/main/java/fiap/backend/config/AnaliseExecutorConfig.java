@@ -0,0 +1,41 @@
+package fiap.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool de threads usado para executar em paralelo as etapas independentes
+ * da análise nutricional completa (function e procedures PL/SQL).
+ * Cada etapa ocupa uma conexão do Hikari, então o pool de threads fica
+ * limitado à metade das conexões, deixando o resto para as requisições.
+ */
+@Configuration
+public class AnaliseExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnaliseExecutorConfig.class);
+
+    @Bean(name = "analiseExecutor")
+    public ThreadPoolTaskExecutor analiseExecutor(
+            @Value("${app.analise.pool-size:4}") int poolSize,
+            @Value("${app.analise.queue-capacity:50}") int queueCapacity,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConexoes) {
+        int maxThreads = Math.max(1, maxConexoes / 2);
+        if (poolSize > maxThreads) {
+            logger.warn("app.analise.pool-size={} excede metade do pool de conexões ({}); usando {}",
+                    poolSize, maxConexoes, maxThreads);
+            poolSize = maxThreads;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analise-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
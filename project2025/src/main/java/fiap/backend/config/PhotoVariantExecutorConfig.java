@@ -0,0 +1,28 @@
+package fiap.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool de threads usado para gerar as variantes redimensionadas das fotos
+ * de perfil fora da requisição de upload.
+ */
+@Configuration
+public class PhotoVariantExecutorConfig {
+
+    @Bean(name = "photoVariantExecutor")
+    public ThreadPoolTaskExecutor photoVariantExecutor(
+            @Value("${app.photo-variants.pool-size:2}") int poolSize,
+            @Value("${app.photo-variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("photo-variant-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -49,6 +49,7 @@ public class SecurityConfig {
 
                         // Endpoints que requerem role ADMIN
                         .requestMatchers("/api/v1/users/promote").hasRole("ADMIN")
+                        .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("ADMIN")
 
                         // Todos os outros endpoints requerem autenticação
                         .anyRequest().authenticated())
@@ -0,0 +1,154 @@
+package fiap.backend.controller;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Respostas com suporte a Range (RFC 9110): um intervalo de bytes vira 206 Partial
+ * Content lido direto da fonte (skip + leitura limitada, sem carregar o conteúdo
+ * inteiro), intervalo fora do conteúdo vira 416, e If-Range com ETag diferente do
+ * atual devolve o conteúdo completo. Permite retomar downloads interrompidos.
+ */
+final class ByteRangeResponses {
+
+    private ByteRangeResponses() {
+    }
+
+    /**
+     * Monta a resposta completa ou parcial conforme os headers Range e If-Range
+     *
+     * @param headers       headers da resposta completa (tipo, cache, ETag)
+     * @param content       conteúdo completo
+     * @param contentLength tamanho do conteúdo em bytes
+     * @param range         header Range da requisição (opcional)
+     * @param ifRange       header If-Range da requisição (opcional)
+     * @return 200 com o conteúdo, 206 com o intervalo pedido ou 416
+     */
+    static ResponseEntity<Resource> build(HttpHeaders headers, Resource content, long contentLength,
+            String range, String ifRange) throws IOException {
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (range == null) {
+            headers.setContentLength(contentLength);
+            return ResponseEntity.ok().headers(headers).body(content);
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            // Range malformado é ignorado
+            return full(headers, content, contentLength);
+        }
+        if (!ifRangeMatches(ifRange, headers.getETag())) {
+            return full(headers, content, contentLength);
+        }
+        if (ranges.size() != 1) {
+            // Vários intervalos: o Spring MVC responde com multipart/byteranges e calcula
+            // o tamanho do corpo multipart; o tamanho do recurso não vale para ele
+            return ResponseEntity.ok().headers(headers).body(content);
+        }
+
+        HttpRange byteRange = ranges.get(0);
+        long start = byteRange.getRangeStart(contentLength);
+        long end = byteRange.getRangeEnd(contentLength);
+        if (start >= contentLength || start > end) {
+            HttpHeaders unsatisfiable = new HttpHeaders();
+            unsatisfiable.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            unsatisfiable.set(HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(unsatisfiable).build();
+        }
+
+        long length = end - start + 1;
+        InputStream in = content.getInputStream();
+        try {
+            in.skipNBytes(start);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+
+        headers.setContentLength(length);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                .body(new InputStreamResource(new LimitedInputStream(in, length)));
+    }
+
+    // InputStreamResource não passa pelo tratamento de Range do Spring MVC,
+    // que fatiaria de novo o conteúdo que deve ir completo
+    private static ResponseEntity<Resource> full(HttpHeaders headers, Resource content, long contentLength)
+            throws IOException {
+        headers.setContentLength(contentLength);
+        return ResponseEntity.ok().headers(headers).body(new InputStreamResource(content.getInputStream()));
+    }
+
+    // If-Range exige comparação forte; datas nunca conferem (não enviamos Last-Modified)
+    private static boolean ifRangeMatches(String ifRange, String etag) {
+        if (ifRange == null) {
+            return true;
+        }
+        return etag != null && !ifRange.startsWith("W/") && ifRange.trim().equals(etag);
+    }
+
+    /**
+     * Stream que termina após o número de bytes do intervalo
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package fiap.backend.controller;
+
+/**
+ * Requisições condicionais (RFC 9110) compartilhadas pelos controllers que
+ * respondem 304 Not Modified
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Compara o If-None-Match com o ETag atual (comparação fraca). O header pode
+     * trazer uma lista de ETags, fracos (W/) ou "*"
+     *
+     * @param ifNoneMatch header If-None-Match da requisição (opcional)
+     * @param etag        ETag atual do recurso (opcional)
+     * @return true se o cliente já tem a versão atual
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package fiap.backend.controller;
+
+import fiap.backend.dto.AuditoriaPlanoPaginaResponse;
+import fiap.backend.service.NutritionPlanAuditService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controller da trilha de auditoria de planos nutricionais.
+ * Paginação por cursor sobre (changed_at, audit_id), do mais recente para o mais antigo.
+ */
+@RestController
+@RequestMapping("/api/v1/oracle/auditoria")
+@Tag(name = "Oracle PL/SQL", description = "Endpoints para execução de Functions e Procedures Oracle PL/SQL")
+@SecurityRequirement(name = "bearerAuth")
+public class NutritionPlanAuditController {
+
+    private final NutritionPlanAuditService auditService;
+
+    public NutritionPlanAuditController(NutritionPlanAuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @GetMapping("/planos/stream")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Listar Auditoria de Planos (cursor)", description = "Lista a auditoria de planos nutricionais com paginação por cursor e filtros por usuário/plano")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de auditoria retornada"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado - apenas administradores")
+    })
+    public ResponseEntity<?> listarAuditoria(
+            @Parameter(description = "Filtrar por usuário") @RequestParam(required = false) String userId,
+            @Parameter(description = "Filtrar por plano") @RequestParam(required = false) String planId,
+            @Parameter(description = "Cursor da próxima página") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Registros por página (padrão: 50, máximo: 500)") @RequestParam(required = false) Integer limite
+    ) {
+        try {
+            AuditoriaPlanoPaginaResponse pagina = auditService.listarAuditoria(userId, planId, cursor, limite);
+            return ResponseEntity.ok(pagina);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Erro interno do servidor");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+}
@@ -49,6 +49,23 @@ public class NutritionPlanController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Criar planos nutricionais em lote", description = "Cria até 31 planos nutricionais (uma semana ou um mês) "
+            +
+            "numa única transação. O limite do plano de assinatura é verificado uma vez para todo o lote; "
+            +
+            "datas que já têm plano ou repetidas no lote são informadas no resultado de cada dia.")
+    @ApiResponse(responseCode = "201", description = "Lote processado; veja o resultado de cada dia")
+    @ApiResponse(responseCode = "400", description = "Dados inválidos ou limite de planos atingido")
+    public ResponseEntity<BulkNutritionPlanResponseDTO> createNutritionPlans(
+            Authentication authentication,
+            @Valid @RequestBody BulkCreateNutritionPlanDTO bulkDTO) {
+
+        String userEmail = authentication.getName();
+        BulkNutritionPlanResponseDTO response = nutritionPlanService.createNutritionPlans(userEmail, bulkDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping("/{planId}")
     @Operation(summary = "Buscar plano nutricional por ID", description = "Busca um plano nutricional específico pelo ID")
     @ApiResponse(responseCode = "200", description = "Plano nutricional encontrado")
@@ -98,15 +115,35 @@ public class NutritionPlanController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar planos nutricionais", description = "Lista os planos nutricionais do usuário com paginação")
+    @Operation(summary = "Listar planos nutricionais", description = "Lista os planos nutricionais do usuário com paginação. "
+            +
+            "Com summary=true retorna só o resumo de cada dia, sem descrição, refeições e observações.")
     @ApiResponse(responseCode = "200", description = "Lista de planos retornada")
     public ResponseEntity<Page<NutritionPlanResponseDTO>> getUserNutritionPlans(
             Authentication authentication,
             @Parameter(description = "Número da página (inicia em 0)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Tamanho da página") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Retornar só o resumo dos planos, sem os textos das refeições") @RequestParam(defaultValue = "false") boolean summary) {
+
+        String userEmail = authentication.getName();
+        Page<NutritionPlanResponseDTO> response = nutritionPlanService.getUserNutritionPlans(userEmail, page, size,
+                summary);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Estatísticas dos planos nutricionais", description = "Retorna contagens, taxa de conclusão, médias de calorias e "
+            +
+            "macronutrientes e total de água do mês, trimestre ou ano que contém a data de referência (padrão: hoje)")
+    @ApiResponse(responseCode = "200", description = "Estatísticas retornadas")
+    public ResponseEntity<NutritionPlanStatsDTO> getNutritionPlanStats(
+            Authentication authentication,
+            @Parameter(description = "Período: MONTH, QUARTER ou YEAR") @RequestParam(defaultValue = "MONTH") NutritionPlanStatsDTO.Period period,
+            @Parameter(description = "Data de referência (formato: yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
 
         String userEmail = authentication.getName();
-        Page<NutritionPlanResponseDTO> response = nutritionPlanService.getUserNutritionPlans(userEmail, page, size);
+        NutritionPlanStatsDTO response = nutritionPlanService.getNutritionPlanStats(userEmail, period,
+                date != null ? date : LocalDate.now());
         return ResponseEntity.ok(response);
     }
 
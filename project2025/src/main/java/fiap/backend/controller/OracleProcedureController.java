@@ -1,5 +1,6 @@
 package fiap.backend.controller;
 
+import fiap.backend.dto.AlertasLoteRequest;
 import fiap.backend.dto.AnaliseNutricionalRequest;
 import fiap.backend.dto.AnaliseNutricionalResponse;
 import fiap.backend.service.OracleStoredProcedureService;
@@ -11,12 +12,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
@@ -33,6 +43,7 @@ public class OracleProcedureController {
     private final OracleStoredProcedureService oracleService;
     private final LlmService llmService;
     private static final Logger logger = LoggerFactory.getLogger(OracleProcedureController.class);
+    private static final MediaType TEXT_PLAIN_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
 
     public OracleProcedureController(OracleStoredProcedureService oracleService, LlmService llmService) {
         this.oracleService = oracleService;
@@ -83,17 +94,44 @@ public class OracleProcedureController {
 
     // Function: formatar_relatorio_nutricao
     @GetMapping(value = "/relatorio-nutricao/{userId}", produces = MediaType.TEXT_PLAIN_VALUE)
-    @Operation(summary = "Gerar Relatório de Nutrição", description = "Executa a function PL/SQL formatar_relatorio_nutricao para gerar relatório formatado em texto")
-    public ResponseEntity<String> gerarRelatorioNutricao(@PathVariable String userId) {
+    @Operation(summary = "Gerar Relatório de Nutrição", description = "Executa a function PL/SQL formatar_relatorio_nutricao para gerar relatório formatado em texto. Aceita Range/If-Range para retomar downloads (206 Partial Content)")
+    public ResponseEntity<Resource> gerarRelatorioNutricao(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
         logger.info("REST API: Gerar relatório de nutrição - userId={}", userId);
 
         try {
+            String versao = oracleService.versaoRelatorioNutricao(userId);
             String relatorio = oracleService.formatarRelatorioNutricao(userId);
-            return ResponseEntity.ok(relatorio);
+            return buildRelatorioResponse(userId, versao, relatorio, range, ifRange);
         } catch (Exception e) {
             logger.error("Erro ao gerar relatório de nutrição: {}", e.getMessage(), e);
             String errorMsg = "ERRO AO GERAR RELATÓRIO\n========================\nMensagem: " + e.getMessage() + "\n";
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorMsg);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .contentType(TEXT_PLAIN_UTF8)
+                    .body(new ByteArrayResource(errorMsg.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    // Relatório como recurso com ETag dos dados de origem: o cliente retoma o download
+    // com Range + If-Range e recebe o texto inteiro de novo se os dados mudaram. O texto
+    // traz a hora de geração, então o hash do próprio texto mudaria a cada requisição
+    private ResponseEntity<Resource> buildRelatorioResponse(String userId, String versao, String relatorio,
+            String range, String ifRange) throws IOException {
+        byte[] conteudo = relatorio != null ? relatorio.getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(TEXT_PLAIN_UTF8);
+        headers.setETag("\"" + sha256((userId + "|" + versao).getBytes(StandardCharsets.UTF_8)) + "\"");
+        return ByteRangeResponses.build(headers, new ByteArrayResource(conteudo), conteudo.length, range, ifRange);
+    }
+
+    private static String sha256(byte[] conteudo) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
         }
     }
 
@@ -125,6 +163,69 @@ public class OracleProcedureController {
         }
     }
 
+    // Procedure: pkg_nutrixpert_alertas.proc_registrar_alertas_lote
+    @PostMapping("/alertas-nutricionais/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Registrar Alertas Nutricionais em Lote", description = "Executa a procedure set-based proc_registrar_alertas_lote para vários usuários (até 1000), retornando a contagem de alertas por usuário. Apenas ADMIN")
+    public ResponseEntity<Map<String, Object>> registrarAlertasNutricionaisEmLote(@RequestBody AlertasLoteRequest request) {
+        if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("sucesso", false);
+            error.put("mensagem", "Informe ao menos um usuário");
+            return ResponseEntity.badRequest().body(error);
+        }
+        if (request.getUserIds().size() > AlertasLoteRequest.MAX_USER_IDS) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("sucesso", false);
+            error.put("mensagem", "Informe no máximo " + AlertasLoteRequest.MAX_USER_IDS + " usuários por lote");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        logger.info("REST API: Registrar alertas nutricionais em lote - usuarios={}, diasAnalise={}",
+                request.getUserIds().size(), request.getDiasAnalise());
+        try {
+            return ResponseEntity.ok(buildAlertasLoteResponse(
+                    oracleService.registrarAlertasNutricionaisEmLote(request.getUserIds(), request.getDiasAnalise())));
+        } catch (Exception e) {
+            logger.error("Erro ao registrar alertas em lote: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("sucesso", false);
+            error.put("mensagem", "Erro ao registrar alertas: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    // Varredura de alertas para todos os usuários ativos
+    @PostMapping("/alertas-nutricionais/varredura")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Varredura de Alertas Nutricionais", description = "Registra alertas para todos os usuários ativos, em lotes, usando proc_registrar_alertas_lote. Apenas ADMIN")
+    public ResponseEntity<Map<String, Object>> varreduraAlertasNutricionais(
+            @RequestParam(defaultValue = "7") int diasAnalise
+    ) {
+        logger.info("REST API: Varredura de alertas nutricionais - diasAnalise={}", diasAnalise);
+        try {
+            return ResponseEntity.ok(buildAlertasLoteResponse(oracleService.registrarAlertasUsuariosAtivos(diasAnalise)));
+        } catch (Exception e) {
+            logger.error("Erro na varredura de alertas: {}", e.getMessage(), e);
+            Map<String, Object> error = new HashMap<>();
+            error.put("sucesso", false);
+            error.put("mensagem", "Erro ao registrar alertas: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
+    private Map<String, Object> buildAlertasLoteResponse(OracleStoredProcedureService.AlertasLoteResultado resultado) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sucesso", resultado.getLotesComFalha() == 0);
+        response.put("alertasPorUsuario", resultado.getAlertasPorUsuario());
+        response.put("totalAlertas", resultado.getTotalAlertas());
+        response.put("lotesExecutados", resultado.getLotesExecutados());
+        response.put("usuariosComFalha", resultado.getUsuariosComFalha());
+        response.put("mensagem", resultado.getTotalAlertas() + " alerta(s) registrado(s) para "
+                + resultado.getAlertasPorUsuario().size() + " usuário(s)");
+        return response;
+    }
+
     // Procedure: proc_gerar_relatorio_consumo
     @PostMapping("/relatorio-consumo/{userId}")
     @Operation(summary = "Gerar Relatório de Consumo", description = "Executa a procedure PL/SQL proc_gerar_relatorio_consumo para gerar relatório detalhado")
@@ -201,7 +302,8 @@ public class OracleProcedureController {
     @Operation(
         summary = "Executar Análise Completa",
         description = "Combina function e procedures PL/SQL para análise completa do usuário: " +
-                     "calcula indicador de saúde, registra alertas e gera relatório"
+                     "calcula indicador de saúde, registra alertas e gera relatório em paralelo, " +
+                     "retornando tempo e erro de cada etapa (resultado parcial quando alguma etapa falha)"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Análise executada com sucesso"),
@@ -225,6 +327,15 @@ public class OracleProcedureController {
             response.setClassificacao((String) resultado.get("classificacao"));
             response.setAlertasGerados((Integer) resultado.get("alertasGerados"));
             response.setRelatorio((String) resultado.get("relatorioResumido"));
+            response.setParcial((Boolean) resultado.get("parcial"));
+            response.setTempoTotalMs((Long) resultado.get("tempoTotalMs"));
+
+            @SuppressWarnings("unchecked")
+            Map<String, Long> temposEtapas = (Map<String, Long>) resultado.get("temposEtapasMs");
+            @SuppressWarnings("unchecked")
+            Map<String, String> errosEtapas = (Map<String, String>) resultado.get("errosEtapas");
+            response.setTemposEtapasMs(temposEtapas);
+            response.setErrosEtapas(errosEtapas);
 
             if (response.getRelatorio() != null) {
                 response.setTamanhoRelatorio(response.getRelatorio().length());
@@ -276,9 +387,13 @@ public class OracleProcedureController {
 
     // Function: formatar_relatorio_nutricao
     @GetMapping("/relatorio-nutricao/{userId}")
-    public ResponseEntity<String> relatorioNutricao(@PathVariable String userId) {
+    public ResponseEntity<Resource> relatorioNutricao(
+            @PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) throws IOException {
+        String versao = this.oracleService.versaoRelatorioNutricao(userId);
         String relatorio = this.oracleService.formatarRelatorioNutricao(userId);
-        return ResponseEntity.ok(relatorio);
+        return buildRelatorioResponse(userId, versao, relatorio, range, ifRange);
     }
 
     // Procedure: proc_gerar_relatorio_consumo
@@ -4,25 +4,36 @@ import fiap.backend.dto.ServiceProviderCreateRequest;
 import fiap.backend.dto.ServiceProviderResponse;
 import fiap.backend.dto.ServiceProviderUpdateRequest;
 import fiap.backend.service.CurrentUserService;
+import fiap.backend.service.ProviderCatalog;
+import fiap.backend.service.ServiceProviderImportService;
 import fiap.backend.service.ServiceProviderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Controller responsável pelo gerenciamento de fornecedores de serviços.
@@ -35,11 +46,14 @@ import java.util.UUID;
 public class ServiceProviderController {
 
     private final ServiceProviderService serviceProviderService;
+    private final ServiceProviderImportService serviceProviderImportService;
     private final CurrentUserService currentUserService;
 
     public ServiceProviderController(ServiceProviderService serviceProviderService,
+            ServiceProviderImportService serviceProviderImportService,
             CurrentUserService currentUserService) {
         this.serviceProviderService = serviceProviderService;
+        this.serviceProviderImportService = serviceProviderImportService;
         this.currentUserService = currentUserService;
     }
 
@@ -76,6 +90,41 @@ public class ServiceProviderController {
         }
     }
 
+    /**
+     * Importa fornecedores em massa a partir de CSV ou JSON (apenas administradores)
+     * 
+     * @param file arquivo CSV (com cabeçalho) ou JSON (array de fornecedores)
+     * @return totais da importação e erros por registro
+     */
+    @PostMapping(value = "/admin/import", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Importar fornecedores (Admin)", description = "Importa fornecedores de um arquivo CSV (colunas name, latitude, longitude, endereco, description; separador vírgula ou ponto e vírgula) ou JSON (array de objetos com os mesmos campos). Registros inválidos ou com nome já cadastrado são relatados sem interromper a importação.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; ver erros por registro", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ServiceProviderImportService.ImportResult.class))),
+            @ApiResponse(responseCode = "400", description = "Arquivo vazio ou em formato inválido"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado - apenas administradores")
+    })
+    public ResponseEntity<?> importServiceProviders(
+            @Parameter(description = "Arquivo CSV ou JSON", required = true) @RequestParam("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Arquivo vazio");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            UUID adminId = currentUserService.getCurrentUserId();
+            ServiceProviderImportService.ImportResult result = serviceProviderImportService.importProviders(
+                    in, importFormat(file), adminId);
+            return ResponseEntity.ok(result);
+
+        } catch (IOException | RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Arquivo inválido: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Atualiza um fornecedor existente (apenas administradores)
      * 
@@ -164,16 +213,26 @@ public class ServiceProviderController {
     }
 
     /**
-     * Lista fornecedores ativos (público)
+     * Lista fornecedores ativos (público), com o JSON já serializado do catálogo
      * 
+     * @param ifNoneMatch ETag já em cache no cliente
      * @return lista de fornecedores ativos com dados para mapa
      */
     @GetMapping("/active")
-    @Operation(summary = "Listar fornecedores ativos", description = "Retorna todos os fornecedores ativos com coordenadas para plotagem no mapa")
-    @ApiResponse(responseCode = "200", description = "Lista de fornecedores ativos")
-    public ResponseEntity<List<ServiceProviderResponse>> getActiveProviders() {
-        List<ServiceProviderResponse> providers = serviceProviderService.getAllActiveProviders();
-        return ResponseEntity.ok(providers);
+    @Operation(summary = "Listar fornecedores ativos", description = "Retorna todos os fornecedores ativos com coordenadas para plotagem no mapa. Responde 304 para If-None-Match com o ETag da versão atual do catálogo.")
+    @ApiResponse(responseCode = "200", description = "Lista de fornecedores ativos", content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = ServiceProviderResponse.class))))
+    public ResponseEntity<byte[]> getActiveProviders(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProviderCatalog.Snapshot catalog = serviceProviderService.getActiveCatalog();
+        if (ConditionalRequests.etagMatches(ifNoneMatch, catalog.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.getEtag())
+                    .cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(catalog.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalog.getJson());
     }
 
     /**
@@ -244,11 +303,34 @@ public class ServiceProviderController {
      * @return lista de fornecedores que correspondem ao nome
      */
     @GetMapping("/search")
-    @Operation(summary = "Buscar fornecedores por nome", description = "Busca fornecedores ativos que contenham o nome especificado")
-    public ResponseEntity<List<ServiceProviderResponse>> searchProviders(
-            @Parameter(description = "Nome ou parte do nome") @RequestParam String name) {
-        List<ServiceProviderResponse> providers = serviceProviderService.searchActiveProvidersByName(name);
-        return ResponseEntity.ok(providers);
+    @Operation(summary = "Buscar fornecedores por nome", description = "Busca fornecedores ativos que contenham o nome especificado, ignorando acentos e maiúsculas")
+    public ResponseEntity<?> searchProviders(
+            @Parameter(description = "Nome ou parte do nome") @RequestParam String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(ifNoneMatch, () -> serviceProviderService.searchActiveProvidersByName(name));
+    }
+
+    /**
+     * Sugestões de fornecedores enquanto o usuário digita (público)
+     * 
+     * @param q     texto digitado
+     * @param limit quantidade máxima de sugestões
+     * @return fornecedores ordenados por relevância
+     */
+    @GetMapping("/typeahead")
+    @Operation(summary = "Autocompletar fornecedores", description = "Sugere fornecedores ativos pelo nome, ignorando acentos e maiúsculas. Ordena por início do nome, início de palavra, trecho do nome e nomes parecidos.")
+    public ResponseEntity<?> typeaheadProviders(
+            @Parameter(description = "Texto digitado") @RequestParam String q,
+            @Parameter(description = "Quantidade máxima de sugestões (padrão 10, máximo 50)") @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            return catalogResponse(ifNoneMatch, () -> serviceProviderService.typeaheadProviders(q, limit));
+
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
     }
 
     /**
@@ -266,11 +348,39 @@ public class ServiceProviderController {
             @Parameter(description = "Latitude mínima") @RequestParam Double minLat,
             @Parameter(description = "Latitude máxima") @RequestParam Double maxLat,
             @Parameter(description = "Longitude mínima") @RequestParam Double minLng,
-            @Parameter(description = "Longitude máxima") @RequestParam Double maxLng) {
+            @Parameter(description = "Longitude máxima") @RequestParam Double maxLng,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<ServiceProviderResponse> providers = serviceProviderService.getProvidersByLocation(
-                    minLat, maxLat, minLng, maxLng);
-            return ResponseEntity.ok(providers);
+            return catalogResponse(ifNoneMatch,
+                    () -> serviceProviderService.getProvidersByLocation(minLat, maxLat, minLng, maxLng));
+
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Busca os fornecedores mais próximos de um ponto (para mapa)
+     * 
+     * @param lat      latitude de referência
+     * @param lng      longitude de referência
+     * @param radiusKm raio em km
+     * @param limit    quantidade máxima de resultados
+     * @return fornecedores ordenados por distância
+     */
+    @GetMapping("/nearby")
+    @Operation(summary = "Buscar fornecedores próximos", description = "Retorna os fornecedores ativos mais próximos de um ponto, dentro do raio informado, ordenados por distância")
+    public ResponseEntity<?> getNearbyProviders(
+            @Parameter(description = "Latitude de referência") @RequestParam Double lat,
+            @Parameter(description = "Longitude de referência") @RequestParam Double lng,
+            @Parameter(description = "Raio em km (padrão 10, máximo 500)") @RequestParam(required = false) Double radiusKm,
+            @Parameter(description = "Quantidade máxima de resultados (padrão 20, máximo 100)") @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            return catalogResponse(ifNoneMatch,
+                    () -> serviceProviderService.findNearestProviders(lat, lng, radiusKm, limit));
 
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -299,4 +409,25 @@ public class ServiceProviderController {
 
         return ResponseEntity.ok(response);
     }
+
+    private static ServiceProviderImportService.Format importFormat(MultipartFile file) {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType() : "";
+        return name.endsWith(".json") || contentType.contains("json")
+                ? ServiceProviderImportService.Format.JSON
+                : ServiceProviderImportService.Format.CSV;
+    }
+
+    // O ETag é lido antes da consulta: se o catálogo mudar no meio, o cliente
+    // recebe dados novos com ETag antigo e a próxima revalidação traz tudo de novo.
+    // A consulta (em memória) roda antes do 304 para que parâmetros inválidos
+    // recebam 400 mesmo com If-None-Match válido
+    private ResponseEntity<?> catalogResponse(String ifNoneMatch, Supplier<?> query) {
+        String etag = serviceProviderService.getActiveCatalog().getEtag();
+        Object body = query.get();
+        if (ConditionalRequests.etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
 }
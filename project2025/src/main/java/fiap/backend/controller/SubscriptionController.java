@@ -1,6 +1,8 @@
 package fiap.backend.controller;
 
 import fiap.backend.domain.Subscription;
+import fiap.backend.dto.SubscriptionBatchRequest;
+import fiap.backend.dto.SubscriptionBatchResponse;
 import fiap.backend.dto.SubscriptionRequest;
 import fiap.backend.dto.SubscriptionResponse;
 import fiap.backend.dto.SubscriptionStatusUpdateRequest;
@@ -172,6 +174,28 @@ public class SubscriptionController {
         return ResponseEntity.ok(subscription);
     }
 
+    @PatchMapping("/batch/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Aprovar subscrições em lote (Admin)", description = "Aprova até 1000 subscrições pendentes numa única transação, cancelando as subscrições ativas dos usuários. Retorna o resultado de cada ID; IDs inexistentes ou não pendentes não interrompem o lote.")
+    public ResponseEntity<SubscriptionBatchResponse> approveSubscriptions(
+            @Valid @RequestBody SubscriptionBatchRequest request) {
+        UUID adminUserId = currentUserService.getCurrentUserId();
+        SubscriptionBatchResponse result = subscriptionService.approveSubscriptions(request.getSubscriptionIds(),
+                adminUserId);
+        return ResponseEntity.ok(result);
+    }
+
+    @PatchMapping("/batch/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rejeitar subscrições em lote (Admin)", description = "Rejeita até 1000 subscrições pendentes numa única transação. Retorna o resultado de cada ID; IDs inexistentes ou não pendentes não interrompem o lote.")
+    public ResponseEntity<SubscriptionBatchResponse> rejectSubscriptions(
+            @Valid @RequestBody SubscriptionBatchRequest request) {
+        UUID adminUserId = currentUserService.getCurrentUserId();
+        SubscriptionBatchResponse result = subscriptionService.rejectSubscriptions(request.getSubscriptionIds(),
+                adminUserId);
+        return ResponseEntity.ok(result);
+    }
+
     @PatchMapping("/{id}/cancel")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<SubscriptionResponse> cancelSubscription(@PathVariable UUID id) {
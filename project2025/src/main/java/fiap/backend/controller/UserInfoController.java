@@ -2,7 +2,7 @@ package fiap.backend.controller;
 
 import fiap.backend.service.CurrentUserService;
 import fiap.backend.service.UserPhotoService;
-import fiap.backend.domain.UserPhoto;
+import fiap.backend.repository.UserPhotoSummary;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -144,23 +144,18 @@ public class UserInfoController {
      */
     private void addDetailedPhotoInfoToMap(Map<String, Object> photoMap, UUID userId) {
         try {
-            boolean hasPhoto = userPhotoService.userHasPhoto(userId);
-            photoMap.put("hasPhoto", hasPhoto);
-
-            if (hasPhoto) {
-                Optional<UserPhoto> photoMetadata = userPhotoService.getPhotoMetadata(userId);
-                if (photoMetadata.isPresent()) {
-                    UserPhoto photo = photoMetadata.get();
-                    photoMap.put("fileName", photo.getFileName());
-                    photoMap.put("contentType", photo.getContentType());
-                    photoMap.put("fileSize", photo.getFileSize());
-                    photoMap.put("uploadedAt", photo.getCreatedAt());
-                    photoMap.put("updatedAt", photo.getUpdatedAt());
-                    photoMap.put("photoUrl", "/api/v1/user/photo/my-photo");
-                    photoMap.put("directUrl", "/api/v1/user/photo/" + photo.getId());
-                } else {
-                    photoMap.put("photoUrl", userPhotoService.getDefaultPhotoUrl());
-                }
+            Optional<UserPhotoSummary> photoMetadata = userPhotoService.getPhotoMetadata(userId);
+            photoMap.put("hasPhoto", photoMetadata.isPresent());
+
+            if (photoMetadata.isPresent()) {
+                UserPhotoSummary photo = photoMetadata.get();
+                photoMap.put("fileName", photo.getFileName());
+                photoMap.put("contentType", photo.getContentType());
+                photoMap.put("fileSize", photo.getFileSize());
+                photoMap.put("uploadedAt", photo.getCreatedAt());
+                photoMap.put("updatedAt", photo.getUpdatedAt());
+                photoMap.put("photoUrl", "/api/v1/user/photo/my-photo");
+                photoMap.put("directUrl", "/api/v1/user/photo/" + photo.getId());
             } else {
                 // Usuário sem foto personalizada - usar foto padrão
                 photoMap.put("photoUrl", userPhotoService.getDefaultPhotoUrl());
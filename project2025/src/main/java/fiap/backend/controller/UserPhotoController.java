@@ -2,7 +2,11 @@ package fiap.backend.controller;
 
 import fiap.backend.domain.UserPhoto;
 import fiap.backend.dto.UserPhotoResponse;
+import fiap.backend.repository.UserPhotoSummary;
 import fiap.backend.service.CurrentUserService;
+import fiap.backend.service.PhotoCache;
+import fiap.backend.service.PhotoStorageMigrationService;
+import fiap.backend.service.PhotoVariantService;
 import fiap.backend.service.UserPhotoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +16,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -36,12 +42,24 @@ import java.util.UUID;
 @SecurityRequirement(name = "bearerAuth")
 public class UserPhotoController {
 
+    // URLs por ID de foto mudam a cada upload, então o conteúdo nunca muda
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String DEFAULT_CACHE_CONTROL = "max-age=3600";
+
     private final UserPhotoService userPhotoService;
     private final CurrentUserService currentUserService;
+    private final PhotoStorageMigrationService photoStorageMigrationService;
+    private final PhotoVariantService photoVariantService;
+    private final PhotoCache photoCache;
 
-    public UserPhotoController(UserPhotoService userPhotoService, CurrentUserService currentUserService) {
+    public UserPhotoController(UserPhotoService userPhotoService, CurrentUserService currentUserService,
+            PhotoStorageMigrationService photoStorageMigrationService, PhotoVariantService photoVariantService,
+            PhotoCache photoCache) {
         this.userPhotoService = userPhotoService;
         this.currentUserService = currentUserService;
+        this.photoStorageMigrationService = photoStorageMigrationService;
+        this.photoVariantService = photoVariantService;
+        this.photoCache = photoCache;
     }
 
     /**
@@ -84,23 +102,35 @@ public class UserPhotoController {
     /**
      * Recupera a foto de perfil do usuário logado
      * 
-     * @return foto como array de bytes com headers apropriados
+     * @param size    tamanho desejado em pixels (opcional)
+     * @param range   intervalo de bytes pedido (retomada de download)
+     * @param ifRange ETag que o intervalo pressupõe
+     * @return conteúdo da foto (ou o intervalo pedido) com headers apropriados
      */
     @GetMapping("/my-photo")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     @Operation(summary = "Obter minha foto de perfil", description = "Retorna a foto de perfil do usuário autenticado")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Foto encontrada"),
+            @ApiResponse(responseCode = "206", description = "Intervalo de bytes pedido no header Range"),
+            @ApiResponse(responseCode = "400", description = "Tamanho inválido"),
             @ApiResponse(responseCode = "404", description = "Foto não encontrada"),
             @ApiResponse(responseCode = "401", description = "Usuário não autenticado")
     })
-    public ResponseEntity<byte[]> getMyPhoto() {
+    public ResponseEntity<Resource> getMyPhoto(
+            @Parameter(description = "Tamanho desejado em pixels (ex.: 64, 128, 512)") @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        if (size != null && size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             UUID currentUserId = currentUserService.getCurrentUserId();
             Optional<UserPhoto> userPhoto = userPhotoService.getUserPhoto(currentUserId);
 
             if (userPhoto.isPresent()) {
-                return buildPhotoResponse(userPhoto.get());
+                return buildPhotoResponse(userPhoto.get(), variantSizeFor(size), null, range, ifRange,
+                        DEFAULT_CACHE_CONTROL, false);
             } else {
                 return ResponseEntity.notFound().build();
             }
@@ -114,11 +144,21 @@ public class UserPhotoController {
     @GetMapping("/user/{userId}/my-photo")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Obter foto de usuário (Admin)", description = "Retorna a foto de perfil de outro usuário (apenas ADMIN)")
-    public ResponseEntity<byte[]> getUserPhotoAsAdmin(
-            @Parameter(description = "UUID do usuário") @PathVariable UUID userId) {
+    public ResponseEntity<Resource> getUserPhotoAsAdmin(
+            @Parameter(description = "UUID do usuário") @PathVariable UUID userId,
+            @Parameter(description = "Tamanho desejado em pixels (ex.: 64, 128, 512)") @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        if (size != null && size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Optional<UserPhoto> userPhoto = userPhotoService.getUserPhoto(userId);
-            return userPhoto.map(this::buildPhotoResponse).orElseGet(() -> ResponseEntity.notFound().build());
+            if (userPhoto.isPresent()) {
+                return buildPhotoResponse(userPhoto.get(), variantSizeFor(size), null, range, ifRange,
+                        DEFAULT_CACHE_CONTROL, false);
+            }
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -127,28 +167,61 @@ public class UserPhotoController {
     /**
      * Recupera uma foto específica pelo ID (público)
      * 
-     * @param photoId ID da foto
-     * @return foto como array de bytes
+     * @param photoId     ID da foto
+     * @param size        tamanho desejado em pixels (opcional)
+     * @param ifNoneMatch ETag já em cache no cliente
+     * @param range       intervalo de bytes pedido (retomada de download)
+     * @param ifRange     ETag que o intervalo pressupõe
+     * @return conteúdo da foto ou 304 se o cliente já possui a versão atual
      */
     @GetMapping("/{photoId}")
-    @Operation(summary = "Obter foto por ID", description = "Retorna uma foto específica pelo seu ID (endpoint público)")
+    @Operation(summary = "Obter foto por ID", description = "Retorna uma foto específica pelo seu ID (endpoint público). Com ?size= retorna a miniatura JPEG gerada após o upload. Responde 304 para If-None-Match com o ETag atual.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Foto encontrada"),
+            @ApiResponse(responseCode = "206", description = "Intervalo de bytes pedido no header Range"),
+            @ApiResponse(responseCode = "304", description = "Foto não modificada"),
             @ApiResponse(responseCode = "404", description = "Foto não encontrada"),
-            @ApiResponse(responseCode = "400", description = "ID inválido")
+            @ApiResponse(responseCode = "400", description = "ID ou tamanho inválido")
     })
-    public ResponseEntity<byte[]> getPhotoById(
-            @Parameter(description = "ID da foto", required = true) @PathVariable UUID photoId) {
+    public ResponseEntity<Resource> getPhotoById(
+            @Parameter(description = "ID da foto", required = true) @PathVariable UUID photoId,
+            @Parameter(description = "Tamanho desejado em pixels (ex.: 64, 128, 512)") @RequestParam(required = false) Integer size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+
+        if (size != null && size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        Integer variantSize = variantSizeFor(size);
 
         try {
-            Optional<UserPhoto> userPhoto = userPhotoService.getPhotoById(photoId);
+            // Fotos mais acessadas: servidas da memória, sem banco nem storage
+            Optional<PhotoCache.CachedPhoto> cached = photoCache.get(photoId, variantSize);
+            if (cached.isPresent()) {
+                return buildCachedResponse(cached.get(), ifNoneMatch, range, ifRange);
+            }
 
-            if (userPhoto.isPresent()) {
-                return buildPhotoResponse(userPhoto.get());
-            } else {
+            // Fotos no storage: o ETag sai dos metadados, sem ler o conteúdo
+            if (ifNoneMatch != null) {
+                Optional<String> contentHash = userPhotoService.getContentHashByPhotoId(photoId);
+                if (contentHash.isPresent()) {
+                    boolean hasVariant = findVariant(contentHash.get(), variantSize).isPresent();
+                    String etag = toEtag(contentHash.get(), hasVariant ? variantSize : null);
+                    if (ConditionalRequests.etagMatches(ifNoneMatch, etag)) {
+                        return buildNotModifiedResponse(etag);
+                    }
+                }
+            }
+
+            Optional<UserPhoto> userPhoto = userPhotoService.getPhotoById(photoId);
+            if (userPhoto.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
 
+            return buildPhotoResponse(userPhoto.get(), variantSize, ifNoneMatch, range, ifRange,
+                    IMMUTABLE_CACHE_CONTROL, true);
+
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -215,11 +288,10 @@ public class UserPhotoController {
             UUID currentUserId = currentUserService.getCurrentUserId();
 
             Map<String, Object> response = new HashMap<>();
-            response.put("hasPhoto", userPhotoService.userHasPhoto(currentUserId));
-
-            Optional<UserPhoto> metadata = userPhotoService.getPhotoMetadata(currentUserId);
+            Optional<UserPhotoSummary> metadata = userPhotoService.getPhotoMetadata(currentUserId);
+            response.put("hasPhoto", metadata.isPresent());
             if (metadata.isPresent()) {
-                UserPhoto photo = metadata.get();
+                UserPhotoSummary photo = metadata.get();
                 response.put("fileName", photo.getFileName());
                 response.put("contentType", photo.getContentType());
                 response.put("fileSize", photo.getFileSize());
@@ -244,11 +316,10 @@ public class UserPhotoController {
     public ResponseEntity<Map<String, Object>> getPhotoStatusForUser(@PathVariable UUID userId) {
         try {
             Map<String, Object> response = new HashMap<>();
-            response.put("hasPhoto", userPhotoService.userHasPhoto(userId));
-
-            Optional<UserPhoto> metadata = userPhotoService.getPhotoMetadata(userId);
+            Optional<UserPhotoSummary> metadata = userPhotoService.getPhotoMetadata(userId);
+            response.put("hasPhoto", metadata.isPresent());
             if (metadata.isPresent()) {
-                UserPhoto photo = metadata.get();
+                UserPhotoSummary photo = metadata.get();
                 response.put("fileName", photo.getFileName());
                 response.put("contentType", photo.getContentType());
                 response.put("fileSize", photo.getFileSize());
@@ -268,18 +339,145 @@ public class UserPhotoController {
         }
     }
 
-    // Refatoração: helper para criar headers de resposta de foto (remove duplicação)
-    private HttpHeaders buildPhotoHeaders(UserPhoto photo) {
+    /**
+     * Migra as fotos ainda armazenadas em BLOB para o storage de arquivos
+     * 
+     * @param tamanhoLote fotos por lote
+     * @return resumo da migração
+     */
+    @PostMapping("/admin/migrar-storage")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Migrar fotos para o storage (Admin)", description = "Move as fotos do BLOB user_photos.photo_data para o storage de arquivos, em lotes")
+    public ResponseEntity<Map<String, Object>> migrarFotosParaStorage(
+            @Parameter(description = "Fotos por lote (padrão: 100, máximo: 1000)") @RequestParam(required = false) Integer tamanhoLote) {
+        try {
+            PhotoStorageMigrationService.ResultadoMigracao resultado =
+                    photoStorageMigrationService.migrarFotosParaStorage(tamanhoLote);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("migradas", resultado.getMigradas());
+            response.put("falhas", resultado.getFalhas());
+            response.put("lotesExecutados", resultado.getLotesExecutados());
+            response.put("pendentes", resultado.getPendentes());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Erro interno: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    /**
+     * Estatísticas de armazenamento das fotos, com bytes lógicos e físicos
+     *
+     * @return uso de storage
+     */
+    @GetMapping("/admin/estatisticas-storage")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Estatísticas de storage (Admin)", description = "Total de fotos, bytes lógicos (soma das fotos) e físicos (conteúdo deduplicado por hash)")
+    public ResponseEntity<Map<String, Object>> getStorageStats() {
+        try {
+            UserPhotoService.PhotoStorageStats stats = userPhotoService.getStorageStats();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("totalPhotos", stats.getTotalPhotos());
+            response.put("logicalBytes", stats.getTotalStorageBytes());
+            response.put("physicalBytes", stats.getPhysicalStorageBytes());
+            response.put("deduplicatedBytes", stats.getDeduplicatedBytes());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Erro interno: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    // Refatoração: helper para retornar payload de imagem (stream do storage, sem byte[] no heap).
+    // Serve a variante pedida quando já gerada; senão o original. Com cacheable, o conteúdo
+    // definitivo (não o original provisório de uma variante em geração) vai para o PhotoCache.
+    // Com Range, responde 206 apenas com o intervalo pedido (retomada de downloads)
+    private ResponseEntity<Resource> buildPhotoResponse(UserPhoto photo, Integer variantSize, String ifNoneMatch,
+            String range, String ifRange, String cacheControl, boolean cacheable) throws IOException {
+        // Variantes existem apenas para fotos já migradas para o storage
+        Optional<Resource> variant = findVariant(photo.getContentHash(), variantSize);
+
+        // Fotos ainda no BLOB: o hash é calculado a partir do conteúdo carregado
+        String etag = toEtag(userPhotoService.resolveContentHash(photo), variant.isPresent() ? variantSize : null);
+        if (ConditionalRequests.etagMatches(ifNoneMatch, etag)) {
+            return buildNotModifiedResponse(etag);
+        }
+
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(photo.getContentType()));
-        headers.setContentLength(photo.getPhotoData().length);
-        headers.setCacheControl("max-age=3600");
-        return headers;
+        Resource content;
+        String contentType;
+        long contentLength;
+        boolean provisional = false;
+        if (variant.isPresent()) {
+            content = variant.get();
+            contentType = PhotoVariantService.VARIANT_CONTENT_TYPE;
+            contentLength = content.contentLength();
+            headers.setCacheControl(cacheControl);
+        } else {
+            content = userPhotoService.getPhotoContent(photo);
+            contentType = photo.getContentType();
+            contentLength = photo.getFileSize() != null ? photo.getFileSize() : content.contentLength();
+            // Variante pedida ainda em geração: cache curto para o cliente buscá-la depois.
+            // Se o original não pode ser reduzido, ele já é a resposta definitiva
+            provisional = variantSize != null && photo.getContentHash() != null
+                    && !photoVariantService.isUnusable(photo.getContentHash());
+            headers.setCacheControl(provisional ? DEFAULT_CACHE_CONTROL : cacheControl);
+        }
+
+        if (cacheable && !provisional && etag != null && photoCache.accepts(contentLength)) {
+            byte[] data = content.getContentAsByteArray();
+            photoCache.put(photo.getId(), variantSize, new PhotoCache.CachedPhoto(data, contentType, etag));
+            content = new ByteArrayResource(data);
+        }
+
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        if (etag != null) {
+            headers.setETag(etag);
+        }
+        return ByteRangeResponses.build(headers, content, contentLength, range, ifRange);
+    }
+
+    private ResponseEntity<Resource> buildCachedResponse(PhotoCache.CachedPhoto cached, String ifNoneMatch,
+            String range, String ifRange) throws IOException {
+        if (ConditionalRequests.etagMatches(ifNoneMatch, cached.getEtag())) {
+            return buildNotModifiedResponse(cached.getEtag());
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(cached.getContentType()));
+        headers.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+        headers.setETag(cached.getEtag());
+        return ByteRangeResponses.build(headers, new ByteArrayResource(cached.getData()), cached.getData().length,
+                range, ifRange);
+    }
+
+    private Integer variantSizeFor(Integer size) {
+        return size != null ? photoVariantService.variantSizeFor(size) : null;
+    }
+
+    private Optional<Resource> findVariant(String contentHash, Integer variantSize) {
+        if (contentHash == null || variantSize == null) {
+            return Optional.empty();
+        }
+        return photoVariantService.findVariant(contentHash, variantSize);
     }
 
-    // Refatoração: helper para retornar payload de imagem
-    private ResponseEntity<byte[]> buildPhotoResponse(UserPhoto photo) {
-        HttpHeaders headers = buildPhotoHeaders(photo);
-        return ResponseEntity.ok().headers(headers).body(photo.getPhotoData());
+    private ResponseEntity<Resource> buildNotModifiedResponse(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(IMMUTABLE_CACHE_CONTROL);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+
+    private static String toEtag(String contentHash, Integer variantSize) {
+        if (contentHash == null) {
+            return null;
+        }
+        return "\"" + contentHash + (variantSize != null ? "-" + variantSize : "") + "\"";
     }
 }
@@ -0,0 +1,78 @@
+package fiap.backend.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de invalidação de cache gravado na tabela de outbox
+ * cache_invalidation_events, lida periodicamente por todas as instâncias.
+ * created_at vem do relógio do banco, comum a todos os nós.
+ */
+@Entity
+@Table(name = "cache_invalidation_events")
+public class CacheInvalidationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType;
+
+    @Column(name = "entity_key", length = 100)
+    private String entityKey;
+
+    @Column(name = "origin", nullable = false, length = 64)
+    private String origin;
+
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public CacheInvalidationEvent() {
+    }
+
+    public CacheInvalidationEvent(String entityType, String entityKey, String origin) {
+        this.entityType = entityType;
+        this.entityKey = entityKey;
+        this.origin = origin;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Tipo da entidade alterada (ex.: photo, provider)
+     *
+     * @return tipo da entidade
+     */
+    public String getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Chave da entidade alterada, ou null para todas
+     *
+     * @return chave da entidade
+     */
+    public String getEntityKey() {
+        return entityKey;
+    }
+
+    /**
+     * Instância que publicou o evento
+     *
+     * @return ID da instância
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
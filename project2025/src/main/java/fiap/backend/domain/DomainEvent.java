@@ -0,0 +1,131 @@
+package fiap.backend.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio gravado na outbox domain_events, na mesma transação da
+ * mudança de estado, e entregue depois aos listeners em memória pelo
+ * DbPollingDomainEventOutbox. created_at vem do relógio do banco.
+ */
+@Entity
+@Table(name = "domain_events")
+public class DomainEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "aggregate_type", nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false, length = 36)
+    private String aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "payload", length = 4000)
+    private String payload;
+
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    public DomainEvent() {
+    }
+
+    public DomainEvent(String aggregateType, String aggregateId, String eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Tipo do agregado (ex.: subscription, nutrition_plan)
+     *
+     * @return tipo do agregado
+     */
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    /**
+     * ID do agregado; eventos do mesmo agregado são entregues em ordem
+     *
+     * @return ID do agregado
+     */
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * Tipo do evento (ex.: approved, created)
+     *
+     * @return tipo do evento
+     */
+    public String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Dados do evento em JSON
+     *
+     * @return payload
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    /**
+     * Entregas que falharam
+     *
+     * @return tentativas com falha
+     */
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public LocalDateTime getClaimedUntil() {
+        return claimedUntil;
+    }
+}
@@ -0,0 +1,52 @@
+package fiap.backend.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Quantidade de planos nutricionais do usuário (nutrition_plan_quotas).
+ * planCount é alterado apenas pelos UPDATEs atômicos do
+ * NutritionPlanQuotaRepository, na mesma transação do INSERT/DELETE do plano.
+ */
+@Entity
+@Table(name = "nutrition_plan_quotas")
+public class NutritionPlanQuota {
+
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid")
+    private UUID userId;
+
+    @Column(name = "plan_count", nullable = false)
+    private Integer planCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public NutritionPlanQuota() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public NutritionPlanQuota(UUID userId, int planCount) {
+        this();
+        this.userId = userId;
+        this.planCount = planCount;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    /**
+     * Obtém a quantidade de planos nutricionais do usuário
+     *
+     * @return quantidade de planos
+     */
+    public Integer getPlanCount() {
+        return planCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
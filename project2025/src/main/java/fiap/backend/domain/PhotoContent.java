@@ -0,0 +1,77 @@
+package fiap.backend.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Conteúdo de foto armazenado no PhotoStorage, compartilhado por todas as fotos
+ * com o mesmo hash. refCount é mantido pela trigger trg_user_photos_ref_count;
+ * o backend apenas lê a contagem e remove conteúdos sem referências.
+ */
+@Entity
+@Table(name = "photo_contents")
+public class PhotoContent {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PhotoContent() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public PhotoContent(String contentHash, long fileSize, int refCount) {
+        this();
+        this.contentHash = contentHash;
+        this.fileSize = fileSize;
+        this.refCount = refCount;
+    }
+
+    /**
+     * Obtém o hash SHA-256 do conteúdo
+     *
+     * @return hash do conteúdo
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Obtém o tamanho do conteúdo em bytes (armazenado uma única vez)
+     *
+     * @return tamanho em bytes
+     */
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Obtém o número de fotos que referenciam o conteúdo
+     *
+     * @return quantidade de referências
+     */
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
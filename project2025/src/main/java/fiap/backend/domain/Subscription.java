@@ -48,6 +48,11 @@ public class Subscription {
     @Column(precision = 10, scale = 2)
     private BigDecimal amount;
 
+    // Controle otimista: aprovações concorrentes da mesma assinatura falham no UPDATE
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public enum SubscriptionStatus {
         PENDING,
         APPROVED,
@@ -153,6 +158,14 @@ public class Subscription {
         this.amount = amount;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // Business methods
     public void approve(UUID adminUserId) {
         this.status = SubscriptionStatus.APPROVED;
@@ -8,7 +8,8 @@ import java.util.UUID;
 
 /**
  * Entidade para armazenar fotos de perfil dos usuários no banco de dados.
- * Mantém os dados binários da imagem e metadados associados.
+ * Mantém os metadados da imagem; o conteúdo fica no PhotoStorage, identificado
+ * por contentHash. photo_data só é preenchido em fotos ainda não migradas.
  */
 @Entity
 @Table(name = "user_photos")
@@ -24,11 +25,16 @@ public class UserPhoto {
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
-    @NotNull
+    // Carregado só quando acessado (requer o bytecode enhancement do Hibernate no build)
     @Lob
-    @Column(name = "photo_data", nullable = false)
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "photo_data")
     private byte[] photoData;
 
+    @Size(max = 64)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Size(max = 100)
     @Column(name = "file_name")
     private String fileName;
@@ -60,6 +66,15 @@ public class UserPhoto {
         this.fileSize = photoData != null ? (long) photoData.length : 0L;
     }
 
+    public UserPhoto(User user, String contentHash, long fileSize, String fileName, String contentType) {
+        this();
+        this.user = user;
+        this.contentHash = contentHash;
+        this.fileSize = fileSize;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
     /**
      * Obtém o ID único da foto
      * 
@@ -116,6 +131,24 @@ public class UserPhoto {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Obtém o hash SHA-256 do conteúdo no PhotoStorage
+     * 
+     * @return hash do conteúdo ou null se a foto ainda está no BLOB
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Define o hash SHA-256 do conteúdo no PhotoStorage
+     * 
+     * @param contentHash hash do conteúdo
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     /**
      * Obtém o nome original do arquivo
      * 
@@ -0,0 +1,41 @@
+package fiap.backend.dto;
+
+import java.util.List;
+
+/**
+ * DTO para request de registro de alertas nutricionais em lote
+ */
+public class AlertasLoteRequest {
+
+    // Para mais usuários há a varredura (administrativa), que pagina sozinha
+    public static final int MAX_USER_IDS = 1000;
+    
+    private List<String> userIds;
+    private Integer diasAnalise;
+    
+    public AlertasLoteRequest() {
+    }
+    
+    public AlertasLoteRequest(List<String> userIds, Integer diasAnalise) {
+        this.userIds = userIds;
+        this.diasAnalise = diasAnalise;
+    }
+    
+    // Getters and Setters
+    
+    public List<String> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<String> userIds) {
+        this.userIds = userIds;
+    }
+    
+    public Integer getDiasAnalise() {
+        return diasAnalise;
+    }
+    
+    public void setDiasAnalise(Integer diasAnalise) {
+        this.diasAnalise = diasAnalise;
+    }
+}
@@ -1,5 +1,7 @@
 package fiap.backend.dto;
 
+import java.util.Map;
+
 /**
  * DTO para response de análise nutricional
  */
@@ -12,6 +14,10 @@ public class AnaliseNutricionalResponse {
     private Integer alertasGerados;
     private String relatorio;
     private Integer tamanhoRelatorio;
+    private Boolean parcial;
+    private Map<String, Long> temposEtapasMs;
+    private Map<String, String> errosEtapas;
+    private Long tempoTotalMs;
     
     public AnaliseNutricionalResponse() {
     }
@@ -78,4 +84,36 @@ public class AnaliseNutricionalResponse {
     public void setTamanhoRelatorio(Integer tamanhoRelatorio) {
         this.tamanhoRelatorio = tamanhoRelatorio;
     }
+    
+    public Boolean getParcial() {
+        return parcial;
+    }
+    
+    public void setParcial(Boolean parcial) {
+        this.parcial = parcial;
+    }
+    
+    public Map<String, Long> getTemposEtapasMs() {
+        return temposEtapasMs;
+    }
+    
+    public void setTemposEtapasMs(Map<String, Long> temposEtapasMs) {
+        this.temposEtapasMs = temposEtapasMs;
+    }
+    
+    public Map<String, String> getErrosEtapas() {
+        return errosEtapas;
+    }
+    
+    public void setErrosEtapas(Map<String, String> errosEtapas) {
+        this.errosEtapas = errosEtapas;
+    }
+    
+    public Long getTempoTotalMs() {
+        return tempoTotalMs;
+    }
+    
+    public void setTempoTotalMs(Long tempoTotalMs) {
+        this.tempoTotalMs = tempoTotalMs;
+    }
 }
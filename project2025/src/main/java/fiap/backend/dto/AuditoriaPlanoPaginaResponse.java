@@ -0,0 +1,49 @@
+package fiap.backend.dto;
+
+import java.util.List;
+
+/**
+ * DTO para página de auditoria de planos (paginação por cursor).
+ * O cursor é opaco e deve ser repassado para obter a próxima página.
+ */
+public class AuditoriaPlanoPaginaResponse {
+    
+    private List<AuditoriaPlanoResponse> registros;
+    private String proximoCursor;
+    private Boolean temMais;
+    
+    public AuditoriaPlanoPaginaResponse() {
+    }
+    
+    public AuditoriaPlanoPaginaResponse(List<AuditoriaPlanoResponse> registros, String proximoCursor, Boolean temMais) {
+        this.registros = registros;
+        this.proximoCursor = proximoCursor;
+        this.temMais = temMais;
+    }
+    
+    // Getters and Setters
+    
+    public List<AuditoriaPlanoResponse> getRegistros() {
+        return registros;
+    }
+    
+    public void setRegistros(List<AuditoriaPlanoResponse> registros) {
+        this.registros = registros;
+    }
+    
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+    
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+    
+    public Boolean getTemMais() {
+        return temMais;
+    }
+    
+    public void setTemMais(Boolean temMais) {
+        this.temMais = temMais;
+    }
+}
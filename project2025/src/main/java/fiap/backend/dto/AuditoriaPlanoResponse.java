@@ -0,0 +1,89 @@
+package fiap.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO para registro de auditoria de planos nutricionais
+ */
+public class AuditoriaPlanoResponse {
+    
+    private Long auditId;
+    private String planId;
+    private String userId;
+    private String action;
+    private LocalDateTime changedAt;
+    private Integer oldCalorias;
+    private Integer newCalorias;
+    
+    public AuditoriaPlanoResponse() {
+    }
+    
+    public AuditoriaPlanoResponse(Long auditId, String planId, String userId, String action,
+                                  LocalDateTime changedAt, Integer oldCalorias, Integer newCalorias) {
+        this.auditId = auditId;
+        this.planId = planId;
+        this.userId = userId;
+        this.action = action;
+        this.changedAt = changedAt;
+        this.oldCalorias = oldCalorias;
+        this.newCalorias = newCalorias;
+    }
+    
+    // Getters and Setters
+    
+    public Long getAuditId() {
+        return auditId;
+    }
+    
+    public void setAuditId(Long auditId) {
+        this.auditId = auditId;
+    }
+    
+    public String getPlanId() {
+        return planId;
+    }
+    
+    public void setPlanId(String planId) {
+        this.planId = planId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getAction() {
+        return action;
+    }
+    
+    public void setAction(String action) {
+        this.action = action;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+    
+    public Integer getOldCalorias() {
+        return oldCalorias;
+    }
+    
+    public void setOldCalorias(Integer oldCalorias) {
+        this.oldCalorias = oldCalorias;
+    }
+    
+    public Integer getNewCalorias() {
+        return newCalorias;
+    }
+    
+    public void setNewCalorias(Integer newCalorias) {
+        this.newCalorias = newCalorias;
+    }
+}
@@ -0,0 +1,37 @@
+package fiap.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para criação em lote de planos nutricionais (uma semana ou um mês)
+ */
+public class BulkCreateNutritionPlanDTO {
+
+    public static final int MAX_PLANS = 31;
+
+    @NotEmpty(message = "Informe ao menos um plano")
+    @Size(max = MAX_PLANS, message = "É possível criar no máximo 31 planos por vez")
+    private List<@NotNull(message = "O lote não pode conter planos nulos") @Valid CreateNutritionPlanDTO> plans;
+
+    // Construtores
+    public BulkCreateNutritionPlanDTO() {
+    }
+
+    public BulkCreateNutritionPlanDTO(List<CreateNutritionPlanDTO> plans) {
+        this.plans = plans;
+    }
+
+    // Getters e Setters
+    public List<CreateNutritionPlanDTO> getPlans() {
+        return plans;
+    }
+
+    public void setPlans(List<CreateNutritionPlanDTO> plans) {
+        this.plans = plans;
+    }
+}
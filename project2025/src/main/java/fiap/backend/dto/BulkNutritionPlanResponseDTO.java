@@ -0,0 +1,113 @@
+package fiap.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de resposta da criação em lote, com o resultado de cada dia
+ */
+public class BulkNutritionPlanResponseDTO {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private List<DayResult> results;
+
+    // Construtores
+    public BulkNutritionPlanResponseDTO() {
+    }
+
+    public BulkNutritionPlanResponseDTO(List<DayResult> results) {
+        this.results = results;
+        this.requested = results.size();
+        this.created = (int) results.stream().filter(DayResult::isSuccess).count();
+        this.failed = requested - created;
+    }
+
+    // Getters e Setters
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<DayResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<DayResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Resultado de um dia do lote
+     */
+    public static class DayResult {
+        private LocalDate planDate;
+        private boolean success;
+        // ID do plano criado; null se o dia não foi criado
+        private UUID planId;
+        private String message;
+
+        public DayResult() {
+        }
+
+        public DayResult(LocalDate planDate, boolean success, UUID planId, String message) {
+            this.planDate = planDate;
+            this.success = success;
+            this.planId = planId;
+            this.message = message;
+        }
+
+        public LocalDate getPlanDate() {
+            return planDate;
+        }
+
+        public void setPlanDate(LocalDate planDate) {
+            this.planDate = planDate;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public UUID getPlanId() {
+            return planId;
+        }
+
+        public void setPlanId(UUID planId) {
+            this.planId = planId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
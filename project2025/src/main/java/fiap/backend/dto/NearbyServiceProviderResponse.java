@@ -0,0 +1,24 @@
+package fiap.backend.dto;
+
+/**
+ * DTO para resposta da busca por proximidade: o fornecedor e sua distância
+ * em quilômetros até o ponto consultado.
+ */
+public class NearbyServiceProviderResponse {
+
+    private final ServiceProviderResponse provider;
+    private final double distanceKm;
+
+    public NearbyServiceProviderResponse(ServiceProviderResponse provider, double distanceKm) {
+        this.provider = provider;
+        this.distanceKm = distanceKm;
+    }
+
+    public ServiceProviderResponse getProvider() {
+        return provider;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
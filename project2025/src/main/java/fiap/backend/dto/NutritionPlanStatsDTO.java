@@ -0,0 +1,144 @@
+package fiap.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+/**
+ * DTO de resposta com as estatísticas dos planos nutricionais de um mês,
+ * trimestre ou ano
+ */
+public class NutritionPlanStatsDTO {
+
+    /**
+     * Períodos aceitos pelo endpoint de estatísticas
+     */
+    public enum Period {
+        MONTH, QUARTER, YEAR
+    }
+
+    private Period period;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    private Integer totalPlans;
+    private Integer completedPlans;
+    private Integer pendingPlans;
+    private Double completionRate; // Percentual de conclusão
+    private Double averageCalories;
+    private Double totalWaterIntake; // Em litros
+    private Double averageProteins;
+    private Double averageCarbohydrates;
+    private Double averageFats;
+
+    // Construtores
+    public NutritionPlanStatsDTO() {
+    }
+
+    public NutritionPlanStatsDTO(Period period, LocalDate startDate, LocalDate endDate) {
+        this.period = period;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters e Setters
+    public Period getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(Period period) {
+        this.period = period;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getTotalPlans() {
+        return totalPlans;
+    }
+
+    public void setTotalPlans(Integer totalPlans) {
+        this.totalPlans = totalPlans;
+    }
+
+    public Integer getCompletedPlans() {
+        return completedPlans;
+    }
+
+    public void setCompletedPlans(Integer completedPlans) {
+        this.completedPlans = completedPlans;
+    }
+
+    public Integer getPendingPlans() {
+        return pendingPlans;
+    }
+
+    public void setPendingPlans(Integer pendingPlans) {
+        this.pendingPlans = pendingPlans;
+    }
+
+    public Double getCompletionRate() {
+        return completionRate;
+    }
+
+    public void setCompletionRate(Double completionRate) {
+        this.completionRate = completionRate;
+    }
+
+    public Double getAverageCalories() {
+        return averageCalories;
+    }
+
+    public void setAverageCalories(Double averageCalories) {
+        this.averageCalories = averageCalories;
+    }
+
+    public Double getTotalWaterIntake() {
+        return totalWaterIntake;
+    }
+
+    public void setTotalWaterIntake(Double totalWaterIntake) {
+        this.totalWaterIntake = totalWaterIntake;
+    }
+
+    public Double getAverageProteins() {
+        return averageProteins;
+    }
+
+    public void setAverageProteins(Double averageProteins) {
+        this.averageProteins = averageProteins;
+    }
+
+    public Double getAverageCarbohydrates() {
+        return averageCarbohydrates;
+    }
+
+    public void setAverageCarbohydrates(Double averageCarbohydrates) {
+        this.averageCarbohydrates = averageCarbohydrates;
+    }
+
+    public Double getAverageFats() {
+        return averageFats;
+    }
+
+    public void setAverageFats(Double averageFats) {
+        this.averageFats = averageFats;
+    }
+}
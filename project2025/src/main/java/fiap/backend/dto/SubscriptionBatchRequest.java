@@ -0,0 +1,36 @@
+package fiap.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO para aprovação ou rejeição de assinaturas pendentes em lote
+ */
+public class SubscriptionBatchRequest {
+
+    public static final int MAX_SUBSCRIPTIONS = 1000;
+
+    @NotEmpty(message = "Subscription ids are required")
+    @Size(max = MAX_SUBSCRIPTIONS, message = "At most 1000 subscriptions per batch")
+    private List<UUID> subscriptionIds;
+
+    // Constructors
+    public SubscriptionBatchRequest() {
+    }
+
+    public SubscriptionBatchRequest(List<UUID> subscriptionIds) {
+        this.subscriptionIds = subscriptionIds;
+    }
+
+    // Getters and Setters
+    public List<UUID> getSubscriptionIds() {
+        return subscriptionIds;
+    }
+
+    public void setSubscriptionIds(List<UUID> subscriptionIds) {
+        this.subscriptionIds = subscriptionIds;
+    }
+}
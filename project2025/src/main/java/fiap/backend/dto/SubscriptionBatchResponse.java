@@ -0,0 +1,114 @@
+package fiap.backend.dto;
+
+import fiap.backend.domain.Subscription.SubscriptionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de resposta da aprovação ou rejeição em lote, com o resultado de cada ID
+ */
+public class SubscriptionBatchResponse {
+
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private List<Item> results;
+
+    // Constructors
+    public SubscriptionBatchResponse() {
+    }
+
+    public SubscriptionBatchResponse(List<Item> results) {
+        this.results = results;
+        this.requested = results.size();
+        this.succeeded = (int) results.stream().filter(Item::isSuccess).count();
+        this.failed = requested - succeeded;
+    }
+
+    // Getters and Setters
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Item> results) {
+        this.results = results;
+    }
+
+    /**
+     * Resultado de uma assinatura do lote
+     */
+    public static class Item {
+        private UUID subscriptionId;
+        private boolean success;
+        // Status após o lote; null se a assinatura não existe
+        private SubscriptionStatus status;
+        private String message;
+
+        public Item() {
+        }
+
+        public Item(UUID subscriptionId, boolean success, SubscriptionStatus status, String message) {
+            this.subscriptionId = subscriptionId;
+            this.success = success;
+            this.status = status;
+            this.message = message;
+        }
+
+        public UUID getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        public void setSubscriptionId(UUID subscriptionId) {
+            this.subscriptionId = subscriptionId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public SubscriptionStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(SubscriptionStatus status) {
+            this.status = status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package fiap.backend.repository;
+
+import java.util.UUID;
+
+/**
+ * Projeção da assinatura ativa (APPROVED) de um usuário: só os IDs da
+ * assinatura e do plano, sem carregar usuário nem plano.
+ */
+public interface ActiveSubscriptionSummary {
+
+    UUID getId();
+
+    UUID getPlanId();
+}
@@ -0,0 +1,53 @@
+package fiap.backend.repository;
+
+import fiap.backend.domain.CacheInvalidationEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository da outbox de invalidação de cache entre instâncias
+ */
+@Repository
+public interface CacheInvalidationEventRepository extends JpaRepository<CacheInvalidationEvent, Long> {
+
+    /**
+     * Eventos gravados após o instante informado, na ordem de gravação
+     *
+     * @param since instante (relógio do banco)
+     * @return eventos
+     */
+    List<CacheInvalidationEvent> findByCreatedAtAfterOrderByIdAsc(LocalDateTime since);
+
+    /**
+     * Todos os eventos ainda retidos, na ordem de gravação
+     *
+     * @return eventos
+     */
+    List<CacheInvalidationEvent> findAllByOrderByIdAsc();
+
+    /**
+     * Instante do evento mais recente
+     *
+     * @return created_at mais recente, ou null sem eventos
+     */
+    @Query("SELECT MAX(e.createdAt) FROM CacheInvalidationEvent e")
+    LocalDateTime findLatestCreatedAt();
+
+    /**
+     * Remove eventos já lidos por todas as instâncias
+     *
+     * @param before limite de retenção
+     * @return eventos removidos
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CacheInvalidationEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,120 @@
+package fiap.backend.repository;
+
+import fiap.backend.domain.DomainEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository da outbox de eventos de domínio (domain_events)
+ */
+@Repository
+public interface DomainEventRepository extends JpaRepository<DomainEvent, Long> {
+
+    /**
+     * IDs dos eventos que podem ser entregues agora: pendentes, não reivindicados
+     * (ou com reivindicação vencida) e sem evento pendente anterior do mesmo agregado
+     *
+     * @param now      instante atual
+     * @param pageable tamanho do lote
+     * @return IDs na ordem de gravação
+     */
+    @Query("SELECT e.id FROM DomainEvent e WHERE e.processedAt IS NULL " +
+            "AND (e.claimedUntil IS NULL OR e.claimedUntil < :now) " +
+            "AND NOT EXISTS (SELECT p.id FROM DomainEvent p WHERE p.aggregateType = e.aggregateType " +
+            "AND p.aggregateId = e.aggregateId AND p.processedAt IS NULL AND p.id < e.id) " +
+            "ORDER BY e.id")
+    List<Long> findDeliverableIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Reivindica os eventos para esta instância; outra instância que tente os
+     * mesmos IDs ao mesmo tempo não os obtém (a condição é reavaliada após o lock)
+     *
+     * @param ids          candidatos
+     * @param token        identificador da reivindicação
+     * @param claimedUntil fim do prazo para entregar
+     * @param now          instante atual
+     * @return eventos reivindicados
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DomainEvent e SET e.claimToken = :token, e.claimedUntil = :claimedUntil " +
+            "WHERE e.id IN :ids AND e.processedAt IS NULL AND (e.claimedUntil IS NULL OR e.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+            @Param("claimedUntil") LocalDateTime claimedUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * Eventos de uma reivindicação, na ordem de gravação
+     *
+     * @param claimToken identificador da reivindicação
+     * @return eventos
+     */
+    List<DomainEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    /**
+     * Marca como processados os eventos entregues
+     *
+     * @param ids         eventos entregues
+     * @param token       reivindicação que os entregou
+     * @param processedAt instante da entrega
+     * @return eventos marcados
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DomainEvent e SET e.processedAt = :processedAt, e.claimToken = NULL, e.claimedUntil = NULL " +
+            "WHERE e.id IN :ids AND e.claimToken = :token")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("token") String token,
+            @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Registra uma entrega com falha: libera o evento para nova tentativa após
+     * retryAt, ou o encerra (processedAt preenchido) quando não há mais tentativas
+     *
+     * @param id          evento
+     * @param token       reivindicação que tentou entregar
+     * @param error       mensagem de erro
+     * @param retryAt     próxima tentativa
+     * @param processedAt null para tentar de novo; instante de encerramento caso contrário
+     * @return eventos atualizados
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE DomainEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.claimToken = NULL, " +
+            "e.claimedUntil = :retryAt, e.processedAt = :processedAt WHERE e.id = :id AND e.claimToken = :token")
+    int markFailed(@Param("id") Long id, @Param("token") String token, @Param("error") String error,
+            @Param("retryAt") LocalDateTime retryAt, @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Quantidade de eventos pendentes
+     *
+     * @return eventos sem processed_at
+     */
+    long countByProcessedAtIsNull();
+
+    /**
+     * Instante de gravação do evento pendente mais antigo
+     *
+     * @return created_at mais antigo, ou null sem pendentes
+     */
+    @Query("SELECT MIN(e.createdAt) FROM DomainEvent e WHERE e.processedAt IS NULL")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    /**
+     * Remove eventos processados há mais tempo que a retenção
+     *
+     * @param before limite de retenção
+     * @return eventos removidos
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DomainEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
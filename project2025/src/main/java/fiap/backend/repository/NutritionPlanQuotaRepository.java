@@ -0,0 +1,55 @@
+package fiap.backend.repository;
+
+import fiap.backend.domain.NutritionPlanQuota;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+/**
+ * Repositório do contador de planos nutricionais por usuário
+ * (nutrition_plan_quotas). Os UPDATEs travam a linha do usuário até o commit.
+ */
+@Repository
+public interface NutritionPlanQuotaRepository extends JpaRepository<NutritionPlanQuota, UUID> {
+
+    /**
+     * Reserva vagas de planos somente se o total continuar dentro do limite
+     *
+     * @param userId ID do usuário
+     * @param amount quantidade de planos a criar
+     * @param limit  limite de planos do plano de assinatura
+     * @return 1 se reservou, 0 se o limite seria ultrapassado ou o contador não existe
+     */
+    @Modifying
+    @Query("UPDATE NutritionPlanQuota q SET q.planCount = q.planCount + :amount, q.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE q.userId = :userId AND q.planCount + :amount <= :limit")
+    int incrementWithinLimit(@Param("userId") UUID userId, @Param("amount") int amount, @Param("limit") int limit);
+
+    /**
+     * Reserva vagas de planos sem limite (plano de assinatura ilimitado)
+     *
+     * @param userId ID do usuário
+     * @param amount quantidade de planos a criar
+     * @return 1 se reservou, 0 se o contador não existe
+     */
+    @Modifying
+    @Query("UPDATE NutritionPlanQuota q SET q.planCount = q.planCount + :amount, q.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE q.userId = :userId")
+    int increment(@Param("userId") UUID userId, @Param("amount") int amount);
+
+    /**
+     * Libera vagas após remover planos
+     *
+     * @param userId ID do usuário
+     * @param amount quantidade de planos removidos
+     * @return linhas atualizadas
+     */
+    @Modifying
+    @Query("UPDATE NutritionPlanQuota q SET q.planCount = CASE WHEN q.planCount > :amount " +
+            "THEN q.planCount - :amount ELSE 0 END, q.updatedAt = CURRENT_TIMESTAMP WHERE q.userId = :userId")
+    int decrement(@Param("userId") UUID userId, @Param("amount") int amount);
+}
@@ -36,6 +36,18 @@ public interface NutritionPlanRepository extends JpaRepository<NutritionPlan, UU
      */
     Page<NutritionPlan> findByUserOrderByPlanDateDesc(User user, Pageable pageable);
 
+    /**
+     * Resumo dos planos de um usuário com paginação, sem ler as colunas de texto
+     */
+    @Query(value = "SELECT np.id AS id, np.planDate AS planDate, np.title AS title, " +
+            "np.totalCalories AS totalCalories, np.totalProteins AS totalProteins, " +
+            "np.totalCarbohydrates AS totalCarbohydrates, np.totalFats AS totalFats, " +
+            "np.waterIntakeMl AS waterIntakeMl, np.isCompleted AS isCompleted, " +
+            "np.completedAt AS completedAt, np.createdAt AS createdAt, np.updatedAt AS updatedAt " +
+            "FROM NutritionPlan np WHERE np.user = :user ORDER BY np.planDate DESC",
+            countQuery = "SELECT COUNT(np) FROM NutritionPlan np WHERE np.user = :user")
+    Page<NutritionPlanSummary> findSummariesByUser(@Param("user") User user, Pageable pageable);
+
     /**
      * Busca planos nutricionais de hoje para um usuário
      */
@@ -97,6 +109,15 @@ public interface NutritionPlanRepository extends JpaRepository<NutritionPlan, UU
      */
     boolean existsByUserAndPlanDate(User user, LocalDate planDate);
 
+    /**
+     * Datas que já têm plano para um usuário em um período (usa uk_nutrition_plan_user_date)
+     */
+    @Query("SELECT np.planDate FROM NutritionPlan np WHERE np.user = :user " +
+            "AND np.planDate >= :startDate AND np.planDate <= :endDate")
+    List<LocalDate> findPlanDatesByPeriod(@Param("user") User user,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     /**
      * Busca planos nutricionais com consumo de água registrado
      */
@@ -118,6 +139,23 @@ public interface NutritionPlanRepository extends JpaRepository<NutritionPlan, UU
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
+    /**
+     * Estatísticas dos planos de um usuário em um período numa única consulta
+     * (contagens, médias de calorias e macronutrientes e soma de água)
+     */
+    @Query("SELECT COUNT(np) AS totalPlans, " +
+            "SUM(CASE WHEN np.isCompleted = true THEN 1 ELSE 0 END) AS completedPlans, " +
+            "AVG(np.totalCalories) AS averageCalories, " +
+            "SUM(np.waterIntakeMl) AS totalWaterIntakeMl, " +
+            "AVG(np.totalProteins) AS averageProteins, " +
+            "AVG(np.totalCarbohydrates) AS averageCarbohydrates, " +
+            "AVG(np.totalFats) AS averageFats " +
+            "FROM NutritionPlan np WHERE np.user = :user " +
+            "AND np.planDate >= :startDate AND np.planDate <= :endDate")
+    NutritionPlanStatsSummary summarizeByPeriod(@Param("user") User user,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     // Métodos para dashboard administrativo
     @Query("SELECT COUNT(np) FROM NutritionPlan np WHERE np.isCompleted = :isCompleted")
     Long countByIsCompleted(@Param("isCompleted") Boolean isCompleted);
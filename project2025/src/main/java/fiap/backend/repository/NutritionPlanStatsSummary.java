@@ -0,0 +1,23 @@
+package fiap.backend.repository;
+
+/**
+ * Projeção com os agregados dos planos de um usuário em um período, calculados
+ * numa única consulta. Médias e soma são null quando não há planos (ou valores)
+ * no período.
+ */
+public interface NutritionPlanStatsSummary {
+
+    Long getTotalPlans();
+
+    Long getCompletedPlans();
+
+    Double getAverageCalories();
+
+    Long getTotalWaterIntakeMl();
+
+    Double getAverageProteins();
+
+    Double getAverageCarbohydrates();
+
+    Double getAverageFats();
+}
@@ -0,0 +1,36 @@
+package fiap.backend.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção de um plano nutricional sem as colunas de texto (descrição,
+ * refeições e observações), para listagens que mostram só o resumo do dia.
+ */
+public interface NutritionPlanSummary {
+
+    UUID getId();
+
+    LocalDate getPlanDate();
+
+    String getTitle();
+
+    Integer getTotalCalories();
+
+    Double getTotalProteins();
+
+    Double getTotalCarbohydrates();
+
+    Double getTotalFats();
+
+    Integer getWaterIntakeMl();
+
+    Boolean getIsCompleted();
+
+    LocalDateTime getCompletedAt();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
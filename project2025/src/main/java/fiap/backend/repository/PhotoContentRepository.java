@@ -0,0 +1,37 @@
+package fiap.backend.repository;
+
+import fiap.backend.domain.PhotoContent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repositório dos conteúdos de foto deduplicados (photo_contents).
+ */
+@Repository
+public interface PhotoContentRepository extends JpaRepository<PhotoContent, String> {
+
+    /**
+     * Busca o conteúdo travando a linha (SELECT ... FOR UPDATE), o que bloqueia
+     * a trigger de contagem de um upload concorrente do mesmo hash até o commit
+     *
+     * @param contentHash hash do conteúdo
+     * @return Optional com o conteúdo
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT pc FROM PhotoContent pc WHERE pc.contentHash = :contentHash")
+    Optional<PhotoContent> findByContentHashForUpdate(@Param("contentHash") String contentHash);
+
+    /**
+     * Espaço físico ocupado no storage: cada conteúdo contado uma única vez
+     *
+     * @return tamanho total em bytes
+     */
+    @Query("SELECT COALESCE(SUM(pc.fileSize), 0) FROM PhotoContent pc")
+    long getPhysicalStorageUsed();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -85,6 +86,16 @@ public interface ServiceProviderRepository extends JpaRepository<ServiceProvider
      */
     boolean existsByNameIgnoreCase(String name);
 
+    /**
+     * Quais dos nomes (em minúsculas) já estão cadastrados, em uma única consulta
+     * (usa o índice idx_svc_providers_name_lower, sobre LOWER(name), da V4)
+     * 
+     * @param names nomes em minúsculas (até 1000, limite do IN no Oracle)
+     * @return nomes existentes, em minúsculas
+     */
+    @Query("SELECT LOWER(sp.name) FROM ServiceProvider sp WHERE LOWER(sp.name) IN :names")
+    List<String> findExistingLowerNames(@Param("names") Collection<String> names);
+
     /**
      * Verifica se existe outro fornecedor com o mesmo nome (excluindo o ID atual)
      * 
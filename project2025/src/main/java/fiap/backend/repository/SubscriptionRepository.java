@@ -2,7 +2,10 @@ package fiap.backend.repository;
 
 import fiap.backend.domain.Subscription;
 import fiap.backend.domain.Subscription.SubscriptionStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +31,10 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
     @Query("SELECT s FROM Subscription s WHERE s.user.id = :userId AND s.status = 'APPROVED'")
     List<Subscription> findActiveSubscriptionsByUserId(@Param("userId") UUID userId);
 
+    // Uma linha no máximo: índice único ux_subscriptions_active_user (V18)
+    @Query("SELECT s.id AS id, s.plan.id AS planId FROM Subscription s WHERE s.user.id = :userId AND s.status = 'APPROVED'")
+    Optional<ActiveSubscriptionSummary> findActiveSubscriptionSummary(@Param("userId") UUID userId);
+
     @Query("SELECT s FROM Subscription s WHERE s.status = 'PENDING' ORDER BY s.createdAt ASC")
     List<Subscription> findPendingSubscriptions();
 
@@ -36,6 +44,39 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, UUID
     @Query("SELECT s FROM Subscription s JOIN FETCH s.user JOIN FETCH s.plan WHERE s.id = :id")
     Optional<Subscription> findByIdWithUserAndPlan(@Param("id") UUID id);
 
+    // Cancela as demais assinaturas ativas do usuário num único UPDATE, antes da aprovação
+    @Modifying
+    @Query("UPDATE Subscription s SET s.status = :cancelled, s.updatedAt = :now, s.version = s.version + 1 " +
+            "WHERE s.user.id = :userId AND s.status = :approved AND s.id <> :approvingId")
+    int cancelOtherActiveSubscriptions(@Param("userId") UUID userId,
+            @Param("approvingId") UUID approvingId,
+            @Param("approved") SubscriptionStatus approved,
+            @Param("cancelled") SubscriptionStatus cancelled,
+            @Param("now") LocalDateTime now);
+
+    // Aprovação/rejeição em lote: trava as assinaturas (SELECT ... FOR UPDATE) em ordem de ID
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Subscription s WHERE s.id IN :ids ORDER BY s.id")
+    List<Subscription> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Subscription s SET s.status = :cancelled, s.updatedAt = :now, s.version = s.version + 1 " +
+            "WHERE s.user.id IN :userIds AND s.status = :approved")
+    int cancelActiveSubscriptionsByUserIds(@Param("userIds") Collection<UUID> userIds,
+            @Param("approved") SubscriptionStatus approved,
+            @Param("cancelled") SubscriptionStatus cancelled,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Subscription s SET s.status = :status, s.approvedByUserId = :adminUserId, " +
+            "s.approvedDate = :now, s.updatedAt = :now, s.version = s.version + 1 " +
+            "WHERE s.id IN :ids AND s.status = :pending")
+    int reviewPendingSubscriptions(@Param("ids") Collection<UUID> ids,
+            @Param("pending") SubscriptionStatus pending,
+            @Param("status") SubscriptionStatus status,
+            @Param("adminUserId") UUID adminUserId,
+            @Param("now") LocalDateTime now);
+
     @Query("SELECT s FROM Subscription s JOIN FETCH s.user JOIN FETCH s.plan ORDER BY s.createdAt DESC")
     List<Subscription> findAllWithUserAndPlan();
 
@@ -3,10 +3,12 @@ package fiap.backend.repository;
 import fiap.backend.domain.UserPhoto;
 import fiap.backend.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -64,18 +66,78 @@ public interface UserPhotoRepository extends JpaRepository<UserPhoto, UUID> {
      * 
      * @param userId UUID do usuário
      */
+    @Modifying
     @Query("DELETE FROM UserPhoto up WHERE up.user.id = :userId")
     void deleteByUserId(@Param("userId") UUID userId);
 
     /**
-     * Busca apenas os metadados da foto (sem os dados binários) para otimização
+     * Busca apenas os metadados da foto do usuário (sem o conteúdo binário)
      * 
      * @param userId UUID do usuário
-     * @return Optional com metadados da foto
+     * @return Optional com os metadados da foto
      */
-    @Query("SELECT new fiap.backend.domain.UserPhoto(up.user, null, up.fileName, up.contentType) " +
+    @Query("SELECT up.id AS id, up.fileName AS fileName, up.contentType AS contentType, " +
+            "up.fileSize AS fileSize, up.contentHash AS contentHash, " +
+            "up.createdAt AS createdAt, up.updatedAt AS updatedAt " +
             "FROM UserPhoto up WHERE up.user.id = :userId")
-    Optional<UserPhoto> findMetadataByUserId(@Param("userId") UUID userId);
+    Optional<UserPhotoSummary> findSummaryByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Lê o BLOB legado de uma foto ainda não migrada para o PhotoStorage
+     * 
+     * @param photoId UUID da foto
+     * @return Optional com os dados binários
+     */
+    @Query("SELECT up.photoData FROM UserPhoto up WHERE up.id = :photoId")
+    Optional<byte[]> findPhotoDataById(@Param("photoId") UUID photoId);
+
+    /**
+     * Grava o hash de uma foto cujo BLOB legado foi copiado para o PhotoStorage e
+     * limpa o BLOB (content_hash IS NULL protege contra upload ou migração concorrente)
+     * 
+     * @param photoId     UUID da foto
+     * @param contentHash hash do conteúdo gravado no storage
+     * @return linhas atualizadas (0 se a foto mudou ou não existe mais)
+     */
+    @Modifying
+    @Query("UPDATE UserPhoto up SET up.contentHash = :contentHash, up.photoData = NULL " +
+            "WHERE up.id = :photoId AND up.contentHash IS NULL")
+    int moveToStorage(@Param("photoId") UUID photoId, @Param("contentHash") String contentHash);
+
+    /**
+     * Busca o hash do conteúdo pelo ID da foto, sem carregar os dados binários
+     * 
+     * @param photoId UUID da foto
+     * @return Optional com o hash (vazio se não houver foto ou se ainda estiver no BLOB)
+     */
+    @Query("SELECT up.contentHash FROM UserPhoto up WHERE up.id = :photoId")
+    Optional<String> findContentHashById(@Param("photoId") UUID photoId);
+
+    /**
+     * Verifica se alguma foto ainda referencia o conteúdo
+     * 
+     * @param contentHash hash do conteúdo
+     * @return true se o conteúdo ainda está em uso
+     */
+    boolean existsByContentHash(String contentHash);
+
+    /**
+     * IDs das fotos de um usuário
+     * 
+     * @param userId UUID do usuário
+     * @return IDs das fotos
+     */
+    @Query("SELECT up.id FROM UserPhoto up WHERE up.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Hashes dos conteúdos referenciados pelas fotos de um usuário
+     * 
+     * @param userId UUID do usuário
+     * @return hashes distintos (fotos ainda no BLOB ficam de fora)
+     */
+    @Query("SELECT DISTINCT up.contentHash FROM UserPhoto up WHERE up.user.id = :userId AND up.contentHash IS NOT NULL")
+    List<String> findContentHashesByUserId(@Param("userId") UUID userId);
 
     /**
      * Conta o número total de fotos armazenadas no sistema
@@ -93,6 +155,14 @@ public interface UserPhotoRepository extends JpaRepository<UserPhoto, UUID> {
     @Query("SELECT COALESCE(SUM(up.fileSize), 0) FROM UserPhoto up")
     long getTotalStorageUsed();
 
+    /**
+     * Calcula o tamanho ocupado pelas fotos ainda no BLOB (fora da deduplicação)
+     * 
+     * @return tamanho em bytes
+     */
+    @Query("SELECT COALESCE(SUM(up.fileSize), 0) FROM UserPhoto up WHERE up.contentHash IS NULL")
+    long getLegacyStorageUsed();
+
     // Métodos para dashboard administrativo
     @Query("SELECT COUNT(up) FROM UserPhoto up WHERE up.createdAt >= :start AND up.createdAt <= :end")
     Long countByPeriod(@Param("start") java.time.LocalDateTime start, @Param("end") java.time.LocalDateTime end);
@@ -0,0 +1,25 @@
+package fiap.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projeção com os metadados da foto de perfil, sem o conteúdo binário.
+ * Usada onde basta saber se a foto existe, sua URL, tamanho, tipo ou hash.
+ */
+public interface UserPhotoSummary {
+
+    UUID getId();
+
+    String getFileName();
+
+    String getContentType();
+
+    Long getFileSize();
+
+    String getContentHash();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,112 @@
+package fiap.backend.service;
+
+import fiap.backend.repository.SubscriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache em memória da assinatura ativa de cada usuário (IDs da assinatura e do
+ * plano), usado no login e na checagem do limite de planos nutricionais. A
+ * ausência de assinatura ativa também é guardada. LRU limitado pela quantidade
+ * de usuários; o SubscriptionServiceImpl invalida o usuário a cada mudança de
+ * status da assinatura.
+ */
+@Component
+public class ActiveSubscriptionCache {
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final int maxEntries;
+
+    // accessOrder = true: remove o usuário menos recentemente consultado
+    private final LinkedHashMap<UUID, Optional<ActiveSubscription>> entries;
+    // Incrementado a cada invalidação: uma leitura do banco iniciada antes dela não é guardada
+    private long invalidations;
+
+    public ActiveSubscriptionCache(SubscriptionRepository subscriptionRepository,
+            @Value("${app.active-subscription-cache.max-entries:10000}") int maxEntries) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.maxEntries = Math.max(maxEntries, 1);
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Optional<ActiveSubscription>> eldest) {
+                return size() > ActiveSubscriptionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Assinatura ativa do usuário, do cache ou do banco (uma linha pelo índice
+     * único de assinatura ativa por usuário)
+     *
+     * @param userId ID do usuário
+     * @return assinatura ativa, ou vazio se o usuário não tiver
+     */
+    public Optional<ActiveSubscription> get(UUID userId) {
+        long generation;
+        synchronized (this) {
+            Optional<ActiveSubscription> cached = entries.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            generation = invalidations;
+        }
+
+        Optional<ActiveSubscription> loaded = subscriptionRepository.findActiveSubscriptionSummary(userId)
+                .map(summary -> new ActiveSubscription(summary.getId(), summary.getPlanId()));
+
+        synchronized (this) {
+            if (generation == invalidations) {
+                entries.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Remove o usuário do cache
+     *
+     * @param userId ID do usuário
+     */
+    public synchronized void invalidate(UUID userId) {
+        entries.remove(userId);
+        invalidations++;
+    }
+
+    /**
+     * Remove todos os usuários do cache
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        invalidations++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Assinatura ativa em cache
+     */
+    public static class ActiveSubscription {
+        private final UUID subscriptionId;
+        private final UUID planId;
+
+        public ActiveSubscription(UUID subscriptionId, UUID planId) {
+            this.subscriptionId = subscriptionId;
+            this.planId = planId;
+        }
+
+        public UUID getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        public UUID getPlanId() {
+            return planId;
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class AdminDashboardService {
     private SubscriptionRepository subscriptionRepository;
 
     @Autowired
-    private SubscriptionPlanRepository subscriptionPlanRepository;
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
 
     @Autowired
     private NutritionPlanRepository nutritionPlanRepository;
@@ -230,8 +230,8 @@ public class AdminDashboardService {
      * Gera métricas por plano de assinatura
      */
     private void generateSubscriptionPlanMetrics(AdminDashboardDTO dashboard) {
-        // Buscar todos os planos de assinatura ativos
-        var subscriptionPlans = subscriptionPlanRepository.findByIsActive(true);
+        // Planos de assinatura ativos (catálogo em memória)
+        var subscriptionPlans = subscriptionPlanCatalog.getActivePlans();
 
         for (var plan : subscriptionPlans) {
             AdminDashboardDTO.SubscriptionPlanMetricsDTO planMetrics = new AdminDashboardDTO.SubscriptionPlanMetricsDTO(
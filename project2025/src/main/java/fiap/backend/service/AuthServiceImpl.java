@@ -5,21 +5,27 @@ import fiap.backend.dto.UserRegisterRequest;
 import fiap.backend.dto.UserLoginRequest;
 import fiap.backend.dto.AuthResponse;
 import fiap.backend.dto.UserUpdateRequest;
-import fiap.backend.dto.SubscriptionResponse;
+import fiap.backend.dto.SubscriptionPlanResponse;
+import fiap.backend.repository.UserPhotoRepository;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import javax.crypto.spec.SecretKeySpec;
 import java.security.Key;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Serviço de autenticação e gerenciamento de usuários.
@@ -28,15 +34,29 @@ import java.util.Optional;
  */
 @Service
 public class AuthServiceImpl {
+    private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final SubscriptionService subscriptionService;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final SubscriptionPlanCatalog subscriptionPlanCatalog;
+    private final UserPhotoRepository userPhotoRepository;
+    private final PhotoContentService photoContentService;
+    private final PhotoCache photoCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
-            SubscriptionService subscriptionService) {
+            ActiveSubscriptionCache activeSubscriptionCache, SubscriptionPlanCatalog subscriptionPlanCatalog,
+            UserPhotoRepository userPhotoRepository, PhotoContentService photoContentService,
+            PhotoCache photoCache, CacheInvalidationBus cacheInvalidationBus) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.subscriptionService = subscriptionService;
+        this.activeSubscriptionCache = activeSubscriptionCache;
+        this.subscriptionPlanCatalog = subscriptionPlanCatalog;
+        this.userPhotoRepository = userPhotoRepository;
+        this.photoContentService = photoContentService;
+        this.photoCache = photoCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     /**
@@ -118,12 +138,35 @@ public class AuthServiceImpl {
     }
 
     /**
-     * Remove um usuário do sistema
+     * Remove um usuário do sistema. As fotos saem pelo ON DELETE CASCADE e a
+     * trigger de user_photos baixa o ref_count dos conteúdos; após o commit, os
+     * conteúdos que ficaram sem referência são removidos do storage. As fotos
+     * saem do PhotoCache desta e das demais instâncias.
      * 
      * @param id ID do usuário a ser removido
      */
+    @Transactional
     public void deleteUser(java.util.UUID id) {
+        List<UUID> photoIds = userPhotoRepository.findIdsByUserId(id);
+        List<String> contentHashes = userPhotoRepository.findContentHashesByUserId(id);
         userRepository.deleteById(id);
+
+        // Agora e de novo após o commit: até lá uma leitura concorrente pode recolocar a foto no cache
+        for (UUID photoId : photoIds) {
+            photoCache.invalidate(photoId);
+            TransactionCallbacks.afterCommit(() -> photoCache.invalidate(photoId));
+            cacheInvalidationBus.publish(CacheInvalidationBus.PHOTO, photoId.toString());
+        }
+
+        for (String contentHash : contentHashes) {
+            TransactionCallbacks.afterCommit(() -> {
+                try {
+                    photoContentService.purgeIfUnreferenced(contentHash);
+                } catch (RuntimeException e) {
+                    logger.warn("Falha ao liberar conteúdo {} do storage: {}", contentHash, e.getMessage());
+                }
+            });
+        }
     }
 
     /**
@@ -143,18 +186,17 @@ public class AuthServiceImpl {
             throw new RuntimeException("Usuário ou senha inválidos");
         }
 
-        // Buscar plano ativo do usuário para incluir no token
-        List<SubscriptionResponse> userSubscriptions = subscriptionService.getSubscriptionsByUserId(user.getId());
+        // Plano ativo do usuário para incluir no token (apenas uma assinatura aprovada é permitida)
         String activePlanName = null;
         String activePlanId = null;
-
-        // Procurar por assinatura aprovada (ativa) - apenas uma é permitida
-        for (SubscriptionResponse subscription : userSubscriptions) {
-            if ("APPROVED".equals(subscription.getStatus().toString())) {
-                activePlanName = subscription.getPlanName();
-                activePlanId = subscription.getPlanId().toString();
-                break; // Como só pode ter 1 plano ativo, pode parar na primeira
-            }
+        Optional<ActiveSubscriptionCache.ActiveSubscription> activeSubscription = activeSubscriptionCache
+                .get(user.getId());
+        if (activeSubscription.isPresent()) {
+            UUID planId = activeSubscription.get().getPlanId();
+            activePlanId = planId.toString();
+            activePlanName = subscriptionPlanCatalog.findPlan(planId)
+                    .map(SubscriptionPlanResponse::getName)
+                    .orElse(null);
         }
 
         // Use uma chave de 256 bits (32+ bytes) para HS256 - substitua por variável de
@@ -0,0 +1,140 @@
+package fiap.backend.service;
+
+import fiap.backend.dto.AuditoriaPlanoPaginaResponse;
+import fiap.backend.dto.AuditoriaPlanoResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Serviço de consulta da auditoria de planos nutricionais, gravada pela
+ * trigger trg_audit_nutrition_plans.
+ * nutrition_plans_audit é tratada como fluxo append-only ordenado por
+ * (changed_at, audit_id); a leitura usa paginação por cursor (keyset).
+ */
+@Service
+@Transactional
+public class NutritionPlanAuditService {
+
+    private static final int LIMITE_PADRAO = 50;
+    private static final int LIMITE_MAXIMO = 500;
+
+    private static final RowMapper<AuditoriaPlanoResponse> AUDITORIA_MAPPER = (rs, rowNum) -> {
+        Timestamp changedAt = rs.getTimestamp("changed_at");
+        return new AuditoriaPlanoResponse(
+                rs.getLong("audit_id"),
+                rs.getString("plan_id"),
+                rs.getString("user_id"),
+                rs.getString("action"),
+                changedAt != null ? changedAt.toLocalDateTime() : null,
+                rs.getObject("old_calorias") != null ? rs.getInt("old_calorias") : null,
+                rs.getObject("new_calorias") != null ? rs.getInt("new_calorias") : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NutritionPlanAuditService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lista registros de auditoria do mais recente para o mais antigo
+     *
+     * @param userId Filtro opcional por usuário
+     * @param planId Filtro opcional por plano
+     * @param cursor Cursor retornado pela página anterior (null na primeira página)
+     * @param limite Quantidade de registros por página (padrão: 50, máximo: 500)
+     * @return Página de registros e cursor da próxima página
+     */
+    @Transactional(readOnly = true)
+    public AuditoriaPlanoPaginaResponse listarAuditoria(String userId, String planId, String cursor, Integer limite) {
+        int tamanho = limite == null ? LIMITE_PADRAO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT audit_id, plan_id, user_id, action, changed_at, old_calorias, new_calorias
+                FROM nutrition_plans_audit
+                WHERE 1 = 1
+                """);
+        List<Object> params = new ArrayList<>();
+
+        if (userId != null && !userId.isBlank()) {
+            sql.append(" AND user_id = ?");
+            params.add(userId);
+        }
+        if (planId != null && !planId.isBlank()) {
+            sql.append(" AND plan_id = ?");
+            params.add(planId);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor posicao = Cursor.decodificar(cursor);
+            Timestamp changedAt = Timestamp.valueOf(posicao.getChangedAt());
+            // changed_at <= ? delimita o range scan no índice; o OR desempata pelo audit_id
+            sql.append(" AND changed_at <= ? AND (changed_at < ? OR audit_id < ?)");
+            params.add(changedAt);
+            params.add(changedAt);
+            params.add(posicao.getAuditId());
+        }
+        sql.append(" ORDER BY changed_at DESC, audit_id DESC FETCH FIRST ? ROWS ONLY");
+        params.add(tamanho + 1);
+
+        List<AuditoriaPlanoResponse> registros = jdbcTemplate.query(sql.toString(), AUDITORIA_MAPPER, params.toArray());
+
+        boolean temMais = registros.size() > tamanho;
+        if (temMais) {
+            registros = new ArrayList<>(registros.subList(0, tamanho));
+        }
+
+        String proximoCursor = null;
+        if (temMais) {
+            AuditoriaPlanoResponse ultimo = registros.get(registros.size() - 1);
+            proximoCursor = new Cursor(ultimo.getChangedAt(), ultimo.getAuditId()).codificar();
+        }
+
+        return new AuditoriaPlanoPaginaResponse(registros, proximoCursor, temMais);
+    }
+
+    /**
+     * Posição (changed_at, audit_id) do último registro entregue, codificada em Base64 URL-safe
+     */
+    static class Cursor {
+        private final LocalDateTime changedAt;
+        private final long auditId;
+
+        Cursor(LocalDateTime changedAt, long auditId) {
+            this.changedAt = changedAt;
+            this.auditId = auditId;
+        }
+
+        LocalDateTime getChangedAt() {
+            return changedAt;
+        }
+
+        long getAuditId() {
+            return auditId;
+        }
+
+        String codificar() {
+            String valor = changedAt + "|" + auditId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decodificar(String cursor) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separador = valor.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(valor.substring(0, separador)),
+                        Long.parseLong(valor.substring(separador + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+        }
+    }
+}
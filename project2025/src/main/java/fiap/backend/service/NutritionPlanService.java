@@ -1,22 +1,31 @@
 package fiap.backend.service;
 
 import fiap.backend.domain.NutritionPlan;
-import fiap.backend.domain.Subscription;
+import fiap.backend.domain.NutritionPlanQuota;
 import fiap.backend.domain.User;
 import fiap.backend.dto.*;
+import fiap.backend.repository.NutritionPlanQuotaRepository;
 import fiap.backend.repository.NutritionPlanRepository;
-import fiap.backend.repository.SubscriptionRepository;
+import fiap.backend.repository.NutritionPlanStatsSummary;
+import fiap.backend.repository.NutritionPlanSummary;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.outbox.DomainEventOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,14 +37,28 @@ import java.util.stream.Collectors;
 @Transactional
 public class NutritionPlanService {
 
+    private static final int TAMANHO_LOTE_ESCRITA = 50;
+
     @Autowired
     private NutritionPlanRepository nutritionPlanRepository;
 
+    @Autowired
+    private NutritionPlanQuotaRepository nutritionPlanQuotaRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private SubscriptionRepository subscriptionRepository;
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
+
+    @Autowired
+    private ActiveSubscriptionCache activeSubscriptionCache;
+
+    @Autowired
+    private DomainEventOutbox domainEventOutbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     /**
      * Cria um novo plano nutricional para o usuário
@@ -44,22 +67,86 @@ public class NutritionPlanService {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
-        // Verifica se o usuário pode criar mais planos nutricionais
-        validateNutritionPlanLimits(user);
+        // Limite do plano de assinatura do usuário
+        Integer nutritionPlanLimit = getNutritionPlanLimit(user);
 
         // Verifica se já existe um plano para a data especificada
         if (nutritionPlanRepository.existsByUserAndPlanDate(user, createDTO.getPlanDate())) {
             throw new RuntimeException("Já existe um plano nutricional para esta data");
         }
 
+        // Reserva a vaga no contador do usuário, na mesma transação do INSERT
+        reserveNutritionPlans(user, 1, nutritionPlanLimit);
+
         NutritionPlan nutritionPlan = new NutritionPlan(user, createDTO.getPlanDate(), createDTO.getTitle());
         updateNutritionPlanFromDTO(nutritionPlan, createDTO);
 
         nutritionPlan = nutritionPlanRepository.save(nutritionPlan);
+        publishNutritionPlanEvent(nutritionPlan, DomainEventOutbox.CREATED);
 
         return convertToResponseDTO(nutritionPlan);
     }
 
+    /**
+     * Cria vários planos nutricionais (uma semana ou um mês) numa única transação.
+     * As datas já ocupadas são buscadas numa única consulta, o limite da assinatura
+     * é reservado uma vez para todos os dias novos e os planos são gravados com
+     * JDBC batch. Datas já ocupadas ou repetidas no lote não interrompem os demais
+     * dias; o limite atingido rejeita o lote inteiro.
+     */
+    public BulkNutritionPlanResponseDTO createNutritionPlans(String userEmail, BulkCreateNutritionPlanDTO bulkDTO) {
+        List<CreateNutritionPlanDTO> createDTOs = bulkDTO.getPlans();
+        if (createDTOs == null || createDTOs.isEmpty() || createDTOs.size() > BulkCreateNutritionPlanDTO.MAX_PLANS) {
+            throw new RuntimeException("O lote deve conter entre 1 e " + BulkCreateNutritionPlanDTO.MAX_PLANS
+                    + " planos");
+        }
+
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        Integer nutritionPlanLimit = getNutritionPlanLimit(user);
+
+        // Uma única consulta para todo o período do lote
+        LocalDate startDate = createDTOs.stream().map(CreateNutritionPlanDTO::getPlanDate)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate endDate = createDTOs.stream().map(CreateNutritionPlanDTO::getPlanDate)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        Set<LocalDate> existingDates = new HashSet<>(
+                nutritionPlanRepository.findPlanDatesByPeriod(user, startDate, endDate));
+
+        List<BulkNutritionPlanResponseDTO.DayResult> results = new ArrayList<>(createDTOs.size());
+        List<NutritionPlan> newPlans = new ArrayList<>(createDTOs.size());
+        Set<LocalDate> batchDates = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (CreateNutritionPlanDTO createDTO : createDTOs) {
+            LocalDate planDate = createDTO.getPlanDate();
+            if (existingDates.contains(planDate)) {
+                results.add(new BulkNutritionPlanResponseDTO.DayResult(planDate, false, null,
+                        "Já existe um plano nutricional para esta data"));
+            } else if (!batchDates.add(planDate)) {
+                results.add(new BulkNutritionPlanResponseDTO.DayResult(planDate, false, null,
+                        "Data repetida no lote"));
+            } else {
+                NutritionPlan nutritionPlan = new NutritionPlan(user, planDate, createDTO.getTitle());
+                updateNutritionPlanFromDTO(nutritionPlan, createDTO);
+                // ID e datas gerados aqui, pois o INSERT em lote não passa pelo Hibernate
+                nutritionPlan.setId(UUID.randomUUID());
+                nutritionPlan.setCreatedAt(now);
+                nutritionPlan.setUpdatedAt(now);
+                newPlans.add(nutritionPlan);
+                results.add(new BulkNutritionPlanResponseDTO.DayResult(planDate, true, nutritionPlan.getId(), null));
+            }
+        }
+
+        if (!newPlans.isEmpty()) {
+            reserveNutritionPlans(user, newPlans.size(), nutritionPlanLimit);
+            insertNutritionPlans(newPlans);
+            newPlans.forEach(plan -> publishNutritionPlanEvent(plan, DomainEventOutbox.CREATED));
+        }
+
+        return new BulkNutritionPlanResponseDTO(results);
+    }
+
     /**
      * Busca plano nutricional por ID
      */
@@ -133,15 +220,76 @@ public class NutritionPlanService {
      */
     @Transactional(readOnly = true)
     public Page<NutritionPlanResponseDTO> getUserNutritionPlans(String userEmail, int page, int size) {
+        return getUserNutritionPlans(userEmail, page, size, false);
+    }
+
+    /**
+     * Lista planos nutricionais do usuário com paginação. Com summaryOnly, lê
+     * só as colunas de resumo e devolve os planos sem descrição, refeições e
+     * observações.
+     */
+    @Transactional(readOnly = true)
+    public Page<NutritionPlanResponseDTO> getUserNutritionPlans(String userEmail, int page, int size,
+            boolean summaryOnly) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
+        if (summaryOnly) {
+            // Ordenação por plan_date DESC já está na consulta
+            Page<NutritionPlanSummary> summaries = nutritionPlanRepository.findSummariesByUser(user,
+                    PageRequest.of(page, size));
+            return summaries.map(this::convertToResponseDTO);
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "planDate"));
         Page<NutritionPlan> plans = nutritionPlanRepository.findByUserOrderByPlanDateDesc(user, pageable);
 
         return plans.map(this::convertToResponseDTO);
     }
 
+    /**
+     * Estatísticas dos planos do mês, trimestre ou ano que contém a data de
+     * referência, calculadas pelo banco numa única consulta agregada
+     */
+    @Transactional(readOnly = true)
+    public NutritionPlanStatsDTO getNutritionPlanStats(String userEmail, NutritionPlanStatsDTO.Period period,
+            LocalDate referenceDate) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+
+        LocalDate startDate = switch (period) {
+            case MONTH -> referenceDate.withDayOfMonth(1);
+            case QUARTER -> LocalDate.of(referenceDate.getYear(),
+                    (referenceDate.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            case YEAR -> referenceDate.withDayOfYear(1);
+        };
+        LocalDate endDate = switch (period) {
+            case MONTH -> startDate.plusMonths(1).minusDays(1);
+            case QUARTER -> startDate.plusMonths(3).minusDays(1);
+            case YEAR -> startDate.plusYears(1).minusDays(1);
+        };
+
+        NutritionPlanStatsSummary summary = nutritionPlanRepository.summarizeByPeriod(user, startDate, endDate);
+
+        NutritionPlanStatsDTO stats = new NutritionPlanStatsDTO(period, startDate, endDate);
+        int totalPlans = summary.getTotalPlans() != null ? summary.getTotalPlans().intValue() : 0;
+        int completedPlans = summary.getCompletedPlans() != null ? summary.getCompletedPlans().intValue() : 0;
+        stats.setTotalPlans(totalPlans);
+        stats.setCompletedPlans(completedPlans);
+        stats.setPendingPlans(totalPlans - completedPlans);
+        stats.setCompletionRate(totalPlans > 0 ? (double) completedPlans / totalPlans * 100 : 0.0);
+        stats.setAverageCalories(summary.getAverageCalories() != null ? summary.getAverageCalories() : 0.0);
+        stats.setTotalWaterIntake(summary.getTotalWaterIntakeMl() != null
+                ? summary.getTotalWaterIntakeMl() / 1000.0 // Converte para litros
+                : 0.0);
+        stats.setAverageProteins(summary.getAverageProteins() != null ? summary.getAverageProteins() : 0.0);
+        stats.setAverageCarbohydrates(
+                summary.getAverageCarbohydrates() != null ? summary.getAverageCarbohydrates() : 0.0);
+        stats.setAverageFats(summary.getAverageFats() != null ? summary.getAverageFats() : 0.0);
+
+        return stats;
+    }
+
     /**
      * Atualiza um plano nutricional
      */
@@ -187,6 +335,10 @@ public class NutritionPlanService {
         }
 
         nutritionPlan = nutritionPlanRepository.save(nutritionPlan);
+        publishNutritionPlanEvent(nutritionPlan,
+                Boolean.TRUE.equals(nutritionPlan.getIsCompleted())
+                        ? DomainEventOutbox.COMPLETED
+                        : DomainEventOutbox.REOPENED);
         return convertToResponseDTO(nutritionPlan);
     }
 
@@ -206,6 +358,8 @@ public class NutritionPlanService {
         }
 
         nutritionPlanRepository.delete(nutritionPlan);
+        nutritionPlanQuotaRepository.decrement(user.getId(), 1);
+        publishNutritionPlanEvent(nutritionPlan, DomainEventOutbox.DELETED);
     }
 
     /**
@@ -239,36 +393,122 @@ public class NutritionPlanService {
     }
 
     /**
-     * Verifica se o usuário pode criar mais planos nutricionais baseado no seu
-     * plano de assinatura
+     * Limite de planos nutricionais da assinatura ativa do usuário. Assinatura
+     * ativa e limite vêm dos caches em memória (ActiveSubscriptionCache e
+     * SubscriptionPlanCatalog).
+     *
+     * @return limite, ou null se ilimitado
      */
-    private void validateNutritionPlanLimits(User user) {
-        List<Subscription> activeSubscriptions = subscriptionRepository.findActiveSubscriptionsByUserId(user.getId());
+    private Integer getNutritionPlanLimit(User user) {
+        Optional<ActiveSubscriptionCache.ActiveSubscription> activeSubscription = activeSubscriptionCache
+                .get(user.getId());
 
-        if (activeSubscriptions.isEmpty()) {
+        if (activeSubscription.isEmpty()) {
             throw new RuntimeException("Usuário não possui assinatura ativa");
         }
 
-        // Pega a primeira assinatura ativa (assumindo que só existe uma por vez)
-        Subscription subscription = activeSubscriptions.get(0);
-        Integer nutritionPlanLimit = subscription.getPlan().getNutritionPlansLimit();
+        return subscriptionPlanCatalog.getNutritionPlansLimit(activeSubscription.get().getPlanId());
+    }
 
+    /**
+     * Reserva vagas no contador de planos do usuário com um UPDATE condicional:
+     * falha sem contar os planos quando o limite seria ultrapassado, e o lock da
+     * linha impede que criações concorrentes passem juntas do limite
+     */
+    private void reserveNutritionPlans(User user, int amount, Integer nutritionPlanLimit) {
         // Se o limite é null, significa que é ilimitado
-        if (nutritionPlanLimit == null) {
+        int updated = nutritionPlanLimit == null
+                ? nutritionPlanQuotaRepository.increment(user.getId(), amount)
+                : nutritionPlanQuotaRepository.incrementWithinLimit(user.getId(), amount, nutritionPlanLimit);
+        if (updated > 0) {
             return;
         }
 
-        // Conta quantos planos o usuário já possui
-        long currentPlanCount = nutritionPlanRepository.countByUser(user);
+        long currentPlanCount;
+        Optional<NutritionPlanQuota> quota = nutritionPlanQuotaRepository.findById(user.getId());
+        if (quota.isPresent()) {
+            currentPlanCount = quota.get().getPlanCount();
+        } else {
+            // Usuário sem contador (banco sem a trigger da V19): cria a partir da contagem atual
+            currentPlanCount = nutritionPlanRepository.countByUser(user);
+            if (nutritionPlanLimit == null || currentPlanCount + amount <= nutritionPlanLimit) {
+                if (insertNutritionPlanQuota(user.getId(), (int) currentPlanCount + amount)) {
+                    return;
+                }
+                // Uma criação concorrente gravou o contador primeiro: reserva pelo UPDATE condicional
+                reserveNutritionPlans(user, amount, nutritionPlanLimit);
+                return;
+            }
+        }
+
+        throw new RuntimeException(String.format(
+                "Limite de planos nutricionais atingido. Seu plano permite %d planos e você já possui %d. " +
+                        "Considere fazer upgrade do seu plano de assinatura.",
+                nutritionPlanLimit, currentPlanCount));
+    }
 
-        if (currentPlanCount >= nutritionPlanLimit) {
-            throw new RuntimeException(String.format(
-                    "Limite de planos nutricionais atingido. Seu plano permite %d planos e você já possui %d. " +
-                            "Considere fazer upgrade do seu plano de assinatura.",
-                    nutritionPlanLimit, currentPlanCount));
+    /**
+     * Cria o contador do usuário via JDBC: a violação da PK por uma criação
+     * concorrente não passa pelo proxy transacional do repositório, então a
+     * transação não fica marcada para rollback e pode seguir com o UPDATE
+     *
+     * @return false se o contador já tinha sido criado por outra transação
+     */
+    private boolean insertNutritionPlanQuota(UUID userId, int planCount) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO nutrition_plan_quotas (user_id, plan_count, updated_at) VALUES (?, ?, ?)",
+                    userId.toString(), planCount, Timestamp.valueOf(LocalDateTime.now()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
         }
     }
 
+    /**
+     * Grava os planos com JDBC batch; uk_nutrition_plan_user_date ainda barra uma
+     * criação concorrente para a mesma data (o lote inteiro é desfeito)
+     */
+    private void insertNutritionPlans(List<NutritionPlan> nutritionPlans) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO nutrition_plans (id, user_id, plan_date, title, description, breakfast, morning_snack,
+                    lunch, afternoon_snack, dinner, evening_snack, total_calories, total_proteins,
+                    total_carbohydrates, total_fats, water_intake_ml, is_completed, notes, created_at, updated_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, nutritionPlans, TAMANHO_LOTE_ESCRITA, (ps, plan) -> {
+            ps.setString(1, plan.getId().toString());
+            ps.setString(2, plan.getUser().getId().toString());
+            ps.setDate(3, Date.valueOf(plan.getPlanDate()));
+            ps.setString(4, plan.getTitle());
+            ps.setString(5, plan.getDescription());
+            ps.setString(6, plan.getBreakfast());
+            ps.setString(7, plan.getMorningSnack());
+            ps.setString(8, plan.getLunch());
+            ps.setString(9, plan.getAfternoonSnack());
+            ps.setString(10, plan.getDinner());
+            ps.setString(11, plan.getEveningSnack());
+            ps.setObject(12, plan.getTotalCalories(), Types.INTEGER);
+            ps.setObject(13, plan.getTotalProteins(), Types.DOUBLE);
+            ps.setObject(14, plan.getTotalCarbohydrates(), Types.DOUBLE);
+            ps.setObject(15, plan.getTotalFats(), Types.DOUBLE);
+            ps.setObject(16, plan.getWaterIntakeMl(), Types.INTEGER);
+            ps.setBoolean(17, false);
+            ps.setString(18, plan.getNotes());
+            ps.setTimestamp(19, Timestamp.valueOf(plan.getCreatedAt()));
+            ps.setTimestamp(20, Timestamp.valueOf(plan.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Grava o evento de domínio do plano na outbox, na transação corrente
+     */
+    private void publishNutritionPlanEvent(NutritionPlan nutritionPlan, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", nutritionPlan.getUser().getId());
+        payload.put("planDate", nutritionPlan.getPlanDate());
+        domainEventOutbox.publish(DomainEventOutbox.NUTRITION_PLAN, nutritionPlan.getId(), eventType, payload);
+    }
+
     /**
      * Atualiza entidade NutritionPlan a partir do DTO de criação
      */
@@ -369,37 +609,66 @@ public class NutritionPlanService {
     }
 
     /**
-     * Calcula estatísticas semanais
+     * Converte o resumo do plano para DTO de resposta, sem as colunas de texto
+     */
+    private NutritionPlanResponseDTO convertToResponseDTO(NutritionPlanSummary summary) {
+        NutritionPlanResponseDTO dto = new NutritionPlanResponseDTO();
+        dto.setId(summary.getId());
+        dto.setPlanDate(summary.getPlanDate());
+        dto.setTitle(summary.getTitle());
+        dto.setTotalCalories(summary.getTotalCalories());
+        dto.setTotalProteins(summary.getTotalProteins());
+        dto.setTotalCarbohydrates(summary.getTotalCarbohydrates());
+        dto.setTotalFats(summary.getTotalFats());
+        dto.setWaterIntakeMl(summary.getWaterIntakeMl());
+        dto.setIsCompleted(summary.getIsCompleted());
+        dto.setCompletedAt(summary.getCompletedAt());
+        dto.setCreatedAt(summary.getCreatedAt());
+        dto.setUpdatedAt(summary.getUpdatedAt());
+
+        // Flags de status, com as mesmas regras de NutritionPlan.isToday/isOverdue
+        LocalDate today = LocalDate.now();
+        dto.setIsToday(summary.getPlanDate().equals(today));
+        dto.setIsOverdue(summary.getPlanDate().isBefore(today) && !Boolean.TRUE.equals(summary.getIsCompleted()));
+
+        return dto;
+    }
+
+    /**
+     * Calcula estatísticas semanais numa única passada pelos planos
      */
     private WeeklyNutritionPlanResponseDTO.WeeklyStatsDTO calculateWeeklyStats(List<NutritionPlan> plans) {
         WeeklyNutritionPlanResponseDTO.WeeklyStatsDTO stats = new WeeklyNutritionPlanResponseDTO.WeeklyStatsDTO();
 
-        stats.setTotalPlans(plans.size());
+        int completedCount = 0;
+        int caloriesCount = 0;
+        long caloriesSum = 0;
+        long waterSum = 0;
+        for (NutritionPlan plan : plans) {
+            if (Boolean.TRUE.equals(plan.getIsCompleted())) {
+                completedCount++;
+            }
+            if (plan.getTotalCalories() != null) {
+                caloriesSum += plan.getTotalCalories();
+                caloriesCount++;
+            }
+            if (plan.getWaterIntakeMl() != null) {
+                waterSum += plan.getWaterIntakeMl();
+            }
+        }
 
-        long completedCount = plans.stream().mapToLong(p -> p.getIsCompleted() ? 1 : 0).sum();
-        stats.setCompletedPlans((int) completedCount);
-        stats.setPendingPlans(plans.size() - (int) completedCount);
+        stats.setTotalPlans(plans.size());
+        stats.setCompletedPlans(completedCount);
+        stats.setPendingPlans(plans.size() - completedCount);
 
         // Taxa de conclusão
-        if (plans.size() > 0) {
-            stats.setCompletionRate((double) completedCount / plans.size() * 100);
-        } else {
-            stats.setCompletionRate(0.0);
-        }
+        stats.setCompletionRate(plans.isEmpty() ? 0.0 : (double) completedCount / plans.size() * 100);
 
         // Média de calorias
-        OptionalDouble avgCalories = plans.stream()
-                .filter(p -> p.getTotalCalories() != null)
-                .mapToInt(NutritionPlan::getTotalCalories)
-                .average();
-        stats.setAverageCalories(avgCalories.orElse(0.0));
-
-        // Total de água consumida
-        double totalWater = plans.stream()
-                .filter(p -> p.getWaterIntakeMl() != null)
-                .mapToInt(NutritionPlan::getWaterIntakeMl)
-                .sum() / 1000.0; // Converte para litros
-        stats.setTotalWaterIntake(totalWater);
+        stats.setAverageCalories(caloriesCount > 0 ? (double) caloriesSum / caloriesCount : 0.0);
+
+        // Total de água consumida, em litros
+        stats.setTotalWaterIntake(waterSum / 1000.0);
 
         return stats;
     }
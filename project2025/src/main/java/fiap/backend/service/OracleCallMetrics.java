@@ -0,0 +1,78 @@
+package fiap.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Instrumentação das chamadas JDBC a functions e procedures PL/SQL.
+ * Cada chamada gera um timer (nutrixpert.oracle.call) com as tags procedure e
+ * outcome, e uma distribuição com o tamanho do payload (tamanho do CLOB, linhas
+ * retornadas ou afetadas). Ambos publicam p50/p95/p99 calculados no cliente,
+ * visíveis no /actuator/metrics (nome + ".percentile", tag phi), e o histograma
+ * de percentis, que um backend como o Prometheus agrega entre instâncias.
+ */
+@Component
+public class OracleCallMetrics {
+
+    public static final String TIMER_NAME = "nutrixpert.oracle.call";
+    public static final String PAYLOAD_NAME = "nutrixpert.oracle.call.payload";
+
+    private static final double[] PERCENTIS = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+
+    public OracleCallMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Chamada JDBC instrumentada
+     */
+    @FunctionalInterface
+    public interface OracleCall<T, E extends Exception> {
+        T execute() throws E;
+    }
+
+    /**
+     * Executa a chamada medindo o tempo; a exceção da chamada é propagada sem alteração
+     *
+     * @param rotina Nome da function/procedure PL/SQL
+     * @param call Chamada JDBC
+     * @param payloadSize Calcula o tamanho do payload a partir do resultado
+     * @return Resultado da chamada
+     */
+    public <T, E extends Exception> T record(String rotina, OracleCall<T, E> call,
+                                             ToLongFunction<? super T> payloadSize) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        long payload = 0;
+        try {
+            T result = call.execute();
+            payload = result != null ? payloadSize.applyAsLong(result) : 0;
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Tempo de execução de functions e procedures PL/SQL")
+                    .tag("procedure", rotina)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(PERCENTIS)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+
+            if ("success".equals(outcome)) {
+                DistributionSummary.builder(PAYLOAD_NAME)
+                        .description("Tamanho do payload retornado por functions e procedures PL/SQL")
+                        .tag("procedure", rotina)
+                        .publishPercentiles(PERCENTIS)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(payload);
+            }
+        }
+    }
+}
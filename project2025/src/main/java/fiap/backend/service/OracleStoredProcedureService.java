@@ -2,8 +2,12 @@ package fiap.backend.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.sql.DataSource;
@@ -11,8 +15,18 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * Serviço para execução de Functions e Procedures PL/SQL do Oracle
@@ -24,12 +38,34 @@ public class OracleStoredProcedureService {
 
     private static final Logger logger = LoggerFactory.getLogger(OracleStoredProcedureService.class);
 
+    // Quantidade de usuários enviados por chamada da procedure de alertas em lote
+    private static final int TAMANHO_LOTE_ALERTAS = 500;
+
+    // Etapas independentes da análise completa
+    private static final String ETAPA_INDICADOR = "indicadorSaude";
+    private static final String ETAPA_ALERTAS = "alertasNutricionais";
+    private static final String ETAPA_RELATORIO = "relatorioNutricao";
+
     private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
-
-    public OracleStoredProcedureService(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+    private final Executor analiseExecutor;
+    private final long stepTimeoutMs;
+    // Cancelar o future da etapa não interrompe a chamada JDBC em andamento: quem
+    // encerra a execução no banco é o query timeout, derivado do tempo limite da etapa
+    private final int queryTimeoutSegundos;
+    private final OracleCallMetrics oracleCallMetrics;
+
+    public OracleStoredProcedureService(DataSource dataSource,
+                                        JdbcTemplate jdbcTemplate,
+                                        @Qualifier("analiseExecutor") Executor analiseExecutor,
+                                        @Value("${app.analise.step-timeout-ms:15000}") long stepTimeoutMs,
+                                        OracleCallMetrics oracleCallMetrics) {
         this.dataSource = dataSource;
         this.jdbcTemplate = jdbcTemplate;
+        this.analiseExecutor = analiseExecutor;
+        this.stepTimeoutMs = stepTimeoutMs;
+        this.queryTimeoutSegundos = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(stepTimeoutMs + 999));
+        this.oracleCallMetrics = oracleCallMetrics;
     }
 
     /**
@@ -40,16 +76,28 @@ public class OracleStoredProcedureService {
      * @return Score de saúde de 0 a 100
      */
     public Double calcularIndicadorSaude(String userId, Integer diasAnalise) {
-        if (diasAnalise == null) {
-            diasAnalise = 30;
-        }
+        Integer dias = diasAnalise != null ? diasAnalise : 30;
 
-        logger.info("Calculando indicador de saúde para usuário: {} (últimos {} dias)", userId, diasAnalise);
+        logger.info("Calculando indicador de saúde para usuário: {} (últimos {} dias)", userId, dias);
 
         String sql = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
+        ResultSetExtractor<Double> extrairScore = rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            double score = rs.getDouble(1);
+            return rs.wasNull() ? null : score;
+        };
 
         try {
-            Double score = jdbcTemplate.queryForObject(sql, Double.class, userId, diasAnalise);
+            Double score = oracleCallMetrics.record("calcular_indicador_saude_usuario",
+                    () -> jdbcTemplate.query(conn -> {
+                        PreparedStatement stmt = conn.prepareStatement(sql);
+                        stmt.setQueryTimeout(queryTimeoutSegundos);
+                        stmt.setString(1, userId);
+                        stmt.setInt(2, dias);
+                        return stmt;
+                    }, extrairScore), r -> 1);
             logger.info("Indicador de saúde calculado: {}/100", score);
             return score;
         } catch (Exception e) {
@@ -74,19 +122,26 @@ public class OracleStoredProcedureService {
             String sql = "SELECT formatar_relatorio_nutricao(?, ?, ?) FROM DUAL";
 
             try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setQueryTimeout(queryTimeoutSegundos);
                 stmt.setString(1, userId);
                 stmt.setDate(2, Date.valueOf(dataInicio));
                 stmt.setDate(3, Date.valueOf(dataFim));
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        Clob clob = rs.getClob(1);
-                        if (clob != null) {
-                            String relatorio = clob.getSubString(1, (int) clob.length());
-                            logger.info("Relatório gerado com sucesso ({} caracteres)", relatorio.length());
-                            return relatorio;
+                String relatorio = oracleCallMetrics.record("formatar_relatorio_nutricao", () -> {
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            Clob clob = rs.getClob(1);
+                            if (clob != null) {
+                                return clob.getSubString(1, (int) clob.length());
+                            }
                         }
+                        return null;
                     }
+                }, String::length);
+
+                if (relatorio != null) {
+                    logger.info("Relatório gerado com sucesso ({} caracteres)", relatorio.length());
+                    return relatorio;
                 }
             }
 
@@ -116,6 +171,8 @@ public class OracleStoredProcedureService {
         try (Connection conn = dataSource.getConnection();
              CallableStatement stmt = conn.prepareCall("{call proc_registrar_alerta_nutricional(?, ?, ?)}")) {
 
+            stmt.setQueryTimeout(queryTimeoutSegundos);
+
             // Parâmetros IN
             stmt.setString(1, userId);
             stmt.setInt(2, diasAnalise);
@@ -123,11 +180,11 @@ public class OracleStoredProcedureService {
             // Parâmetro OUT
             stmt.registerOutParameter(3, Types.INTEGER);
 
-            // Executar procedure
-            stmt.execute();
-
-            // Obter resultado
-            Integer alertasGerados = stmt.getInt(3);
+            // Executar procedure e obter resultado
+            Integer alertasGerados = oracleCallMetrics.record("proc_registrar_alerta_nutricional", () -> {
+                stmt.execute();
+                return stmt.getInt(3);
+            }, r -> r);
             logger.info("Alertas nutricionais registrados: {}", alertasGerados);
 
             return alertasGerados;
@@ -162,25 +219,27 @@ public class OracleStoredProcedureService {
             stmt.registerOutParameter(4, Types.CLOB);
             stmt.registerOutParameter(5, Types.INTEGER);
 
-            // Executar procedure
-            stmt.execute();
+            // Executar procedure e obter resultados
+            Map<String, Object> resultado = oracleCallMetrics.record("proc_gerar_relatorio_consumo", () -> {
+                stmt.execute();
 
-            // Obter resultados
-            Clob clobRelatorio = stmt.getClob(4);
-            Integer sucesso = stmt.getInt(5);
+                Clob clobRelatorio = stmt.getClob(4);
+                Integer sucesso = stmt.getInt(5);
 
-            String relatorio = "";
-            if (clobRelatorio != null) {
-                relatorio = clobRelatorio.getSubString(1, (int) clobRelatorio.length());
-            }
+                String relatorio = "";
+                if (clobRelatorio != null) {
+                    relatorio = clobRelatorio.getSubString(1, (int) clobRelatorio.length());
+                }
 
-            Map<String, Object> resultado = new HashMap<>();
-            resultado.put("sucesso", sucesso == 1);
-            resultado.put("relatorio", relatorio);
-            resultado.put("tamanho", relatorio.length());
+                Map<String, Object> dados = new HashMap<>();
+                dados.put("sucesso", sucesso == 1);
+                dados.put("relatorio", relatorio);
+                dados.put("tamanho", relatorio.length());
+                return dados;
+            }, r -> (Integer) r.get("tamanho"));
 
             logger.info("Relatório de consumo gerado: sucesso={}, tamanho={}", 
-                       sucesso == 1, relatorio.length());
+                       resultado.get("sucesso"), resultado.get("tamanho"));
 
             return resultado;
 
@@ -192,50 +251,75 @@ public class OracleStoredProcedureService {
 
     /**
      * Executa análise completa do usuário
-     * Combina function de indicador de saúde e procedure de alertas
+     * Combina function de indicador de saúde e procedure de alertas.
+     * As três etapas são independentes e executadas em paralelo, cada uma com
+     * seu próprio tempo limite; falhas em alertas ou relatório geram resultado parcial.
      * 
      * @param userId ID do usuário
      * @param diasAnalise Dias para análise
-     * @return Map com resultados da análise
+     * @return Map com resultados da análise, tempos (ms) e erros por etapa
      */
+    // Sem transação: a thread da requisição só espera as etapas e não deve segurar
+    // uma conexão do pool enquanto cada etapa pega a sua no executor
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> executarAnaliseCompleta(String userId, Integer diasAnalise) {
         logger.info("Executando análise completa para usuário: {}", userId);
 
         Map<String, Object> resultado = new HashMap<>();
+        // Preenchido na ordem das etapas pela thread da requisição; as etapas medem
+        // seu tempo em temposMedidos, nas threads do executor
+        Map<String, Long> temposEtapas = new LinkedHashMap<>();
+        Map<String, Long> temposMedidos = new ConcurrentHashMap<>();
+        Map<String, String> errosEtapas = new LinkedHashMap<>();
+        long inicio = System.nanoTime();
 
         try {
-            // 1. Calcular indicador de saúde
-            Double scoreSaude = calcularIndicadorSaude(userId, diasAnalise);
-            resultado.put("scoreSaude", scoreSaude);
-
-            // Classificar o score
-            String classificacao;
-            if (scoreSaude >= 85) {
-                classificacao = "EXCELENTE";
-            } else if (scoreSaude >= 70) {
-                classificacao = "BOM";
-            } else if (scoreSaude >= 50) {
-                classificacao = "REGULAR";
-            } else {
-                classificacao = "PRECISA MELHORAR";
-            }
-            resultado.put("classificacao", classificacao);
-
-            // 2. Registrar alertas nutricionais
-            Integer alertasGerados = registrarAlertasNutricionais(userId, diasAnalise);
-            resultado.put("alertasGerados", alertasGerados);
-
-            // 3. Gerar relatório resumido
             LocalDate dataFim = LocalDate.now();
             LocalDate dataInicio = dataFim.minusDays(diasAnalise != null ? diasAnalise : 7);
-            String relatorio = formatarRelatorioNutricao(userId, dataInicio, dataFim);
-            resultado.put("relatorioResumido", relatorio);
 
-            resultado.put("sucesso", true);
-            resultado.put("mensagem", "Análise completa executada com sucesso");
+            // 1. Calcular indicador de saúde, 2. registrar alertas e 3. gerar relatório em paralelo
+            CompletableFuture<Double> scoreFuture = iniciarEtapa(ETAPA_INDICADOR, temposMedidos,
+                    () -> calcularIndicadorSaude(userId, diasAnalise));
+            CompletableFuture<Integer> alertasFuture = iniciarEtapa(ETAPA_ALERTAS, temposMedidos,
+                    () -> registrarAlertasNutricionais(userId, diasAnalise));
+            CompletableFuture<String> relatorioFuture = iniciarEtapa(ETAPA_RELATORIO, temposMedidos,
+                    () -> formatarRelatorioNutricao(userId, dataInicio, dataFim));
+
+            long prazo = inicio + TimeUnit.MILLISECONDS.toNanos(stepTimeoutMs);
+            Double scoreSaude = aguardarEtapa(ETAPA_INDICADOR, scoreFuture, prazo,
+                    temposMedidos, temposEtapas, errosEtapas);
+            Integer alertasGerados = aguardarEtapa(ETAPA_ALERTAS, alertasFuture, prazo,
+                    temposMedidos, temposEtapas, errosEtapas);
+            String relatorio = aguardarEtapa(ETAPA_RELATORIO, relatorioFuture, prazo,
+                    temposMedidos, temposEtapas, errosEtapas);
+
+            if (scoreSaude != null) {
+                resultado.put("scoreSaude", scoreSaude);
+                resultado.put("classificacao", classificarScore(scoreSaude));
+            }
+            if (alertasGerados != null) {
+                resultado.put("alertasGerados", alertasGerados);
+            }
+            if (relatorio != null) {
+                resultado.put("relatorioResumido", relatorio);
+            }
 
-            logger.info("Análise completa finalizada: score={}, alertas={}, classificacao={}", 
-                       scoreSaude, alertasGerados, classificacao);
+            if (scoreSaude == null) {
+                // Sem o indicador de saúde não há análise a devolver
+                resultado.put("sucesso", false);
+                resultado.put("mensagem", "Erro na análise: " + errosEtapas.get(ETAPA_INDICADOR));
+            } else if (errosEtapas.isEmpty()) {
+                resultado.put("sucesso", true);
+                resultado.put("mensagem", "Análise completa executada com sucesso");
+            } else {
+                resultado.put("sucesso", true);
+                resultado.put("mensagem", "Análise executada parcialmente, falha nas etapas: "
+                        + String.join(", ", errosEtapas.keySet()));
+            }
+            resultado.put("parcial", scoreSaude != null && !errosEtapas.isEmpty());
+
+            logger.info("Análise completa finalizada: score={}, alertas={}, erros={}", 
+                       scoreSaude, alertasGerados, errosEtapas.keySet());
 
         } catch (Exception e) {
             logger.error("Erro na análise completa: {}", e.getMessage(), e);
@@ -243,9 +327,74 @@ public class OracleStoredProcedureService {
             resultado.put("mensagem", "Erro na análise: " + e.getMessage());
         }
 
+        resultado.put("temposEtapasMs", temposEtapas);
+        resultado.put("errosEtapas", errosEtapas);
+        resultado.put("tempoTotalMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+
         return resultado;
     }
 
+    private String classificarScore(Double scoreSaude) {
+        if (scoreSaude >= 85) {
+            return "EXCELENTE";
+        } else if (scoreSaude >= 70) {
+            return "BOM";
+        } else if (scoreSaude >= 50) {
+            return "REGULAR";
+        }
+        return "PRECISA MELHORAR";
+    }
+
+    /**
+     * Dispara uma etapa da análise no executor, registrando o tempo gasto.
+     * Executor sem capacidade falha só a etapa, não a análise inteira
+     */
+    private <T> CompletableFuture<T> iniciarEtapa(String etapa, Map<String, Long> tempos, Supplier<T> acao) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long inicio = System.nanoTime();
+                try {
+                    return acao.get();
+                } finally {
+                    tempos.put(etapa, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+                }
+            }, analiseExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Executor da análise sem capacidade, etapa {} não executada", etapa);
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Executor da análise sem capacidade, etapa não executada", e));
+        }
+    }
+
+    /**
+     * Aguarda o resultado de uma etapa até o prazo; em caso de falha ou
+     * tempo esgotado registra o erro da etapa e retorna null
+     */
+    private <T> T aguardarEtapa(String etapa, CompletableFuture<T> future, long prazoNanos,
+                               Map<String, Long> medidos, Map<String, Long> tempos, Map<String, String> erros) {
+        try {
+            long restante = Math.max(0, prazoNanos - System.nanoTime());
+            T valor = future.get(restante, TimeUnit.NANOSECONDS);
+            tempos.put(etapa, medidos.getOrDefault(etapa, 0L));
+            return valor;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            tempos.put(etapa, medidos.getOrDefault(etapa, stepTimeoutMs));
+            erros.put(etapa, "Tempo limite excedido (" + stepTimeoutMs + " ms)");
+            logger.warn("Etapa {} excedeu o tempo limite de {} ms", etapa, stepTimeoutMs);
+        } catch (ExecutionException e) {
+            tempos.put(etapa, medidos.getOrDefault(etapa, 0L));
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            erros.put(etapa, causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName());
+            logger.warn("Falha na etapa {}: {}", etapa, causa.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tempos.put(etapa, medidos.getOrDefault(etapa, 0L));
+            erros.put(etapa, "Execução interrompida");
+        }
+        return null;
+    }
+
     /**
      * Busca estatísticas básicas de um usuário usando SQL direto
      * Útil para validar dados antes de executar procedures
@@ -268,7 +417,8 @@ public class OracleStoredProcedureService {
             """;
 
         try {
-            return jdbcTemplate.queryForMap(sql, userId);
+            return oracleCallMetrics.record("estatisticas_basicas",
+                    () -> jdbcTemplate.queryForMap(sql, userId), r -> 1);
         } catch (Exception e) {
             logger.error("Erro ao obter estatísticas básicas: {}", e.getMessage(), e);
             return new HashMap<>();
@@ -278,13 +428,34 @@ public class OracleStoredProcedureService {
     // Function: calcular_indicador_saude_usuario
     public Double calcularIndicadorSaudeUsuario(String userId, int diasAnalise) {
         String sql = "SELECT pkg_nutrixpert_func.calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        return jdbcTemplate.queryForObject(sql, Double.class, userId, diasAnalise);
+        return oracleCallMetrics.record("pkg_nutrixpert_func.calcular_indicador_saude_usuario",
+                () -> jdbcTemplate.queryForObject(sql, Double.class, userId, diasAnalise), r -> 1);
     }
 
     // Function: formatar_relatorio_nutricao
     public String formatarRelatorioNutricao(String userId) {
         String sql = "SELECT pkg_nutrixpert_func.formatar_relatorio_nutricao(?) FROM DUAL";
-        return jdbcTemplate.queryForObject(sql, String.class, userId);
+        return oracleCallMetrics.record("pkg_nutrixpert_func.formatar_relatorio_nutricao",
+                () -> jdbcTemplate.queryForObject(sql, String.class, userId), String::length);
+    }
+
+    /**
+     * Versão dos dados lidos por formatar_relatorio_nutricao: muda quando o usuário ou
+     * algum plano dele é alterado, incluído ou removido, e quando vira o dia (os
+     * períodos do relatório são relativos à data atual)
+     */
+    public String versaoRelatorioNutricao(String userId) {
+        String sql = """
+            SELECT
+                (SELECT COUNT(*) FROM nutrition_plans WHERE user_id = ?) as total_planos,
+                (SELECT MAX(updated_at) FROM nutrition_plans WHERE user_id = ?) as planos_alterados_em,
+                (SELECT updated_at FROM users WHERE id = ?) as usuario_alterado_em
+            FROM DUAL
+            """;
+        Map<String, Object> versao = oracleCallMetrics.record("versao_relatorio_nutricao",
+                () -> jdbcTemplate.queryForMap(sql, userId, userId, userId), r -> 1);
+        return LocalDate.now() + "|" + versao.get("total_planos") + "|"
+                + versao.get("planos_alterados_em") + "|" + versao.get("usuario_alterado_em");
     }
 
     // Procedure: proc_registrar_alerta_nutricional
@@ -294,13 +465,99 @@ public class OracleStoredProcedureService {
             stmt.setString(1, userId);
             stmt.setInt(2, diasAnalise);
             stmt.registerOutParameter(3, java.sql.Types.INTEGER);
-            stmt.execute();
-            return stmt.getInt(3);
+            return oracleCallMetrics.record("pkg_nutrixpert_proc.proc_registrar_alerta_nutricional", () -> {
+                stmt.execute();
+                return stmt.getInt(3);
+            }, r -> r);
         } catch (SQLException e) {
             throw new RuntimeException("Erro ao registrar alerta nutricional", e);
         }
     }
 
+    /**
+     * Registra alertas nutricionais para vários usuários usando a procedure set-based
+     * pkg_nutrixpert_alertas.proc_registrar_alertas_lote. Os IDs são enviados em lotes;
+     * cada lote usa sua própria conexão e é confirmado ao fim da chamada, de modo que
+     * a varredura não mantém uma transação longa sobre nutrition_alerts.
+     * 
+     * @param userIds IDs dos usuários
+     * @param diasAnalise Número de dias para análise (padrão: 7)
+     * @return Contagem de alertas por usuário e lotes com falha
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertasLoteResultado registrarAlertasNutricionaisEmLote(List<String> userIds, Integer diasAnalise) {
+        return registrarAlertasNutricionaisEmLote(userIds, diasAnalise, TAMANHO_LOTE_ALERTAS);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertasLoteResultado registrarAlertasNutricionaisEmLote(List<String> userIds, Integer diasAnalise,
+                                                                   int tamanhoLote) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote deve ser maior que zero");
+        }
+        int dias = diasAnalise != null ? diasAnalise : 7;
+        List<String> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+
+        logger.info("Registrando alertas nutricionais em lote: {} usuários, lotes de {} (últimos {} dias)",
+                ids.size(), tamanhoLote, dias);
+
+        AlertasLoteResultado resultado = new AlertasLoteResultado();
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoLote) {
+            List<String> lote = ids.subList(inicio, Math.min(inicio + tamanhoLote, ids.size()));
+            try {
+                resultado.registrarLote(executarLoteAlertas(lote, dias));
+            } catch (SQLException e) {
+                logger.error("Erro ao registrar lote de alertas ({} usuários): {}", lote.size(), e.getMessage(), e);
+                resultado.registrarFalha(lote, e.getMessage());
+            }
+        }
+
+        logger.info("Alertas em lote registrados: {} alertas, {} lotes, {} com falha",
+                resultado.getTotalAlertas(), resultado.getLotesExecutados(), resultado.getLotesComFalha());
+        return resultado;
+    }
+
+    /**
+     * Varredura de alertas para todos os usuários ativos, em lotes
+     * 
+     * @param diasAnalise Número de dias para análise (padrão: 7)
+     * @return Contagem de alertas por usuário e lotes com falha
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AlertasLoteResultado registrarAlertasUsuariosAtivos(Integer diasAnalise) {
+        List<String> userIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE is_active = 1 ORDER BY id", String.class);
+        return registrarAlertasNutricionaisEmLote(userIds, diasAnalise);
+    }
+
+    private Map<String, Integer> executarLoteAlertas(List<String> lote, int dias) throws SQLException {
+        return oracleCallMetrics.record("pkg_nutrixpert_alertas.proc_registrar_alertas_lote", () -> {
+            Map<String, Integer> contagens = new LinkedHashMap<>();
+            try (Connection conn = dataSource.getConnection();
+                 CallableStatement stmt = conn.prepareCall("{CALL pkg_nutrixpert_alertas.proc_registrar_alertas_lote(?, ?, ?)}")) {
+                Array ids = conn.unwrap(oracle.jdbc.OracleConnection.class)
+                        .createOracleArray("T_USER_ID_TAB", lote.toArray(new String[0]));
+                try {
+                    stmt.setArray(1, ids);
+                    stmt.setInt(2, dias);
+                    stmt.registerOutParameter(3, oracle.jdbc.OracleTypes.CURSOR);
+                    stmt.execute();
+                    try (ResultSet rs = (ResultSet) stmt.getObject(3)) {
+                        while (rs.next()) {
+                            contagens.put(rs.getString("user_id"), rs.getInt("alertas_gerados"));
+                        }
+                    }
+                } finally {
+                    ids.free();
+                }
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+            }
+            return contagens;
+        }, Map::size);
+    }
+
     // Procedure: proc_gerar_relatorio_consumo
     public Map<String, Object> gerarRelatorioConsumo(String userId) {
         Map<String, Object> result = new HashMap<>();
@@ -309,8 +566,10 @@ public class OracleStoredProcedureService {
             stmt.setString(1, userId);
             stmt.registerOutParameter(2, java.sql.Types.CLOB);
             stmt.registerOutParameter(3, java.sql.Types.INTEGER);
-            stmt.execute();
-            String relatorio = stmt.getString(2);
+            String relatorio = oracleCallMetrics.record("pkg_nutrixpert_proc.proc_gerar_relatorio_consumo", () -> {
+                stmt.execute();
+                return stmt.getString(2);
+            }, String::length);
             int totalDias = stmt.getInt(3);
             result.put("relatorio", relatorio);
             result.put("totalDias", totalDias);
@@ -327,17 +586,20 @@ public class OracleStoredProcedureService {
              CallableStatement stmt = conn.prepareCall("{CALL pkg_nutrixpert_proc.proc_consulta_dinamica_planos(?, ?)}")) {
             stmt.setString(1, where);
             stmt.registerOutParameter(2, oracle.jdbc.OracleTypes.CURSOR);
-            stmt.execute();
-            try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
-                ResultSetMetaData meta = rs.getMetaData();
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= meta.getColumnCount(); i++) {
-                        row.put(meta.getColumnName(i), rs.getObject(i));
+            oracleCallMetrics.record("pkg_nutrixpert_proc.proc_consulta_dinamica_planos", () -> {
+                stmt.execute();
+                try (ResultSet rs = (ResultSet) stmt.getObject(2)) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, Object> row = new HashMap<>();
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            row.put(meta.getColumnName(i), rs.getObject(i));
+                        }
+                        planos.add(row);
                     }
-                    planos.add(row);
                 }
-            }
+                return planos;
+            }, List::size);
         } catch (SQLException e) {
             throw new RuntimeException("Erro na consulta dinâmica de planos", e);
         }
@@ -346,7 +608,65 @@ public class OracleStoredProcedureService {
 
     // Auditoria: consultar registros da trigger
     public List<Map<String, Object>> consultarAuditoriaPlanos() {
-        String sql = "SELECT * FROM nutrition_plans_audit ORDER BY changed_at DESC FETCH FIRST 50 ROWS ONLY";
-        return jdbcTemplate.queryForList(sql);
+        String sql = "SELECT * FROM nutrition_plans_audit ORDER BY changed_at DESC, audit_id DESC FETCH FIRST 50 ROWS ONLY";
+        return oracleCallMetrics.record("nutrition_plans_audit",
+                () -> jdbcTemplate.queryForList(sql), List::size);
+    }
+
+    /**
+     * Resultado do registro de alertas em lote
+     */
+    public static class AlertasLoteResultado {
+        private final Map<String, Integer> alertasPorUsuario = new LinkedHashMap<>();
+        private final List<String> usuariosComFalha = new ArrayList<>();
+        private final List<String> erros = new ArrayList<>();
+        private int lotesExecutados;
+        private int lotesComFalha;
+
+        void registrarLote(Map<String, Integer> contagens) {
+            alertasPorUsuario.putAll(contagens);
+            lotesExecutados++;
+        }
+
+        void registrarFalha(List<String> userIds, String erro) {
+            usuariosComFalha.addAll(userIds);
+            erros.add(erro);
+            lotesExecutados++;
+            lotesComFalha++;
+        }
+
+        /**
+         * Alertas gerados por usuário (usuários sem alertas aparecem com 0)
+         * 
+         * @return mapa userId → alertas
+         */
+        public Map<String, Integer> getAlertasPorUsuario() {
+            return alertasPorUsuario;
+        }
+
+        /**
+         * Usuários cujos lotes falharam e devem ser reprocessados
+         * 
+         * @return IDs dos usuários
+         */
+        public List<String> getUsuariosComFalha() {
+            return usuariosComFalha;
+        }
+
+        public List<String> getErros() {
+            return erros;
+        }
+
+        public int getLotesExecutados() {
+            return lotesExecutados;
+        }
+
+        public int getLotesComFalha() {
+            return lotesComFalha;
+        }
+
+        public int getTotalAlertas() {
+            return alertasPorUsuario.values().stream().mapToInt(Integer::intValue).sum();
+        }
     }
 }
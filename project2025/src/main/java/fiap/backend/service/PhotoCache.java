@@ -0,0 +1,196 @@
+package fiap.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache em memória das fotos mais acessadas (bytes + tipo + ETag), por ID de foto
+ * e tamanho da variante. É limitado pelo total de bytes (LRU), não pela quantidade
+ * de entradas, e exporta taxa de acerto e ocupação em nutrixpert.photo.cache.*.
+ */
+@Component
+public class PhotoCache {
+
+    public static final String REQUESTS_NAME = "nutrixpert.photo.cache.requests";
+    public static final String EVICTIONS_NAME = "nutrixpert.photo.cache.evictions";
+    public static final String BYTES_NAME = "nutrixpert.photo.cache.bytes";
+    public static final String ENTRIES_NAME = "nutrixpert.photo.cache.entries";
+    public static final String HIT_RATIO_NAME = "nutrixpert.photo.cache.hit.ratio";
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // accessOrder = true: iteração do menos para o mais recentemente usado
+    private final LinkedHashMap<CacheKey, CachedPhoto> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PhotoCache(MeterRegistry meterRegistry,
+                      @Value("${app.photo-cache.max-size-mb:64}") long maxSizeMb,
+                      @Value("${app.photo-cache.max-entry-kb:1024}") long maxEntryKb) {
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+        this.maxEntryBytes = Math.min(maxEntryKb * 1024, maxBytes);
+
+        this.hits = Counter.builder(REQUESTS_NAME)
+                .description("Leituras do cache de fotos")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder(REQUESTS_NAME)
+                .description("Leituras do cache de fotos")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder(EVICTIONS_NAME)
+                .description("Fotos removidas do cache por falta de espaço")
+                .register(meterRegistry);
+        Gauge.builder(BYTES_NAME, this, PhotoCache::getCurrentBytes)
+                .description("Bytes ocupados pelo cache de fotos")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(ENTRIES_NAME, this, PhotoCache::size)
+                .description("Fotos no cache")
+                .register(meterRegistry);
+        Gauge.builder(HIT_RATIO_NAME, this, PhotoCache::getHitRatio)
+                .description("Taxa de acerto do cache de fotos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca a foto no cache
+     *
+     * @param photoId ID da foto
+     * @param variantSize Tamanho da variante, ou null para o original
+     * @return Foto em cache, se presente
+     */
+    public synchronized Optional<CachedPhoto> get(UUID photoId, Integer variantSize) {
+        CachedPhoto photo = entries.get(new CacheKey(photoId, variantSize));
+        if (photo == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(photo);
+    }
+
+    /**
+     * Indica se um conteúdo desse tamanho pode entrar no cache
+     */
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxEntryBytes;
+    }
+
+    /**
+     * Adiciona a foto ao cache, removendo as menos usadas até caber
+     */
+    public synchronized void put(UUID photoId, Integer variantSize, CachedPhoto photo) {
+        if (!accepts(photo.getData().length)) {
+            return;
+        }
+
+        CachedPhoto previous = entries.put(new CacheKey(photoId, variantSize), photo);
+        if (previous != null) {
+            currentBytes -= previous.getData().length;
+        }
+        currentBytes += photo.getData().length;
+
+        Iterator<Map.Entry<CacheKey, CachedPhoto>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().getData().length;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Remove a foto e todas as suas variantes do cache
+     */
+    public synchronized void invalidate(UUID photoId) {
+        Iterator<Map.Entry<CacheKey, CachedPhoto>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, CachedPhoto> entry = it.next();
+            if (entry.getKey().photoId.equals(photoId)) {
+                currentBytes -= entry.getValue().getData().length;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    /**
+     * Conteúdo de foto em cache
+     */
+    public static class CachedPhoto {
+        private final byte[] data;
+        private final String contentType;
+        private final String etag;
+
+        public CachedPhoto(byte[] data, String contentType, String etag) {
+            this.data = data;
+            this.contentType = contentType;
+            this.etag = etag;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    private static final class CacheKey {
+        private final UUID photoId;
+        private final Integer variantSize;
+
+        private CacheKey(UUID photoId, Integer variantSize) {
+            this.photoId = photoId;
+            this.variantSize = variantSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return photoId.equals(other.photoId) && Objects.equals(variantSize, other.variantSize);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(photoId, variantSize);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.PhotoContent;
+import fiap.backend.repository.PhotoContentRepository;
+import fiap.backend.repository.UserPhotoRepository;
+import fiap.backend.service.storage.PhotoStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Ciclo de vida dos conteúdos deduplicados do PhotoStorage. Fotos iguais
+ * compartilham o mesmo arquivo (endereçado pelo hash) e a mesma linha em
+ * photo_contents; o arquivo só é removido quando a contagem de referências,
+ * mantida por trigger em user_photos, chega a zero.
+ */
+@Service
+public class PhotoContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoContentService.class);
+
+    private final PhotoContentRepository photoContentRepository;
+    private final UserPhotoRepository userPhotoRepository;
+    private final PhotoStorage photoStorage;
+
+    public PhotoContentService(PhotoContentRepository photoContentRepository,
+            UserPhotoRepository userPhotoRepository, PhotoStorage photoStorage) {
+        this.photoContentRepository = photoContentRepository;
+        this.userPhotoRepository = userPhotoRepository;
+        this.photoStorage = photoStorage;
+    }
+
+    /**
+     * Remove o arquivo e a linha do conteúdo se nenhuma foto o referencia mais.
+     * Roda em transação própria (chamado após o commit da remoção da foto) e
+     * mantém a linha travada enquanto apaga o arquivo: um upload concorrente do
+     * mesmo conteúdo espera o commit e, ao encontrar o arquivo removido, é recusado.
+     *
+     * @param contentHash hash do conteúdo
+     * @return true se o conteúdo foi removido
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean purgeIfUnreferenced(String contentHash) {
+        Optional<PhotoContent> content = photoContentRepository.findByContentHashForUpdate(contentHash);
+        if (content.isPresent() && content.get().getRefCount() > 0) {
+            return false;
+        }
+        // Sem linha de contagem: confere direto em user_photos
+        if (content.isEmpty() && userPhotoRepository.existsByContentHash(contentHash)) {
+            return false;
+        }
+
+        try {
+            photoStorage.delete(contentHash);
+        } catch (IOException e) {
+            // Linha mantida com ref_count = 0: a próxima liberação tenta de novo
+            logger.warn("Falha ao remover conteúdo {} do storage: {}", contentHash, e.getMessage());
+            return false;
+        }
+
+        if (content.isPresent()) {
+            photoContentRepository.delete(content.get());
+        }
+        logger.debug("Conteúdo {} removido do storage", contentHash);
+        return true;
+    }
+
+    /**
+     * Espaço físico ocupado no storage, com cada conteúdo contado uma única vez
+     *
+     * @return bytes utilizados
+     */
+    @Transactional(readOnly = true)
+    public long getPhysicalStorageUsed() {
+        return photoContentRepository.getPhysicalStorageUsed();
+    }
+}
@@ -0,0 +1,166 @@
+package fiap.backend.service;
+
+import fiap.backend.service.storage.PhotoStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migração das fotos de perfil do BLOB user_photos.photo_data para o PhotoStorage.
+ * Processa em lotes: cada BLOB é lido como stream direto para o storage e o lote
+ * é confirmado com um UPDATE em batch que grava o hash e limpa o BLOB. Os lotes
+ * avançam por cursor de id, então fotos que falham não bloqueiam as seguintes.
+ */
+@Service
+public class PhotoStorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStorageMigrationService.class);
+
+    private static final int TAMANHO_LOTE_PADRAO = 100;
+    private static final int TAMANHO_LOTE_MAXIMO = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PhotoStorage photoStorage;
+    private final PhotoContentService photoContentService;
+
+    public PhotoStorageMigrationService(JdbcTemplate jdbcTemplate, PhotoStorage photoStorage,
+            PhotoContentService photoContentService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.photoStorage = photoStorage;
+        this.photoContentService = photoContentService;
+    }
+
+    /**
+     * Migra todas as fotos pendentes, lote a lote. Cada lote é confirmado
+     * independentemente, então a migração pode ser interrompida e retomada.
+     *
+     * @param tamanhoLote Fotos por lote (padrão: 100, máximo: 1000)
+     * @return Resumo da migração
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoMigracao migrarFotosParaStorage(Integer tamanhoLote) {
+        int tamanho = tamanhoLote == null ? TAMANHO_LOTE_PADRAO
+                : Math.max(1, Math.min(tamanhoLote, TAMANHO_LOTE_MAXIMO));
+        ResultadoMigracao resultado = new ResultadoMigracao();
+
+        // Cada foto é lida uma única vez: as que falham ficam para trás do cursor
+        // e são contadas uma vez só, em vez de voltarem no início de todo lote
+        String cursor = null;
+        do {
+            cursor = migrarLote(tamanho, cursor, resultado);
+            resultado.lotesExecutados++;
+        } while (cursor != null);
+
+        resultado.pendentes = contarPendentes();
+        logger.info("Migração de fotos para o storage: {} migradas, {} falhas, {} pendentes",
+                resultado.migradas, resultado.falhas, resultado.pendentes);
+        return resultado;
+    }
+
+    /**
+     * Quantidade de fotos que ainda estão apenas no BLOB
+     */
+    public long contarPendentes() {
+        Long pendentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_photos WHERE content_hash IS NULL AND photo_data IS NOT NULL",
+                Long.class);
+        return pendentes != null ? pendentes : 0L;
+    }
+
+    /**
+     * Migra as próximas fotos pendentes com id maior que o cursor
+     *
+     * @return id da última foto lida, ou null se não há mais fotos depois deste lote
+     */
+    private String migrarLote(int tamanho, String cursor, ResultadoMigracao resultado) {
+        List<String> lidas = new ArrayList<>();
+        List<Object[]> migradas = new ArrayList<>();
+
+        String sql = """
+                SELECT id, photo_data
+                FROM user_photos
+                WHERE content_hash IS NULL AND photo_data IS NOT NULL
+                """ + (cursor != null ? "AND id > ?\n" : "") + """
+                ORDER BY id
+                FETCH FIRST ? ROWS ONLY
+                """;
+        Object[] parametros = cursor != null ? new Object[] { cursor, tamanho } : new Object[] { tamanho };
+
+        jdbcTemplate.query(sql, rs -> {
+            String id = rs.getString("id");
+            lidas.add(id);
+            try (InputStream conteudo = rs.getBinaryStream("photo_data")) {
+                String contentHash = photoStorage.store(conteudo);
+                migradas.add(new Object[] { contentHash, id });
+            } catch (IOException e) {
+                resultado.falhas++;
+                logger.warn("Falha ao migrar foto {} para o storage: {}", id, e.getMessage());
+            }
+        }, parametros);
+
+        String proximoCursor = lidas.size() < tamanho ? null : lidas.get(lidas.size() - 1);
+        if (migradas.isEmpty()) {
+            return proximoCursor;
+        }
+
+        // content_hash IS NULL protege contra um upload concorrente que já tenha substituído a foto
+        int[] atualizadas = jdbcTemplate.batchUpdate(
+                "UPDATE user_photos SET content_hash = ?, photo_data = NULL WHERE id = ? AND content_hash IS NULL",
+                migradas);
+
+        int total = 0;
+        for (int i = 0; i < atualizadas.length; i++) {
+            // Oracle pode retornar SUCCESS_NO_INFO (-2) em batch
+            if (atualizadas[i] != 0) {
+                total++;
+            } else {
+                // Foto trocada ou migrada por outra requisição: libera o arquivo se ninguém o usa
+                liberarConteudo((String) migradas.get(i)[0]);
+            }
+        }
+        resultado.migradas += total;
+        return proximoCursor;
+    }
+
+    private void liberarConteudo(String contentHash) {
+        try {
+            photoContentService.purgeIfUnreferenced(contentHash);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao liberar conteúdo {} do storage: {}", contentHash, e.getMessage());
+        }
+    }
+
+    /**
+     * Resumo da migração de fotos para o storage
+     */
+    public static class ResultadoMigracao {
+        private long migradas;
+        private long falhas;
+        private long lotesExecutados;
+        private long pendentes;
+
+        public long getMigradas() {
+            return migradas;
+        }
+
+        public long getFalhas() {
+            return falhas;
+        }
+
+        public long getLotesExecutados() {
+            return lotesExecutados;
+        }
+
+        public long getPendentes() {
+            return pendentes;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package fiap.backend.service;
+
+import fiap.backend.service.storage.PhotoStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Geração e consulta das variantes redimensionadas das fotos de perfil
+ * (ex.: 64, 128 e 512 px no maior lado). As variantes são geradas em
+ * background após o upload, gravadas no PhotoStorage ao lado do original
+ * e servidas pelo parâmetro ?size= dos endpoints de foto. Originais que não
+ * podem ser reduzidos (formato não suportado, corrompidos ou acima do limite de
+ * pixels) ficam num LRU limitado e são servidos sem variante, sem novo agendamento.
+ */
+@Service
+public class PhotoVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    public static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final PhotoStorage photoStorage;
+    private final Executor executor;
+    private final List<Integer> sizes;
+    private final long maxPixels;
+    private final int maxUnusable;
+
+    // Hashes com geração em andamento, para não enfileirar o mesmo trabalho duas vezes
+    private final Set<String> emAndamento = ConcurrentHashMap.newKeySet();
+
+    // accessOrder = true: remove o hash menos recentemente consultado
+    private final LinkedHashMap<String, Boolean> inutilizaveis;
+
+    public PhotoVariantService(PhotoStorage photoStorage,
+                               @Qualifier("photoVariantExecutor") Executor executor,
+                               @Value("${app.photo-variants.sizes:64,128,512}") List<Integer> sizes,
+                               @Value("${app.photo-variants.max-pixels:25000000}") long maxPixels,
+                               @Value("${app.photo-variants.unusable-max-entries:1000}") int maxUnusable) {
+        this.photoStorage = photoStorage;
+        this.executor = executor;
+        this.sizes = sizes.stream().sorted().toList();
+        this.maxPixels = maxPixels;
+        this.maxUnusable = Math.max(maxUnusable, 1);
+        this.inutilizaveis = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > PhotoVariantService.this.maxUnusable;
+            }
+        };
+    }
+
+    /**
+     * Menor variante que atende ao tamanho pedido
+     *
+     * @param requestedSize Tamanho pedido em pixels
+     * @return Tamanho da variante, ou null se o pedido for maior que todas (serve o original)
+     */
+    public Integer variantSizeFor(int requestedSize) {
+        for (Integer size : sizes) {
+            if (size >= requestedSize) {
+                return size;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca a variante já gerada; se ainda não existir, agenda a geração
+     *
+     * @param contentHash Hash do conteúdo original
+     * @param size Tamanho da variante (um dos tamanhos configurados)
+     * @return Variante, ou vazio enquanto não foi gerada ou se o original não
+     *         pode ser reduzido
+     */
+    public Optional<Resource> findVariant(String contentHash, int size) {
+        if (isUnusable(contentHash)) {
+            return Optional.empty();
+        }
+        Optional<Resource> variant = photoStorage.findVariant(contentHash, String.valueOf(size));
+        if (variant.isEmpty()) {
+            scheduleVariants(contentHash);
+        }
+        return variant;
+    }
+
+    /**
+     * Indica se a geração de variantes já falhou de forma definitiva para o
+     * conteúdo: o original é a resposta final, não um provisório
+     *
+     * @param contentHash Hash do conteúdo original
+     * @return true se o original não pode ser reduzido
+     */
+    public synchronized boolean isUnusable(String contentHash) {
+        return inutilizaveis.get(contentHash) != null;
+    }
+
+    private synchronized void markUnusable(String contentHash) {
+        inutilizaveis.put(contentHash, Boolean.TRUE);
+    }
+
+    /**
+     * Agenda a geração de todas as variantes do conteúdo no pool photoVariantExecutor
+     *
+     * @param contentHash Hash do conteúdo original
+     */
+    public void scheduleVariants(String contentHash) {
+        if (contentHash == null || !emAndamento.add(contentHash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(contentHash);
+                } catch (UnusableImageException e) {
+                    markUnusable(contentHash);
+                    logger.warn("Variantes de {} não serão geradas: {}", contentHash, e.getMessage());
+                } catch (Exception e) {
+                    logger.warn("Falha ao gerar variantes de {}: {}", contentHash, e.getMessage());
+                } finally {
+                    emAndamento.remove(contentHash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: a variante será agendada de novo no próximo acesso
+            emAndamento.remove(contentHash);
+            logger.warn("Fila de variantes cheia, geração de {} adiada", contentHash);
+        }
+    }
+
+    /**
+     * Gera as variantes que ainda não existem para o conteúdo
+     *
+     * @param contentHash Hash do conteúdo original
+     * @throws IOException se o original não puder ser lido, não for uma imagem
+     *                     ou passar do limite de pixels
+     */
+    public void generateVariants(String contentHash) throws IOException {
+        BufferedImage original = readImage(contentHash);
+
+        for (Integer size : sizes) {
+            String variant = String.valueOf(size);
+            if (photoStorage.findVariant(contentHash, variant).isPresent()) {
+                continue;
+            }
+            byte[] jpeg = encodeJpeg(resize(original, size));
+            photoStorage.storeVariant(contentHash, variant, new ByteArrayInputStream(jpeg));
+        }
+        logger.debug("Variantes geradas para {}", contentHash);
+    }
+
+    /**
+     * Lê o original conferindo antes as dimensões do cabeçalho: poucos KB de PNG ou GIF
+     * podem declarar dezenas de milhares de pixels por lado, e decodificar isso esgotaria
+     * a memória (decompression bomb)
+     */
+    private BufferedImage readImage(String contentHash) throws IOException {
+        try (InputStream in = photoStorage.load(contentHash).getInputStream();
+             ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new UnusableImageException("Formato de imagem não suportado");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels;
+                try {
+                    pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                } catch (IOException | RuntimeException e) {
+                    throw new UnusableImageException("Cabeçalho de imagem inválido: " + e.getMessage());
+                }
+                if (pixels > maxPixels) {
+                    throw new UnusableImageException("Imagem com " + pixels + " pixels excede o limite de " + maxPixels);
+                }
+                try {
+                    return reader.read(0);
+                } catch (IOException | RuntimeException e) {
+                    throw new UnusableImageException("Imagem não pôde ser decodificada: " + e.getMessage());
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduz a imagem para caber em size x size mantendo a proporção (nunca amplia).
+     * Reduções grandes são feitas em etapas de metade do tamanho para evitar serrilhado.
+     */
+    static BufferedImage resize(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    // JPEG não tem canal alfa: o fundo transparente vira branco
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Falha definitiva: o original foi lido, mas não é uma imagem que possa ser
+     * reduzida. Falhas de leitura do storage não entram aqui e são tentadas de novo
+     */
+    static class UnusableImageException extends IOException {
+        UnusableImageException(String message) {
+            super(message);
+        }
+    }
+}
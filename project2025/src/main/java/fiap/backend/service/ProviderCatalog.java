@@ -0,0 +1,167 @@
+package fiap.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.dto.ServiceProviderResponse;
+import fiap.backend.repository.ServiceProviderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Catálogo em memória dos fornecedores ativos. Cada versão é um Snapshot
+ * imutável (lista ordenada por nome, índices espacial e de nomes, JSON
+ * pré-serializado e ETag) trocado atomicamente após o commit de cada escrita; as leituras nunca
+ * vão ao banco nem esperam por uma recarga em andamento.
+ */
+@Component
+public class ProviderCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCatalog.class);
+
+    private final ServiceProviderRepository serviceProviderRepository;
+    private final ObjectMapper objectMapper;
+    private final double cellDegrees;
+
+    private volatile Snapshot current;
+
+    public ProviderCatalog(ServiceProviderRepository serviceProviderRepository, ObjectMapper objectMapper,
+            @Value("${app.providers.spatial-index.cell-degrees:0.1}") double cellDegrees) {
+        this.serviceProviderRepository = serviceProviderRepository;
+        this.objectMapper = objectMapper;
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Versão atual do catálogo, carregada do banco na primeira chamada
+     *
+     * @return snapshot imutável
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current == null) {
+                current = load(1);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Recarrega o catálogo após uma escrita já confirmada. Recargas são
+     * serializadas e cada uma lê o banco depois da anterior, então a última
+     * sempre reflete o último commit. Se a recarga falhar, o catálogo é
+     * descartado e recarregado na próxima leitura.
+     */
+    public synchronized void refresh() {
+        Snapshot previous = current;
+        if (previous == null) {
+            return;
+        }
+        try {
+            current = load(previous.getVersion() + 1);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao recarregar catálogo de fornecedores: {}", e.getMessage());
+            current = null;
+        }
+    }
+
+    private Snapshot load(long version) {
+        List<ServiceProviderResponse> providers = serviceProviderRepository.findAllActiveOrderByName()
+                .stream()
+                .map(ServiceProviderResponse::new)
+                .toList();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(providers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar catálogo de fornecedores", e);
+        }
+        // Só o conteúdo: a versão é um contador local, e instâncias com o mesmo
+        // catálogo precisam responder o mesmo ETag atrás do balanceador
+        String etag = "\"providers-" + sha256Prefix(json) + "\"";
+        logger.debug("Catálogo de fornecedores carregado: versão {}, {} fornecedores", version, providers.size());
+        return new Snapshot(version, providers, new ProviderSpatialIndex(providers, cellDegrees),
+                new ProviderNameIndex(providers), json, etag);
+    }
+
+    private static String sha256Prefix(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    /**
+     * Versão imutável do catálogo
+     */
+    public static class Snapshot {
+        private final long version;
+        private final List<ServiceProviderResponse> providers;
+        private final ProviderSpatialIndex spatialIndex;
+        private final ProviderNameIndex nameIndex;
+        private final byte[] json;
+        private final String etag;
+
+        Snapshot(long version, List<ServiceProviderResponse> providers, ProviderSpatialIndex spatialIndex,
+                ProviderNameIndex nameIndex, byte[] json, String etag) {
+            this.version = version;
+            this.providers = providers;
+            this.spatialIndex = spatialIndex;
+            this.nameIndex = nameIndex;
+            this.json = json;
+            this.etag = etag;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Fornecedores ativos ordenados por nome (lista imutável)
+         */
+        public List<ServiceProviderResponse> getProviders() {
+            return providers;
+        }
+
+        public ProviderSpatialIndex getSpatialIndex() {
+            return spatialIndex;
+        }
+
+        public ProviderNameIndex getNameIndex() {
+            return nameIndex;
+        }
+
+        /**
+         * Lista de fornecedores ativos já serializada em JSON (não alterar)
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * Fornecedores cujo nome contém o texto, sem diferenciar acentos e maiúsculas
+         *
+         * @param name parte do nome
+         * @return fornecedores ordenados por nome
+         */
+        public List<ServiceProviderResponse> searchByName(String name) {
+            return nameIndex.containing(name);
+        }
+    }
+}
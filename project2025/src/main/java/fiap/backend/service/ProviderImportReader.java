@@ -0,0 +1,286 @@
+package fiap.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.dto.ServiceProviderCreateRequest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitura incremental do arquivo de importação de fornecedores, uma linha
+ * (CSV) ou um objeto (JSON) por vez, sem carregar o arquivo inteiro.
+ * Erros de conversão de um registro (ex.: latitude não numérica) ficam no
+ * próprio registro; erros de estrutura do arquivo lançam IOException.
+ */
+abstract class ProviderImportReader implements Closeable {
+
+    /**
+     * Registro lido do arquivo
+     */
+    static final class Row {
+        private final int number;
+        private final ServiceProviderCreateRequest request;
+        private final String error;
+
+        Row(int number, ServiceProviderCreateRequest request, String error) {
+            this.number = number;
+            this.request = request;
+            this.error = error;
+        }
+
+        int getNumber() {
+            return number;
+        }
+
+        ServiceProviderCreateRequest getRequest() {
+            return request;
+        }
+
+        String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Próximo registro do arquivo
+     *
+     * @return registro ou null no fim do arquivo
+     */
+    abstract Row next() throws IOException;
+
+    /**
+     * Número do registro em leitura, para relatar erros de estrutura
+     */
+    abstract int currentNumber();
+
+    static ProviderImportReader csv(InputStream in) throws IOException {
+        return new CsvReader(in);
+    }
+
+    static ProviderImportReader json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return new JsonReader(in, objectMapper);
+    }
+
+    private static Row toRow(int number, Map<String, String> fields, boolean decimalComma) {
+        String name = fields.get("name");
+        String endereco = fields.get("endereco");
+        String description = fields.get("description");
+        try {
+            Double longitude = parseCoordinate(fields.get("longitude"), decimalComma);
+            Double latitude = parseCoordinate(fields.get("latitude"), decimalComma);
+            return new Row(number, new ServiceProviderCreateRequest(name, longitude, latitude, description, endereco),
+                    null);
+        } catch (NumberFormatException e) {
+            return new Row(number, new ServiceProviderCreateRequest(name, null, null, description, endereco),
+                    "Longitude e latitude devem ser numéricas");
+        }
+    }
+
+    private static Double parseCoordinate(String value, boolean decimalComma) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String number = value.trim();
+        double coordinate = Double.parseDouble(decimalComma ? number.replace(',', '.') : number);
+        // parseDouble aceita "NaN" e "Infinity", que passariam pela validação de faixa
+        if (!Double.isFinite(coordinate)) {
+            throw new NumberFormatException("Coordenada não finita: " + number);
+        }
+        return coordinate;
+    }
+
+    // Aceita os nomes de coluna em inglês ou português
+    private static String canonicalField(String field) {
+        String key = field.trim().toLowerCase(Locale.ROOT);
+        switch (key) {
+            case "nome":
+                return "name";
+            case "descricao":
+            case "descrição":
+                return "description";
+            case "address":
+                return "endereco";
+            case "lat":
+                return "latitude";
+            case "lng":
+            case "lon":
+                return "longitude";
+            default:
+                return key;
+        }
+    }
+
+    /**
+     * CSV (RFC 4180) com cabeçalho. Separador vírgula ou, se o cabeçalho usar
+     * ponto e vírgula (Excel em português), ponto e vírgula com decimal vírgula.
+     */
+    private static final class CsvReader extends ProviderImportReader {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+        private final char delimiter;
+        private int line;
+        private int recordLine;
+
+        private CsvReader(InputStream in) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            // Ignora o BOM que o Excel grava no início do arquivo
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+            String firstLine = reader.readLine();
+            if (firstLine == null) {
+                throw new IOException("Arquivo vazio");
+            }
+            this.line = 1;
+            this.delimiter = firstLine.indexOf(';') >= 0 && firstLine.indexOf(',') < 0 ? ';' : ',';
+            this.header = new ArrayList<>();
+            for (String column : split(firstLine)) {
+                header.add(canonicalField(column));
+            }
+            if (!header.contains("name")) {
+                throw new IOException("Cabeçalho sem a coluna name");
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isBlank());
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return toRow(recordLine, fields, delimiter == ';');
+        }
+
+        @Override
+        int currentNumber() {
+            return recordLine;
+        }
+
+        // Um registro pode ocupar várias linhas quando um campo entre aspas contém quebra de linha
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = ++line;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Aspas não fechadas");
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    values.add(field.toString());
+                    return values;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        private List<String> split(String headerLine) {
+            List<String> columns = new ArrayList<>();
+            for (String column : headerLine.split(String.valueOf(delimiter), -1)) {
+                columns.add(column.replace("\"", ""));
+            }
+            return columns;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Array JSON de objetos com os campos do ServiceProviderCreateRequest
+     */
+    private static final class JsonReader extends ProviderImportReader {
+
+        private final JsonParser parser;
+        private final ObjectMapper objectMapper;
+        private int index;
+
+        private JsonReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("O arquivo JSON deve conter um array de fornecedores");
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            index++;
+            JsonNode node = objectMapper.readTree(parser);
+            if (!node.isObject()) {
+                return new Row(index, new ServiceProviderCreateRequest(), "Registro deve ser um objeto");
+            }
+            Map<String, String> fields = new HashMap<>();
+            node.properties().forEach(entry -> {
+                JsonNode value = entry.getValue();
+                fields.put(canonicalField(entry.getKey()), value.isNull() ? null : value.asText());
+            });
+            return toRow(index, fields, false);
+        }
+
+        @Override
+        int currentNumber() {
+            return index + 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package fiap.backend.service;
+
+import fiap.backend.dto.ServiceProviderResponse;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido imutável de trigramas dos nomes dos fornecedores, com
+ * acentos e maiúsculas ignorados ("Clínica São José" = "clinica sao jose").
+ * Substitui o LIKE '%x%' (sem índice e sensível a acentos) na busca por nome
+ * e no autocompletar, que ordena por relevância: início do nome, início de
+ * palavra, trecho do nome e, por fim, nomes parecidos (erros de digitação).
+ * Construído junto com cada versão do ProviderCatalog.
+ */
+public class ProviderNameIndex {
+
+    private static final int GRAM = 3;
+    // Fração mínima dos trigramas da busca presentes no nome para contar como parecido
+    private static final double MIN_FUZZY_SIMILARITY = 0.5;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final int TIER_PREFIX = 3;
+    private static final int TIER_WORD_PREFIX = 2;
+    private static final int TIER_SUBSTRING = 1;
+    private static final int TIER_FUZZY = 0;
+
+    private final ServiceProviderResponse[] providers;
+    private final String[] foldedNames;
+    private final Map<String, int[]> postings;
+
+    /**
+     * Constrói o índice
+     *
+     * @param providers fornecedores ativos, na ordem de desempate (por nome)
+     */
+    public ProviderNameIndex(Collection<ServiceProviderResponse> providers) {
+        this.providers = providers.toArray(new ServiceProviderResponse[0]);
+        this.foldedNames = new String[this.providers.length];
+
+        Map<String, List<Integer>> lists = new HashMap<>();
+        for (int i = 0; i < this.providers.length; i++) {
+            foldedNames[i] = fold(this.providers[i].getName());
+            for (String gram : grams(foldedNames[i])) {
+                lists.computeIfAbsent(gram, k -> new ArrayList<>()).add(i);
+            }
+        }
+        this.postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((gram, ids) -> postings.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Fornecedores cujo nome contém o texto, ignorando acentos e maiúsculas
+     *
+     * @param query parte do nome
+     * @return fornecedores na ordem do catálogo (por nome)
+     */
+    public List<ServiceProviderResponse> containing(String query) {
+        String term = fold(query);
+        List<ServiceProviderResponse> result = new ArrayList<>();
+        if (term.isEmpty()) {
+            return result;
+        }
+        for (int i : candidates(term)) {
+            if (foldedNames[i].contains(term)) {
+                result.add(providers[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Autocompletar: até limit fornecedores ordenados por relevância
+     * (início do nome > início de palavra > trecho > nome parecido)
+     *
+     * @param query texto digitado
+     * @param limit quantidade máxima de resultados
+     * @return fornecedores mais relevantes
+     */
+    public List<ServiceProviderResponse> typeahead(String query, int limit) {
+        String term = fold(query);
+        if (term.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        String[] termGrams = grams(term).toArray(new String[0]);
+        if (termGrams.length == 0) {
+            // Busca curta (1-2 caracteres): só prefixos, sem trigramas para procurar
+            for (int i = 0; i < foldedNames.length; i++) {
+                int tier = exactTier(foldedNames[i], term);
+                if (tier > TIER_SUBSTRING) {
+                    matches.add(new Match(i, tier, 1.0));
+                }
+            }
+        } else {
+            // Quantos trigramas da busca cada nome contém: a base da similaridade
+            int[] shared = new int[providers.length];
+            for (String gram : termGrams) {
+                int[] ids = postings.get(gram);
+                if (ids != null) {
+                    for (int i : ids) {
+                        shared[i]++;
+                    }
+                }
+            }
+            for (int i = 0; i < shared.length; i++) {
+                if (shared[i] == 0) {
+                    continue;
+                }
+                int tier = shared[i] == termGrams.length ? exactTier(foldedNames[i], term) : TIER_FUZZY;
+                double similarity = (double) shared[i] / termGrams.length;
+                if (tier > TIER_FUZZY || similarity >= MIN_FUZZY_SIMILARITY) {
+                    matches.add(new Match(i, tier, similarity));
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::tier).reversed()
+                .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+                .thenComparingInt(Match::ordinal));
+        List<ServiceProviderResponse> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(providers[matches.get(i).ordinal()]);
+        }
+        return result;
+    }
+
+    /**
+     * Normaliza o texto para comparação: sem acentos, minúsculo, só letras e
+     * dígitos separados por um espaço
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String withoutMarks = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(withoutMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Nomes que podem conter o termo: interseção das listas dos trigramas (a menor primeiro)
+    private int[] candidates(String term) {
+        Set<String> termGrams = grams(term);
+        if (termGrams.isEmpty()) {
+            int[] all = new int[providers.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[][] lists = new int[termGrams.size()][];
+        int n = 0;
+        for (String gram : termGrams) {
+            int[] ids = postings.get(gram);
+            if (ids == null) {
+                return new int[0];
+            }
+            lists[n++] = ids;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(ids -> ids.length));
+        int[] result = lists[0];
+        for (int k = 1; k < lists.length && result.length > 0; k++) {
+            result = intersect(result, lists[k]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int exactTier(String name, String term) {
+        if (name.startsWith(term)) {
+            return TIER_PREFIX;
+        }
+        if (name.contains(" " + term)) {
+            return TIER_WORD_PREFIX;
+        }
+        return name.contains(term) ? TIER_SUBSTRING : TIER_FUZZY;
+    }
+
+    private static Set<String> grams(String folded) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(folded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Match {
+        private final int ordinal;
+        private final int tier;
+        private final double similarity;
+
+        private Match(int ordinal, int tier, double similarity) {
+            this.ordinal = ordinal;
+            this.tier = tier;
+            this.similarity = similarity;
+        }
+
+        private int ordinal() {
+            return ordinal;
+        }
+
+        private int tier() {
+            return tier;
+        }
+
+        private double similarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package fiap.backend.service;
+
+import fiap.backend.dto.NearbyServiceProviderResponse;
+import fiap.backend.dto.ServiceProviderResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Índice espacial imutável dos fornecedores ativos: grade de células de
+ * latitude/longitude (cellDegrees graus de lado). Consultas por proximidade
+ * e por área visitam só as células que cobrem a região. Construído junto com
+ * cada versão do ProviderCatalog, por isso pode ser lido sem sincronização.
+ */
+public class ProviderSpatialIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellDegrees;
+    private final int columns;
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Constrói o índice com os fornecedores que têm coordenadas
+     *
+     * @param providers fornecedores ativos
+     * @param cellDegrees lado de cada célula da grade, em graus
+     */
+    public ProviderSpatialIndex(Collection<ServiceProviderResponse> providers, double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 90) {
+            throw new IllegalArgumentException("cellDegrees deve estar entre 0 e 90");
+        }
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360.0 / cellDegrees);
+
+        for (ServiceProviderResponse provider : providers) {
+            if (provider.getLatitude() != null && provider.getLongitude() != null) {
+                Entry entry = new Entry(provider);
+                entries.add(entry);
+                cells.computeIfAbsent(entry.cellKey, k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * k fornecedores mais próximos dentro do raio, ordenados pela distância (haversine)
+     *
+     * @param latitude latitude de referência
+     * @param longitude longitude de referência
+     * @param radiusKm raio máximo em km
+     * @param limit quantidade máxima de resultados
+     * @return fornecedores com a distância em km, do mais próximo ao mais distante
+     */
+    public List<NearbyServiceProviderResponse> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        // Heap de máximo: o topo é o candidato mais distante entre os k melhores
+        PriorityQueue<NearbyServiceProviderResponse> best = new PriorityQueue<>(
+                Comparator.comparingDouble(NearbyServiceProviderResponse::getDistanceKm).reversed());
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90.0, latitude - latSpan);
+        double maxLat = Math.min(90.0, latitude + latSpan);
+        // Largura em longitude medida na latitude mais distante do equador da faixa
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lngSpan = cosLat < 1e-9 ? 360.0 : radiusKm / (KM_PER_DEGREE * cosLat);
+
+        visit(minLat, maxLat, longitude - lngSpan, longitude + lngSpan, entry -> {
+            double distance = haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance > radiusKm) {
+                return;
+            }
+            if (best.size() < limit) {
+                best.add(new NearbyServiceProviderResponse(entry.provider, distance));
+            } else if (distance < best.peek().getDistanceKm()) {
+                best.poll();
+                best.add(new NearbyServiceProviderResponse(entry.provider, distance));
+            }
+        });
+
+        List<NearbyServiceProviderResponse> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(NearbyServiceProviderResponse::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * Fornecedores dentro da área (bounding box), ordenados por nome
+     *
+     * @param minLat latitude mínima
+     * @param maxLat latitude máxima
+     * @param minLng longitude mínima
+     * @param maxLng longitude máxima
+     * @return fornecedores na área
+     */
+    public List<ServiceProviderResponse> withinBounds(double minLat, double maxLat, double minLng, double maxLng) {
+        List<ServiceProviderResponse> result = new ArrayList<>();
+        if (minLat > maxLat || minLng > maxLng) {
+            return result;
+        }
+        visit(minLat, maxLat, minLng, maxLng, entry -> {
+            if (entry.latitude >= minLat && entry.latitude <= maxLat
+                    && entry.longitude >= minLng && entry.longitude <= maxLng) {
+                result.add(entry.provider);
+            }
+        });
+        result.sort(Comparator.comparing(ServiceProviderResponse::getName));
+        return result;
+    }
+
+    /**
+     * Distância em km entre dois pontos pela fórmula de haversine
+     */
+    static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Percorre as entradas das células que cobrem a área; longitudes além de ±180 dão a volta.
+    // Se a área cobre mais células do que há fornecedores, percorrer todos é mais barato
+    private void visit(double minLat, double maxLat, double minLng, double maxLng, Consumer<Entry> action) {
+        int minRow = row(minLat);
+        int maxRow = row(maxLat);
+        boolean allColumns = maxLng - minLng >= 360.0;
+        long firstColumn = (long) Math.floor((minLng + 180.0) / cellDegrees);
+        long lastColumn = allColumns ? firstColumn + columns - 1 : (long) Math.floor((maxLng + 180.0) / cellDegrees);
+        long cellCount = (long) (maxRow - minRow + 1) * (lastColumn - firstColumn + 1);
+
+        if (cellCount > entries.size()) {
+            entries.forEach(action);
+            return;
+        }
+        for (int r = minRow; r <= maxRow; r++) {
+            for (long c = firstColumn; c <= lastColumn; c++) {
+                List<Entry> cell = cells.get(key(r, (int) Math.floorMod(c, (long) columns)));
+                if (cell != null) {
+                    cell.forEach(action);
+                }
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.max(-90.0, Math.min(90.0, latitude)) + 90.0) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floorMod((long) Math.floor((longitude + 180.0) / cellDegrees), (long) columns);
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    private final class Entry {
+        private final ServiceProviderResponse provider;
+        private final double latitude;
+        private final double longitude;
+        private final long cellKey;
+
+        private Entry(ServiceProviderResponse provider) {
+            this.provider = provider;
+            this.latitude = provider.getLatitude();
+            this.longitude = provider.getLongitude();
+            this.cellKey = key(row(latitude), column(longitude));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package fiap.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.ServiceProvider;
+import fiap.backend.dto.ServiceProviderCreateRequest;
+import fiap.backend.repository.ServiceProviderRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Importação em massa de fornecedores a partir de CSV ou JSON. O arquivo é
+ * lido registro a registro e validado em memória; cada lote faz uma única
+ * consulta de nomes já cadastrados e grava os fornecedores com inserts em
+ * batch JDBC (IDs UUID gerados na aplicação), em transação própria. Erros são
+ * relatados por registro sem interromper a importação; se o lote falhar no
+ * banco, os registros são gravados um a um e só os que falham são recusados.
+ */
+@Service
+public class ServiceProviderImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceProviderImportService.class);
+
+    /**
+     * Formato do arquivo de importação
+     */
+    public enum Format {
+        CSV, JSON
+    }
+
+    private final ServiceProviderRepository serviceProviderRepository;
+    private final ProviderCatalog providerCatalog;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public ServiceProviderImportService(ServiceProviderRepository serviceProviderRepository,
+            ProviderCatalog providerCatalog, CacheInvalidationBus cacheInvalidationBus,
+            TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            @Value("${app.providers.import.chunk-size:500}") int chunkSize,
+            @Value("${app.providers.import.max-rows:10000}") int maxRows) {
+        this.serviceProviderRepository = serviceProviderRepository;
+        this.providerCatalog = providerCatalog;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        // Abaixo do limite de 1000 itens do IN no Oracle
+        this.chunkSize = Math.min(Math.max(chunkSize, 1), 1000);
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Importa fornecedores do arquivo
+     *
+     * @param in      conteúdo do arquivo
+     * @param format  formato do arquivo
+     * @param adminId ID do administrador que está importando
+     * @return totais e erros por registro
+     * @throws IOException se o arquivo não puder ser aberto (cabeçalho ou início inválido)
+     */
+    public ImportResult importProviders(InputStream in, Format format, UUID adminId) throws IOException {
+        ImportResult result = new ImportResult();
+        Set<String> namesInFile = new HashSet<>();
+        List<ProviderImportReader.Row> chunk = new ArrayList<>(chunkSize);
+
+        try (ProviderImportReader reader = format == Format.JSON
+                ? ProviderImportReader.json(in, objectMapper)
+                : ProviderImportReader.csv(in)) {
+            while (true) {
+                ProviderImportReader.Row row;
+                try {
+                    row = reader.next();
+                } catch (IOException e) {
+                    result.addError(reader.currentNumber(), null, "Arquivo inválido: " + e.getMessage());
+                    break;
+                }
+                if (row == null) {
+                    break;
+                }
+                if (result.totalRows >= maxRows) {
+                    result.addError(row.getNumber(), null,
+                            "Limite de " + maxRows + " registros por importação atingido; restante ignorado");
+                    break;
+                }
+                result.totalRows++;
+
+                String error = row.getError() != null ? row.getError() : validate(row.getRequest());
+                if (error == null && !namesInFile.add(normalizedName(row.getRequest().getName()))) {
+                    error = "Nome repetido no arquivo";
+                }
+                if (error != null) {
+                    result.addError(row.getNumber(), row.getRequest().getName(), error);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    saveChunk(chunk, adminId, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, adminId, result);
+        }
+
+        if (result.imported > 0) {
+            providerCatalog.refresh();
+            cacheInvalidationBus.publish(CacheInvalidationBus.PROVIDER, null);
+        }
+        logger.info("Importação de fornecedores: {} registros, {} importados, {} com erro",
+                result.totalRows, result.imported, result.errors.size());
+        return result;
+    }
+
+    // Um lote = uma consulta de nomes existentes + inserts em batch, numa transação
+    private void saveChunk(List<ProviderImportReader.Row> chunk, UUID adminId, ImportResult result) {
+        Set<String> names = new HashSet<>();
+        for (ProviderImportReader.Row row : chunk) {
+            names.add(normalizedName(row.getRequest().getName()));
+        }
+
+        try {
+            List<ImportError> duplicates = new ArrayList<>();
+            int saved = transactionTemplate.execute(status -> {
+                Set<String> existing = new HashSet<>(serviceProviderRepository.findExistingLowerNames(names));
+                List<ServiceProvider> providers = new ArrayList<>(chunk.size());
+                for (ProviderImportReader.Row row : chunk) {
+                    ServiceProviderCreateRequest request = row.getRequest();
+                    if (existing.contains(normalizedName(request.getName()))) {
+                        duplicates.add(new ImportError(row.getNumber(), request.getName(),
+                                "Já existe um fornecedor com este nome"));
+                        continue;
+                    }
+                    providers.add(toProvider(request, adminId));
+                }
+                serviceProviderRepository.saveAll(providers);
+                serviceProviderRepository.flush();
+                return providers.size();
+            });
+            result.imported += saved;
+            result.errors.addAll(duplicates);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao gravar lote de {} fornecedores: {}", chunk.size(), e.getMessage());
+            if (chunk.size() == 1) {
+                ProviderImportReader.Row row = chunk.get(0);
+                result.addError(row.getNumber(), row.getRequest().getName(), "Erro ao gravar lote: " + e.getMessage());
+                return;
+            }
+            saveRows(chunk, adminId, result);
+        }
+    }
+
+    // Lote recusado pelo banco: grava registro a registro, cada um na sua transação,
+    // para recusar só os registros que falham e não o lote inteiro
+    private void saveRows(List<ProviderImportReader.Row> chunk, UUID adminId, ImportResult result) {
+        for (ProviderImportReader.Row row : chunk) {
+            ServiceProviderCreateRequest request = row.getRequest();
+            try {
+                boolean saved = transactionTemplate.execute(status -> {
+                    List<String> existing = serviceProviderRepository
+                            .findExistingLowerNames(Set.of(normalizedName(request.getName())));
+                    if (!existing.isEmpty()) {
+                        return false;
+                    }
+                    serviceProviderRepository.save(toProvider(request, adminId));
+                    serviceProviderRepository.flush();
+                    return true;
+                });
+                if (saved) {
+                    result.imported++;
+                } else {
+                    result.addError(row.getNumber(), request.getName(), "Já existe um fornecedor com este nome");
+                }
+            } catch (RuntimeException e) {
+                result.addError(row.getNumber(), request.getName(), "Erro ao gravar registro: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ServiceProvider toProvider(ServiceProviderCreateRequest request, UUID adminId) {
+        return new ServiceProvider(
+                request.getName().trim(),
+                request.getLongitude(),
+                request.getLatitude(),
+                request.getDescription() != null ? request.getDescription().trim() : null,
+                request.getEndereco().trim(),
+                adminId);
+    }
+
+    // Mesmas regras do cadastro individual
+    private String validate(ServiceProviderCreateRequest request) {
+        String name = request.getName();
+        if (name == null || name.isBlank()) {
+            return "Nome é obrigatório";
+        }
+        if (name.trim().length() > 150) {
+            return "Nome deve ter no máximo 150 caracteres";
+        }
+        String endereco = request.getEndereco();
+        if (endereco == null || endereco.isBlank()) {
+            return "Endereço é obrigatório";
+        }
+        if (endereco.trim().length() > 300) {
+            return "Endereço deve ter no máximo 300 caracteres";
+        }
+        if (request.getDescription() != null && request.getDescription().trim().length() > 500) {
+            return "Descrição deve ter no máximo 500 caracteres";
+        }
+        try {
+            ServiceProviderService.validateGeographicCoordinates(request.getLongitude(), request.getLatitude());
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+
+    private static String normalizedName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resultado da importação
+     */
+    public static class ImportResult {
+        private int totalRows;
+        private int imported;
+        private final List<ImportError> errors = new ArrayList<>();
+
+        private void addError(int row, String name, String message) {
+            errors.add(new ImportError(row, name, message));
+        }
+
+        /**
+         * Registros lidos do arquivo
+         */
+        public int getTotalRows() {
+            return totalRows;
+        }
+
+        /**
+         * Fornecedores gravados
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * Registros recusados
+         */
+        public int getFailed() {
+            return totalRows - imported;
+        }
+
+        public List<ImportError> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Erro de um registro do arquivo
+     */
+    public static class ImportError {
+        private final int row;
+        private final String name;
+        private final String message;
+
+        public ImportError(int row, String name, String message) {
+            this.row = row;
+            this.name = name;
+            this.message = message;
+        }
+
+        /**
+         * Linha do CSV ou posição no array JSON (a partir de 1)
+         */
+        public int getRow() {
+            return row;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package fiap.backend.service;
 
 import fiap.backend.domain.ServiceProvider;
+import fiap.backend.dto.NearbyServiceProviderResponse;
 import fiap.backend.dto.ServiceProviderCreateRequest;
 import fiap.backend.dto.ServiceProviderResponse;
 import fiap.backend.dto.ServiceProviderUpdateRequest;
 import fiap.backend.repository.ServiceProviderRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +25,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class ServiceProviderService {
 
+    private static final double DEFAULT_RADIUS_KM = 10.0;
+    private static final double MAX_RADIUS_KM = 500.0;
+    private static final int DEFAULT_NEARBY_LIMIT = 20;
+    private static final int MAX_NEARBY_LIMIT = 100;
+    private static final int DEFAULT_TYPEAHEAD_LIMIT = 10;
+    private static final int MAX_TYPEAHEAD_LIMIT = 50;
+    private static final int MAX_TYPEAHEAD_QUERY_LENGTH = 100;
+
     private final ServiceProviderRepository serviceProviderRepository;
+    private final ProviderCatalog providerCatalog;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public ServiceProviderService(ServiceProviderRepository serviceProviderRepository) {
+    public ServiceProviderService(ServiceProviderRepository serviceProviderRepository,
+            ProviderCatalog providerCatalog, CacheInvalidationBus cacheInvalidationBus) {
         this.serviceProviderRepository = serviceProviderRepository;
+        this.providerCatalog = providerCatalog;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     /**
@@ -58,6 +73,7 @@ public class ServiceProviderService {
 
             // Salvar no banco
             ServiceProvider savedProvider = serviceProviderRepository.save(serviceProvider);
+            refreshCatalog(savedProvider.getId());
 
             return ServiceProviderResponse.success(savedProvider);
 
@@ -98,6 +114,7 @@ public class ServiceProviderService {
 
             // Salvar alterações
             ServiceProvider updatedProvider = serviceProviderRepository.save(existingProvider);
+            refreshCatalog(id);
 
             return ServiceProviderResponse.success(updatedProvider);
 
@@ -122,6 +139,7 @@ public class ServiceProviderService {
         provider.setUpdatedAt(LocalDateTime.now());
 
         serviceProviderRepository.save(provider);
+        refreshCatalog(id);
     }
 
     /**
@@ -136,19 +154,27 @@ public class ServiceProviderService {
         }
 
         serviceProviderRepository.deleteById(id);
+        refreshCatalog(id);
     }
 
     /**
-     * Busca todos os fornecedores ativos (público)
+     * Busca todos os fornecedores ativos (público), a partir do catálogo em memória
      * 
      * @return lista de fornecedores ativos
      */
     @Transactional(readOnly = true)
     public List<ServiceProviderResponse> getAllActiveProviders() {
-        return serviceProviderRepository.findAllActiveOrderByName()
-                .stream()
-                .map(ServiceProviderResponse::new)
-                .collect(Collectors.toList());
+        return providerCatalog.current().getProviders();
+    }
+
+    /**
+     * Versão atual do catálogo de fornecedores ativos, com JSON pré-serializado e ETag
+     * 
+     * @return snapshot imutável do catálogo
+     */
+    @Transactional(readOnly = true)
+    public ProviderCatalog.Snapshot getActiveCatalog() {
+        return providerCatalog.current();
     }
 
     /**
@@ -198,14 +224,35 @@ public class ServiceProviderService {
      */
     @Transactional(readOnly = true)
     public List<ServiceProviderResponse> searchActiveProvidersByName(String name) {
-        return serviceProviderRepository.findActiveByNameContainingIgnoreCase(name)
-                .stream()
-                .map(ServiceProviderResponse::new)
-                .collect(Collectors.toList());
+        return providerCatalog.current().searchByName(name);
     }
 
     /**
-     * Busca fornecedores dentro de uma área geográfica
+     * Autocompletar de fornecedores ativos por nome, ignorando acentos e
+     * maiúsculas e tolerando erros de digitação
+     * 
+     * @param query texto digitado
+     * @param limit quantidade máxima de sugestões (padrão 10, máximo 50)
+     * @return fornecedores ordenados por relevância
+     * @throws RuntimeException se parâmetros inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<ServiceProviderResponse> typeaheadProviders(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (query.length() > MAX_TYPEAHEAD_QUERY_LENGTH) {
+            throw new RuntimeException("Busca deve ter até " + MAX_TYPEAHEAD_QUERY_LENGTH + " caracteres");
+        }
+        int maxResults = limit != null ? limit : DEFAULT_TYPEAHEAD_LIMIT;
+        if (maxResults < 1 || maxResults > MAX_TYPEAHEAD_LIMIT) {
+            throw new RuntimeException("Limite deve estar entre 1 e " + MAX_TYPEAHEAD_LIMIT);
+        }
+        return providerCatalog.current().getNameIndex().typeahead(query, maxResults);
+    }
+
+    /**
+     * Busca fornecedores ativos dentro de uma área geográfica (índice espacial em memória)
      * 
      * @param minLat latitude mínima
      * @param maxLat latitude máxima
@@ -219,10 +266,34 @@ public class ServiceProviderService {
         validateGeographicCoordinates(minLng, minLat);
         validateGeographicCoordinates(maxLng, maxLat);
 
-        return serviceProviderRepository.findByLocationBounds(minLat, maxLat, minLng, maxLng)
-                .stream()
-                .map(ServiceProviderResponse::new)
-                .collect(Collectors.toList());
+        return providerCatalog.current().getSpatialIndex().withinBounds(minLat, maxLat, minLng, maxLng);
+    }
+
+    /**
+     * Busca os fornecedores ativos mais próximos de um ponto, dentro de um raio
+     * 
+     * @param latitude  latitude de referência
+     * @param longitude longitude de referência
+     * @param radiusKm  raio em km (padrão 10, máximo 500)
+     * @param limit     quantidade máxima de resultados (padrão 20, máximo 100)
+     * @return fornecedores ordenados do mais próximo ao mais distante
+     * @throws RuntimeException se parâmetros inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyServiceProviderResponse> findNearestProviders(Double latitude, Double longitude,
+            Double radiusKm, Integer limit) {
+        validateGeographicCoordinates(longitude, latitude);
+
+        double radius = radiusKm != null ? radiusKm : DEFAULT_RADIUS_KM;
+        if (radius <= 0 || radius > MAX_RADIUS_KM) {
+            throw new RuntimeException("Raio deve estar entre 0 e " + (int) MAX_RADIUS_KM + " km");
+        }
+        int maxResults = limit != null ? limit : DEFAULT_NEARBY_LIMIT;
+        if (maxResults < 1 || maxResults > MAX_NEARBY_LIMIT) {
+            throw new RuntimeException("Limite deve estar entre 1 e " + MAX_NEARBY_LIMIT);
+        }
+
+        return providerCatalog.current().getSpatialIndex().nearest(latitude, longitude, radius, maxResults);
     }
 
     /**
@@ -241,6 +312,16 @@ public class ServiceProviderService {
         return new ProviderStats(total, active, inactive);
     }
 
+    /**
+     * Recarrega o catálogo desta instância após o commit e avisa as demais instâncias
+     *
+     * @param id ID do fornecedor alterado
+     */
+    private void refreshCatalog(UUID id) {
+        TransactionCallbacks.afterCommit(providerCatalog::refresh);
+        cacheInvalidationBus.publish(CacheInvalidationBus.PROVIDER, id != null ? id.toString() : null);
+    }
+
     /**
      * Valida coordenadas geográficas
      * 
@@ -248,11 +329,16 @@ public class ServiceProviderService {
      * @param latitude  latitude a validar
      * @throws RuntimeException se coordenadas inválidas
      */
-    private void validateGeographicCoordinates(Double longitude, Double latitude) {
+    static void validateGeographicCoordinates(Double longitude, Double latitude) {
         if (longitude == null || latitude == null) {
             throw new RuntimeException("Longitude e latitude são obrigatórias");
         }
 
+        // NaN não é menor nem maior que nada e passaria pelas comparações abaixo
+        if (!Double.isFinite(longitude) || !Double.isFinite(latitude)) {
+            throw new RuntimeException("Longitude e latitude devem ser números finitos");
+        }
+
         if (longitude < -180.0 || longitude > 180.0) {
             throw new RuntimeException("Longitude deve estar entre -180 e 180 graus");
         }
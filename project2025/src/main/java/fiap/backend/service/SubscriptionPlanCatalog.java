@@ -0,0 +1,193 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.SubscriptionPlan;
+import fiap.backend.dto.SubscriptionPlanResponse;
+import fiap.backend.repository.SubscriptionPlanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo em memória dos planos de assinatura. A tabela é pequena e quase
+ * não muda, então cada versão é um Snapshot imutável com todos os planos,
+ * trocado atomicamente após o commit de cada escrita (e quando outra
+ * instância avisa pelo CacheInvalidationBus). Leituras de planos e a checagem
+ * do limite de planos nutricionais não vão ao banco.
+ */
+@Component
+public class SubscriptionPlanCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubscriptionPlanCatalog.class);
+
+    private final SubscriptionPlanRepository subscriptionPlanRepository;
+
+    // Intervalo mínimo entre recargas disparadas por plano desconhecido
+    private final long missingReloadIntervalNanos;
+
+    private volatile Snapshot current;
+
+    // Instante (nanoTime) da última recarga por plano desconhecido; guardado pelo monitor
+    private long lastMissingReload;
+    private boolean missingReloaded;
+
+    public SubscriptionPlanCatalog(SubscriptionPlanRepository subscriptionPlanRepository,
+            @Value("${app.subscription-plans.missing-reload-interval-ms:5000}") long missingReloadIntervalMs) {
+        this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.missingReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missingReloadIntervalMs);
+    }
+
+    /**
+     * Versão do catálogo em uso (começa em 1 e aumenta a cada recarga)
+     */
+    public long getVersion() {
+        return current().version;
+    }
+
+    /**
+     * Todos os planos, ativos e inativos
+     *
+     * @return lista imutável
+     */
+    public List<SubscriptionPlanResponse> getAllPlans() {
+        return current().all;
+    }
+
+    /**
+     * Planos ativos ordenados por preço
+     *
+     * @return lista imutável
+     */
+    public List<SubscriptionPlanResponse> getActivePlans() {
+        return current().active;
+    }
+
+    /**
+     * Busca um plano pelo ID
+     *
+     * @param planId ID do plano
+     * @return plano, ou vazio se não existir
+     */
+    public Optional<SubscriptionPlanResponse> findPlan(UUID planId) {
+        return Optional.ofNullable(lookup(planId).plans.get(planId));
+    }
+
+    /**
+     * Limite de planos nutricionais do plano de assinatura
+     *
+     * @param planId ID do plano
+     * @return limite, ou null se ilimitado
+     */
+    public Integer getNutritionPlansLimit(UUID planId) {
+        Snapshot snapshot = lookup(planId);
+        if (!snapshot.plans.containsKey(planId)) {
+            throw new RuntimeException("Plano de assinatura não encontrado");
+        }
+        return snapshot.nutritionPlanLimits.get(planId);
+    }
+
+    /**
+     * Recarrega o catálogo após uma escrita já confirmada. Se a recarga falhar,
+     * o catálogo é descartado e recarregado na próxima leitura.
+     */
+    public synchronized void refresh() {
+        Snapshot previous = current;
+        if (previous == null) {
+            return;
+        }
+        try {
+            current = load(previous.version + 1);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao recarregar catálogo de planos: {}", e.getMessage());
+            current = null;
+        }
+    }
+
+    // Um plano desconhecido pode ter sido criado em outra instância há instantes:
+    // recarrega, mas no máximo uma vez por intervalo, para que IDs inexistentes
+    // (ex.: UUIDs aleatórios em requisições) não disparem um findAll cada
+    private Snapshot lookup(UUID planId) {
+        Snapshot snapshot = current();
+        if (planId == null || snapshot.plans.containsKey(planId)) {
+            return snapshot;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            // Se outra thread já trocou o snapshot, basta consultar o novo
+            if (current == snapshot
+                    && (!missingReloaded || now - lastMissingReload >= missingReloadIntervalNanos)) {
+                missingReloaded = true;
+                lastMissingReload = now;
+                refresh();
+            }
+        }
+        return current();
+    }
+
+    private Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            if (current == null) {
+                current = load(1);
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load(long version) {
+        List<SubscriptionPlan> entities = subscriptionPlanRepository.findAll();
+        Map<UUID, SubscriptionPlanResponse> plans = new LinkedHashMap<>();
+        Map<UUID, Integer> limits = new HashMap<>();
+        for (SubscriptionPlan plan : entities) {
+            plans.put(plan.getId(), new SubscriptionPlanResponse(
+                    plan.getId(),
+                    plan.getName(),
+                    plan.getPrice(),
+                    plan.getCreatedAt(),
+                    plan.getUpdatedAt(),
+                    plan.getIsActive()));
+            limits.put(plan.getId(), plan.getNutritionPlansLimit());
+        }
+        List<SubscriptionPlanResponse> active = new ArrayList<>();
+        for (SubscriptionPlanResponse plan : plans.values()) {
+            if (Boolean.TRUE.equals(plan.getIsActive())) {
+                active.add(plan);
+            }
+        }
+        active.sort(Comparator.comparing(SubscriptionPlanResponse::getPrice));
+        logger.debug("Catálogo de planos carregado: versão {}, {} planos", version, plans.size());
+        return new Snapshot(version, plans, limits, active);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<UUID, SubscriptionPlanResponse> plans;
+        // Valor null = ilimitado
+        private final Map<UUID, Integer> nutritionPlanLimits;
+        private final List<SubscriptionPlanResponse> all;
+        private final List<SubscriptionPlanResponse> active;
+
+        private Snapshot(long version, Map<UUID, SubscriptionPlanResponse> plans,
+                Map<UUID, Integer> nutritionPlanLimits, List<SubscriptionPlanResponse> active) {
+            this.version = version;
+            this.plans = Collections.unmodifiableMap(plans);
+            this.nutritionPlanLimits = Collections.unmodifiableMap(nutritionPlanLimits);
+            this.all = List.copyOf(plans.values());
+            this.active = List.copyOf(active);
+        }
+    }
+}
@@ -4,21 +4,26 @@ import fiap.backend.domain.SubscriptionPlan;
 import fiap.backend.dto.SubscriptionPlanRequest;
 import fiap.backend.dto.SubscriptionPlanResponse;
 import fiap.backend.repository.SubscriptionPlanRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
 
     private final SubscriptionPlanRepository subscriptionPlanRepository;
+    private final SubscriptionPlanCatalog subscriptionPlanCatalog;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
-    public SubscriptionPlanServiceImpl(SubscriptionPlanRepository subscriptionPlanRepository) {
+    public SubscriptionPlanServiceImpl(SubscriptionPlanRepository subscriptionPlanRepository,
+            SubscriptionPlanCatalog subscriptionPlanCatalog, CacheInvalidationBus cacheInvalidationBus) {
         this.subscriptionPlanRepository = subscriptionPlanRepository;
+        this.subscriptionPlanCatalog = subscriptionPlanCatalog;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     @Override
@@ -29,6 +34,7 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
 
         SubscriptionPlan plan = new SubscriptionPlan(request.getName(), request.getPrice());
         SubscriptionPlan savedPlan = subscriptionPlanRepository.save(plan);
+        refreshCatalog(savedPlan.getId());
 
         return mapToResponse(savedPlan);
     }
@@ -48,33 +54,27 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
         plan.setPrice(request.getPrice());
 
         SubscriptionPlan updatedPlan = subscriptionPlanRepository.save(plan);
+        refreshCatalog(id);
         return mapToResponse(updatedPlan);
     }
 
     @Override
     @Transactional(readOnly = true)
     public SubscriptionPlanResponse getPlanById(UUID id) {
-        SubscriptionPlan plan = subscriptionPlanRepository.findById(id)
+        return subscriptionPlanCatalog.findPlan(id)
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
-        return mapToResponse(plan);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<SubscriptionPlanResponse> getAllActivePlans() {
-        return subscriptionPlanRepository.findAllActivePlansOrderByPrice()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return subscriptionPlanCatalog.getActivePlans();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<SubscriptionPlanResponse> getAllPlans() {
-        return subscriptionPlanRepository.findAll()
-                .stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return subscriptionPlanCatalog.getAllPlans();
     }
 
     @Override
@@ -83,6 +83,7 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
         plan.setIsActive(false);
         subscriptionPlanRepository.save(plan);
+        refreshCatalog(id);
     }
 
     @Override
@@ -91,6 +92,7 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
         plan.setIsActive(true);
         subscriptionPlanRepository.save(plan);
+        refreshCatalog(id);
     }
 
     @Override
@@ -99,6 +101,13 @@ public class SubscriptionPlanServiceImpl implements SubscriptionPlanService {
             throw new RuntimeException("Plan not found");
         }
         subscriptionPlanRepository.deleteById(id);
+        refreshCatalog(id);
+    }
+
+    // Recarrega o catálogo desta instância após o commit e avisa as demais instâncias
+    private void refreshCatalog(UUID id) {
+        TransactionCallbacks.afterCommit(subscriptionPlanCatalog::refresh);
+        cacheInvalidationBus.publish(CacheInvalidationBus.SUBSCRIPTION_PLAN, id != null ? id.toString() : null);
     }
 
     private SubscriptionPlanResponse mapToResponse(SubscriptionPlan plan) {
@@ -1,6 +1,7 @@
 package fiap.backend.service;
 
 import fiap.backend.domain.Subscription;
+import fiap.backend.dto.SubscriptionBatchResponse;
 import fiap.backend.dto.SubscriptionRequest;
 import fiap.backend.dto.SubscriptionResponse;
 import fiap.backend.dto.SubscriptionStatusUpdateRequest;
@@ -28,6 +29,10 @@ public interface SubscriptionService {
 
     SubscriptionResponse rejectSubscription(UUID id, UUID adminUserId);
 
+    SubscriptionBatchResponse approveSubscriptions(List<UUID> ids, UUID adminUserId);
+
+    SubscriptionBatchResponse rejectSubscriptions(List<UUID> ids, UUID adminUserId);
+
     SubscriptionResponse cancelSubscription(UUID id, UUID userId);
 
     long countActiveSubscriptionsByUserId(UUID userId);
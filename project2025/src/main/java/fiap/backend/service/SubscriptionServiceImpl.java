@@ -3,16 +3,28 @@ package fiap.backend.service;
 import fiap.backend.domain.Subscription;
 import fiap.backend.domain.SubscriptionPlan;
 import fiap.backend.domain.User;
+import fiap.backend.dto.SubscriptionBatchRequest;
+import fiap.backend.dto.SubscriptionBatchResponse;
 import fiap.backend.dto.SubscriptionRequest;
 import fiap.backend.dto.SubscriptionResponse;
 import fiap.backend.dto.SubscriptionStatusUpdateRequest;
 import fiap.backend.repository.SubscriptionPlanRepository;
 import fiap.backend.repository.SubscriptionRepository;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.outbox.DomainEventOutbox;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,13 +35,19 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     private final SubscriptionRepository subscriptionRepository;
     private final SubscriptionPlanRepository subscriptionPlanRepository;
     private final UserRepository userRepository;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final DomainEventOutbox domainEventOutbox;
 
     public SubscriptionServiceImpl(SubscriptionRepository subscriptionRepository,
             SubscriptionPlanRepository subscriptionPlanRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ActiveSubscriptionCache activeSubscriptionCache,
+            DomainEventOutbox domainEventOutbox) {
         this.subscriptionRepository = subscriptionRepository;
         this.subscriptionPlanRepository = subscriptionPlanRepository;
         this.userRepository = userRepository;
+        this.activeSubscriptionCache = activeSubscriptionCache;
+        this.domainEventOutbox = domainEventOutbox;
     }
 
     @Override
@@ -104,7 +122,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             case APPROVED:
                 // Antes de aprovar a nova assinatura, cancela todas as assinaturas ativas do
                 // usuário
-                cancelActiveSubscriptionsForUser(subscription.getUser().getId());
+                cancelActiveSubscriptionsForUser(subscription);
                 subscription.approve(adminUserId);
                 break;
             case REJECTED:
@@ -118,6 +136,11 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         }
 
         Subscription updatedSubscription = subscriptionRepository.save(subscription);
+        if (request.getStatus() == Subscription.SubscriptionStatus.APPROVED) {
+            flushApproval();
+        }
+        invalidateActiveSubscription(subscription.getUser().getId());
+        publishSubscriptionEvent(subscription, subscriptionEventType(request.getStatus()), adminUserId);
         return mapToResponse(updatedSubscription);
     }
 
@@ -132,10 +155,13 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         // Antes de aprovar a nova assinatura, cancela todas as assinaturas ativas do
         // usuário
-        cancelActiveSubscriptionsForUser(subscription.getUser().getId());
+        cancelActiveSubscriptionsForUser(subscription);
 
         subscription.approve(adminUserId);
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        flushApproval();
+        invalidateActiveSubscription(subscription.getUser().getId());
+        publishSubscriptionEvent(subscription, DomainEventOutbox.APPROVED, adminUserId);
         return mapToResponse(savedSubscription);
     }
 
@@ -150,9 +176,20 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         subscription.reject(adminUserId);
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        publishSubscriptionEvent(subscription, DomainEventOutbox.REJECTED, adminUserId);
         return mapToResponse(savedSubscription);
     }
 
+    @Override
+    public SubscriptionBatchResponse approveSubscriptions(List<UUID> ids, UUID adminUserId) {
+        return reviewPendingSubscriptions(ids, adminUserId, Subscription.SubscriptionStatus.APPROVED);
+    }
+
+    @Override
+    public SubscriptionBatchResponse rejectSubscriptions(List<UUID> ids, UUID adminUserId) {
+        return reviewPendingSubscriptions(ids, adminUserId, Subscription.SubscriptionStatus.REJECTED);
+    }
+
     @Override
     public SubscriptionResponse cancelSubscription(UUID id, UUID userId) {
         Subscription subscription = subscriptionRepository.findByIdWithUserAndPlan(id)
@@ -169,6 +206,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         subscription.cancel();
         Subscription savedSubscription = subscriptionRepository.save(subscription);
+        invalidateActiveSubscription(userId);
+        publishSubscriptionEvent(subscription, DomainEventOutbox.CANCELLED, userId);
         return mapToResponse(savedSubscription);
     }
 
@@ -181,14 +220,132 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     /**
      * Cancela todas as assinaturas ativas de um usuário
      * Implementa a regra de negócio: um usuário pode ter apenas 1 plano ativo por
-     * vez
+     * vez. Um único UPDATE em conjunto, executado na hora (antes da aprovação,
+     * por causa do índice único ux_subscriptions_active_user); a assinatura
+     * aprovada é gravada depois com checagem da versão (@Version), então uma
+     * aprovação concorrente da mesma assinatura falha em vez de sobrescrever
      */
-    private void cancelActiveSubscriptionsForUser(UUID userId) {
-        List<Subscription> activeSubscriptions = subscriptionRepository.findActiveSubscriptionsByUserId(userId);
+    private void cancelActiveSubscriptionsForUser(Subscription approving) {
+        subscriptionRepository.cancelOtherActiveSubscriptions(approving.getUser().getId(), approving.getId(),
+                Subscription.SubscriptionStatus.APPROVED, Subscription.SubscriptionStatus.CANCELLED,
+                LocalDateTime.now());
+    }
 
-        for (Subscription activeSubscription : activeSubscriptions) {
-            activeSubscription.cancel();
-            subscriptionRepository.save(activeSubscription);
+    /**
+     * Grava a aprovação na hora: uma aprovação concorrente de outra assinatura do
+     * mesmo usuário viola ux_subscriptions_active_user e vira o erro de assinatura
+     * ativa, em vez de uma falha de banco no commit
+     */
+    private void flushApproval() {
+        try {
+            subscriptionRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("User already has an active subscription");
+        }
+    }
+
+    /**
+     * Aprova ou rejeita assinaturas pendentes em lote, numa única transação: trava
+     * as assinaturas do lote com um SELECT ... FOR UPDATE e aplica cancelamentos e
+     * aprovações/rejeições com UPDATEs em conjunto. IDs inexistentes, não
+     * pendentes ou de um usuário que já tem outra assinatura aprovada no mesmo
+     * lote são relatados sem interromper o lote.
+     */
+    private SubscriptionBatchResponse reviewPendingSubscriptions(List<UUID> ids, UUID adminUserId,
+            Subscription.SubscriptionStatus targetStatus) {
+        Set<UUID> requestedIds = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(requestedIds::add);
+        }
+        if (requestedIds.isEmpty() || requestedIds.size() > SubscriptionBatchRequest.MAX_SUBSCRIPTIONS) {
+            throw new RuntimeException("Batch must contain between 1 and "
+                    + SubscriptionBatchRequest.MAX_SUBSCRIPTIONS + " subscription ids");
+        }
+        boolean approving = targetStatus == Subscription.SubscriptionStatus.APPROVED;
+
+        Map<UUID, Subscription> subscriptions = new HashMap<>();
+        for (Subscription subscription : subscriptionRepository.findAllByIdForUpdate(requestedIds)) {
+            subscriptions.put(subscription.getId(), subscription);
+        }
+
+        List<SubscriptionBatchResponse.Item> results = new ArrayList<>(requestedIds.size());
+        Set<UUID> reviewedIds = new LinkedHashSet<>();
+        List<Subscription> reviewed = new ArrayList<>();
+        // Usuário -> assinatura aprovada no lote (índice único: uma ativa por usuário)
+        Map<UUID, UUID> approvedByUser = new LinkedHashMap<>();
+        for (UUID id : requestedIds) {
+            Subscription subscription = subscriptions.get(id);
+            if (subscription == null) {
+                results.add(new SubscriptionBatchResponse.Item(id, false, null, "Subscription not found"));
+            } else if (!subscription.isPending()) {
+                results.add(new SubscriptionBatchResponse.Item(id, false, subscription.getStatus(),
+                        approving ? "Only pending subscriptions can be approved"
+                                : "Only pending subscriptions can be rejected"));
+            } else if (approving && approvedByUser.putIfAbsent(subscription.getUser().getId(), id) != null) {
+                results.add(new SubscriptionBatchResponse.Item(id, false, subscription.getStatus(),
+                        "Another subscription of the same user is approved in this batch"));
+            } else {
+                reviewedIds.add(id);
+                reviewed.add(subscription);
+                results.add(new SubscriptionBatchResponse.Item(id, true, targetStatus, null));
+            }
+        }
+
+        if (!reviewedIds.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            if (approving) {
+                // Cancela as ativas antes das aprovações, como em approveSubscription
+                subscriptionRepository.cancelActiveSubscriptionsByUserIds(approvedByUser.keySet(),
+                        Subscription.SubscriptionStatus.APPROVED, Subscription.SubscriptionStatus.CANCELLED, now);
+            }
+            subscriptionRepository.reviewPendingSubscriptions(reviewedIds,
+                    Subscription.SubscriptionStatus.PENDING, targetStatus, adminUserId, now);
+        }
+        String eventType = subscriptionEventType(targetStatus);
+        reviewed.forEach(subscription -> publishSubscriptionEvent(subscription, eventType, adminUserId));
+
+        if (!approvedByUser.isEmpty()) {
+            Set<UUID> userIds = Set.copyOf(approvedByUser.keySet());
+            userIds.forEach(activeSubscriptionCache::invalidate);
+            TransactionCallbacks.afterCommit(() -> userIds.forEach(activeSubscriptionCache::invalidate));
+        }
+        return new SubscriptionBatchResponse(results);
+    }
+
+    /**
+     * Remove a assinatura ativa do usuário do ActiveSubscriptionCache agora e de
+     * novo após o commit (até o commit, uma leitura concorrente ainda enxerga o
+     * status anterior). As demais instâncias são avisadas pelo consumidor do
+     * evento de assinatura na outbox (DomainEventListeners)
+     */
+    private void invalidateActiveSubscription(UUID userId) {
+        activeSubscriptionCache.invalidate(userId);
+        TransactionCallbacks.afterCommit(() -> activeSubscriptionCache.invalidate(userId));
+    }
+
+    /**
+     * Grava o evento de domínio da assinatura na outbox, na transação corrente
+     */
+    private void publishSubscriptionEvent(Subscription subscription, String eventType, UUID actorUserId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", subscription.getUser().getId());
+        payload.put("planId", subscription.getPlan().getId());
+        if (actorUserId != null) {
+            payload.put("actorUserId", actorUserId);
+        }
+        domainEventOutbox.publish(DomainEventOutbox.SUBSCRIPTION, subscription.getId(), eventType, payload);
+    }
+
+    private static String subscriptionEventType(Subscription.SubscriptionStatus status) {
+        switch (status) {
+            case APPROVED:
+                return DomainEventOutbox.APPROVED;
+            case REJECTED:
+                return DomainEventOutbox.REJECTED;
+            case CANCELLED:
+                return DomainEventOutbox.CANCELLED;
+            default:
+                throw new RuntimeException("Invalid status update");
         }
     }
 
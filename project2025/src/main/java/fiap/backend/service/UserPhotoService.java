@@ -4,12 +4,24 @@ import fiap.backend.domain.User;
 import fiap.backend.domain.UserPhoto;
 import fiap.backend.dto.UserPhotoResponse;
 import fiap.backend.repository.UserPhotoRepository;
+import fiap.backend.repository.UserPhotoSummary;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import fiap.backend.service.storage.InspectingPhotoInputStream;
+import fiap.backend.service.storage.PhotoStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -25,8 +37,15 @@ import java.util.UUID;
 @Transactional
 public class UserPhotoService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserPhotoService.class);
+
     private final UserPhotoRepository userPhotoRepository;
     private final UserRepository userRepository;
+    private final PhotoStorage photoStorage;
+    private final PhotoVariantService photoVariantService;
+    private final PhotoCache photoCache;
+    private final PhotoContentService photoContentService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     // Tipos de arquivo permitidos para upload
     private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
@@ -40,15 +59,24 @@ public class UserPhotoService {
     @Value("${app.default-photo.url:/api/photos/default}")
     private String defaultPhotoUrl;
 
-    public UserPhotoService(UserPhotoRepository userPhotoRepository, UserRepository userRepository) {
+    public UserPhotoService(UserPhotoRepository userPhotoRepository, UserRepository userRepository,
+            PhotoStorage photoStorage, PhotoVariantService photoVariantService, PhotoCache photoCache,
+            PhotoContentService photoContentService, CacheInvalidationBus cacheInvalidationBus) {
         this.userPhotoRepository = userPhotoRepository;
         this.userRepository = userRepository;
+        this.photoStorage = photoStorage;
+        this.photoVariantService = photoVariantService;
+        this.photoCache = photoCache;
+        this.photoContentService = photoContentService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     /**
      * Faz upload de uma nova foto de perfil para o usuário.
      * Remove automaticamente a foto anterior se existir para manter apenas uma foto
-     * por usuário.
+     * por usuário. O arquivo é lido uma única vez, em stream, direto para o storage:
+     * hash, tamanho e tipo (magic bytes) são obtidos nessa mesma passada. Conteúdo
+     * idêntico a outra foto reaproveita o mesmo arquivo (deduplicação por hash).
      * 
      * @param userId ID do usuário
      * @param file   arquivo de imagem
@@ -67,22 +95,51 @@ public class UserPhotoService {
         }
 
         try {
-            // Converter arquivo para bytes
-            byte[] photoData = file.getBytes();
+            // Gravar conteúdo no storage; o banco guarda apenas o hash e os metadados
+            String contentHash;
+            long fileSize;
+            String contentType;
+            try (InspectingPhotoInputStream content =
+                    new InspectingPhotoInputStream(file.getInputStream(), maxFileSize)) {
+                contentHash = photoStorage.store(content);
+                // Rollback: o arquivo recém-gravado é removido se nenhuma outra foto o usa
+                TransactionCallbacks.afterRollback(() -> purgeContent(contentHash));
+                fileSize = content.getBytesRead();
+                contentType = content.getDetectedContentType();
+            }
+            if (contentType == null) {
+                throw new IllegalArgumentException("Conteúdo do arquivo não é uma imagem JPEG, PNG ou GIF");
+            }
 
-            // Verificar se o usuário já possui foto e remover a antiga
-            Optional<UserPhoto> existingPhoto = userPhotoRepository.findByUser(user);
+            // Verificar se o usuário já possui foto e remover a antiga (só metadados, sem o BLOB)
+            String oldContentHash = null;
+            Optional<UserPhotoSummary> existingPhoto = userPhotoRepository.findSummaryByUserId(userId);
             if (existingPhoto.isPresent()) {
-                // Remover foto antiga para não onerar o banco
-                userPhotoRepository.delete(existingPhoto.get());
-                userPhotoRepository.flush(); // Garantir que a exclusão seja processada
+                oldContentHash = existingPhoto.get().getContentHash();
+                invalidateCache(existingPhoto.get().getId());
+                userPhotoRepository.deleteByUserId(userId);
             }
 
             // Criar nova foto (sempre uma nova entrada para evitar problemas de cache)
-            UserPhoto userPhoto = new UserPhoto(user, photoData, file.getOriginalFilename(), file.getContentType());
+            UserPhoto userPhoto = new UserPhoto(user, contentHash, fileSize,
+                    file.getOriginalFilename(), contentType);
 
-            // Salvar no banco
+            // Salvar no banco; o flush dispara a trigger que incrementa photo_contents.ref_count
             userPhoto = userPhotoRepository.save(userPhoto);
+            userPhotoRepository.flush();
+
+            // Conteúdo compartilhado removido por uma liberação concorrente entre o store e o flush
+            if (!photoStorage.exists(contentHash)) {
+                markRollbackOnly();
+                return UserPhotoResponse.error("Não foi possível gravar a foto, tente novamente");
+            }
+
+            if (oldContentHash != null && !oldContentHash.equals(contentHash)) {
+                releaseContent(oldContentHash);
+            }
+
+            // Miniaturas (?size=) geradas em background, só depois do commit
+            TransactionCallbacks.afterCommit(() -> photoVariantService.scheduleVariants(contentHash));
 
             // Atualizar URL da foto no usuário
             String photoUrl = generatePhotoUrl(userPhoto.getId());
@@ -97,7 +154,12 @@ public class UserPhotoService {
                     userPhoto.getFileSize(),
                     userPhoto.getContentType());
 
+        } catch (IllegalArgumentException e) {
+            // Conteúdo rejeitado durante a leitura (tamanho ou tipo real)
+            markRollbackOnly();
+            return UserPhotoResponse.error(e.getMessage());
         } catch (Exception e) {
+            markRollbackOnly();
             return UserPhotoResponse.error("Erro interno do servidor: " + e.getMessage());
         }
     }
@@ -119,12 +181,9 @@ public class UserPhotoService {
      * @return URL da foto do usuário ou URL da foto padrão
      */
     public String getUserPhotoUrl(UUID userId) {
-        Optional<UserPhoto> userPhoto = userPhotoRepository.findByUserId(userId);
-        if (userPhoto.isPresent()) {
-            return generatePhotoUrl(userPhoto.get().getId());
-        } else {
-            return defaultPhotoUrl;
-        }
+        return userPhotoRepository.findSummaryByUserId(userId)
+                .map(summary -> generatePhotoUrl(summary.getId()))
+                .orElse(defaultPhotoUrl);
     }
 
     /**
@@ -146,6 +205,68 @@ public class UserPhotoService {
         return userPhotoRepository.findById(photoId);
     }
 
+    /**
+     * Recupera o hash do conteúdo pelo ID da foto sem ler o conteúdo,
+     * usado para responder requisições condicionais (If-None-Match)
+     * 
+     * @param photoId ID da foto
+     * @return Optional com o hash; vazio se a foto não existe ou ainda está no BLOB
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getContentHashByPhotoId(UUID photoId) {
+        return userPhotoRepository.findContentHashById(photoId);
+    }
+
+    /**
+     * Hash SHA-256 do conteúdo da foto: o armazenado em content_hash ou, para
+     * fotos ainda não migradas, o do BLOB. Nesse caso o BLOB é lido uma única vez,
+     * gravado no PhotoStorage e o hash persistido em content_hash (BLOB limpo):
+     * o corpo da resposta e os acessos seguintes vêm do storage, sem reler o BLOB
+     * nem recalcular o hash.
+     * 
+     * @param photo foto (recebe o hash persistido)
+     * @return hash hexadecimal ou null se a foto não tiver conteúdo
+     * @throws IOException se o conteúdo não puder ser gravado no storage
+     */
+    public String resolveContentHash(UserPhoto photo) throws IOException {
+        if (photo.getContentHash() != null) {
+            return photo.getContentHash();
+        }
+        Optional<byte[]> photoData = userPhotoRepository.findPhotoDataById(photo.getId());
+        if (photoData.isEmpty()) {
+            return null;
+        }
+
+        String contentHash = photoStorage.store(new ByteArrayInputStream(photoData.get()));
+        TransactionCallbacks.afterRollback(() -> purgeContent(contentHash));
+        if (userPhotoRepository.moveToStorage(photo.getId(), contentHash) == 0) {
+            // Foto trocada ou migrada por outra requisição: libera o arquivo se ninguém o usa
+            releaseContent(contentHash);
+        }
+        photo.setContentHash(contentHash);
+        return contentHash;
+    }
+
+    /**
+     * Abre o conteúdo da foto para envio na resposta: arquivo no PhotoStorage
+     * ou, para fotos ainda não migradas, o BLOB legado (lido por consulta
+     * própria, já que photo_data é LAZY e a foto pode estar desanexada)
+     * 
+     * @param photo foto
+     * @return conteúdo da imagem
+     * @throws IOException se o conteúdo não estiver disponível
+     */
+    public Resource getPhotoContent(UserPhoto photo) throws IOException {
+        if (photo.getContentHash() != null) {
+            return photoStorage.load(photo.getContentHash());
+        }
+        Optional<byte[]> photoData = userPhotoRepository.findPhotoDataById(photo.getId());
+        if (photoData.isPresent()) {
+            return new ByteArrayResource(photoData.get());
+        }
+        throw new FileNotFoundException("Conteúdo da foto não encontrado: " + photo.getId());
+    }
+
     /**
      * Verifica se um usuário possui foto de perfil
      * 
@@ -169,12 +290,17 @@ public class UserPhotoService {
                     .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
             // Verificar se possui foto
-            if (!userPhotoRepository.existsByUserId(userId)) {
+            Optional<UserPhotoSummary> photo = userPhotoRepository.findSummaryByUserId(userId);
+            if (photo.isEmpty()) {
                 return UserPhotoResponse.error("Usuário não possui foto de perfil");
             }
 
-            // Remover foto do banco
+            // Remover foto do banco e liberar o conteúdo no storage
+            invalidateCache(photo.get().getId());
             userPhotoRepository.deleteByUserId(userId);
+            if (photo.get().getContentHash() != null) {
+                releaseContent(photo.get().getContentHash());
+            }
 
             // Definir foto padrão no usuário
             user.setProfilePhotoUrl(defaultPhotoUrl);
@@ -194,20 +320,25 @@ public class UserPhotoService {
      * @param userId ID do usuário
      * @return Optional com metadados da foto
      */
-    public Optional<UserPhoto> getPhotoMetadata(UUID userId) {
-        return userPhotoRepository.findMetadataByUserId(userId);
+    @Transactional(readOnly = true)
+    public Optional<UserPhotoSummary> getPhotoMetadata(UUID userId) {
+        return userPhotoRepository.findSummaryByUserId(userId);
     }
 
     /**
-     * Calcula estatísticas de armazenamento de fotos
+     * Calcula estatísticas de armazenamento de fotos: bytes lógicos (soma de
+     * todas as fotos) e físicos (conteúdos deduplicados + BLOBs não migrados)
      * 
      * @return informações sobre uso de storage
      */
+    @Transactional(readOnly = true)
     public PhotoStorageStats getStorageStats() {
         long totalPhotos = userPhotoRepository.countAllPhotos();
         long totalStorage = userPhotoRepository.getTotalStorageUsed();
+        long physicalStorage = photoContentService.getPhysicalStorageUsed()
+                + userPhotoRepository.getLegacyStorageUsed();
 
-        return new PhotoStorageStats(totalPhotos, totalStorage);
+        return new PhotoStorageStats(totalPhotos, totalStorage, physicalStorage);
     }
 
     /**
@@ -233,6 +364,45 @@ public class UserPhotoService {
         return null; // Arquivo válido
     }
 
+    /**
+     * Libera o conteúdo após o commit: o PhotoContentService remove o arquivo
+     * se a contagem de referências (decrementada pela trigger na remoção da foto)
+     * chegou a zero. Só depois do commit, para que um rollback não deixe
+     * registros apontando para arquivos apagados.
+     * 
+     * @param contentHash hash do conteúdo
+     */
+    private void releaseContent(String contentHash) {
+        TransactionCallbacks.afterCommit(() -> purgeContent(contentHash));
+    }
+
+    private void purgeContent(String contentHash) {
+        try {
+            photoContentService.purgeIfUnreferenced(contentHash);
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao liberar conteúdo {} do storage: {}", contentHash, e.getMessage());
+        }
+    }
+
+    private void markRollbackOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
+
+    /**
+     * Remove a foto do PhotoCache agora e de novo após o commit, pois até o commit
+     * uma leitura concorrente ainda enxerga a foto e pode recolocá-la no cache.
+     * As demais instâncias são avisadas pelo CacheInvalidationBus
+     * 
+     * @param photoId ID da foto
+     */
+    private void invalidateCache(UUID photoId) {
+        photoCache.invalidate(photoId);
+        TransactionCallbacks.afterCommit(() -> photoCache.invalidate(photoId));
+        cacheInvalidationBus.publish(CacheInvalidationBus.PHOTO, photoId.toString());
+    }
+
     /**
      * Gera URL para acessar a foto
      * 
@@ -249,10 +419,12 @@ public class UserPhotoService {
     public static class PhotoStorageStats {
         private final long totalPhotos;
         private final long totalStorageBytes;
+        private final long physicalStorageBytes;
 
-        public PhotoStorageStats(long totalPhotos, long totalStorageBytes) {
+        public PhotoStorageStats(long totalPhotos, long totalStorageBytes, long physicalStorageBytes) {
             this.totalPhotos = totalPhotos;
             this.totalStorageBytes = totalStorageBytes;
+            this.physicalStorageBytes = physicalStorageBytes;
         }
 
         /**
@@ -281,5 +453,32 @@ public class UserPhotoService {
         public double getTotalStorageMB() {
             return totalStorageBytes / (1024.0 * 1024.0);
         }
+
+        /**
+         * Espaço realmente ocupado em bytes, com conteúdos repetidos contados uma vez
+         * 
+         * @return bytes armazenados
+         */
+        public long getPhysicalStorageBytes() {
+            return physicalStorageBytes;
+        }
+
+        /**
+         * Espaço realmente ocupado em MB
+         * 
+         * @return megabytes armazenados
+         */
+        public double getPhysicalStorageMB() {
+            return physicalStorageBytes / (1024.0 * 1024.0);
+        }
+
+        /**
+         * Bytes economizados pela deduplicação
+         * 
+         * @return diferença entre os bytes lógicos e os físicos
+         */
+        public long getDeduplicatedBytes() {
+            return Math.max(0, totalStorageBytes - physicalStorageBytes);
+        }
     }
 }
@@ -0,0 +1,33 @@
+package fiap.backend.service.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Barramento de invalidação de cache entre instâncias da aplicação. Cada
+ * instância continua invalidando o próprio cache após o commit; o barramento
+ * leva a alteração às demais, que invalidam seus caches em memória.
+ */
+public interface CacheInvalidationBus {
+
+    String PHOTO = "photo";
+    String PROVIDER = "provider";
+    String SUBSCRIPTION_PLAN = "subscription_plan";
+    String ACTIVE_SUBSCRIPTION = "active_subscription";
+
+    /**
+     * Publica a alteração de uma entidade para as demais instâncias. Dentro de
+     * uma transação, o evento só é visível aos outros nós após o commit.
+     *
+     * @param entityType tipo da entidade
+     * @param key chave da entidade, ou null para todas do tipo
+     */
+    void publish(String entityType, String key);
+
+    /**
+     * Registra a ação executada quando outra instância publica uma alteração
+     *
+     * @param entityType tipo da entidade
+     * @param listener recebe a chave da entidade (null = todas)
+     */
+    void subscribe(String entityType, Consumer<String> listener);
+}
@@ -0,0 +1,33 @@
+package fiap.backend.service.cache;
+
+import fiap.backend.service.ActiveSubscriptionCache;
+import fiap.backend.service.PhotoCache;
+import fiap.backend.service.ProviderCatalog;
+import fiap.backend.service.SubscriptionPlanCatalog;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Liga os caches em memória da aplicação aos eventos publicados por outras
+ * instâncias no CacheInvalidationBus
+ */
+@Component
+public class CacheInvalidationListeners {
+
+    public CacheInvalidationListeners(CacheInvalidationBus bus, PhotoCache photoCache,
+            ProviderCatalog providerCatalog, SubscriptionPlanCatalog subscriptionPlanCatalog,
+            ActiveSubscriptionCache activeSubscriptionCache) {
+        bus.subscribe(CacheInvalidationBus.PHOTO, key -> photoCache.invalidate(UUID.fromString(key)));
+        bus.subscribe(CacheInvalidationBus.PROVIDER, key -> providerCatalog.refresh());
+        bus.subscribe(CacheInvalidationBus.SUBSCRIPTION_PLAN, key -> subscriptionPlanCatalog.refresh());
+        bus.subscribe(CacheInvalidationBus.ACTIVE_SUBSCRIPTION,
+                key -> {
+                    if (key == null) {
+                        activeSubscriptionCache.invalidateAll();
+                    } else {
+                        activeSubscriptionCache.invalidate(UUID.fromString(key));
+                    }
+                });
+    }
+}
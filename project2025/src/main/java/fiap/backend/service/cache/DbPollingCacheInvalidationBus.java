@@ -0,0 +1,174 @@
+package fiap.backend.service.cache;
+
+import fiap.backend.domain.CacheInvalidationEvent;
+import fiap.backend.repository.CacheInvalidationEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Barramento de invalidação sobre uma tabela de outbox no próprio banco
+ * (Oracle ou H2), sem broker externo. publish grava o evento na transação
+ * corrente; cada instância lê periodicamente os eventos novos e repassa aos
+ * listeners os publicados pelas outras.
+ *
+ * A leitura relê uma janela (lookback) antes do último evento visto, porque
+ * um evento de uma transação longa pode ficar visível depois de outros mais
+ * recentes; IDs já processados são lembrados durante essa janela.
+ */
+@Component
+public class DbPollingCacheInvalidationBus implements CacheInvalidationBus, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbPollingCacheInvalidationBus.class);
+
+    // Limpeza da outbox a cada N leituras
+    private static final int CLEANUP_EVERY_POLLS = 60;
+
+    private final CacheInvalidationEventRepository repository;
+    private final String nodeId;
+    private final long pollIntervalMs;
+    private final Duration lookback;
+    private final Duration retention;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    // ID do evento -> created_at, para não repassar o mesmo evento duas vezes
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private LocalDateTime watermark;
+    // Marca d'água inicial pendente: lida na primeira leitura após start()
+    private boolean watermarkPending;
+    private int polls;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public DbPollingCacheInvalidationBus(CacheInvalidationEventRepository repository,
+            @Value("${app.cache.invalidation.node-id:}") String nodeId,
+            @Value("${app.cache.invalidation.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${app.cache.invalidation.lookback-seconds:60}") long lookbackSeconds,
+            @Value("${app.cache.invalidation.retention-seconds:600}") long retentionSeconds) {
+        this.repository = repository;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.pollIntervalMs = pollIntervalMs;
+        this.lookback = Duration.ofSeconds(lookbackSeconds);
+        this.retention = Duration.ofSeconds(Math.max(retentionSeconds, lookbackSeconds * 2));
+    }
+
+    @Override
+    public void publish(String entityType, String key) {
+        repository.save(new CacheInvalidationEvent(entityType, key, nodeId));
+    }
+
+    @Override
+    public void subscribe(String entityType, Consumer<String> listener) {
+        listeners.computeIfAbsent(entityType, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Lê os eventos novos e repassa aos listeners os publicados por outras instâncias
+     *
+     * @return eventos repassados
+     */
+    public synchronized int poll() {
+        if (watermarkPending) {
+            // Os caches começam vazios: eventos anteriores à subida não precisam ser
+            // aplicados (os da janela de releitura são reaplicados sem efeito)
+            watermark = repository.findLatestCreatedAt();
+            watermarkPending = false;
+        }
+        List<CacheInvalidationEvent> events = watermark == null
+                ? repository.findAllByOrderByIdAsc()
+                : repository.findByCreatedAtAfterOrderByIdAsc(watermark.minus(lookback));
+
+        int dispatched = 0;
+        for (CacheInvalidationEvent event : events) {
+            if (seen.putIfAbsent(event.getId(), event.getCreatedAt()) != null) {
+                continue;
+            }
+            if (watermark == null || event.getCreatedAt().isAfter(watermark)) {
+                watermark = event.getCreatedAt();
+            }
+            if (!nodeId.equals(event.getOrigin())) {
+                dispatch(event);
+                dispatched++;
+            }
+        }
+
+        if (watermark != null) {
+            LocalDateTime horizon = watermark.minus(lookback);
+            seen.values().removeIf(createdAt -> createdAt.isBefore(horizon));
+            if (++polls % CLEANUP_EVERY_POLLS == 0) {
+                repository.deleteCreatedBefore(watermark.minus(retention));
+            }
+        }
+        return dispatched;
+    }
+
+    private void dispatch(CacheInvalidationEvent event) {
+        for (Consumer<String> listener : listeners.getOrDefault(event.getEntityType(), List.of())) {
+            try {
+                listener.accept(event.getEntityKey());
+            } catch (RuntimeException e) {
+                logger.warn("Falha ao invalidar cache {} {}: {}", event.getEntityType(), event.getEntityKey(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao ler eventos de invalidação de cache: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        // Sem acesso ao banco na subida: uma falha aqui (ou a tabela ausente)
+        // impediria a aplicação de iniciar; a marca d'água vem na primeira leitura
+        watermarkPending = true;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Barramento de invalidação de cache iniciado (instância {}, leitura a cada {} ms)",
+                nodeId, pollIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
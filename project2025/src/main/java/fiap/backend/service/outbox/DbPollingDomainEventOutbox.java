@@ -0,0 +1,259 @@
+package fiap.backend.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.DomainEvent;
+import fiap.backend.repository.DomainEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Outbox de eventos de domínio sobre a tabela domain_events (Oracle ou H2),
+ * sem broker externo. publish grava o evento na transação corrente; cada
+ * instância lê periodicamente lotes de eventos pendentes, reivindica-os com um
+ * UPDATE condicional (claim_token/claimed_until), entrega aos listeners e
+ * marca o lote como processado.
+ *
+ * Só o evento pendente mais antigo de cada agregado entra num lote, então
+ * eventos do mesmo agregado são entregues em ordem mesmo com várias
+ * instâncias. Métricas: pendentes e idade do pendente mais antigo (gauges),
+ * tempo da gravação até a entrega (timer) e entregas por resultado (counter).
+ */
+@Component
+public class DbPollingDomainEventOutbox implements DomainEventOutbox, SmartLifecycle {
+
+    public static final String PENDING_NAME = "nutrixpert.outbox.pending";
+    public static final String LAG_NAME = "nutrixpert.outbox.lag";
+    public static final String DELIVERY_NAME = "nutrixpert.outbox.delivery";
+    public static final String EVENTS_NAME = "nutrixpert.outbox.events";
+
+    private static final Logger logger = LoggerFactory.getLogger(DbPollingDomainEventOutbox.class);
+
+    // Lotes por leitura, para não segurar a thread quando há muito atraso
+    private static final int MAX_BATCHES_PER_POLL = 10;
+    // Limpeza dos eventos processados a cada N leituras
+    private static final int CLEANUP_EVERY_POLLS = 600;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final DomainEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final long pollIntervalMs;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    private final Map<String, List<Consumer<DomainEvent>>> listeners = new ConcurrentHashMap<>();
+    private final Timer deliveryTimer;
+    private volatile long pendingEvents;
+    private volatile double lagSeconds;
+    private int polls;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    public DbPollingDomainEventOutbox(DomainEventRepository repository, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.lease-seconds:60}") long leaseSeconds,
+            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${app.outbox.retention-hours:168}") long retentionHours) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = Math.max(batchSize, 1);
+        this.lease = Duration.ofSeconds(Math.max(leaseSeconds, 1));
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retention = Duration.ofHours(Math.max(retentionHours, 1));
+
+        Gauge.builder(PENDING_NAME, this, outbox -> outbox.pendingEvents)
+                .description("Eventos de domínio ainda não entregues")
+                .register(meterRegistry);
+        Gauge.builder(LAG_NAME, this, outbox -> outbox.lagSeconds)
+                .description("Idade em segundos do evento pendente mais antigo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deliveryTimer = Timer.builder(DELIVERY_NAME)
+                .description("Tempo entre a gravação do evento e a entrega aos listeners")
+                // Percentis no cliente aparecem no /actuator/metrics; o histograma
+                // serve a um backend que agregue entre instâncias
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, UUID aggregateId, String eventType, Map<String, ?> payload) {
+        repository.save(new DomainEvent(aggregateType, aggregateId.toString(), eventType, toJson(payload)));
+    }
+
+    @Override
+    public void subscribe(String aggregateType, Consumer<DomainEvent> listener) {
+        listeners.computeIfAbsent(aggregateType, k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Reivindica e entrega lotes de eventos pendentes
+     *
+     * @return eventos entregues
+     */
+    public synchronized int poll() {
+        int delivered = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = repository.findDeliverableIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            String token = UUID.randomUUID().toString();
+            if (repository.claim(ids, token, now.plus(lease), now) > 0) {
+                delivered += deliver(repository.findByClaimTokenOrderByIdAsc(token), token);
+            }
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+
+        updateBacklog();
+        if (++polls % CLEANUP_EVERY_POLLS == 0) {
+            repository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        }
+        return delivered;
+    }
+
+    private int deliver(List<DomainEvent> events, String token) {
+        List<Long> delivered = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            try {
+                dispatch(event);
+                delivered.add(event.getId());
+                recordDelivery(event);
+            } catch (RuntimeException e) {
+                fail(event, token, e);
+            }
+        }
+        if (!delivered.isEmpty()) {
+            repository.markProcessed(delivered, token, LocalDateTime.now());
+        }
+        return delivered.size();
+    }
+
+    private void dispatch(DomainEvent event) {
+        for (Consumer<DomainEvent> listener : listeners.getOrDefault(event.getAggregateType(), List.of())) {
+            listener.accept(event);
+        }
+    }
+
+    // Nova tentativa com espera crescente (limitada ao prazo da reivindicação), ou encerra o evento
+    private void fail(DomainEvent event, String token, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        if (attempts >= maxAttempts) {
+            repository.markFailed(event.getId(), token, error, null, now);
+            meterRegistry.counter(EVENTS_NAME, "outcome", "dead").increment();
+            logger.error("Evento {} {} {} descartado após {} tentativas: {}", event.getId(),
+                    event.getAggregateType(), event.getEventType(), attempts, error);
+        } else {
+            long backoffMs = Math.min(lease.toMillis(), pollIntervalMs << Math.min(attempts, 20));
+            repository.markFailed(event.getId(), token, error, now.plus(Duration.ofMillis(backoffMs)), null);
+            meterRegistry.counter(EVENTS_NAME, "outcome", "retry").increment();
+            logger.warn("Falha ao entregar evento {} {} {} (tentativa {}): {}", event.getId(),
+                    event.getAggregateType(), event.getEventType(), attempts, error);
+        }
+    }
+
+    private void recordDelivery(DomainEvent event) {
+        meterRegistry.counter(EVENTS_NAME, "outcome", "delivered").increment();
+        if (event.getCreatedAt() != null) {
+            // created_at vem do relógio do banco: diferença de relógio não gera tempo negativo
+            Duration lag = Duration.between(event.getCreatedAt(), LocalDateTime.now());
+            deliveryTimer.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+
+    private void updateBacklog() {
+        pendingEvents = repository.countByProcessedAtIsNull();
+        LocalDateTime oldest = repository.findOldestPendingCreatedAt();
+        lagSeconds = oldest == null
+                ? 0
+                : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    private String toJson(Map<String, ?> payload) {
+        if (payload == null || payload.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Falha ao serializar evento de domínio: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Falha ao ler eventos de domínio: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "domain-event-outbox-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Outbox de eventos de domínio iniciada (lotes de {}, leitura a cada {} ms)",
+                batchSize, pollIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
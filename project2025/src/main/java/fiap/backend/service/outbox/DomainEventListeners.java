@@ -0,0 +1,57 @@
+package fiap.backend.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.DomainEvent;
+import fiap.backend.service.ActiveSubscriptionCache;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Consumidores dos eventos de domínio da outbox. Cada evento é entregue a uma
+ * única instância, então a invalidação de caches em memória é repassada às
+ * demais pelo CacheInvalidationBus.
+ */
+@Component
+public class DomainEventListeners {
+
+    private final ObjectMapper objectMapper;
+    private final ActiveSubscriptionCache activeSubscriptionCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public DomainEventListeners(DomainEventOutbox outbox, ObjectMapper objectMapper,
+            ActiveSubscriptionCache activeSubscriptionCache, CacheInvalidationBus cacheInvalidationBus) {
+        this.objectMapper = objectMapper;
+        this.activeSubscriptionCache = activeSubscriptionCache;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        outbox.subscribe(DomainEventOutbox.SUBSCRIPTION, this::onSubscriptionEvent);
+    }
+
+    /**
+     * Mudança de status de assinatura: a assinatura ativa do usuário pode ter
+     * mudado. A instância que fez a escrita já invalidou o próprio cache; aqui
+     * a invalidação chega às demais, mesmo que aquela instância caia após o commit
+     *
+     * @param event evento de assinatura
+     */
+    void onSubscriptionEvent(DomainEvent event) {
+        UUID userId = userId(event);
+        activeSubscriptionCache.invalidate(userId);
+        cacheInvalidationBus.publish(CacheInvalidationBus.ACTIVE_SUBSCRIPTION, userId.toString());
+    }
+
+    private UUID userId(DomainEvent event) {
+        try {
+            JsonNode userId = event.getPayload() == null ? null : objectMapper.readTree(event.getPayload()).get("userId");
+            if (userId == null || userId.isNull()) {
+                throw new RuntimeException("Evento de assinatura sem userId");
+            }
+            return UUID.fromString(userId.asText());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Payload de evento inválido: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package fiap.backend.service.outbox;
+
+import fiap.backend.domain.DomainEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Outbox de eventos de domínio: o evento é gravado na transação da mudança de
+ * estado e entregue depois, fora dela, aos listeners registrados. Entrega pelo
+ * menos uma vez e em ordem por agregado; listeners devem ser idempotentes.
+ */
+public interface DomainEventOutbox {
+
+    // Tipos de agregado
+    String SUBSCRIPTION = "subscription";
+    String NUTRITION_PLAN = "nutrition_plan";
+
+    // Eventos de assinatura; approved implica o cancelamento da ativa anterior do usuário
+    String APPROVED = "approved";
+    String REJECTED = "rejected";
+    String CANCELLED = "cancelled";
+
+    // Eventos de plano nutricional
+    String CREATED = "created";
+    String COMPLETED = "completed";
+    String REOPENED = "reopened";
+    String DELETED = "deleted";
+
+    /**
+     * Grava o evento na transação corrente (obrigatória)
+     *
+     * @param aggregateType tipo do agregado
+     * @param aggregateId   ID do agregado
+     * @param eventType     tipo do evento
+     * @param payload       dados do evento, serializados em JSON
+     */
+    void publish(String aggregateType, UUID aggregateId, String eventType, Map<String, ?> payload);
+
+    /**
+     * Registra um listener para os eventos de um tipo de agregado. Uma exceção
+     * do listener faz o evento ser entregue de novo mais tarde.
+     *
+     * @param aggregateType tipo do agregado
+     * @param listener      recebe o evento
+     */
+    void subscribe(String aggregateType, Consumer<DomainEvent> listener);
+}
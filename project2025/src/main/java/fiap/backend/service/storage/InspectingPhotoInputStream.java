@@ -0,0 +1,128 @@
+package fiap.backend.service.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Stream de upload de foto que, na mesma passada em que o conteúdo é gravado
+ * no storage, conta os bytes, limita o tamanho e identifica o tipo da imagem
+ * pelos magic bytes (em vez de confiar no Content-Type enviado pelo cliente).
+ * Conteúdo inválido interrompe a leitura com IllegalArgumentException, e o
+ * storage descarta o arquivo temporário.
+ */
+public class InspectingPhotoInputStream extends FilterInputStream {
+
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte[] JPEG_MAGIC = { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF };
+    private static final byte[] PNG_MAGIC = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final byte[] GIF87_MAGIC = { 'G', 'I', 'F', '8', '7', 'a' };
+    private static final byte[] GIF89_MAGIC = { 'G', 'I', 'F', '8', '9', 'a' };
+
+    private final long maxBytes;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private int headerLength;
+    private long bytesRead;
+    private String detectedContentType;
+
+    public InspectingPhotoInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            inspectHeader();
+        } else {
+            inspect(new byte[] { (byte) b }, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = super.read(buffer, offset, length);
+        if (n == -1) {
+            inspectHeader();
+        } else {
+            inspect(buffer, offset, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Bytes pulados também contam para tamanho e cabeçalho
+        byte[] discard = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        while (skipped < n) {
+            int r = read(discard, 0, (int) Math.min(discard.length, n - skipped));
+            if (r == -1) {
+                break;
+            }
+            skipped += r;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Total de bytes lidos até agora
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Tipo identificado pelos magic bytes (image/jpeg, image/png ou image/gif),
+     * ou null se o cabeçalho ainda não foi lido
+     */
+    public String getDetectedContentType() {
+        return detectedContentType;
+    }
+
+    private void inspect(byte[] buffer, int offset, int length) {
+        bytesRead += length;
+        if (bytesRead > maxBytes) {
+            throw new IllegalArgumentException(String.format(
+                    "Arquivo muito grande. Tamanho máximo: %d MB", maxBytes / (1024 * 1024)));
+        }
+
+        if (headerLength < HEADER_SIZE) {
+            int copy = Math.min(length, HEADER_SIZE - headerLength);
+            System.arraycopy(buffer, offset, header, headerLength, copy);
+            headerLength += copy;
+            if (headerLength == HEADER_SIZE) {
+                inspectHeader();
+            }
+        }
+    }
+
+    private void inspectHeader() {
+        if (detectedContentType != null) {
+            return;
+        }
+        if (startsWith(JPEG_MAGIC)) {
+            detectedContentType = "image/jpeg";
+        } else if (startsWith(PNG_MAGIC)) {
+            detectedContentType = "image/png";
+        } else if (startsWith(GIF87_MAGIC) || startsWith(GIF89_MAGIC)) {
+            detectedContentType = "image/gif";
+        } else {
+            throw new IllegalArgumentException("Conteúdo do arquivo não é uma imagem JPEG, PNG ou GIF");
+        }
+    }
+
+    private boolean startsWith(byte[] magic) {
+        return headerLength >= magic.length
+                && Arrays.equals(header, 0, magic.length, magic, 0, magic.length);
+    }
+}
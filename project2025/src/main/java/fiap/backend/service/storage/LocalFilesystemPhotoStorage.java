@@ -0,0 +1,141 @@
+package fiap.backend.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Storage de fotos em sistema de arquivos local, endereçado por conteúdo.
+ * Cada arquivo fica em {root}/ab/cd/{hash}, onde ab e cd são os quatro
+ * primeiros caracteres do hash, para não concentrar milhares de arquivos
+ * em um único diretório. Variantes ficam ao lado, em {hash}.{variante}.
+ */
+@Component
+public class LocalFilesystemPhotoStorage implements PhotoStorage {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT_PATTERN = Pattern.compile("[0-9a-z]{1,16}");
+
+    private final Path root;
+
+    public LocalFilesystemPhotoStorage(@Value("${app.photo-storage.local.root:./data/photos}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String store(InputStream content) throws IOException {
+        Path temp = createTempFile();
+
+        try {
+            // Hash calculado enquanto o conteúdo é copiado para o arquivo temporário
+            MessageDigest digest = sha256();
+            Files.copy(new DigestInputStream(content, digest), temp, StandardCopyOption.REPLACE_EXISTING);
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+
+            Path target = resolve(contentHash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                // rename atômico: leitores nunca enxergam um arquivo parcial
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return contentHash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Resource load(String contentHash) throws IOException {
+        Path path = resolve(contentHash);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException("Conteúdo não encontrado no storage: " + contentHash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.isRegularFile(resolve(contentHash));
+    }
+
+    @Override
+    public void delete(String contentHash) throws IOException {
+        Path path = resolve(contentHash);
+        if (Files.isDirectory(path.getParent())) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(path.getParent(), contentHash + ".*")) {
+                for (Path variant : variants) {
+                    Files.deleteIfExists(variant);
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void storeVariant(String contentHash, String variant, InputStream content) throws IOException {
+        Path target = resolveVariant(contentHash, variant);
+        Path temp = createTempFile();
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<Resource> findVariant(String contentHash, String variant) {
+        Path path = resolveVariant(contentHash, variant);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    /**
+     * Caminho do arquivo para o hash informado
+     */
+    Path resolve(String contentHash) {
+        if (contentHash == null || !HASH_PATTERN.matcher(contentHash).matches()) {
+            throw new IllegalArgumentException("Hash de conteúdo inválido");
+        }
+        return root.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    Path resolveVariant(String contentHash, String variant) {
+        if (variant == null || !VARIANT_PATTERN.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Variante inválida");
+        }
+        return resolve(contentHash).resolveSibling(contentHash + "." + variant);
+    }
+
+    private Path createTempFile() throws IOException {
+        Path tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        return Files.createTempFile(tmpDir, "upload-", ".part");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package fiap.backend.service.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Armazenamento do conteúdo binário das fotos de perfil.
+ * O conteúdo é endereçado pelo hash SHA-256 (hex, minúsculo); o Oracle guarda
+ * apenas os metadados e o hash em user_photos.content_hash.
+ */
+public interface PhotoStorage {
+
+    /**
+     * Grava o conteúdo lido do stream e retorna o hash SHA-256 que o identifica.
+     * Conteúdo já existente não é regravado. O stream não é fechado.
+     */
+    String store(InputStream content) throws IOException;
+
+    /**
+     * Abre o conteúdo para leitura sem carregá-lo em memória.
+     *
+     * @throws java.io.FileNotFoundException se o hash não existir no storage
+     */
+    Resource load(String contentHash) throws IOException;
+
+    /**
+     * Verifica se o conteúdo existe no storage
+     */
+    boolean exists(String contentHash);
+
+    /**
+     * Remove o conteúdo do storage e suas variantes (ignora hashes inexistentes)
+     */
+    void delete(String contentHash) throws IOException;
+
+    /**
+     * Grava uma variante derivada do conteúdo (ex.: miniatura de 64px), guardada
+     * junto ao original. Variantes são determinísticas, então regravar é seguro.
+     */
+    void storeVariant(String contentHash, String variant, InputStream content) throws IOException;
+
+    /**
+     * Busca uma variante do conteúdo, se já foi gerada
+     */
+    Optional<Resource> findVariant(String contentHash, String variant);
+}
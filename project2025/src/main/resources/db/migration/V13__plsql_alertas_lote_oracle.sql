@@ -0,0 +1,228 @@
+-- =====================================
+-- V13: Registro de alertas nutricionais em lote
+-- =====================================
+-- Versão set-based de proc_registrar_alerta_nutricional: recebe um
+-- conjunto de usuários, calcula todos os alertas em uma única consulta
+-- e grava com BULK COLLECT / FORALL, retornando a contagem por usuário
+-- =====================================
+
+-- Tipos SQL usados na interface com o Java (array de IDs e cursor de resultado)
+CREATE OR REPLACE TYPE t_user_id_tab AS TABLE OF VARCHAR2(36);
+/
+
+CREATE OR REPLACE TYPE t_alerta_contagem_obj AS OBJECT (
+    user_id VARCHAR2(36),
+    alertas_gerados NUMBER
+);
+/
+
+CREATE OR REPLACE TYPE t_alerta_contagem_tab AS TABLE OF t_alerta_contagem_obj;
+/
+
+CREATE OR REPLACE PACKAGE pkg_nutrixpert_alertas AS
+    -- Registra alertas nutricionais para um lote de usuários
+    PROCEDURE proc_registrar_alertas_lote(
+        p_user_ids IN t_user_id_tab,
+        p_dias_analise IN NUMBER,
+        p_resultado OUT SYS_REFCURSOR
+    );
+END pkg_nutrixpert_alertas;
+/
+
+CREATE OR REPLACE PACKAGE BODY pkg_nutrixpert_alertas AS
+    -- Mesmos limites de proc_registrar_alerta_nutricional
+    c_calorias_min CONSTANT NUMBER := 1200;
+    c_calorias_max CONSTANT NUMBER := 3500;
+    c_proteinas_min CONSTANT NUMBER := 40;
+    c_agua_min CONSTANT NUMBER := 1500;
+    c_dias_sem_plano_max CONSTANT NUMBER := 3;
+
+    -- Quantidade de alertas gravados por FORALL
+    c_limite_fetch CONSTANT PLS_INTEGER := 1000;
+
+    -- =====================================
+    -- PROCEDURE: Registrar Alertas em Lote
+    -- =====================================
+    -- Usuários inexistentes são ignorados e retornam 0 alertas
+    -- Utiliza: BULK COLLECT LIMIT, FORALL, coleções, SYS_REFCURSOR
+    -- =====================================
+
+    PROCEDURE proc_registrar_alertas_lote(
+        p_user_ids IN t_user_id_tab,
+        p_dias_analise IN NUMBER,
+        p_resultado OUT SYS_REFCURSOR
+    ) IS
+        TYPE t_alerta_rec IS RECORD (
+            user_id VARCHAR2(36),
+            nutrition_plan_id VARCHAR2(36),
+            alert_type VARCHAR2(50),
+            alert_message VARCHAR2(4000),
+            severity VARCHAR2(20)
+        );
+        TYPE t_alertas IS TABLE OF t_alerta_rec;
+        TYPE t_contagem_por_usuario IS TABLE OF PLS_INTEGER INDEX BY VARCHAR2(36);
+
+        v_alertas t_alertas;
+        v_contagem t_contagem_por_usuario;
+        v_resultado t_alerta_contagem_tab := t_alerta_contagem_tab();
+        v_user_id VARCHAR2(36);
+
+        e_dias_invalidos EXCEPTION;
+
+        -- Todos os alertas do lote em uma única consulta
+        CURSOR c_alertas IS
+            WITH usuarios AS (
+                SELECT DISTINCT u.id AS user_id
+                FROM users u
+                JOIN TABLE(p_user_ids) t ON t.COLUMN_VALUE = u.id
+            ),
+            planos AS (
+                SELECT
+                    np.id, np.user_id, np.plan_date, np.total_calories, np.total_proteins,
+                    np.total_carbohydrates, np.total_fats, np.water_intake_ml,
+                    np.total_proteins * 4 + np.total_carbohydrates * 4 + np.total_fats * 9 AS total_cal_macro
+                FROM nutrition_plans np
+                JOIN usuarios us ON us.user_id = np.user_id
+                WHERE np.is_completed = 1
+                AND np.plan_date >= TRUNC(SYSDATE) - p_dias_analise
+                AND np.plan_date <= TRUNC(SYSDATE)
+            ),
+            resumo AS (
+                SELECT
+                    us.user_id,
+                    MAX(np.plan_date) AS ultimo_plano,
+                    SUM(CASE WHEN np.plan_date >= TRUNC(SYSDATE) - 7 AND np.is_completed = 0
+                             THEN 1 ELSE 0 END) AS nao_completados,
+                    pkg_nutrixpert_func.calcular_indicador_saude_usuario(us.user_id, p_dias_analise) AS score
+                FROM usuarios us
+                LEFT JOIN nutrition_plans np ON np.user_id = us.user_id
+                GROUP BY us.user_id
+            )
+            -- Alertas por plano completado
+            SELECT user_id, id, 'CALORIAS_BAIXAS',
+                   'ATENÇÃO: Consumo calórico muito baixo no dia ' || TO_CHAR(plan_date, 'DD/MM/YYYY') ||
+                   ' (' || total_calories || ' kcal). Recomendação mínima: ' || c_calorias_min ||
+                   ' kcal. Consulte um nutricionista.',
+                   'CRITICAL'
+            FROM planos WHERE total_calories < c_calorias_min
+            UNION ALL
+            SELECT user_id, id, 'CALORIAS_ALTAS',
+                   'Aviso: Consumo calórico elevado no dia ' || TO_CHAR(plan_date, 'DD/MM/YYYY') ||
+                   ' (' || total_calories || ' kcal). Verifique se está dentro de seus objetivos.',
+                   'WARNING'
+            FROM planos WHERE total_calories > c_calorias_max
+            UNION ALL
+            SELECT user_id, id, 'PROTEINAS_BAIXAS',
+                   'Consumo de proteínas abaixo do recomendado no dia ' || TO_CHAR(plan_date, 'DD/MM/YYYY') ||
+                   ' (' || ROUND(total_proteins, 1) || ' g). Recomendação mínima: ' || c_proteinas_min || ' g.',
+                   'WARNING'
+            FROM planos WHERE total_proteins < c_proteinas_min
+            UNION ALL
+            SELECT user_id, id, 'HIDRATACAO_BAIXA',
+                   'Hidratação insuficiente no dia ' || TO_CHAR(plan_date, 'DD/MM/YYYY') ||
+                   ' (' || water_intake_ml || ' ml). Recomendação: mínimo ' || c_agua_min || ' ml de água por dia.',
+                   'WARNING'
+            FROM planos WHERE water_intake_ml < c_agua_min
+            UNION ALL
+            SELECT user_id, id, 'GORDURAS_ALTAS',
+                   'Alto percentual de gorduras no dia ' || TO_CHAR(plan_date, 'DD/MM/YYYY') ||
+                   ' (' || ROUND(total_fats * 9 / total_cal_macro * 100, 1) || '%). ' ||
+                   'Recomendação: 20-35% das calorias totais.',
+                   'WARNING'
+            FROM planos WHERE total_cal_macro > 0 AND total_fats * 9 / total_cal_macro * 100 > 40
+            -- Alertas por usuário
+            UNION ALL
+            SELECT user_id, NULL, 'INATIVIDADE',
+                   'Você está há ' || (TRUNC(SYSDATE) - ultimo_plano) || ' dias sem criar um plano nutricional. ' ||
+                   'Manter a regularidade é importante para alcançar seus objetivos de saúde!',
+                   'WARNING'
+            FROM resumo WHERE TRUNC(SYSDATE) - ultimo_plano > c_dias_sem_plano_max
+            UNION ALL
+            SELECT user_id, NULL, 'BAIXA_ADESAO',
+                   'Você tem ' || nao_completados || ' planos não completados nos últimos 7 dias. ' ||
+                   'A consistência é fundamental para alcançar resultados. Tente completar seus planos diariamente!',
+                   'WARNING'
+            FROM resumo WHERE nao_completados >= 5
+            UNION ALL
+            SELECT user_id, NULL, 'SCORE_BAIXO',
+                   'Seu indicador de saúde está em ' || ROUND(score, 0) || '/100 (PRECISA MELHORAR). ' ||
+                   'Recomendamos revisar seus hábitos alimentares e consultar um profissional de nutrição.',
+                   'CRITICAL'
+            FROM resumo WHERE score < 50
+            UNION ALL
+            SELECT user_id, NULL, 'SCORE_EXCELENTE',
+                   'Parabéns! Seu indicador de saúde está em ' || ROUND(score, 0) || '/100 (EXCELENTE). ' ||
+                   'Continue com seus bons hábitos alimentares!',
+                   'INFO'
+            FROM resumo WHERE score >= 85;
+
+    BEGIN
+        IF p_dias_analise IS NULL OR p_dias_analise <= 0 OR p_dias_analise > 365 THEN
+            RAISE e_dias_invalidos;
+        END IF;
+
+        -- Gravar alertas em blocos com FORALL
+        OPEN c_alertas;
+        LOOP
+            FETCH c_alertas BULK COLLECT INTO v_alertas LIMIT c_limite_fetch;
+            EXIT WHEN v_alertas.COUNT = 0;
+
+            FORALL i IN 1 .. v_alertas.COUNT
+                INSERT INTO nutrition_alerts (
+                    id, user_id, nutrition_plan_id, alert_type,
+                    alert_message, severity, is_read
+                ) VALUES (
+                    LOWER(REGEXP_REPLACE(RAWTOHEX(SYS_GUID()), '([A-F0-9]{8})([A-F0-9]{4})([A-F0-9]{4})([A-F0-9]{4})([A-F0-9]{12})', '\1-\2-\3-\4-\5')),
+                    v_alertas(i).user_id, v_alertas(i).nutrition_plan_id, v_alertas(i).alert_type,
+                    v_alertas(i).alert_message, v_alertas(i).severity, 0
+                );
+
+            FOR i IN 1 .. v_alertas.COUNT LOOP
+                v_user_id := v_alertas(i).user_id;
+                IF v_contagem.EXISTS(v_user_id) THEN
+                    v_contagem(v_user_id) := v_contagem(v_user_id) + 1;
+                ELSE
+                    v_contagem(v_user_id) := 1;
+                END IF;
+            END LOOP;
+        END LOOP;
+        CLOSE c_alertas;
+
+        -- Contagem por usuário solicitado (inclusive os sem alertas)
+        IF p_user_ids IS NOT NULL THEN
+            FOR i IN 1 .. p_user_ids.COUNT LOOP
+                v_user_id := p_user_ids(i);
+                IF v_user_id IS NOT NULL THEN
+                    v_resultado.EXTEND;
+                    IF v_contagem.EXISTS(v_user_id) THEN
+                        v_resultado(v_resultado.COUNT) := t_alerta_contagem_obj(v_user_id, v_contagem(v_user_id));
+                    ELSE
+                        v_resultado(v_resultado.COUNT) := t_alerta_contagem_obj(v_user_id, 0);
+                    END IF;
+                END IF;
+            END LOOP;
+        END IF;
+
+        OPEN p_resultado FOR
+            SELECT user_id, alertas_gerados FROM TABLE(v_resultado);
+
+    EXCEPTION
+        WHEN e_dias_invalidos THEN
+            ROLLBACK;
+            RAISE_APPLICATION_ERROR(-20011, 'Período de análise deve estar entre 1 e 365 dias');
+        WHEN OTHERS THEN
+            IF c_alertas%ISOPEN THEN
+                CLOSE c_alertas;
+            END IF;
+            ROLLBACK;
+            RAISE_APPLICATION_ERROR(-20014, 'Erro ao processar alertas em lote: ' || SQLERRM);
+    END proc_registrar_alertas_lote;
+END pkg_nutrixpert_alertas;
+/
+
+-- Documentação:
+-- Package pkg_nutrixpert_alertas permite que a varredura noturna de alertas seja feita
+-- em poucas chamadas: o backend envia lotes de IDs (t_user_id_tab) e cada chamada é
+-- confirmada separadamente, evitando transações longas sobre nutrition_alerts.
+
+COMMIT;
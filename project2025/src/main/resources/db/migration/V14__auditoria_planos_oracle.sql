@@ -0,0 +1,42 @@
+-- =====================================
+-- V14: Auditoria de planos nutricionais como fluxo append-only
+-- =====================================
+-- Corrige os tipos de nutrition_plans_audit (IDs são VARCHAR2(36)),
+-- cria os índices para paginação por (changed_at, audit_id) e recria
+-- a trigger de auditoria com as colunas reais de nutrition_plans
+-- =====================================
+
+-- A trigger da V12 referenciava colunas inexistentes e nunca gravou registros,
+-- então a tabela está vazia e os tipos podem ser ajustados
+ALTER TABLE nutrition_plans_audit MODIFY (
+    plan_id VARCHAR2(36),
+    user_id VARCHAR2(36),
+    changed_at TIMESTAMP DEFAULT SYSTIMESTAMP
+);
+
+ALTER TABLE nutrition_plans_audit MODIFY (changed_at NOT NULL);
+
+-- Índices para keyset pagination (mais recentes primeiro) e filtros
+CREATE INDEX idx_np_audit_changed ON nutrition_plans_audit(changed_at DESC, audit_id DESC);
+CREATE INDEX idx_np_audit_user ON nutrition_plans_audit(user_id, changed_at DESC, audit_id DESC);
+CREATE INDEX idx_np_audit_plan ON nutrition_plans_audit(plan_id, changed_at DESC, audit_id DESC);
+
+-- Trigger de auditoria: uma linha por atualização de plano, sem exceções
+-- (nenhuma sessão pode desligá-la)
+CREATE OR REPLACE TRIGGER trg_audit_nutrition_plans
+AFTER UPDATE ON nutrition_plans
+FOR EACH ROW
+BEGIN
+    INSERT INTO nutrition_plans_audit (
+        plan_id, user_id, action, old_calorias, new_calorias
+    ) VALUES (
+        :OLD.id, :OLD.user_id, 'UPDATE', :OLD.total_calories, :NEW.total_calories
+    );
+END;
+/
+
+-- Documentação:
+-- nutrition_plans_audit é tratada como fluxo append-only ordenado por (changed_at, audit_id);
+-- a API de auditoria pagina por cursor sobre essa chave usando os índices acima.
+
+COMMIT;
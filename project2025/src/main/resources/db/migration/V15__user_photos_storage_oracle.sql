@@ -0,0 +1,25 @@
+-- =====================================
+-- V15: Fotos de perfil em storage endereçado por conteúdo
+-- =====================================
+-- O conteúdo das fotos passa a ficar no PhotoStorage (arquivo identificado
+-- pelo SHA-256); user_photos guarda apenas metadados e o hash.
+-- photo_data permanece até a migração dos BLOBs existentes
+-- (POST /api/v1/user/photo/admin/migrar-storage)
+-- =====================================
+
+ALTER TABLE user_photos ADD (content_hash VARCHAR2(64));
+
+ALTER TABLE user_photos MODIFY (photo_data NULL);
+
+-- Toda foto precisa ter o conteúdo em algum lugar: storage ou BLOB legado
+ALTER TABLE user_photos ADD CONSTRAINT chk_user_photos_conteudo
+    CHECK (content_hash IS NOT NULL OR photo_data IS NOT NULL);
+
+-- Verificação de referências antes de remover um arquivo do storage
+CREATE INDEX idx_user_photos_content_hash ON user_photos(content_hash);
+
+-- Documentação:
+-- content_hash é o SHA-256 (hex minúsculo) do arquivo em {root}/ab/cd/{hash};
+-- fotos com content_hash nulo ainda estão em photo_data e são migradas em lotes.
+
+COMMIT;
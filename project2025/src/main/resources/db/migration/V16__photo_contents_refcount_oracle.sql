@@ -0,0 +1,68 @@
+-- =====================================
+-- V16: Deduplicação do conteúdo das fotos por hash
+-- =====================================
+-- Cada conteúdo do PhotoStorage passa a ter uma linha em photo_contents
+-- com o número de fotos que o referenciam. A contagem é mantida por trigger
+-- em user_photos, então também cobre o ON DELETE CASCADE de users e a
+-- migração dos BLOBs (UPDATE de content_hash)
+-- =====================================
+
+CREATE TABLE photo_contents (
+    content_hash VARCHAR2(64) PRIMARY KEY,
+    file_size NUMBER(19) NOT NULL,
+    ref_count NUMBER(10) DEFAULT 0 NOT NULL,
+    created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT chk_photo_contents_ref_count CHECK (ref_count >= 0)
+);
+
+-- Conteúdos já gravados no storage
+INSERT INTO photo_contents (content_hash, file_size, ref_count)
+SELECT content_hash, MAX(file_size), COUNT(*)
+FROM user_photos
+WHERE content_hash IS NOT NULL
+GROUP BY content_hash;
+
+-- Incremento/decremento na mesma transação da foto. O UPDATE trava a linha do
+-- conteúdo, serializando uploads e remoções concorrentes do mesmo hash; dois
+-- primeiros uploads simultâneos do mesmo conteúdo caem no DUP_VAL_ON_INDEX
+CREATE OR REPLACE TRIGGER trg_user_photos_ref_count
+AFTER INSERT OR DELETE OR UPDATE OF content_hash ON user_photos
+FOR EACH ROW
+BEGIN
+    IF (INSERTING OR UPDATING) AND :NEW.content_hash IS NOT NULL
+            AND (INSERTING OR :OLD.content_hash IS NULL OR :OLD.content_hash <> :NEW.content_hash) THEN
+        UPDATE photo_contents
+        SET ref_count = ref_count + 1, updated_at = SYSTIMESTAMP
+        WHERE content_hash = :NEW.content_hash;
+
+        IF SQL%ROWCOUNT = 0 THEN
+            BEGIN
+                INSERT INTO photo_contents (content_hash, file_size, ref_count)
+                VALUES (:NEW.content_hash, NVL(:NEW.file_size, 0), 1);
+            EXCEPTION
+                WHEN DUP_VAL_ON_INDEX THEN
+                    UPDATE photo_contents
+                    SET ref_count = ref_count + 1, updated_at = SYSTIMESTAMP
+                    WHERE content_hash = :NEW.content_hash;
+            END;
+        END IF;
+    END IF;
+
+    IF (DELETING OR UPDATING) AND :OLD.content_hash IS NOT NULL
+            AND (DELETING OR :NEW.content_hash IS NULL OR :OLD.content_hash <> :NEW.content_hash) THEN
+        UPDATE photo_contents
+        SET ref_count = ref_count - 1, updated_at = SYSTIMESTAMP
+        WHERE content_hash = :OLD.content_hash AND ref_count > 0;
+    END IF;
+END;
+/
+
+-- Documentação:
+-- photo_contents.ref_count = fotos em user_photos com o mesmo content_hash.
+-- Linhas com ref_count = 0 são removidas pelo backend após o commit, junto com o
+-- arquivo, travando a linha (SELECT ... FOR UPDATE) para não disputar com um
+-- upload do mesmo conteúdo. Bytes lógicos = SUM(user_photos.file_size);
+-- bytes físicos = SUM(photo_contents.file_size) + BLOBs ainda não migrados.
+
+COMMIT;
@@ -0,0 +1,26 @@
+-- =====================================
+-- V17: Outbox de invalidação de cache entre instâncias
+-- =====================================
+-- Cada escrita que invalida um cache em memória (fotos, catálogo de
+-- fornecedores) grava um evento na mesma transação; as demais instâncias
+-- leem a tabela periodicamente e invalidam seus caches locais
+-- =====================================
+
+CREATE TABLE cache_invalidation_events (
+    id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entity_type VARCHAR2(50) NOT NULL,
+    entity_key VARCHAR2(100),
+    origin VARCHAR2(64) NOT NULL,
+    created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+-- Leitura incremental pelo poller e limpeza por retenção
+CREATE INDEX idx_cache_inval_created_at ON cache_invalidation_events(created_at);
+
+-- Documentação:
+-- entity_type = tipo da entidade alterada (photo, provider); entity_key = chave
+-- da entidade, NULL invalida todas do tipo; origin = instância que publicou, que
+-- ignora os próprios eventos. Eventos mais antigos que a retenção
+-- (app.cache.invalidation.retention-seconds) são removidos pelas instâncias.
+
+COMMIT;
@@ -0,0 +1,59 @@
+-- =====================================
+-- V18: Uma assinatura ativa por usuário
+-- =====================================
+-- Índice único parcial (baseado em função) sobre as assinaturas APPROVED:
+-- garante no banco a regra de uma assinatura ativa por usuário, então a
+-- busca da assinatura ativa (login e limite de planos) retorna no máximo uma linha
+-- =====================================
+
+-- Assinaturas ativas duplicadas de dados antigos: a migração não escolhe qual
+-- manter. Ela falha e lista os usuários afetados (até 20), para que a
+-- correção seja feita e auditada antes de criar o índice
+DECLARE
+    v_total    NUMBER;
+    v_usuarios VARCHAR2(1500);
+BEGIN
+    SELECT COUNT(*) INTO v_total
+    FROM (
+        SELECT user_id
+        FROM subscriptions
+        WHERE status = 'APPROVED'
+        GROUP BY user_id
+        HAVING COUNT(*) > 1
+    );
+
+    IF v_total > 0 THEN
+        SELECT LISTAGG(user_id || ' (' || qtd || ')', ', ') WITHIN GROUP (ORDER BY user_id)
+        INTO v_usuarios
+        FROM (
+            SELECT user_id, COUNT(*) AS qtd
+            FROM subscriptions
+            WHERE status = 'APPROVED'
+            GROUP BY user_id
+            HAVING COUNT(*) > 1
+            ORDER BY user_id
+            FETCH FIRST 20 ROWS ONLY
+        );
+
+        RAISE_APPLICATION_ERROR(-20018,
+            v_total || ' usuário(s) com mais de uma assinatura APPROVED; corrija antes de aplicar a V18: '
+            || v_usuarios);
+    END IF;
+END;
+/
+
+-- Linhas com status diferente de APPROVED têm chave NULL e não entram no índice
+CREATE UNIQUE INDEX ux_subscriptions_active_user ON subscriptions (
+    CASE WHEN status = 'APPROVED' THEN user_id END
+);
+
+-- Documentação:
+-- A consulta SubscriptionRepository.findActiveSubscriptionSummary usa
+-- WHERE user_id = :id AND status = 'APPROVED' (idx_subscriptions_user_id) e
+-- lê só id e plan_id; o resultado é cacheado em
+-- memória (ActiveSubscriptionCache) e invalidado a cada mudança de status.
+-- Aprovar uma assinatura cancela a ativa anterior na mesma transação, antes
+-- da aprovação; duas aprovações concorrentes para o mesmo usuário falham com
+-- violação de unicidade em vez de deixar duas assinaturas ativas.
+
+COMMIT;
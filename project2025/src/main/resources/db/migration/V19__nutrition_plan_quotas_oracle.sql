@@ -0,0 +1,40 @@
+-- =====================================
+-- V19: Contador de planos nutricionais por usuário
+-- =====================================
+-- Uma linha por usuário com a quantidade de planos nutricionais. A criação de
+-- um plano reserva a vaga com um UPDATE condicional (plan_count + 1 <= limite)
+-- na mesma transação do INSERT: a checagem do limite deixa de contar os planos
+-- e criações concorrentes do mesmo usuário não ultrapassam o limite
+-- =====================================
+
+CREATE TABLE nutrition_plan_quotas (
+    user_id VARCHAR2(36) PRIMARY KEY,
+    plan_count NUMBER(10) DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    CONSTRAINT fk_nutrition_plan_quotas_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_nutrition_plan_quotas_count CHECK (plan_count >= 0)
+);
+
+-- Todos os usuários existentes, com a contagem atual de planos
+INSERT INTO nutrition_plan_quotas (user_id, plan_count)
+SELECT u.id, (SELECT COUNT(*) FROM nutrition_plans np WHERE np.user_id = u.id)
+FROM users u;
+
+-- Usuários novos já nascem com o contador zerado
+CREATE OR REPLACE TRIGGER trg_users_nutrition_plan_quota
+AFTER INSERT ON users
+FOR EACH ROW
+BEGIN
+    INSERT INTO nutrition_plan_quotas (user_id, plan_count)
+    VALUES (:NEW.id, 0);
+END;
+/
+
+-- Documentação:
+-- nutrition_plan_quotas.plan_count = planos em nutrition_plans do usuário.
+-- Mantido pelo backend (NutritionPlanQuotaRepository): +1 ao criar, com o
+-- limite do plano de assinatura na cláusula WHERE, e -1 ao remover. O UPDATE
+-- trava a linha do usuário até o commit, serializando criações concorrentes;
+-- se o INSERT do plano falhar, o rollback desfaz também a reserva.
+
+COMMIT;
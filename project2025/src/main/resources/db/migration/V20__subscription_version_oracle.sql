@@ -0,0 +1,18 @@
+-- =====================================
+-- V20: Controle de versão otimista das assinaturas
+-- =====================================
+-- A aprovação cancela as assinaturas ativas do usuário com um único UPDATE e
+-- grava a assinatura aprovada com WHERE version = :versao_lida; uma aprovação
+-- concorrente da mesma assinatura atualiza 0 linhas e falha
+-- =====================================
+
+ALTER TABLE subscriptions ADD (version NUMBER(19) DEFAULT 0 NOT NULL);
+
+-- Documentação:
+-- subscriptions.version é incrementada pelo Hibernate (@Version em
+-- Subscription) a cada UPDATE da entidade e pelos UPDATEs em conjunto do
+-- SubscriptionRepository (cancelamentos e aprovação/rejeição em lote).
+-- Aprovações concorrentes de assinaturas diferentes do mesmo usuário continuam
+-- barradas pelo índice único ux_subscriptions_active_user (V18).
+
+COMMIT;
@@ -0,0 +1,40 @@
+-- =====================================
+-- V21: Outbox de eventos de domínio
+-- =====================================
+-- Mudanças de estado de assinaturas (aprovação, rejeição, cancelamento) e de
+-- planos nutricionais (criação, conclusão, remoção) gravam um evento na mesma
+-- transação. Um poller em cada instância reivindica lotes de eventos pendentes
+-- e os entrega aos listeners em memória (caches, consolidações, análises)
+-- =====================================
+
+CREATE TABLE domain_events (
+    id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    aggregate_type VARCHAR2(50) NOT NULL,
+    aggregate_id VARCHAR2(36) NOT NULL,
+    event_type VARCHAR2(50) NOT NULL,
+    payload VARCHAR2(4000),
+    created_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL,
+    processed_at TIMESTAMP,
+    attempts NUMBER(5) DEFAULT 0 NOT NULL,
+    last_error VARCHAR2(1000),
+    claim_token VARCHAR2(36),
+    claimed_until TIMESTAMP
+);
+
+-- Busca dos eventos pendentes (processed_at IS NULL) e limpeza por retenção
+CREATE INDEX idx_domain_events_pending ON domain_events(processed_at, id);
+
+-- Ordem por agregado: o evento só é entregue depois dos anteriores do mesmo agregado
+CREATE INDEX idx_domain_events_aggregate ON domain_events(aggregate_type, aggregate_id, id);
+
+-- Documentação:
+-- Entrega pelo menos uma vez: o poller grava claim_token/claimed_until nos
+-- eventos do lote, entrega e marca processed_at; se a instância cair no meio,
+-- o lote volta a ficar disponível quando claimed_until vence. Só o evento
+-- pendente mais antigo de cada agregado (aggregate_type, aggregate_id) é
+-- reivindicado, então eventos do mesmo agregado são entregues em ordem mesmo
+-- com várias instâncias. Falhas incrementam attempts e adiam a nova tentativa;
+-- após app.outbox.max-attempts o evento é encerrado com last_error preenchido.
+-- Eventos processados mais antigos que app.outbox.retention-hours são removidos.
+
+COMMIT;
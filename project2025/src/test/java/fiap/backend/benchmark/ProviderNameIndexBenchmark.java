@@ -0,0 +1,95 @@
+package fiap.backend.benchmark;
+
+import fiap.backend.dto.ServiceProviderResponse;
+import fiap.backend.service.ProviderNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência do autocompletar de fornecedores (meta: abaixo de 1 ms por busca).
+ * Não faz parte da suíte de testes; executar com:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=fiap.backend.benchmark.ProviderNameIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderNameIndexBenchmark {
+
+    private static final String[] PREFIXES = { "Clínica", "Consultório", "Espaço", "Centro", "Instituto",
+            "Academia", "Studio", "Núcleo" };
+    private static final String[] TOPICS = { "Nutrição", "Saúde", "Bem-Estar", "Fisioterapia", "Pilates",
+            "Nutricionista", "Endocrinologia", "Vida Leve", "Equilíbrio", "Alimentação" };
+    private static final String[] PLACES = { "São Paulo", "Pinheiros", "Moema", "Ipiranga", "Santana",
+            "Butantã", "Tatuapé", "Jabaquara", "Lapa", "Mooca" };
+
+    @Param({ "1000", "10000" })
+    private int providers;
+
+    private ProviderNameIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ServiceProviderResponse> responses = new ArrayList<>(providers);
+        for (int i = 0; i < providers; i++) {
+            ServiceProviderResponse response = new ServiceProviderResponse();
+            response.setId(UUID.randomUUID());
+            response.setName(PREFIXES[random.nextInt(PREFIXES.length)] + " "
+                    + TOPICS[random.nextInt(TOPICS.length)] + " "
+                    + PLACES[random.nextInt(PLACES.length)] + " " + i);
+            responses.add(response);
+        }
+        index = new ProviderNameIndex(responses);
+    }
+
+    @Benchmark
+    public List<ServiceProviderResponse> prefixoCurto() {
+        return index.typeahead("cl", 10);
+    }
+
+    @Benchmark
+    public List<ServiceProviderResponse> prefixoSemAcento() {
+        return index.typeahead("clinica nutri", 10);
+    }
+
+    @Benchmark
+    public List<ServiceProviderResponse> trecho() {
+        return index.typeahead("pinheiros", 10);
+    }
+
+    @Benchmark
+    public List<ServiceProviderResponse> erroDeDigitacao() {
+        return index.typeahead("nutrisionista", 10);
+    }
+
+    @Benchmark
+    public List<ServiceProviderResponse> buscaPorNome() {
+        return index.containing("equilibrio");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProviderNameIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
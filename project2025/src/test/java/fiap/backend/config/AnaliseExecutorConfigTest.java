@@ -0,0 +1,36 @@
+package fiap.backend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("AnaliseExecutorConfig - Testes Unitários")
+class AnaliseExecutorConfigTest {
+
+    private final AnaliseExecutorConfig config = new AnaliseExecutorConfig();
+
+    @Test
+    @DisplayName("Deve manter o tamanho configurado quando cabe no pool de conexões")
+    void deveManterTamanhoConfigurado() {
+        // Act
+        ThreadPoolTaskExecutor executor = config.analiseExecutor(4, 50, 10);
+
+        // Assert
+        assertEquals(4, executor.getMaxPoolSize());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve limitar as threads à metade das conexões do pool")
+    void deveLimitarPelaMetadeDasConexoes() {
+        // Act
+        ThreadPoolTaskExecutor executor = config.analiseExecutor(6, 50, 10);
+
+        // Assert
+        assertEquals(5, executor.getCorePoolSize());
+        assertEquals(5, executor.getMaxPoolSize());
+        executor.shutdown();
+    }
+}
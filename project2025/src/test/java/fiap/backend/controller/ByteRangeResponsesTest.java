@@ -0,0 +1,112 @@
+package fiap.backend.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ByteRangeResponses - Testes Unitários")
+class ByteRangeResponsesTest {
+
+    private static final String ETAG = "\"abc\"";
+    private static final byte[] CONTEUDO = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    @DisplayName("Sem Range deve retornar o conteúdo completo anunciando Accept-Ranges")
+    void deveRetornarConteudoCompletoSemRange() throws Exception {
+        // Act
+        ResponseEntity<Resource> response = build(null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10L, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 206 para intervalo fechado, aberto e sufixo")
+    void deveRetornarIntervalos() throws Exception {
+        // Act
+        ResponseEntity<Resource> fechado = build("bytes=2-4", null);
+        ResponseEntity<Resource> aberto = build("bytes=7-", ETAG);
+        ResponseEntity<Resource> sufixo = build("bytes=-3", null);
+
+        // Assert
+        assertEquals(HttpStatus.PARTIAL_CONTENT, fechado.getStatusCode());
+        assertEquals("bytes 2-4/10", fechado.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("234", conteudo(fechado));
+        assertEquals("789", conteudo(aberto));
+        assertEquals("bytes 7-9/10", sufixo.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(3L, sufixo.getHeaders().getContentLength());
+    }
+
+    @Test
+    @DisplayName("Deve limitar o fim do intervalo ao tamanho do conteúdo")
+    void deveLimitarFimDoIntervalo() throws Exception {
+        // Act
+        ResponseEntity<Resource> response = build("bytes=8-100", null);
+
+        // Assert
+        assertEquals("bytes 8-9/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("89", conteudo(response));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 416 para intervalo fora do conteúdo")
+    void deveRetornarIntervaloNaoSatisfeito() throws Exception {
+        // Act
+        ResponseEntity<Resource> response = build("bytes=10-20", null);
+
+        // Assert
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatusCode());
+        assertEquals("bytes */10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertNull(response.getBody());
+    }
+
+    @Test
+    @DisplayName("Vários intervalos devem ficar para o Spring MVC, sem Content-Length do recurso")
+    void deveDelegarVariosIntervalosSemContentLength() throws Exception {
+        // Act
+        ResponseEntity<Resource> response = build("bytes=0-1,5-6", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertInstanceOf(ByteArrayResource.class, response.getBody());
+        assertEquals(-1L, response.getHeaders().getContentLength());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar Range quando If-Range não confere ou o header é inválido")
+    void deveIgnorarRangeQuandoIfRangeNaoConfere() throws Exception {
+        // Act
+        ResponseEntity<Resource> etagAntigo = build("bytes=2-4", "\"outro\"");
+        ResponseEntity<Resource> etagFraco = build("bytes=2-4", "W/" + ETAG);
+        ResponseEntity<Resource> invalido = build("linhas=1-2", null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, etagAntigo.getStatusCode());
+        assertEquals("0123456789", conteudo(etagAntigo));
+        assertEquals(HttpStatus.OK, etagFraco.getStatusCode());
+        assertEquals(HttpStatus.OK, invalido.getStatusCode());
+        // Fora do tratamento de Range do Spring MVC, que fatiaria o conteúdo completo
+        assertInstanceOf(InputStreamResource.class, etagAntigo.getBody());
+    }
+
+    private static ResponseEntity<Resource> build(String range, String ifRange) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        return ByteRangeResponses.build(headers, new ByteArrayResource(CONTEUDO), CONTEUDO.length, range, ifRange);
+    }
+
+    private static String conteudo(ResponseEntity<Resource> response) throws Exception {
+        return new String(response.getBody().getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+    }
+}
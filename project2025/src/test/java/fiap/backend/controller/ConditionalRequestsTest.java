@@ -0,0 +1,29 @@
+package fiap.backend.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConditionalRequests - Testes Unitários")
+class ConditionalRequestsTest {
+
+    private static final String ETAG = "\"providers-0123456789abcdef\"";
+
+    @Test
+    @DisplayName("Deve aceitar ETag igual, fraco, em lista ou curinga")
+    void deveAceitarEtagCorrespondente() {
+        assertTrue(ConditionalRequests.etagMatches(ETAG, ETAG));
+        assertTrue(ConditionalRequests.etagMatches("W/" + ETAG, ETAG));
+        assertTrue(ConditionalRequests.etagMatches("\"outro\", " + ETAG, ETAG));
+        assertTrue(ConditionalRequests.etagMatches("*", ETAG));
+    }
+
+    @Test
+    @DisplayName("Deve recusar ETag diferente ou ausente")
+    void deveRecusarEtagDiferente() {
+        assertFalse(ConditionalRequests.etagMatches("\"outro\"", ETAG));
+        assertFalse(ConditionalRequests.etagMatches(null, ETAG));
+        assertFalse(ConditionalRequests.etagMatches(ETAG, null));
+    }
+}
@@ -1,5 +1,6 @@
 package fiap.backend.controller;
 
+import fiap.backend.dto.AlertasLoteRequest;
 import fiap.backend.dto.AnaliseNutricionalRequest;
 import fiap.backend.dto.AnaliseNutricionalResponse;
 import fiap.backend.service.OracleStoredProcedureService;
@@ -11,12 +12,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -154,7 +161,7 @@ class OracleProcedureControllerTest {
 
     @Test
     @DisplayName("Deve gerar relatório de nutrição com sucesso")
-    void deveGerarRelatorioNutricaoComSucesso() {
+    void deveGerarRelatorioNutricaoComSucesso() throws Exception {
         // Arrange
         LocalDate dataInicio = LocalDate.of(2025, 9, 1);
         LocalDate dataFim = LocalDate.of(2025, 9, 30);
@@ -164,11 +171,11 @@ class OracleProcedureControllerTest {
             .thenReturn(relatorioEsperado);
 
         // Act
-        ResponseEntity<String> response = controller.gerarRelatorioNutricao(USER_ID);
+        ResponseEntity<Resource> response = controller.gerarRelatorioNutricao(USER_ID, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(relatorioEsperado, response.getBody());
+        assertEquals(relatorioEsperado, response.getBody().getContentAsString(StandardCharsets.UTF_8));
         verify(oracleService, times(1)).formatarRelatorioNutricao(eq(USER_ID), eq(dataInicio), eq(dataFim));
     }
 
@@ -181,7 +188,7 @@ class OracleProcedureControllerTest {
             .thenReturn(relatorio);
 
         // Act
-        ResponseEntity<String> response = controller.gerarRelatorioNutricao(USER_ID);
+        ResponseEntity<Resource> response = controller.gerarRelatorioNutricao(USER_ID, null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -191,17 +198,70 @@ class OracleProcedureControllerTest {
 
     @Test
     @DisplayName("Deve retornar erro quando geração de relatório falha")
-    void deveRetornarErroQuandoRelatorioFalha() {
+    void deveRetornarErroQuandoRelatorioFalha() throws Exception {
         // Arrange
         when(oracleService.formatarRelatorioNutricao(anyString(), any(), any()))
             .thenThrow(new RuntimeException("Erro ao gerar CLOB"));
 
         // Act
-        ResponseEntity<String> response = controller.gerarRelatorioNutricao(USER_ID);
+        ResponseEntity<Resource> response = controller.gerarRelatorioNutricao(USER_ID, null, null);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        assertTrue(response.getBody().contains("ERRO AO GERAR RELATÓRIO"));
+        assertTrue(response.getBody().getContentAsString(StandardCharsets.UTF_8).contains("ERRO AO GERAR RELATÓRIO"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar apenas o intervalo pedido do relatório (206)")
+    void deveRetornarIntervaloDoRelatorio() throws Exception {
+        // Arrange
+        when(oracleService.versaoRelatorioNutricao(USER_ID)).thenReturn("v1");
+        when(oracleService.formatarRelatorioNutricao(USER_ID)).thenReturn("RELATORIO COMPLETO");
+
+        // Act
+        ResponseEntity<Resource> completo = controller.gerarRelatorioNutricao(USER_ID, null, null);
+        String etag = completo.getHeaders().getETag();
+        ResponseEntity<Resource> parcial = controller.gerarRelatorioNutricao(USER_ID, "bytes=10-", etag);
+
+        // Assert
+        assertEquals("bytes", completo.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(etag);
+        assertEquals(HttpStatus.PARTIAL_CONTENT, parcial.getStatusCode());
+        assertEquals("bytes 10-17/18", parcial.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals("COMPLETO", parcial.getBody().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Deve retornar o relatório inteiro quando ele mudou desde o download parcial")
+    void deveRetornarRelatorioInteiroQuandoIfRangeNaoConfere() throws Exception {
+        // Arrange
+        when(oracleService.versaoRelatorioNutricao(USER_ID)).thenReturn("v2");
+        when(oracleService.formatarRelatorioNutricao(USER_ID)).thenReturn("RELATORIO NOVO");
+
+        // Act
+        ResponseEntity<Resource> response = controller.gerarRelatorioNutricao(USER_ID, "bytes=10-", "\"antigo\"");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("RELATORIO NOVO", new String(response.getBody().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("ETag do relatório deve depender dos dados de origem, não do texto gerado")
+    void deveManterETagQuandoDadosNaoMudaram() throws Exception {
+        // Arrange
+        when(oracleService.versaoRelatorioNutricao(USER_ID)).thenReturn("v1", "v1", "v2");
+        when(oracleService.formatarRelatorioNutricao(USER_ID))
+            .thenReturn("Gerado 10:00:00", "Gerado 10:00:05", "Gerado 10:00:09");
+
+        // Act
+        String primeiro = controller.gerarRelatorioNutricao(USER_ID, null, null).getHeaders().getETag();
+        String mesmosDados = controller.gerarRelatorioNutricao(USER_ID, null, null).getHeaders().getETag();
+        String dadosAlterados = controller.gerarRelatorioNutricao(USER_ID, null, null).getHeaders().getETag();
+
+        // Assert
+        assertEquals(primeiro, mesmosDados);
+        assertNotEquals(primeiro, dadosAlterados);
     }
 
     // ========== Testes: registrarAlertasNutricionais ==========
@@ -514,4 +574,23 @@ class OracleProcedureControllerTest {
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
+
+    @Test
+    @DisplayName("Deve recusar lote de alertas acima do limite de usuários")
+    void deveRecusarLoteAcimaDoLimite() {
+        // Arrange
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i <= AlertasLoteRequest.MAX_USER_IDS; i++) {
+            userIds.add(UUID.randomUUID().toString());
+        }
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = controller.registrarAlertasNutricionaisEmLote(
+                new AlertasLoteRequest(userIds, 7));
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertFalse((Boolean) response.getBody().get("sucesso"));
+        verifyNoInteractions(oracleService);
+    }
 }
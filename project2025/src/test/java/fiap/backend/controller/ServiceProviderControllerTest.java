@@ -0,0 +1,76 @@
+package fiap.backend.controller;
+
+import fiap.backend.service.CurrentUserService;
+import fiap.backend.service.ProviderCatalog;
+import fiap.backend.service.ServiceProviderImportService;
+import fiap.backend.service.ServiceProviderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ServiceProviderController - Testes Unitários")
+class ServiceProviderControllerTest {
+
+    private static final String ETAG = "\"providers-0123456789abcdef\"";
+
+    @Mock
+    private ServiceProviderService serviceProviderService;
+
+    @Mock
+    private ServiceProviderImportService serviceProviderImportService;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private ProviderCatalog.Snapshot catalog;
+
+    @InjectMocks
+    private ServiceProviderController controller;
+
+    @BeforeEach
+    void setUp() {
+        when(serviceProviderService.getActiveCatalog()).thenReturn(catalog);
+        when(catalog.getEtag()).thenReturn(ETAG);
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 quando o catálogo não mudou")
+    void deveResponderNotModified() {
+        // Arrange
+        when(serviceProviderService.typeaheadProviders("cli", 10)).thenReturn(List.of());
+
+        // Act
+        ResponseEntity<?> response = controller.typeaheadProviders("cli", 10, ETAG);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("Deve validar os parâmetros antes do 304")
+    void deveValidarAntesDoNotModified() {
+        // Arrange
+        when(serviceProviderService.findNearestProviders(-23.55, -46.63, 1000.0, 10))
+                .thenThrow(new RuntimeException("Raio deve estar entre 0 e 500 km"));
+
+        // Act
+        ResponseEntity<?> response = controller.getNearbyProviders(-23.55, -46.63, 1000.0, 10, ETAG);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+}
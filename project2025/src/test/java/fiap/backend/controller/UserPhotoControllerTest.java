@@ -0,0 +1,254 @@
+package fiap.backend.controller;
+
+import fiap.backend.domain.User;
+import fiap.backend.domain.UserPhoto;
+import fiap.backend.service.CurrentUserService;
+import fiap.backend.service.PhotoCache;
+import fiap.backend.service.PhotoStorageMigrationService;
+import fiap.backend.service.PhotoVariantService;
+import fiap.backend.service.UserPhotoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserPhotoController - Testes Unitários")
+class UserPhotoControllerTest {
+
+    @Mock
+    private UserPhotoService userPhotoService;
+
+    @Mock
+    private CurrentUserService currentUserService;
+
+    @Mock
+    private PhotoStorageMigrationService photoStorageMigrationService;
+
+    @Mock
+    private PhotoVariantService photoVariantService;
+
+    @Mock
+    private PhotoCache photoCache;
+
+    @InjectMocks
+    private UserPhotoController controller;
+
+    private static final String CONTENT_HASH = "c".repeat(64);
+    private static final String ETAG = "\"" + CONTENT_HASH + "\"";
+
+    private UUID photoId;
+    private UserPhoto photo;
+
+    @BeforeEach
+    void setUp() {
+        photoId = UUID.randomUUID();
+        photo = new UserPhoto(new User(), CONTENT_HASH, 4L, "avatar.png", "image/png");
+        photo.setId(photoId);
+    }
+
+    @Test
+    @DisplayName("Deve retornar foto com ETag e cache imutável")
+    void deveRetornarFotoComEtagECacheImutavel() throws Exception {
+        // Arrange
+        Resource content = new ByteArrayResource(new byte[] { 1, 2, 3, 4 });
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+        when(userPhotoService.getPhotoContent(photo)).thenReturn(content);
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(content, response.getBody());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals("public, max-age=31536000, immutable", response.getHeaders().getCacheControl());
+        assertEquals(4L, response.getHeaders().getContentLength());
+        verify(userPhotoService, never()).getContentHashByPhotoId(any());
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 sem carregar a foto quando o ETag confere")
+    void deveResponderNaoModificadoSemCarregarFoto() throws Exception {
+        // Arrange
+        when(userPhotoService.getContentHashByPhotoId(photoId)).thenReturn(Optional.of(CONTENT_HASH));
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, "W/\"outro\", " + ETAG, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        verify(userPhotoService, never()).getPhotoById(any());
+        verify(userPhotoService, never()).getPhotoContent(any());
+    }
+
+    @Test
+    @DisplayName("Deve responder 304 para foto ainda no BLOB quando o hash calculado confere")
+    void deveResponderNaoModificadoParaFotoLegada() throws Exception {
+        // Arrange
+        when(userPhotoService.getContentHashByPhotoId(photoId)).thenReturn(Optional.empty());
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, ETAG, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(userPhotoService, never()).getPhotoContent(any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar a foto quando o ETag não confere")
+    void deveRetornarFotoQuandoEtagNaoConfere() throws Exception {
+        // Arrange
+        when(userPhotoService.getContentHashByPhotoId(photoId)).thenReturn(Optional.of(CONTENT_HASH));
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+        when(userPhotoService.getPhotoContent(photo)).thenReturn(new ByteArrayResource(new byte[4]));
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, "\"desatualizado\"", null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @DisplayName("Deve retornar a miniatura pedida com ETag próprio")
+    void deveRetornarMiniatura() throws Exception {
+        // Arrange
+        Resource variant = new ByteArrayResource(new byte[] { 1, 2 });
+        when(photoVariantService.variantSizeFor(100)).thenReturn(128);
+        when(photoVariantService.findVariant(CONTENT_HASH, 128)).thenReturn(Optional.of(variant));
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, 100, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(variant, response.getBody());
+        assertEquals("image/jpeg", response.getHeaders().getContentType().toString());
+        assertEquals("\"" + CONTENT_HASH + "-128\"", response.getHeaders().getETag());
+        assertEquals("public, max-age=31536000, immutable", response.getHeaders().getCacheControl());
+        verify(userPhotoService, never()).getPhotoContent(any());
+    }
+
+    @Test
+    @DisplayName("Deve retornar o original com cache curto enquanto a miniatura é gerada")
+    void deveRetornarOriginalEnquantoMiniaturaEhGerada() throws Exception {
+        // Arrange
+        when(photoVariantService.variantSizeFor(64)).thenReturn(64);
+        when(photoVariantService.findVariant(CONTENT_HASH, 64)).thenReturn(Optional.empty());
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+        when(userPhotoService.getPhotoContent(photo)).thenReturn(new ByteArrayResource(new byte[4]));
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, 64, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals("max-age=3600", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    @DisplayName("Deve servir foto em cache sem consultar banco nem storage")
+    void deveServirFotoEmCache() {
+        // Arrange
+        byte[] data = { 1, 2, 3 };
+        when(photoCache.get(photoId, null)).thenReturn(Optional.of(new PhotoCache.CachedPhoto(data, "image/png", ETAG)));
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, null, null, null);
+        ResponseEntity<Resource> conditional = controller.getPhotoById(photoId, null, ETAG, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(3L, response.getHeaders().getContentLength());
+        assertEquals(ETAG, response.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, conditional.getStatusCode());
+        verifyNoInteractions(userPhotoService);
+    }
+
+    @Test
+    @DisplayName("Deve retornar 206 com o intervalo pedido da foto")
+    void deveRetornarIntervaloDaFoto() throws Exception {
+        // Arrange
+        byte[] data = { 1, 2, 3, 4, 5 };
+        when(photoCache.get(photoId, null)).thenReturn(Optional.of(new PhotoCache.CachedPhoto(data, "image/png", ETAG)));
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, null, "bytes=1-2", ETAG);
+
+        // Assert
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 1-2/5", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertEquals(2L, response.getHeaders().getContentLength());
+        assertArrayEquals(new byte[] { 2, 3 }, response.getBody().getInputStream().readAllBytes());
+        verifyNoInteractions(userPhotoService);
+    }
+
+    @Test
+    @DisplayName("Deve colocar a foto no cache quando o tamanho é aceito")
+    void deveColocarFotoNoCache() throws Exception {
+        // Arrange
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.of(photo));
+        when(userPhotoService.resolveContentHash(photo)).thenReturn(CONTENT_HASH);
+        when(userPhotoService.getPhotoContent(photo)).thenReturn(new ByteArrayResource(new byte[] { 1, 2, 3, 4 }));
+        when(photoCache.accepts(4L)).thenReturn(true);
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(photoCache).put(eq(photoId), isNull(),
+                argThat(cached -> cached.getData().length == 4 && ETAG.equals(cached.getEtag())));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tamanho inválido")
+    void deveRejeitarTamanhoInvalido() {
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, 0, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(userPhotoService);
+    }
+
+    @Test
+    @DisplayName("Deve retornar 404 para foto inexistente")
+    void deveRetornarNotFoundParaFotoInexistente() {
+        // Arrange
+        when(userPhotoService.getPhotoById(photoId)).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<Resource> response = controller.getPhotoById(photoId, null, null, null, null);
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
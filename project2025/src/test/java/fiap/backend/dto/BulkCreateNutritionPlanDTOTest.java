@@ -0,0 +1,83 @@
+package fiap.backend.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkCreateNutritionPlanDTOTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUpValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testValidBulk() {
+        // Given
+        BulkCreateNutritionPlanDTO bulkDTO = new BulkCreateNutritionPlanDTO(List.of(
+                plan(LocalDate.now().plusDays(1)), plan(LocalDate.now().plusDays(2))));
+
+        // When
+        Set<ConstraintViolation<BulkCreateNutritionPlanDTO>> violations = validator.validate(bulkDTO);
+
+        // Then
+        assertTrue(violations.isEmpty());
+    }
+
+    @Test
+    void testNullPlanInBulk() {
+        // Given
+        BulkCreateNutritionPlanDTO bulkDTO = new BulkCreateNutritionPlanDTO(Arrays.asList(
+                plan(LocalDate.now().plusDays(1)), null));
+
+        // When
+        Set<ConstraintViolation<BulkCreateNutritionPlanDTO>> violations = validator.validate(bulkDTO);
+
+        // Then
+        assertEquals(1, violations.size());
+        ConstraintViolation<BulkCreateNutritionPlanDTO> violation = violations.iterator().next();
+        assertEquals("O lote não pode conter planos nulos", violation.getMessage());
+        assertTrue(violation.getPropertyPath().toString().startsWith("plans[1]"));
+    }
+
+    @Test
+    void testInvalidPlanInBulk() {
+        // Given
+        CreateNutritionPlanDTO semData = plan(null);
+        BulkCreateNutritionPlanDTO bulkDTO = new BulkCreateNutritionPlanDTO(List.of(semData));
+
+        // When
+        Set<ConstraintViolation<BulkCreateNutritionPlanDTO>> violations = validator.validate(bulkDTO);
+
+        // Then
+        assertEquals(1, violations.size());
+        assertEquals("A data do plano é obrigatória", violations.iterator().next().getMessage());
+    }
+
+    private static CreateNutritionPlanDTO plan(LocalDate planDate) {
+        CreateNutritionPlanDTO dto = new CreateNutritionPlanDTO();
+        dto.setPlanDate(planDate);
+        dto.setTitle("Plano do dia");
+        return dto;
+    }
+}
@@ -0,0 +1,150 @@
+package fiap.backend.service;
+
+import fiap.backend.repository.ActiveSubscriptionSummary;
+import fiap.backend.repository.SubscriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ActiveSubscriptionCache - Testes Unitários")
+class ActiveSubscriptionCacheTest {
+
+    @Mock
+    private SubscriptionRepository subscriptionRepository;
+
+    private ActiveSubscriptionCache cache;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID subscriptionId = UUID.randomUUID();
+    private final UUID planId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new ActiveSubscriptionCache(subscriptionRepository, 2);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco uma vez e reutilizar a assinatura ativa")
+    void deveConsultarUmaVez() {
+        // Arrange
+        when(subscriptionRepository.findActiveSubscriptionSummary(userId)).thenReturn(Optional.of(summary()));
+
+        // Act
+        Optional<ActiveSubscriptionCache.ActiveSubscription> first = cache.get(userId);
+        Optional<ActiveSubscriptionCache.ActiveSubscription> second = cache.get(userId);
+
+        // Assert
+        assertEquals(planId, first.orElseThrow().getPlanId());
+        assertEquals(subscriptionId, second.orElseThrow().getSubscriptionId());
+        verify(subscriptionRepository, times(1)).findActiveSubscriptionSummary(userId);
+    }
+
+    @Test
+    @DisplayName("Deve guardar também a ausência de assinatura ativa")
+    void deveGuardarAusencia() {
+        // Arrange
+        when(subscriptionRepository.findActiveSubscriptionSummary(userId)).thenReturn(Optional.empty());
+
+        // Act
+        cache.get(userId);
+        Optional<ActiveSubscriptionCache.ActiveSubscription> result = cache.get(userId);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(subscriptionRepository, times(1)).findActiveSubscriptionSummary(userId);
+    }
+
+    @Test
+    @DisplayName("Deve consultar de novo após invalidar o usuário")
+    void deveConsultarDeNovoAposInvalidar() {
+        // Arrange
+        when(subscriptionRepository.findActiveSubscriptionSummary(userId))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(summary()));
+        cache.get(userId);
+
+        // Act
+        cache.invalidate(userId);
+        Optional<ActiveSubscriptionCache.ActiveSubscription> result = cache.get(userId);
+
+        // Assert
+        assertTrue(result.isPresent());
+        verify(subscriptionRepository, times(2)).findActiveSubscriptionSummary(userId);
+    }
+
+    @Test
+    @DisplayName("Não deve guardar leitura do banco concorrente com uma invalidação")
+    void naoDeveGuardarLeituraConcorrenteComInvalidacao() {
+        // Arrange: a invalidação acontece enquanto o valor antigo é lido do banco
+        when(subscriptionRepository.findActiveSubscriptionSummary(userId)).thenAnswer(invocation -> {
+            cache.invalidate(userId);
+            return Optional.empty();
+        });
+
+        // Act
+        cache.get(userId);
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Deve consultar de novo após invalidar todos os usuários")
+    void deveConsultarDeNovoAposInvalidarTodos() {
+        // Arrange
+        when(subscriptionRepository.findActiveSubscriptionSummary(userId)).thenReturn(Optional.of(summary()));
+        cache.get(userId);
+
+        // Act
+        cache.invalidateAll();
+        cache.get(userId);
+
+        // Assert
+        verify(subscriptionRepository, times(2)).findActiveSubscriptionSummary(userId);
+    }
+
+    @Test
+    @DisplayName("Deve remover o usuário menos recentemente consultado ao atingir o limite")
+    void deveRemoverMenosRecenteAoAtingirLimite() {
+        // Arrange
+        UUID segundo = UUID.randomUUID();
+        UUID terceiro = UUID.randomUUID();
+        when(subscriptionRepository.findActiveSubscriptionSummary(any())).thenReturn(Optional.empty());
+        cache.get(userId);
+        cache.get(segundo);
+        cache.get(userId); // userId passa a ser o mais recente
+
+        // Act
+        cache.get(terceiro);
+        cache.get(userId);
+
+        // Assert
+        assertEquals(2, cache.size());
+        verify(subscriptionRepository, times(1)).findActiveSubscriptionSummary(userId);
+        verify(subscriptionRepository, times(1)).findActiveSubscriptionSummary(segundo);
+    }
+
+    private ActiveSubscriptionSummary summary() {
+        return new ActiveSubscriptionSummary() {
+            @Override
+            public UUID getId() {
+                return subscriptionId;
+            }
+
+            @Override
+            public UUID getPlanId() {
+                return planId;
+            }
+        };
+    }
+}
@@ -30,7 +30,7 @@ class AdminDashboardServiceTest {
     private SubscriptionRepository subscriptionRepository;
 
     @Mock
-    private SubscriptionPlanRepository subscriptionPlanRepository;
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
 
     @Mock
     private NutritionPlanRepository nutritionPlanRepository;
@@ -71,7 +71,7 @@ class AdminDashboardServiceTest {
         when(userPhotoRepository.count()).thenReturn(800L);
         when(userPhotoRepository.countByPeriod(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(80L);
 
-        when(subscriptionPlanRepository.findByIsActive(true)).thenReturn(new ArrayList<>());
+        when(subscriptionPlanCatalog.getActivePlans()).thenReturn(new ArrayList<>());
     }
 
     @Test
@@ -319,6 +319,6 @@ class AdminDashboardServiceTest {
         verify(userPhotoRepository).count();
         verify(userPhotoRepository).countByPeriod(any(LocalDateTime.class), any(LocalDateTime.class));
 
-        verify(subscriptionPlanRepository).findByIsActive(true);
+        verify(subscriptionPlanCatalog).getActivePlans();
     }
 }
@@ -1,14 +1,20 @@
 package fiap.backend.service;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,8 +23,11 @@ import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import fiap.backend.domain.Role;
 import fiap.backend.domain.User;
 import fiap.backend.dto.AuthResponse;
+import fiap.backend.dto.SubscriptionPlanResponse;
 import fiap.backend.dto.UserLoginRequest;
+import fiap.backend.repository.UserPhotoRepository;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 
 @ExtendWith(MockitoExtension.class)
 class AuthServiceImplTest {
@@ -29,6 +38,24 @@ class AuthServiceImplTest {
     @Mock
     private DelegatingPasswordEncoder passwordEncoder;
 
+    @Mock
+    private ActiveSubscriptionCache activeSubscriptionCache;
+
+    @Mock
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
+
+    @Mock
+    private UserPhotoRepository userPhotoRepository;
+
+    @Mock
+    private PhotoContentService photoContentService;
+
+    @Mock
+    private PhotoCache photoCache;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -72,6 +99,30 @@ class AuthServiceImplTest {
         System.out.println("Login successful! JWT Token: " + response.getToken());
     }
 
+    @Test
+    void testLoginIncludesActivePlanFromCache() {
+        // Arrange
+        UUID planId = UUID.randomUUID();
+        mockUser.setId(UUID.randomUUID());
+        when(userRepository.findByEmail("admin@nutrixpert.local"))
+                .thenReturn(Optional.of(mockUser));
+        when(passwordEncoder.matches("admin123", "{noop}admin123"))
+                .thenReturn(true);
+        when(activeSubscriptionCache.get(mockUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(UUID.randomUUID(), planId)));
+        when(subscriptionPlanCatalog.findPlan(planId)).thenReturn(Optional.of(
+                new SubscriptionPlanResponse(planId, "Premium", BigDecimal.valueOf(99.90), null, null, true)));
+
+        // Act
+        AuthResponse response = authService.login(loginRequest);
+
+        // Assert
+        String payload = new String(Base64.getUrlDecoder().decode(response.getToken().split("\\.")[1]),
+                StandardCharsets.UTF_8);
+        assertTrue(payload.contains("\"activePlanName\":\"Premium\""));
+        assertTrue(payload.contains("\"activePlanId\":\"" + planId + "\""));
+    }
+
     @Test
     void testLoginWithWrongPassword() {
         // Arrange
@@ -105,4 +156,37 @@ class AuthServiceImplTest {
 
         assertEquals("Usuário ou senha inválidos", exception.getMessage());
     }
+
+    @Test
+    void testDeleteUser_PurgesUnreferencedPhotoContents() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userPhotoRepository.findContentHashesByUserId(userId)).thenReturn(List.of("hash-a", "hash-b"));
+        when(photoContentService.purgeIfUnreferenced("hash-a")).thenThrow(new IllegalStateException("storage"));
+
+        // When
+        authService.deleteUser(userId);
+
+        // Then: hashes lidos antes da remoção, conteúdos liberados depois (falha em um não impede o outro)
+        InOrder inOrder = inOrder(userPhotoRepository, userRepository, photoContentService);
+        inOrder.verify(userPhotoRepository).findContentHashesByUserId(userId);
+        inOrder.verify(userRepository).deleteById(userId);
+        inOrder.verify(photoContentService).purgeIfUnreferenced("hash-a");
+        inOrder.verify(photoContentService).purgeIfUnreferenced("hash-b");
+    }
+
+    @Test
+    void testDeleteUser_InvalidatesCachedPhotos() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID photoId = UUID.randomUUID();
+        when(userPhotoRepository.findIdsByUserId(userId)).thenReturn(List.of(photoId));
+
+        // When
+        authService.deleteUser(userId);
+
+        // Then: sem transação, a invalidação "após o commit" roda na hora
+        verify(photoCache, times(2)).invalidate(photoId);
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.PHOTO, photoId.toString());
+    }
 }
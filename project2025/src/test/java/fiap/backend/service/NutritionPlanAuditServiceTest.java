@@ -0,0 +1,101 @@
+package fiap.backend.service;
+
+import fiap.backend.dto.AuditoriaPlanoPaginaResponse;
+import fiap.backend.dto.AuditoriaPlanoResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NutritionPlanAuditService - Testes Unitários")
+class NutritionPlanAuditServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private NutritionPlanAuditService service;
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 5, 10, 14, 30, 15);
+
+    @BeforeEach
+    void setUp() {
+        service = new NutritionPlanAuditService(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve retornar página com cursor quando há mais registros")
+    @SuppressWarnings("unchecked")
+    void deveRetornarPaginaComCursor() {
+        // Arrange - limite 2, banco devolve 3 (limite + 1)
+        List<AuditoriaPlanoResponse> linhas = new ArrayList<>();
+        linhas.add(registro(30L, AGORA));
+        linhas.add(registro(29L, AGORA));
+        linhas.add(registro(28L, AGORA.minusMinutes(1)));
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        when(jdbcTemplate.query(sqlCaptor.capture(), any(RowMapper.class), any(Object[].class))).thenReturn(linhas);
+
+        // Act
+        AuditoriaPlanoPaginaResponse pagina = service.listarAuditoria("user-1", null, null, 2);
+
+        // Assert
+        assertEquals(2, pagina.getRegistros().size());
+        assertTrue(pagina.getTemMais());
+        assertNotNull(pagina.getProximoCursor());
+        assertTrue(sqlCaptor.getValue().contains("user_id = ?"));
+        assertFalse(sqlCaptor.getValue().contains("plan_id = ?"));
+        assertTrue(sqlCaptor.getValue().contains("ORDER BY changed_at DESC, audit_id DESC"));
+
+        NutritionPlanAuditService.Cursor cursor = NutritionPlanAuditService.Cursor.decodificar(pagina.getProximoCursor());
+        assertEquals(AGORA, cursor.getChangedAt());
+        assertEquals(29L, cursor.getAuditId());
+    }
+
+    @Test
+    @DisplayName("Deve aplicar filtro de keyset quando cursor é informado")
+    @SuppressWarnings("unchecked")
+    void deveAplicarKeysetComCursor() {
+        // Arrange
+        String cursor = new NutritionPlanAuditService.Cursor(AGORA, 29L).codificar();
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        when(jdbcTemplate.query(sqlCaptor.capture(), any(RowMapper.class), any(Object[].class)))
+            .thenReturn(List.of(registro(28L, AGORA.minusMinutes(1))));
+
+        // Act
+        AuditoriaPlanoPaginaResponse pagina = service.listarAuditoria(null, "plan-1", cursor, null);
+
+        // Assert
+        assertEquals(1, pagina.getRegistros().size());
+        assertFalse(pagina.getTemMais());
+        assertNull(pagina.getProximoCursor());
+        assertTrue(sqlCaptor.getValue().contains("plan_id = ?"));
+        assertTrue(sqlCaptor.getValue().contains("(changed_at < ? OR audit_id < ?)"));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar cursor inválido")
+    void deveRejeitarCursorInvalido() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> service.listarAuditoria(null, null, "cursor-invalido", 10));
+
+        assertEquals("Cursor de paginação inválido", ex.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private AuditoriaPlanoResponse registro(Long auditId, LocalDateTime changedAt) {
+        return new AuditoriaPlanoResponse(auditId, "plan-1", "user-1", "UPDATE", changedAt, 1800, 2000);
+    }
+}
@@ -1,25 +1,35 @@
 package fiap.backend.service;
 
 import fiap.backend.domain.NutritionPlan;
+import fiap.backend.domain.NutritionPlanQuota;
 import fiap.backend.domain.Subscription;
 import fiap.backend.domain.SubscriptionPlan;
 import fiap.backend.domain.User;
+import fiap.backend.dto.BulkCreateNutritionPlanDTO;
+import fiap.backend.dto.BulkNutritionPlanResponseDTO;
 import fiap.backend.dto.CreateNutritionPlanDTO;
 import fiap.backend.dto.NutritionPlanResponseDTO;
+import fiap.backend.dto.NutritionPlanStatsDTO;
 import fiap.backend.dto.UpdateNutritionPlanDTO;
 import fiap.backend.dto.WeeklyNutritionPlanResponseDTO;
+import fiap.backend.repository.NutritionPlanQuotaRepository;
 import fiap.backend.repository.NutritionPlanRepository;
-import fiap.backend.repository.SubscriptionRepository;
+import fiap.backend.repository.NutritionPlanStatsSummary;
+import fiap.backend.repository.NutritionPlanSummary;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.outbox.DomainEventOutbox;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -39,11 +49,23 @@ class NutritionPlanServiceTest {
     @Mock
     private NutritionPlanRepository nutritionPlanRepository;
 
+    @Mock
+    private NutritionPlanQuotaRepository nutritionPlanQuotaRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private SubscriptionRepository subscriptionRepository;
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
+
+    @Mock
+    private ActiveSubscriptionCache activeSubscriptionCache;
+
+    @Mock
+    private DomainEventOutbox domainEventOutbox;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
 
     @InjectMocks
     private NutritionPlanService nutritionPlanService;
@@ -104,11 +126,13 @@ class NutritionPlanServiceTest {
     void testCreateNutritionPlan_Success() {
         // Given
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.findActiveSubscriptionsByUserId(testUser.getId()))
-                .thenReturn(Arrays.asList(testSubscription));
-        when(nutritionPlanRepository.countByUser(testUser)).thenReturn(5L);
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
         when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
                 .thenReturn(false);
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 1, 50)).thenReturn(1);
         when(nutritionPlanRepository.save(any(NutritionPlan.class))).thenReturn(testNutritionPlan);
 
         // When
@@ -120,6 +144,9 @@ class NutritionPlanServiceTest {
         assertEquals(testNutritionPlan.getId(), result.getId());
         assertEquals(testNutritionPlan.getTitle(), result.getTitle());
         verify(nutritionPlanRepository).save(any(NutritionPlan.class));
+        verify(nutritionPlanRepository, never()).countByUser(testUser);
+        verify(domainEventOutbox).publish(eq(DomainEventOutbox.NUTRITION_PLAN), eq(testNutritionPlan.getId()),
+                eq(DomainEventOutbox.CREATED), anyMap());
     }
 
     @Test
@@ -137,8 +164,7 @@ class NutritionPlanServiceTest {
     void testCreateNutritionPlan_NoActiveSubscription() {
         // Given
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.findActiveSubscriptionsByUserId(testUser.getId()))
-                .thenReturn(Arrays.asList());
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -152,15 +178,23 @@ class NutritionPlanServiceTest {
         // Given
         testPlan.setNutritionPlansLimit(10);
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.findActiveSubscriptionsByUserId(testUser.getId()))
-                .thenReturn(Arrays.asList(testSubscription));
-        when(nutritionPlanRepository.countByUser(testUser)).thenReturn(10L);
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
+        when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
+                .thenReturn(false);
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 1, 10)).thenReturn(0);
+        when(nutritionPlanQuotaRepository.findById(testUser.getId()))
+                .thenReturn(Optional.of(new NutritionPlanQuota(testUser.getId(), 10)));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             nutritionPlanService.createNutritionPlan(testUser.getEmail(), createDTO);
         });
         assertTrue(exception.getMessage().contains("Limite de planos nutricionais atingido"));
+        assertTrue(exception.getMessage().contains("permite 10 planos e você já possui 10"));
+        verify(nutritionPlanRepository, never()).save(any(NutritionPlan.class));
     }
 
     @Test
@@ -168,10 +202,13 @@ class NutritionPlanServiceTest {
         // Given
         testPlan.setNutritionPlansLimit(null); // Unlimited
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.findActiveSubscriptionsByUserId(testUser.getId()))
-                .thenReturn(Arrays.asList(testSubscription));
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
         when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
                 .thenReturn(false);
+        when(nutritionPlanQuotaRepository.increment(testUser.getId(), 1)).thenReturn(1);
         when(nutritionPlanRepository.save(any(NutritionPlan.class))).thenReturn(testNutritionPlan);
 
         // When
@@ -181,6 +218,7 @@ class NutritionPlanServiceTest {
         // Then
         assertNotNull(result);
         verify(nutritionPlanRepository, never()).countByUser(testUser);
+        verify(nutritionPlanQuotaRepository, never()).incrementWithinLimit(any(), anyInt(), anyInt());
         verify(nutritionPlanRepository).save(any(NutritionPlan.class));
     }
 
@@ -188,9 +226,10 @@ class NutritionPlanServiceTest {
     void testCreateNutritionPlan_PlanAlreadyExists() {
         // Given
         when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(subscriptionRepository.findActiveSubscriptionsByUserId(testUser.getId()))
-                .thenReturn(Arrays.asList(testSubscription));
-        when(nutritionPlanRepository.countByUser(testUser)).thenReturn(5L);
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
         when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
                 .thenReturn(true);
 
@@ -199,6 +238,134 @@ class NutritionPlanServiceTest {
             nutritionPlanService.createNutritionPlan(testUser.getEmail(), createDTO);
         });
         assertEquals("Já existe um plano nutricional para esta data", exception.getMessage());
+        verifyNoInteractions(nutritionPlanQuotaRepository, domainEventOutbox);
+    }
+
+    @Test
+    void testCreateNutritionPlan_QuotaRowMissing() {
+        // Given
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
+        when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
+                .thenReturn(false);
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 1, 50)).thenReturn(0);
+        when(nutritionPlanQuotaRepository.findById(testUser.getId())).thenReturn(Optional.empty());
+        when(nutritionPlanRepository.countByUser(testUser)).thenReturn(5L);
+        when(nutritionPlanRepository.save(any(NutritionPlan.class))).thenReturn(testNutritionPlan);
+
+        // When
+        nutritionPlanService.createNutritionPlan(testUser.getEmail(), createDTO);
+
+        // Then
+        verify(jdbcTemplate).update(contains("INSERT INTO nutrition_plan_quotas"),
+                eq(testUser.getId().toString()), eq(6), any());
+        verify(nutritionPlanRepository).save(any(NutritionPlan.class));
+    }
+
+    @Test
+    void testCreateNutritionPlan_QuotaRowCreatedConcurrently() {
+        // Given: outra criação grava o contador entre o UPDATE e o INSERT
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
+        when(nutritionPlanRepository.existsByUserAndPlanDate(testUser, createDTO.getPlanDate()))
+                .thenReturn(false);
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 1, 50))
+                .thenReturn(0)
+                .thenReturn(1);
+        when(nutritionPlanQuotaRepository.findById(testUser.getId())).thenReturn(Optional.empty());
+        when(nutritionPlanRepository.countByUser(testUser)).thenReturn(5L);
+        when(jdbcTemplate.update(contains("INSERT INTO nutrition_plan_quotas"), any(), any(), any()))
+                .thenThrow(new DuplicateKeyException("uk"));
+        when(nutritionPlanRepository.save(any(NutritionPlan.class))).thenReturn(testNutritionPlan);
+
+        // When
+        nutritionPlanService.createNutritionPlan(testUser.getEmail(), createDTO);
+
+        // Then
+        verify(nutritionPlanQuotaRepository, times(2)).incrementWithinLimit(testUser.getId(), 1, 50);
+        verify(nutritionPlanRepository).save(any(NutritionPlan.class));
+    }
+
+    @Test
+    void testCreateNutritionPlans_Success() {
+        // Given: o segundo dia já tem plano e o terceiro repete o primeiro
+        LocalDate monday = LocalDate.now().plusDays(7);
+        BulkCreateNutritionPlanDTO bulkDTO = new BulkCreateNutritionPlanDTO(List.of(
+                createDTOFor(monday), createDTOFor(monday.plusDays(1)), createDTOFor(monday),
+                createDTOFor(monday.plusDays(2))));
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
+        when(nutritionPlanRepository.findPlanDatesByPeriod(testUser, monday, monday.plusDays(2)))
+                .thenReturn(List.of(monday.plusDays(1)));
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 2, 50)).thenReturn(1);
+
+        // When
+        BulkNutritionPlanResponseDTO result = nutritionPlanService.createNutritionPlans(
+                testUser.getEmail(), bulkDTO);
+
+        // Then
+        assertEquals(4, result.getRequested());
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getResults().get(0).isSuccess());
+        assertNotNull(result.getResults().get(0).getPlanId());
+        assertEquals("Já existe um plano nutricional para esta data", result.getResults().get(1).getMessage());
+        assertEquals("Data repetida no lote", result.getResults().get(2).getMessage());
+        assertTrue(result.getResults().get(3).isSuccess());
+        verify(jdbcTemplate).batchUpdate(anyString(),
+                argThat((List<NutritionPlan> plans) -> plans.size() == 2), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(nutritionPlanRepository, never()).existsByUserAndPlanDate(any(), any());
+        verify(nutritionPlanRepository, never()).save(any(NutritionPlan.class));
+        verify(domainEventOutbox).publish(eq(DomainEventOutbox.NUTRITION_PLAN),
+                eq(result.getResults().get(0).getPlanId()), eq(DomainEventOutbox.CREATED), anyMap());
+        verify(domainEventOutbox).publish(eq(DomainEventOutbox.NUTRITION_PLAN),
+                eq(result.getResults().get(3).getPlanId()), eq(DomainEventOutbox.CREATED), anyMap());
+    }
+
+    @Test
+    void testCreateNutritionPlans_LimitExceeded() {
+        // Given
+        testPlan.setNutritionPlansLimit(10);
+        LocalDate monday = LocalDate.now().plusDays(7);
+        BulkCreateNutritionPlanDTO bulkDTO = new BulkCreateNutritionPlanDTO(List.of(
+                createDTOFor(monday), createDTOFor(monday.plusDays(1)), createDTOFor(monday.plusDays(2))));
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(activeSubscriptionCache.get(testUser.getId())).thenReturn(Optional.of(
+                new ActiveSubscriptionCache.ActiveSubscription(testSubscription.getId(), testPlan.getId())));
+        when(subscriptionPlanCatalog.getNutritionPlansLimit(testPlan.getId()))
+                .thenAnswer(inv -> testPlan.getNutritionPlansLimit());
+        when(nutritionPlanRepository.findPlanDatesByPeriod(testUser, monday, monday.plusDays(2)))
+                .thenReturn(List.of());
+        when(nutritionPlanQuotaRepository.incrementWithinLimit(testUser.getId(), 3, 10)).thenReturn(0);
+        when(nutritionPlanQuotaRepository.findById(testUser.getId()))
+                .thenReturn(Optional.of(new NutritionPlanQuota(testUser.getId(), 8)));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            nutritionPlanService.createNutritionPlans(testUser.getEmail(), bulkDTO);
+        });
+        assertTrue(exception.getMessage().contains("permite 10 planos e você já possui 8"));
+        verifyNoInteractions(jdbcTemplate, domainEventOutbox);
+    }
+
+    @Test
+    void testCreateNutritionPlans_EmptyBatch() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            nutritionPlanService.createNutritionPlans(testUser.getEmail(), new BulkCreateNutritionPlanDTO(List.of()));
+        });
+        assertEquals("O lote deve conter entre 1 e 31 planos", exception.getMessage());
+        verifyNoInteractions(userRepository, jdbcTemplate);
     }
 
     @Test
@@ -270,6 +437,87 @@ class NutritionPlanServiceTest {
         assertEquals(testNutritionPlan.getId(), result.getContent().get(0).getId());
     }
 
+    @Test
+    void testGetUserNutritionPlans_SummaryOnly() {
+        // Given
+        NutritionPlanSummary summary = mock(NutritionPlanSummary.class);
+        when(summary.getId()).thenReturn(testNutritionPlan.getId());
+        when(summary.getPlanDate()).thenReturn(LocalDate.now().minusDays(1));
+        when(summary.getTitle()).thenReturn("Plano de Ontem");
+        when(summary.getIsCompleted()).thenReturn(false);
+
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(nutritionPlanRepository.findSummariesByUser(eq(testUser), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(summary)));
+
+        // When
+        Page<NutritionPlanResponseDTO> result = nutritionPlanService.getUserNutritionPlans(
+                testUser.getEmail(), 0, 10, true);
+
+        // Then
+        NutritionPlanResponseDTO dto = result.getContent().get(0);
+        assertEquals(testNutritionPlan.getId(), dto.getId());
+        assertEquals("Plano de Ontem", dto.getTitle());
+        assertNull(dto.getBreakfast());
+        assertTrue(dto.getIsOverdue());
+        assertFalse(dto.getIsToday());
+        verify(nutritionPlanRepository, never()).findByUserOrderByPlanDateDesc(any(), any());
+    }
+
+    @Test
+    void testGetNutritionPlanStats_Quarter() {
+        // Given
+        NutritionPlanStatsSummary summary = mock(NutritionPlanStatsSummary.class);
+        when(summary.getTotalPlans()).thenReturn(40L);
+        when(summary.getCompletedPlans()).thenReturn(30L);
+        when(summary.getAverageCalories()).thenReturn(1850.5);
+        when(summary.getTotalWaterIntakeMl()).thenReturn(80000L);
+        when(summary.getAverageProteins()).thenReturn(95.0);
+        when(summary.getAverageCarbohydrates()).thenReturn(210.0);
+        when(summary.getAverageFats()).thenReturn(60.0);
+
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(nutritionPlanRepository.summarizeByPeriod(testUser, LocalDate.of(2025, 7, 1),
+                LocalDate.of(2025, 9, 30))).thenReturn(summary);
+
+        // When
+        NutritionPlanStatsDTO result = nutritionPlanService.getNutritionPlanStats(testUser.getEmail(),
+                NutritionPlanStatsDTO.Period.QUARTER, LocalDate.of(2025, 8, 15));
+
+        // Then
+        assertEquals(LocalDate.of(2025, 7, 1), result.getStartDate());
+        assertEquals(LocalDate.of(2025, 9, 30), result.getEndDate());
+        assertEquals(40, result.getTotalPlans());
+        assertEquals(10, result.getPendingPlans());
+        assertEquals(75.0, result.getCompletionRate());
+        assertEquals(1850.5, result.getAverageCalories());
+        assertEquals(80.0, result.getTotalWaterIntake());
+        assertEquals(95.0, result.getAverageProteins());
+        verify(nutritionPlanRepository, never()).findWeekPlans(any(), any(), any());
+    }
+
+    @Test
+    void testGetNutritionPlanStats_NoPlans() {
+        // Given: sem planos no período, as médias e a soma vêm null do banco
+        NutritionPlanStatsSummary summary = mock(NutritionPlanStatsSummary.class);
+        when(summary.getTotalPlans()).thenReturn(0L);
+
+        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
+        when(nutritionPlanRepository.summarizeByPeriod(testUser, LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 12, 31))).thenReturn(summary);
+
+        // When
+        NutritionPlanStatsDTO result = nutritionPlanService.getNutritionPlanStats(testUser.getEmail(),
+                NutritionPlanStatsDTO.Period.YEAR, LocalDate.of(2024, 2, 29));
+
+        // Then
+        assertEquals(0, result.getTotalPlans());
+        assertEquals(0, result.getCompletedPlans());
+        assertEquals(0.0, result.getCompletionRate());
+        assertEquals(0.0, result.getAverageCalories());
+        assertEquals(0.0, result.getTotalWaterIntake());
+    }
+
     @Test
     void testUpdateNutritionPlan_Success() {
         // Given
@@ -307,6 +555,8 @@ class NutritionPlanServiceTest {
         assertNotNull(result);
         assertTrue(result.getIsCompleted()); // Should be marked as completed
         verify(nutritionPlanRepository).save(testNutritionPlan);
+        verify(domainEventOutbox).publish(eq(DomainEventOutbox.NUTRITION_PLAN), eq(testNutritionPlan.getId()),
+                eq(DomainEventOutbox.COMPLETED), anyMap());
     }
 
     @Test
@@ -321,6 +571,9 @@ class NutritionPlanServiceTest {
 
         // Then
         verify(nutritionPlanRepository).delete(testNutritionPlan);
+        verify(nutritionPlanQuotaRepository).decrement(testUser.getId(), 1);
+        verify(domainEventOutbox).publish(eq(DomainEventOutbox.NUTRITION_PLAN), eq(testNutritionPlan.getId()),
+                eq(DomainEventOutbox.DELETED), anyMap());
     }
 
     @Test
@@ -340,4 +593,13 @@ class NutritionPlanServiceTest {
         });
         assertEquals("Acesso negado ao plano nutricional", exception.getMessage());
     }
+
+    private CreateNutritionPlanDTO createDTOFor(LocalDate planDate) {
+        CreateNutritionPlanDTO dto = new CreateNutritionPlanDTO();
+        dto.setPlanDate(planDate);
+        dto.setTitle("Plano " + planDate);
+        dto.setLunch("Arroz, feijão e frango");
+        dto.setTotalCalories(1800);
+        return dto;
+    }
 }
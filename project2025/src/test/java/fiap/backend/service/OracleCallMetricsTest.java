@@ -0,0 +1,83 @@
+package fiap.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OracleCallMetrics - Testes Unitários")
+class OracleCallMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private OracleCallMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new OracleCallMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("Deve registrar tempo e payload de chamada com sucesso")
+    void deveRegistrarChamadaComSucesso() {
+        // Act
+        String relatorio = metrics.record("formatar_relatorio_nutricao", () -> "x".repeat(2500), String::length);
+
+        // Assert
+        assertEquals(2500, relatorio.length());
+        Timer timer = registry.find(OracleCallMetrics.TIMER_NAME)
+            .tags("procedure", "formatar_relatorio_nutricao", "outcome", "success")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        // O tamanho fica só na distribuição, não como tag do timer
+        assertNull(timer.getId().getTag("payload"));
+
+        DistributionSummary payload = registry.find(OracleCallMetrics.PAYLOAD_NAME)
+            .tag("procedure", "formatar_relatorio_nutricao")
+            .summary();
+        assertNotNull(payload);
+        assertEquals(2500.0, payload.totalAmount());
+    }
+
+    @Test
+    @DisplayName("Deve registrar falha e propagar a exceção original")
+    void deveRegistrarFalhaEPropagarExcecao() {
+        // Act & Assert
+        SQLException ex = assertThrows(SQLException.class, () ->
+            metrics.record("proc_registrar_alerta_nutricional", () -> {
+                throw new SQLException("ORA-20012");
+            }, (Integer r) -> r));
+
+        assertEquals("ORA-20012", ex.getMessage());
+        Timer timer = registry.find(OracleCallMetrics.TIMER_NAME)
+            .tags("procedure", "proc_registrar_alerta_nutricional", "outcome", "error")
+            .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertNull(registry.find(OracleCallMetrics.PAYLOAD_NAME).summary());
+    }
+
+    @Test
+    @DisplayName("Deve expor percentis no registry simples (/actuator/metrics)")
+    void deveExporPercentis() {
+        // Act
+        metrics.record("calcular_indicador_saude_usuario", () -> 80.0, r -> 1);
+
+        // Assert
+        for (String phi : new String[] {"0.5", "0.95", "0.99"}) {
+            assertNotNull(registry.find(OracleCallMetrics.TIMER_NAME + ".percentile")
+                .tags("procedure", "calcular_indicador_saude_usuario", "phi", phi)
+                .gauge(), "percentil " + phi);
+        }
+        assertNotNull(registry.find(OracleCallMetrics.PAYLOAD_NAME + ".percentile")
+            .tags("procedure", "calcular_indicador_saude_usuario", "phi", "0.95")
+            .gauge());
+    }
+}
@@ -1,19 +1,28 @@
 package fiap.backend.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -50,20 +59,19 @@ class OracleStoredProcedureServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new OracleStoredProcedureService(dataSource, jdbcTemplate);
+        // Executor síncrono: as etapas da análise rodam na própria thread do teste
+        service = new OracleStoredProcedureService(dataSource, jdbcTemplate, Runnable::run, 15000,
+            new OracleCallMetrics(new SimpleMeterRegistry()));
     }
 
     // ========== Testes: calcularIndicadorSaude ==========
 
     @Test
     @DisplayName("Deve calcular indicador de saúde com sucesso")
-    void deveCalcularIndicadorSaudeComSucesso() {
+    void deveCalcularIndicadorSaudeComSucesso() throws SQLException {
         // Arrange
         Double scoreEsperado = 85.5;
-        String sql = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        
-        when(jdbcTemplate.queryForObject(sql, Double.class, USER_ID, 30))
-            .thenReturn(scoreEsperado);
+        mockIndicador(scoreEsperado);
 
         // Act
         Double resultado = service.calcularIndicadorSaude(USER_ID, 30);
@@ -71,30 +79,45 @@ class OracleStoredProcedureServiceTest {
         // Assert
         assertNotNull(resultado);
         assertEquals(scoreEsperado, resultado);
-        verify(jdbcTemplate, times(1)).queryForObject(sql, Double.class, USER_ID, 30);
+        PreparedStatement stmt = statementDoIndicador();
+        verify(connection).prepareStatement("SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL");
+        verify(stmt).setString(1, USER_ID);
+        verify(stmt).setInt(2, 30);
     }
 
     @Test
     @DisplayName("Deve usar dias padrão 30 quando nulo")
-    void deveUsarDiasPadraoQuandoNulo() {
+    void deveUsarDiasPadraoQuandoNulo() throws SQLException {
         // Arrange
-        String sql = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sql, Double.class, USER_ID, 30))
-            .thenReturn(75.0);
+        mockIndicador(75.0);
 
         // Act
         service.calcularIndicadorSaude(USER_ID, null);
 
         // Assert
-        verify(jdbcTemplate, times(1)).queryForObject(sql, Double.class, USER_ID, 30);
+        verify(statementDoIndicador()).setInt(2, 30);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar query timeout derivado do tempo limite das etapas")
+    void deveAplicarQueryTimeoutNaConsultaDoIndicador() throws SQLException {
+        // Arrange
+        service = new OracleStoredProcedureService(dataSource, jdbcTemplate, Runnable::run, 2500,
+            new OracleCallMetrics(new SimpleMeterRegistry()));
+        mockIndicador(70.0);
+
+        // Act
+        service.calcularIndicadorSaude(USER_ID, 30);
+
+        // Assert
+        verify(statementDoIndicador()).setQueryTimeout(3);
     }
 
     @Test
     @DisplayName("Deve lançar RuntimeException quando falha ao calcular indicador")
     void deveLancarExcecaoQuandoFalhaCalculo() {
         // Arrange
-        String sql = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sql, Double.class, USER_ID, 30))
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
             .thenThrow(new DataAccessException("Erro no banco") {});
 
         // Act & Assert
@@ -108,9 +131,7 @@ class OracleStoredProcedureServiceTest {
     @DisplayName("Deve retornar score zero para usuário sem dados")
     void deveRetornarScoreZeroParaUsuarioSemDados() {
         // Arrange
-        String sql = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sql, Double.class, USER_ID, 30))
-            .thenReturn(0.0);
+        mockIndicador(0.0);
 
         // Act
         Double resultado = service.calcularIndicadorSaude(USER_ID, 30);
@@ -359,6 +380,41 @@ class OracleStoredProcedureServiceTest {
         assertTrue(exception.getMessage().contains("Erro ao gerar relatório de consumo"));
     }
 
+    // ========== Testes: registrarAlertasNutricionaisEmLote ==========
+
+    @Test
+    @DisplayName("Deve registrar alertas em lotes e reportar contagem por usuário")
+    void deveRegistrarAlertasEmLote() throws SQLException {
+        // Arrange
+        oracle.jdbc.OracleConnection oracleConnection = mock(oracle.jdbc.OracleConnection.class);
+        Array sqlArray = mock(Array.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareCall(anyString())).thenReturn(callableStatement);
+        when(connection.unwrap(oracle.jdbc.OracleConnection.class)).thenReturn(oracleConnection);
+        when(oracleConnection.createOracleArray(eq("T_USER_ID_TAB"), any())).thenReturn(sqlArray);
+        when(callableStatement.execute())
+            .thenReturn(true)
+            .thenThrow(new SQLException("ORA-20014: Erro ao processar alertas em lote"));
+        when(callableStatement.getObject(3)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("user_id")).thenReturn("u1", "u2");
+        when(resultSet.getInt("alertas_gerados")).thenReturn(2, 0);
+
+        // Act
+        OracleStoredProcedureService.AlertasLoteResultado resultado =
+            service.registrarAlertasNutricionaisEmLote(Arrays.asList("u1", null, "u2", "u1", "u3"), 7, 2);
+
+        // Assert
+        assertEquals(Map.of("u1", 2, "u2", 0), resultado.getAlertasPorUsuario());
+        assertEquals(2, resultado.getTotalAlertas());
+        assertEquals(2, resultado.getLotesExecutados());
+        assertEquals(1, resultado.getLotesComFalha());
+        assertEquals(List.of("u3"), resultado.getUsuariosComFalha());
+        verify(callableStatement, times(2)).setInt(2, 7);
+        verify(connection).commit();
+        verify(sqlArray, times(2)).free();
+    }
+
     // ========== Testes: executarAnaliseCompleta ==========
 
     @Test
@@ -370,9 +426,7 @@ class OracleStoredProcedureServiceTest {
         String relatorioEsperado = "Relatório completo";
         
         // Mock calcularIndicadorSaude
-        String sqlIndicador = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sqlIndicador, Double.class, USER_ID, 7))
-            .thenReturn(scoreEsperado);
+        mockIndicador(scoreEsperado);
         
         // Mock registrarAlertasNutricionais
         when(dataSource.getConnection()).thenReturn(connection);
@@ -442,8 +496,7 @@ class OracleStoredProcedureServiceTest {
     @DisplayName("Deve retornar sucesso falso quando análise completa falha")
     void deveRetornarSucessoFalsoQuandoAnaliseFalha() {
         // Arrange
-        String sqlIndicador = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sqlIndicador, Double.class, USER_ID, 7))
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
             .thenThrow(new DataAccessException("Erro") {});
 
         // Act
@@ -454,6 +507,118 @@ class OracleStoredProcedureServiceTest {
         assertTrue(resultado.get("mensagem").toString().contains("Erro na análise"));
     }
 
+    @Test
+    @DisplayName("Deve retornar resultado parcial quando relatório falha")
+    void deveRetornarResultadoParcialQuandoRelatorioFalha() throws SQLException {
+        mockIndicador(80.0);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareCall(anyString())).thenReturn(callableStatement);
+        when(callableStatement.getInt(3)).thenReturn(1);
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("ORA-00942"));
+
+        // Act
+        Map<String, Object> resultado = service.executarAnaliseCompleta(USER_ID, 7);
+
+        // Assert
+        assertTrue((Boolean) resultado.get("sucesso"));
+        assertTrue((Boolean) resultado.get("parcial"));
+        assertEquals(80.0, resultado.get("scoreSaude"));
+        assertEquals(1, resultado.get("alertasGerados"));
+        assertNull(resultado.get("relatorioResumido"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> erros = (Map<String, String>) resultado.get("errosEtapas");
+        assertEquals(1, erros.size());
+        assertTrue(erros.get("relatorioNutricao").contains("ORA-00942"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> tempos = (Map<String, Long>) resultado.get("temposEtapasMs");
+        assertTrue(tempos.keySet().containsAll(
+            List.of("indicadorSaude", "alertasNutricionais", "relatorioNutricao")));
+    }
+
+    @Test
+    @DisplayName("Deve registrar timeout da etapa sem bloquear a análise")
+    void deveRegistrarTimeoutDaEtapa() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        service = new OracleStoredProcedureService(dataSource, jdbcTemplate, executor, 300,
+            new OracleCallMetrics(new SimpleMeterRegistry()));
+        try {
+            mockIndicador(90.0);
+            when(dataSource.getConnection()).thenReturn(connection);
+            when(connection.prepareCall(anyString())).thenReturn(callableStatement);
+            when(callableStatement.getInt(3)).thenAnswer(invocation -> {
+                Thread.sleep(2000);
+                return 4;
+            });
+            when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+            when(preparedStatement.executeQuery()).thenReturn(resultSet);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getClob(1)).thenReturn(clob);
+            when(clob.length()).thenReturn(9L);
+            when(clob.getSubString(1, 9)).thenReturn("Relatório");
+
+            // Act
+            Map<String, Object> resultado = service.executarAnaliseCompleta(USER_ID, 7);
+
+            // Assert
+            assertTrue((Boolean) resultado.get("sucesso"));
+            assertTrue((Boolean) resultado.get("parcial"));
+            assertNull(resultado.get("alertasGerados"));
+            assertEquals("Relatório", resultado.get("relatorioResumido"));
+            @SuppressWarnings("unchecked")
+            Map<String, String> erros = (Map<String, String>) resultado.get("errosEtapas");
+            assertTrue(erros.get("alertasNutricionais").contains("Tempo limite"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve devolver os tempos na ordem das etapas")
+    void deveDevolverTemposNaOrdemDasEtapas() throws SQLException {
+        // Arrange
+        setupMocksParaAnaliseCompleta(88.0, 2, "Relatório");
+
+        // Act
+        Map<String, Object> resultado = service.executarAnaliseCompleta(USER_ID, 7);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        Map<String, Long> tempos = (Map<String, Long>) resultado.get("temposEtapasMs");
+        assertEquals(List.of("indicadorSaude", "alertasNutricionais", "relatorioNutricao"),
+            List.copyOf(tempos.keySet()));
+        verify(callableStatement).setQueryTimeout(15);
+        verify(preparedStatement).setQueryTimeout(15);
+    }
+
+    @Test
+    @DisplayName("Deve tratar executor sem capacidade como falha da etapa")
+    void deveTratarExecutorSemCapacidadeComoFalhaDaEtapa() {
+        // Arrange: só a primeira etapa cabe no executor
+        int[] aceitas = {0};
+        service = new OracleStoredProcedureService(dataSource, jdbcTemplate, tarefa -> {
+            if (aceitas[0]++ > 0) {
+                throw new RejectedExecutionException("fila cheia");
+            }
+            tarefa.run();
+        }, 15000, new OracleCallMetrics(new SimpleMeterRegistry()));
+        mockIndicador(90.0);
+
+        // Act
+        Map<String, Object> resultado = service.executarAnaliseCompleta(USER_ID, 7);
+
+        // Assert
+        assertTrue((Boolean) resultado.get("sucesso"));
+        assertTrue((Boolean) resultado.get("parcial"));
+        assertEquals(90.0, resultado.get("scoreSaude"));
+        @SuppressWarnings("unchecked")
+        Map<String, String> erros = (Map<String, String>) resultado.get("errosEtapas");
+        assertEquals(List.of("alertasNutricionais", "relatorioNutricao"), List.copyOf(erros.keySet()));
+        assertTrue(erros.get("alertasNutricionais").contains("sem capacidade"));
+    }
+
     // ========== Testes: obterEstatisticasBasicas ==========
 
     @Test
@@ -495,10 +660,23 @@ class OracleStoredProcedureServiceTest {
 
     // ========== Métodos Helper ==========
 
-    private void setupMocksParaAnaliseCompleta(Double score, Integer alertas, String relatorio) throws SQLException {
-        String sqlIndicador = "SELECT calcular_indicador_saude_usuario(?, ?) FROM DUAL";
-        when(jdbcTemplate.queryForObject(sqlIndicador, Double.class, USER_ID, 7))
+    @SuppressWarnings("unchecked")
+    private void mockIndicador(Double score) {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(ResultSetExtractor.class)))
             .thenReturn(score);
+    }
+
+    // Monta o statement da consulta do indicador como o JdbcTemplate faria
+    @SuppressWarnings("unchecked")
+    private PreparedStatement statementDoIndicador() throws SQLException {
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(ResultSetExtractor.class));
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        return creator.getValue().createPreparedStatement(connection);
+    }
+
+    private void setupMocksParaAnaliseCompleta(Double score, Integer alertas, String relatorio) throws SQLException {
+        mockIndicador(score);
         
         when(dataSource.getConnection()).thenReturn(connection);
         when(connection.prepareCall(anyString())).thenReturn(callableStatement);
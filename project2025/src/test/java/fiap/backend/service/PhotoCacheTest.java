@@ -0,0 +1,99 @@
+package fiap.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PhotoCache - Testes Unitários")
+class PhotoCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private PhotoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // 1 MB no total, no máximo 512 KB por foto
+        cache = new PhotoCache(registry, 1, 512);
+    }
+
+    @Test
+    @DisplayName("Deve remover as fotos menos usadas ao exceder o limite de bytes")
+    void deveRemoverMenosUsadasAoExcederLimite() {
+        // Arrange
+        UUID primeira = UUID.randomUUID();
+        UUID segunda = UUID.randomUUID();
+        UUID terceira = UUID.randomUUID();
+        cache.put(primeira, null, foto(400 * 1024));
+        cache.put(segunda, null, foto(400 * 1024));
+        cache.get(primeira, null); // primeira passa a ser a mais recente
+
+        // Act
+        cache.put(terceira, null, foto(400 * 1024));
+
+        // Assert
+        assertTrue(cache.get(primeira, null).isPresent());
+        assertTrue(cache.get(segunda, null).isEmpty());
+        assertTrue(cache.get(terceira, null).isPresent());
+        assertEquals(800 * 1024, cache.getCurrentBytes());
+        assertEquals(1.0, registry.get(PhotoCache.EVICTIONS_NAME).counter().count());
+        assertEquals(800 * 1024.0, registry.get(PhotoCache.BYTES_NAME).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar fotos maiores que o limite por entrada")
+    void deveIgnorarFotosGrandes() {
+        // Act
+        cache.put(UUID.randomUUID(), null, foto(600 * 1024));
+
+        // Assert
+        assertFalse(cache.accepts(600 * 1024));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a foto e todas as suas variantes")
+    void deveInvalidarFotoEVariantes() {
+        // Arrange
+        UUID photoId = UUID.randomUUID();
+        UUID outra = UUID.randomUUID();
+        cache.put(photoId, null, foto(1000));
+        cache.put(photoId, 64, foto(100));
+        cache.put(outra, null, foto(10));
+
+        // Act
+        cache.invalidate(photoId);
+
+        // Assert
+        assertEquals(1, cache.size());
+        assertEquals(10, cache.getCurrentBytes());
+    }
+
+    @Test
+    @DisplayName("Deve exportar a taxa de acerto")
+    void deveExportarTaxaDeAcerto() {
+        // Arrange
+        UUID photoId = UUID.randomUUID();
+        cache.put(photoId, null, foto(10));
+
+        // Act
+        cache.get(photoId, null);
+        cache.get(photoId, null);
+        cache.get(photoId, null);
+        cache.get(UUID.randomUUID(), null);
+
+        // Assert
+        assertEquals(0.75, registry.get(PhotoCache.HIT_RATIO_NAME).gauge().value(), 0.0001);
+        assertEquals(3.0, registry.get(PhotoCache.REQUESTS_NAME).tag("result", "hit").counter().count());
+        assertEquals(1.0, registry.get(PhotoCache.REQUESTS_NAME).tag("result", "miss").counter().count());
+    }
+
+    private static PhotoCache.CachedPhoto foto(int tamanho) {
+        return new PhotoCache.CachedPhoto(new byte[tamanho], "image/jpeg", "\"etag\"");
+    }
+}
@@ -0,0 +1,102 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.PhotoContent;
+import fiap.backend.repository.PhotoContentRepository;
+import fiap.backend.repository.UserPhotoRepository;
+import fiap.backend.service.storage.PhotoStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PhotoContentService - Testes Unitários")
+class PhotoContentServiceTest {
+
+    @Mock
+    private PhotoContentRepository photoContentRepository;
+
+    @Mock
+    private UserPhotoRepository userPhotoRepository;
+
+    @Mock
+    private PhotoStorage photoStorage;
+
+    @InjectMocks
+    private PhotoContentService service;
+
+    private static final String CONTENT_HASH = "d".repeat(64);
+
+    @Test
+    @DisplayName("Deve manter o conteúdo ainda referenciado por outras fotos")
+    void deveManterConteudoCompartilhado() throws IOException {
+        // Arrange
+        when(photoContentRepository.findByContentHashForUpdate(CONTENT_HASH))
+                .thenReturn(Optional.of(new PhotoContent(CONTENT_HASH, 1024L, 2)));
+
+        // Act
+        boolean removido = service.purgeIfUnreferenced(CONTENT_HASH);
+
+        // Assert
+        assertFalse(removido);
+        verify(photoStorage, never()).delete(any());
+        verify(photoContentRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Deve remover arquivo e contagem quando não há mais referências")
+    void deveRemoverConteudoSemReferencias() throws IOException {
+        // Arrange
+        PhotoContent content = new PhotoContent(CONTENT_HASH, 1024L, 0);
+        when(photoContentRepository.findByContentHashForUpdate(CONTENT_HASH)).thenReturn(Optional.of(content));
+
+        // Act
+        boolean removido = service.purgeIfUnreferenced(CONTENT_HASH);
+
+        // Assert
+        assertTrue(removido);
+        verify(photoStorage).delete(CONTENT_HASH);
+        verify(photoContentRepository).delete(content);
+        verifyNoInteractions(userPhotoRepository);
+    }
+
+    @Test
+    @DisplayName("Deve manter a contagem quando o arquivo não pode ser removido")
+    void deveManterContagemQuandoRemocaoFalha() throws IOException {
+        // Arrange
+        when(photoContentRepository.findByContentHashForUpdate(CONTENT_HASH))
+                .thenReturn(Optional.of(new PhotoContent(CONTENT_HASH, 1024L, 0)));
+        doThrow(new IOException("disco indisponível")).when(photoStorage).delete(CONTENT_HASH);
+
+        // Act
+        boolean removido = service.purgeIfUnreferenced(CONTENT_HASH);
+
+        // Assert
+        assertFalse(removido);
+        verify(photoContentRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Sem linha de contagem, deve conferir as referências em user_photos")
+    void deveConferirFotosSemLinhaDeContagem() throws IOException {
+        // Arrange
+        when(photoContentRepository.findByContentHashForUpdate(CONTENT_HASH)).thenReturn(Optional.empty());
+        when(userPhotoRepository.existsByContentHash(CONTENT_HASH)).thenReturn(true);
+
+        // Act
+        boolean removido = service.purgeIfUnreferenced(CONTENT_HASH);
+
+        // Assert
+        assertFalse(removido);
+        verify(photoStorage, never()).delete(any());
+    }
+}
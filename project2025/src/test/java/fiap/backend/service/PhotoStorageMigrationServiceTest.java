@@ -0,0 +1,68 @@
+package fiap.backend.service;
+
+import fiap.backend.service.storage.PhotoStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PhotoStorageMigrationService - Testes Unitários")
+class PhotoStorageMigrationServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PhotoStorage photoStorage;
+
+    @Mock
+    private PhotoContentService photoContentService;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @InjectMocks
+    private PhotoStorageMigrationService service;
+
+    private static final String HASH_MIGRADA = "a".repeat(64);
+    private static final String HASH_SUBSTITUIDA = "b".repeat(64);
+
+    @Test
+    @DisplayName("Deve liberar o conteúdo gravado quando a foto já foi trocada por outra requisição")
+    void deveLiberarConteudoDeFotoSubstituida() throws Exception {
+        // Arrange
+        when(resultSet.getString("id")).thenReturn("photo-1", "photo-2");
+        when(resultSet.getBinaryStream("photo_data"))
+                .thenReturn(new ByteArrayInputStream(new byte[] { 1 }), new ByteArrayInputStream(new byte[] { 2 }));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        when(photoStorage.store(any(InputStream.class))).thenReturn(HASH_MIGRADA, HASH_SUBSTITUIDA);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 0 });
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        // Act
+        PhotoStorageMigrationService.ResultadoMigracao resultado = service.migrarFotosParaStorage(10);
+
+        // Assert
+        assertEquals(1, resultado.getMigradas());
+        verify(photoContentService).purgeIfUnreferenced(HASH_SUBSTITUIDA);
+        verify(photoContentService, never()).purgeIfUnreferenced(HASH_MIGRADA);
+    }
+}
@@ -0,0 +1,180 @@
+package fiap.backend.service;
+
+import fiap.backend.service.storage.LocalFilesystemPhotoStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PhotoVariantService - Testes Unitários")
+class PhotoVariantServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalFilesystemPhotoStorage storage;
+    private PhotoVariantService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalFilesystemPhotoStorage(root.toString());
+        // Executor síncrono: a geração "em background" roda na própria thread do teste
+        service = new PhotoVariantService(storage, Runnable::run, List.of(512, 64, 128), 1_000_000, 2);
+    }
+
+    @Test
+    @DisplayName("Deve escolher a menor variante que atende ao tamanho pedido")
+    void deveEscolherVariante() {
+        assertEquals(64, service.variantSizeFor(1));
+        assertEquals(64, service.variantSizeFor(64));
+        assertEquals(128, service.variantSizeFor(65));
+        assertEquals(512, service.variantSizeFor(300));
+        assertNull(service.variantSizeFor(1024));
+    }
+
+    @Test
+    @DisplayName("Deve gerar variantes JPEG mantendo a proporção")
+    void deveGerarVariantesMantendoProporcao() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(png(800, 600)));
+
+        // Act
+        service.generateVariants(hash);
+
+        // Assert
+        assertDimensoes(storage.findVariant(hash, "64"), 64, 48);
+        assertDimensoes(storage.findVariant(hash, "128"), 128, 96);
+        assertDimensoes(storage.findVariant(hash, "512"), 512, 384);
+    }
+
+    @Test
+    @DisplayName("Não deve ampliar imagens menores que a variante")
+    void naoDeveAmpliarImagensPequenas() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(png(100, 50)));
+
+        // Act
+        service.generateVariants(hash);
+
+        // Assert
+        assertDimensoes(storage.findVariant(hash, "64"), 64, 32);
+        assertDimensoes(storage.findVariant(hash, "512"), 100, 50);
+    }
+
+    @Test
+    @DisplayName("Não deve decodificar imagens acima do limite de pixels")
+    void naoDeveDecodificarImagensAcimaDoLimite() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(png(2000, 1000)));
+
+        // Act
+        IOException erro = assertThrows(IOException.class, () -> service.generateVariants(hash));
+
+        // Assert
+        assertTrue(erro.getMessage().contains("excede o limite"));
+        assertTrue(storage.findVariant(hash, "64").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve agendar a geração quando a variante ainda não existe")
+    void deveAgendarGeracaoNaPrimeiraConsulta() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(png(300, 300)));
+
+        // Act
+        Optional<Resource> primeira = service.findVariant(hash, 128);
+        Optional<Resource> segunda = service.findVariant(hash, 128);
+
+        // Assert
+        assertTrue(primeira.isEmpty());
+        assertTrue(segunda.isPresent());
+    }
+
+    @Test
+    @DisplayName("Não deve reagendar a geração para originais que não podem ser reduzidos")
+    void naoDeveReagendarOriginalInutilizavel() throws Exception {
+        // Arrange
+        AtomicInteger agendamentos = new AtomicInteger();
+        service = new PhotoVariantService(storage, tarefa -> {
+            agendamentos.incrementAndGet();
+            tarefa.run();
+        }, List.of(64), 1_000_000, 2);
+        String acimaDoLimite = storage.store(new ByteArrayInputStream(png(2000, 1000)));
+        String naoImagem = storage.store(new ByteArrayInputStream("não é imagem".getBytes()));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(service.findVariant(acimaDoLimite, 64).isEmpty());
+            assertTrue(service.findVariant(naoImagem, 64).isEmpty());
+        }
+
+        // Assert
+        assertEquals(2, agendamentos.get());
+        assertTrue(service.isUnusable(acimaDoLimite));
+        assertTrue(service.isUnusable(naoImagem));
+    }
+
+    @Test
+    @DisplayName("Deve limitar a quantidade de originais inutilizáveis guardados")
+    void deveLimitarOriginaisInutilizaveis() throws Exception {
+        // Arrange
+        String primeiro = storage.store(new ByteArrayInputStream("a".getBytes()));
+        String segundo = storage.store(new ByteArrayInputStream("b".getBytes()));
+        String terceiro = storage.store(new ByteArrayInputStream("c".getBytes()));
+
+        // Act
+        service.findVariant(primeiro, 64);
+        service.findVariant(segundo, 64);
+        service.findVariant(terceiro, 64);
+
+        // Assert
+        assertFalse(service.isUnusable(primeiro));
+        assertTrue(service.isUnusable(segundo));
+        assertTrue(service.isUnusable(terceiro));
+    }
+
+    @Test
+    @DisplayName("Deve remover variantes junto com o original")
+    void deveRemoverVariantesComOriginal() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(png(200, 200)));
+        service.generateVariants(hash);
+
+        // Act
+        storage.delete(hash);
+
+        // Assert
+        assertTrue(storage.findVariant(hash, "64").isEmpty());
+        assertFalse(storage.exists(hash));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void assertDimensoes(Optional<Resource> variant, int width, int height) throws Exception {
+        assertTrue(variant.isPresent());
+        try (InputStream in = variant.get().getInputStream()) {
+            BufferedImage image = ImageIO.read(in);
+            assertEquals(width, image.getWidth());
+            assertEquals(height, image.getHeight());
+        }
+    }
+}
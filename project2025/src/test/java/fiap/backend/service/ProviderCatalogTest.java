@@ -0,0 +1,137 @@
+package fiap.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.ServiceProvider;
+import fiap.backend.repository.ServiceProviderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProviderCatalog - Testes Unitários")
+class ProviderCatalogTest {
+
+    @Mock
+    private ServiceProviderRepository serviceProviderRepository;
+
+    private ProviderCatalog catalog;
+
+    private ServiceProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProviderCatalog(serviceProviderRepository, new ObjectMapper().findAndRegisterModules(), 0.1);
+        provider = new ServiceProvider("Clínica Vida", -46.6559, -23.5614, "Nutrição", "Av. Paulista, 1000",
+                UUID.randomUUID());
+        provider.setId(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("Deve carregar uma única vez e reutilizar o snapshot nas leituras")
+    void deveCarregarUmaVez() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(List.of(provider));
+
+        // Act
+        ProviderCatalog.Snapshot first = catalog.current();
+        ProviderCatalog.Snapshot second = catalog.current();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, first.getVersion());
+        assertEquals(1, first.getProviders().size());
+        assertEquals(1, first.getSpatialIndex().size());
+        assertTrue(new String(first.getJson(), StandardCharsets.UTF_8).contains("Clínica Vida"));
+        assertTrue(first.getEtag().startsWith("\"providers-"));
+        verify(serviceProviderRepository, times(1)).findAllActiveOrderByName();
+    }
+
+    @Test
+    @DisplayName("Deve trocar o snapshot e o ETag ao recarregar")
+    void deveTrocarSnapshotAoRecarregar() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName())
+                .thenReturn(List.of(provider))
+                .thenReturn(List.of());
+        ProviderCatalog.Snapshot before = catalog.current();
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        ProviderCatalog.Snapshot after = catalog.current();
+        assertEquals(2, after.getVersion());
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(after.getProviders().isEmpty());
+        // Leitores com o snapshot anterior continuam vendo uma versão consistente
+        assertEquals(1, before.getProviders().size());
+    }
+
+    @Test
+    @DisplayName("Deve gerar o mesmo ETag para o mesmo conteúdo em versões e instâncias diferentes")
+    void deveGerarEtagSoPeloConteudo() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(List.of(provider));
+        ProviderCatalog outraInstancia = new ProviderCatalog(serviceProviderRepository,
+                new ObjectMapper().findAndRegisterModules(), 0.1);
+        ProviderCatalog.Snapshot before = catalog.current();
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        ProviderCatalog.Snapshot after = catalog.current();
+        assertEquals(2, after.getVersion());
+        assertEquals(before.getEtag(), after.getEtag());
+        assertEquals(before.getEtag(), outraInstancia.current().getEtag());
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco ao recarregar um catálogo ainda não carregado")
+    void naoDeveRecarregarSemCarga() {
+        // Act
+        catalog.refresh();
+
+        // Assert
+        verifyNoInteractions(serviceProviderRepository);
+    }
+
+    @Test
+    @DisplayName("Deve descartar o catálogo quando a recarga falha")
+    void deveDescartarCatalogoQuandoRecargaFalha() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName())
+                .thenReturn(List.of(provider))
+                .thenThrow(new RuntimeException("banco indisponível"))
+                .thenReturn(List.of(provider));
+        catalog.current();
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        assertEquals(1, catalog.current().getVersion());
+        verify(serviceProviderRepository, times(3)).findAllActiveOrderByName();
+    }
+
+    @Test
+    @DisplayName("Deve buscar por nome sem diferenciar maiúsculas")
+    void deveBuscarPorNome() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(List.of(provider));
+
+        // Act & Assert
+        assertEquals(1, catalog.current().searchByName("VIDA").size());
+        assertTrue(catalog.current().searchByName("academia").isEmpty());
+    }
+}
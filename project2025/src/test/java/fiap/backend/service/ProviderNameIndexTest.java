@@ -0,0 +1,100 @@
+package fiap.backend.service;
+
+import fiap.backend.dto.ServiceProviderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProviderNameIndex - Testes Unitários")
+class ProviderNameIndexTest {
+
+    private ProviderNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Ordem do catálogo: por nome
+        index = new ProviderNameIndex(List.of(
+                provider("Academia Nutrir"),
+                provider("Centro de Nutrição São José"),
+                provider("Clínica Vida Leve"),
+                provider("Espaço Nutricionista Ana"),
+                provider("Nutrição & Saúde")));
+    }
+
+    @Test
+    @DisplayName("Deve normalizar acentos, maiúsculas e pontuação")
+    void deveNormalizarTexto() {
+        assertEquals("nutricao saude", ProviderNameIndex.fold("  Nutrição & Saúde "));
+        assertEquals("clinica sao jose", ProviderNameIndex.fold("CLÍNICA São-José"));
+        assertEquals("", ProviderNameIndex.fold(null));
+    }
+
+    @Test
+    @DisplayName("Deve buscar trecho do nome ignorando acentos, na ordem do catálogo")
+    void deveBuscarTrechoSemAcento() {
+        // Act
+        List<ServiceProviderResponse> result = index.containing("NUTRICAO");
+
+        // Assert
+        assertEquals(List.of("Centro de Nutrição São José", "Nutrição & Saúde"), names(result));
+    }
+
+    @Test
+    @DisplayName("Deve ordenar por início do nome, início de palavra e trecho")
+    void deveOrdenarPorRelevancia() {
+        // Act
+        List<ServiceProviderResponse> result = index.typeahead("nutri", 10);
+
+        // Assert
+        assertEquals(List.of(
+                "Nutrição & Saúde",
+                "Academia Nutrir",
+                "Centro de Nutrição São José",
+                "Espaço Nutricionista Ana"), names(result));
+    }
+
+    @Test
+    @DisplayName("Deve sugerir nomes parecidos por último, para erros de digitação")
+    void deveTolerarErroDeDigitacao() {
+        // Act
+        List<ServiceProviderResponse> result = index.typeahead("nutrisionista", 10);
+
+        // Assert
+        assertFalse(result.isEmpty());
+        assertEquals("Espaço Nutricionista Ana", result.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Deve responder buscas curtas apenas por prefixo")
+    void deveBuscarPrefixoCurto() {
+        // Act
+        List<ServiceProviderResponse> result = index.typeahead("cl", 10);
+
+        // Assert
+        assertEquals(List.of("Clínica Vida Leve"), names(result));
+    }
+
+    @Test
+    @DisplayName("Deve respeitar o limite de sugestões")
+    void deveRespeitarLimite() {
+        // Act & Assert
+        assertEquals(2, index.typeahead("nutri", 2).size());
+        assertTrue(index.typeahead("  ", 10).isEmpty());
+    }
+
+    private static ServiceProviderResponse provider(String name) {
+        ServiceProviderResponse response = new ServiceProviderResponse();
+        response.setId(UUID.randomUUID());
+        response.setName(name);
+        return response;
+    }
+
+    private static List<String> names(List<ServiceProviderResponse> providers) {
+        return providers.stream().map(ServiceProviderResponse::getName).toList();
+    }
+}
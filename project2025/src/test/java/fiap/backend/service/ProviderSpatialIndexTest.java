@@ -0,0 +1,110 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.ServiceProvider;
+import fiap.backend.dto.NearbyServiceProviderResponse;
+import fiap.backend.dto.ServiceProviderResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProviderSpatialIndex - Testes Unitários")
+class ProviderSpatialIndexTest {
+
+    private ProviderSpatialIndex index;
+
+    private ServiceProviderResponse paulista;
+    private ServiceProviderResponse pinheiros;
+    private ServiceProviderResponse campinas;
+
+    @BeforeEach
+    void setUp() {
+        paulista = provider("Paulista", -23.5614, -46.6559);
+        pinheiros = provider("Pinheiros", -23.5670, -46.6920);
+        campinas = provider("Campinas", -22.9056, -47.0608);
+        index = new ProviderSpatialIndex(List.of(pinheiros, campinas, paulista), 0.1);
+    }
+
+    @Test
+    @DisplayName("Deve retornar os k mais próximos dentro do raio, ordenados por distância")
+    void deveRetornarMaisProximosOrdenados() {
+        // Act
+        List<NearbyServiceProviderResponse> result = index.nearest(-23.5630, -46.6543, 10.0, 5);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(paulista.getId(), result.get(0).getProvider().getId());
+        assertEquals(pinheiros.getId(), result.get(1).getProvider().getId());
+        assertTrue(result.get(0).getDistanceKm() < 1.0);
+    }
+
+    @Test
+    @DisplayName("Deve limitar a quantidade de resultados ao k pedido")
+    void deveLimitarResultados() {
+        // Act
+        List<NearbyServiceProviderResponse> result = index.nearest(-23.5630, -46.6543, 200.0, 1);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(paulista.getId(), result.get(0).getProvider().getId());
+    }
+
+    @Test
+    @DisplayName("Deve encontrar fornecedores do outro lado do antimeridiano")
+    void deveConsiderarAntimeridiano() {
+        // Arrange
+        ServiceProviderResponse fiji = provider("Fiji", -17.0, 179.95);
+        index = new ProviderSpatialIndex(List.of(paulista, fiji), 0.1);
+
+        // Act
+        List<NearbyServiceProviderResponse> result = index.nearest(-17.0, -179.95, 50.0, 5);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(fiji.getId(), result.get(0).getProvider().getId());
+    }
+
+    @Test
+    @DisplayName("Deve retornar fornecedores da área ordenados por nome")
+    void deveBuscarPorAreaOrdenadoPorNome() {
+        // Act
+        List<ServiceProviderResponse> result = index.withinBounds(-23.6, -23.5, -46.7, -46.6);
+
+        // Assert
+        assertEquals(List.of("Paulista", "Pinheiros"), result.stream().map(ServiceProviderResponse::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar fornecedores sem coordenadas")
+    void deveIgnorarSemCoordenadas() {
+        // Arrange
+        ServiceProviderResponse semCoordenadas = new ServiceProviderResponse();
+        semCoordenadas.setId(UUID.randomUUID());
+        semCoordenadas.setName("Sem Coordenadas");
+
+        // Act
+        ProviderSpatialIndex result = new ProviderSpatialIndex(List.of(paulista, semCoordenadas), 0.1);
+
+        // Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    @DisplayName("Deve calcular a distância de haversine")
+    void deveCalcularHaversine() {
+        // São Paulo -> Rio de Janeiro, ~361 km
+        double distance = ProviderSpatialIndex.haversineKm(-23.5505, -46.6333, -22.9068, -43.1729);
+
+        assertEquals(361.0, distance, 5.0);
+    }
+
+    private ServiceProviderResponse provider(String name, double latitude, double longitude) {
+        ServiceProvider provider = new ServiceProvider(name, longitude, latitude, null, "Endereço", UUID.randomUUID());
+        provider.setId(UUID.randomUUID());
+        return new ServiceProviderResponse(provider);
+    }
+}
@@ -0,0 +1,254 @@
+package fiap.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.ServiceProvider;
+import fiap.backend.repository.ServiceProviderRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ServiceProviderImportService - Testes Unitários")
+class ServiceProviderImportServiceTest {
+
+    @Mock
+    private ServiceProviderRepository serviceProviderRepository;
+
+    @Mock
+    private ProviderCatalog providerCatalog;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<ServiceProvider>> savedCaptor;
+
+    private ServiceProviderImportService service;
+
+    private final UUID adminId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        service = importService(500, 10000);
+    }
+
+    @Test
+    @DisplayName("Deve importar registros válidos e relatar os inválidos sem interromper")
+    void deveImportarValidosERelatarInvalidos() throws IOException {
+        // Arrange
+        String csv = "name,latitude,longitude,endereco,description\n"
+                + "Clínica Vida,-23.5614,-46.6559,\"Av. Paulista, 1000\",Nutrição\n"
+                + ",-23.5,-46.6,Rua A,\n"
+                + "Fora do Mapa,95,-46.6,Rua B,\n"
+                + "clínica vida,-23.5,-46.6,Rua C,\n"
+                + "Já Cadastrado,-23.5,-46.6,Rua D,\n"
+                + "Latitude Texto,abc,-46.6,Rua E,\n";
+        when(serviceProviderRepository.findExistingLowerNames(anyCollection())).thenReturn(List.of("já cadastrado"));
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(6, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(5, result.getFailed());
+        assertEquals(List.of(3, 4, 5, 7, 6),
+                result.getErrors().stream().map(ServiceProviderImportService.ImportError::getRow).toList());
+        assertEquals("Nome é obrigatório", result.getErrors().get(0).getMessage());
+        assertEquals("Latitude deve estar entre -90 e 90 graus", result.getErrors().get(1).getMessage());
+        assertEquals("Nome repetido no arquivo", result.getErrors().get(2).getMessage());
+        assertEquals("Longitude e latitude devem ser numéricas", result.getErrors().get(3).getMessage());
+        assertEquals("Já existe um fornecedor com este nome", result.getErrors().get(4).getMessage());
+
+        verify(serviceProviderRepository).saveAll(savedCaptor.capture());
+        ServiceProvider saved = savedCaptor.getValue().get(0);
+        assertEquals("Clínica Vida", saved.getName());
+        assertEquals("Av. Paulista, 1000", saved.getEndereco());
+        assertEquals(adminId, saved.getCreatedBy());
+        verify(providerCatalog).refresh();
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.PROVIDER, null);
+    }
+
+    @Test
+    @DisplayName("Deve gravar em lotes com uma consulta de nomes por lote")
+    void deveGravarEmLotes() throws IOException {
+        // Arrange
+        service = importService(2, 10000);
+        StringBuilder csv = new StringBuilder("name,latitude,longitude,endereco\n");
+        for (int i = 1; i <= 5; i++) {
+            csv.append("Fornecedor ").append(i).append(",-23.5,-46.6,Rua ").append(i).append('\n');
+        }
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv.toString()), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(5, result.getImported());
+        verify(serviceProviderRepository, times(3)).findExistingLowerNames(anyCollection());
+        verify(serviceProviderRepository, times(3)).saveAll(any());
+        verify(serviceProviderRepository, times(3)).flush();
+        verify(providerCatalog, times(1)).refresh();
+    }
+
+    @Test
+    @DisplayName("Deve aceitar CSV do Excel: BOM, ponto e vírgula e decimal com vírgula")
+    void deveAceitarCsvDoExcel() throws IOException {
+        // Arrange
+        String csv = "\uFEFFNome;Latitude;Longitude;Endereco;Descricao\r\n"
+                + "Espaço Saúde;-23,5614;-46,6559;Rua X;\"Atende \"\"online\"\"\"\r\n";
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        verify(serviceProviderRepository).saveAll(savedCaptor.capture());
+        ServiceProvider saved = savedCaptor.getValue().get(0);
+        assertEquals(-23.5614, saved.getLatitude());
+        assertEquals(-46.6559, saved.getLongitude());
+    }
+
+    @Test
+    @DisplayName("Deve importar array JSON")
+    void deveImportarJson() throws IOException {
+        // Arrange
+        String json = "[{\"name\":\"Clínica Vida\",\"latitude\":-23.56,\"longitude\":-46.65,\"endereco\":\"Rua A\"},"
+                + "{\"name\":\"Sem Endereço\",\"latitude\":-23.5,\"longitude\":-46.6},"
+                + "42]";
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(json), ServiceProviderImportService.Format.JSON, adminId);
+
+        // Assert
+        assertEquals(3, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals("Endereço é obrigatório", result.getErrors().get(0).getMessage());
+        assertEquals(3, result.getErrors().get(1).getRow());
+    }
+
+    @Test
+    @DisplayName("Deve relatar falha de gravação do lote e seguir com os próximos")
+    void deveRelatarFalhaDoLote() throws IOException {
+        // Arrange
+        service = importService(1, 10000);
+        String csv = "name,latitude,longitude,endereco\nA,-23.5,-46.6,Rua A\nB,-23.5,-46.6,Rua B\n";
+        doThrow(new RuntimeException("ORA-00001")).doNothing().when(serviceProviderRepository).flush();
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertTrue(result.getErrors().get(0).getMessage().contains("ORA-00001"));
+    }
+
+    @Test
+    @DisplayName("Deve gravar registro a registro quando o lote falha, recusando só os que falham")
+    void deveRecusarSoOsRegistrosQueFalhamNoLote() throws IOException {
+        // Arrange
+        String csv = "name,latitude,longitude,endereco\nA,-23.5,-46.6,Rua A\nB,-23.5,-46.6,Rua B\n"
+                + "C,-23.5,-46.6,Rua C\n";
+        doThrow(new RuntimeException("ORA-12899")).doNothing()
+                .doThrow(new RuntimeException("ORA-12899")).doNothing()
+                .when(serviceProviderRepository).flush();
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals("B", result.getErrors().get(0).getName());
+        verify(serviceProviderRepository, times(3)).save(any(ServiceProvider.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar coordenadas NaN e infinitas")
+    void deveRecusarCoordenadasNaoFinitas() throws IOException {
+        // Arrange
+        String csv = "name,latitude,longitude,endereco\nA,NaN,-46.6,Rua A\nB,-23.5,Infinity,Rua B\n"
+                + "C,-23.5,-46.6,Rua C\n";
+
+        // Act
+        ServiceProviderImportService.ImportResult result = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(2, 3),
+                result.getErrors().stream().map(ServiceProviderImportService.ImportError::getRow).toList());
+        assertEquals("Longitude e latitude devem ser numéricas", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve parar no limite de registros e em erro de estrutura do arquivo")
+    void deveRespeitarLimiteEEstrutura() throws IOException {
+        // Arrange
+        service = importService(500, 1);
+        String csv = "name,latitude,longitude,endereco\nA,-23.5,-46.6,Rua A\nB,-23.5,-46.6,Rua B\n";
+
+        // Act
+        ServiceProviderImportService.ImportResult limited = service.importProviders(
+                stream(csv), ServiceProviderImportService.Format.CSV, adminId);
+        ServiceProviderImportService.ImportResult malformed = importService(500, 10000).importProviders(
+                stream("name,latitude,longitude,endereco\n\"Sem fim,-23.5,-46.6,Rua\n"),
+                ServiceProviderImportService.Format.CSV, adminId);
+
+        // Assert
+        assertEquals(1, limited.getImported());
+        assertTrue(limited.getErrors().get(0).getMessage().contains("Limite de 1 registros"));
+        assertEquals(0, malformed.getTotalRows());
+        assertEquals("Arquivo inválido: Aspas não fechadas", malformed.getErrors().get(0).getMessage());
+        verify(providerCatalog, times(1)).refresh();
+    }
+
+    @Test
+    @DisplayName("Deve recusar CSV sem a coluna de nome")
+    void deveRecusarCabecalhoInvalido() {
+        // Act & Assert
+        assertThrows(IOException.class, () -> service.importProviders(
+                stream("latitude,longitude\n1,2\n"), ServiceProviderImportService.Format.CSV, adminId));
+        verifyNoInteractions(serviceProviderRepository);
+    }
+
+    private ServiceProviderImportService importService(int chunkSize, int maxRows) {
+        return new ServiceProviderImportService(serviceProviderRepository, providerCatalog, cacheInvalidationBus,
+                new TransactionTemplate(transactionManager), new ObjectMapper(), chunkSize, maxRows);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,14 +1,16 @@
 package fiap.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import fiap.backend.domain.ServiceProvider;
+import fiap.backend.dto.NearbyServiceProviderResponse;
 import fiap.backend.dto.ServiceProviderCreateRequest;
 import fiap.backend.dto.ServiceProviderResponse;
 import fiap.backend.dto.ServiceProviderUpdateRequest;
 import fiap.backend.repository.ServiceProviderRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -31,7 +33,11 @@ class ServiceProviderServiceTest {
     @Mock
     private ServiceProviderRepository serviceProviderRepository;
 
-    @InjectMocks
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private ProviderCatalog providerCatalog;
+
     private ServiceProviderService serviceProviderService;
 
     private UUID adminId;
@@ -42,6 +48,9 @@ class ServiceProviderServiceTest {
     @BeforeEach
     void setUp() {
         adminId = UUID.randomUUID();
+        providerCatalog = spy(new ProviderCatalog(serviceProviderRepository, new ObjectMapper().findAndRegisterModules(), 0.1));
+        serviceProviderService = new ServiceProviderService(serviceProviderRepository, providerCatalog,
+                cacheInvalidationBus);
 
         // Setup de fornecedor de teste
         testProvider = new ServiceProvider();
@@ -219,10 +228,10 @@ class ServiceProviderServiceTest {
     @Test
     void searchActiveProvidersByName_Success() {
         // Arrange
-        String searchName = "Tech";
-        List<ServiceProvider> foundProviders = Arrays.asList(testProvider);
-        when(serviceProviderRepository.findActiveByNameContainingIgnoreCase(searchName))
-                .thenReturn(foundProviders);
+        String searchName = "tech";
+        ServiceProvider other = new ServiceProvider("Outro Fornecedor", -46.6, -23.5, null, "São Paulo", adminId);
+        other.setId(UUID.randomUUID());
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(Arrays.asList(other, testProvider));
 
         // Act
         List<ServiceProviderResponse> responses = serviceProviderService.searchActiveProvidersByName(searchName);
@@ -232,16 +241,17 @@ class ServiceProviderServiceTest {
         assertEquals(1, responses.size());
         assertEquals(testProvider.getName(), responses.get(0).getName());
 
-        verify(serviceProviderRepository).findActiveByNameContainingIgnoreCase(searchName);
+        verify(serviceProviderRepository, never()).findActiveByNameContainingIgnoreCase(any());
     }
 
     @Test
     void getProvidersByLocation_Success() {
         // Arrange
         Double minLat = -23.6, maxLat = -23.5, minLng = -46.7, maxLng = -46.6;
-        List<ServiceProvider> providersInArea = Arrays.asList(testProvider);
-        when(serviceProviderRepository.findByLocationBounds(minLat, maxLat, minLng, maxLng))
-                .thenReturn(providersInArea);
+        ServiceProvider outsideArea = new ServiceProvider("Fora da Área", -43.17, -22.90, null, "Rio de Janeiro", adminId);
+        outsideArea.setId(UUID.randomUUID());
+        when(serviceProviderRepository.findAllActiveOrderByName())
+                .thenReturn(Arrays.asList(testProvider, outsideArea));
 
         // Act
         List<ServiceProviderResponse> responses = serviceProviderService.getProvidersByLocation(
@@ -252,7 +262,10 @@ class ServiceProviderServiceTest {
         assertEquals(1, responses.size());
         assertEquals(testProvider.getId(), responses.get(0).getId());
 
-        verify(serviceProviderRepository).findByLocationBounds(minLat, maxLat, minLng, maxLng);
+        // Consulta respondida pelo índice em memória, carregado uma única vez
+        serviceProviderService.getProvidersByLocation(minLat, maxLat, minLng, maxLng);
+        verify(serviceProviderRepository, times(1)).findAllActiveOrderByName();
+        verify(serviceProviderRepository, never()).findByLocationBounds(any(), any(), any(), any());
     }
 
     @Test
@@ -268,6 +281,106 @@ class ServiceProviderServiceTest {
         verify(serviceProviderRepository, never()).findByLocationBounds(any(), any(), any(), any());
     }
 
+    @Test
+    void getProvidersByLocation_NaNCoordinate_ThrowsException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> serviceProviderService.getProvidersByLocation(Double.NaN, -23.5, -46.7, -46.6));
+        assertTrue(exception.getMessage().contains("números finitos"));
+
+        verify(serviceProviderRepository, never()).findByLocationBounds(any(), any(), any(), any());
+    }
+
+    @Test
+    void findNearestProviders_ReturnsOrderedByDistance() {
+        // Arrange
+        ServiceProvider farther = new ServiceProvider("Mais Distante", -46.70, -23.60, null, "São Paulo", adminId);
+        farther.setId(UUID.randomUUID());
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(Arrays.asList(farther, testProvider));
+
+        // Act
+        List<NearbyServiceProviderResponse> responses = serviceProviderService.findNearestProviders(
+                -23.5506, -46.6334, 20.0, 10);
+
+        // Assert
+        assertEquals(2, responses.size());
+        assertEquals(testProvider.getId(), responses.get(0).getProvider().getId());
+        assertEquals(farther.getId(), responses.get(1).getProvider().getId());
+        assertTrue(responses.get(0).getDistanceKm() < responses.get(1).getDistanceKm());
+    }
+
+    @Test
+    void typeaheadProviders_IgnoresAccents() {
+        // Arrange
+        ServiceProvider clinic = new ServiceProvider("Clínica São José", -46.6, -23.5, null, "São Paulo", adminId);
+        clinic.setId(UUID.randomUUID());
+        when(serviceProviderRepository.findAllActiveOrderByName()).thenReturn(Arrays.asList(clinic, testProvider));
+
+        // Act
+        List<ServiceProviderResponse> responses = serviceProviderService.typeaheadProviders("clinica sao", null);
+
+        // Assert
+        assertEquals(1, responses.size());
+        assertEquals(clinic.getId(), responses.get(0).getId());
+    }
+
+    @Test
+    void typeaheadProviders_InvalidLimit_ThrowsException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> serviceProviderService.typeaheadProviders("tech", 500));
+        assertTrue(exception.getMessage().contains("Limite deve estar entre 1 e 50"));
+
+        verifyNoInteractions(serviceProviderRepository);
+    }
+
+    @Test
+    void findNearestProviders_InvalidRadius_ThrowsException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> serviceProviderService.findNearestProviders(-23.55, -46.63, 1000.0, 10));
+        assertTrue(exception.getMessage().contains("Raio deve estar entre"));
+
+        verifyNoInteractions(serviceProviderRepository);
+    }
+
+    @Test
+    void deactivateServiceProvider_RefreshesCatalog() {
+        // Arrange
+        when(serviceProviderRepository.findAllActiveOrderByName())
+                .thenReturn(Arrays.asList(testProvider))
+                .thenReturn(List.of());
+        when(serviceProviderRepository.findById(testProvider.getId())).thenReturn(Optional.of(testProvider));
+        when(serviceProviderRepository.save(testProvider)).thenReturn(testProvider);
+        ProviderCatalog.Snapshot before = serviceProviderService.getActiveCatalog();
+        assertEquals(1, serviceProviderService.findNearestProviders(-23.55, -46.63, 5.0, 10).size());
+
+        // Act
+        serviceProviderService.deactivateServiceProvider(testProvider.getId(), adminId);
+
+        // Assert
+        ProviderCatalog.Snapshot after = serviceProviderService.getActiveCatalog();
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(serviceProviderService.findNearestProviders(-23.55, -46.63, 5.0, 10).isEmpty());
+        assertTrue(serviceProviderService.getAllActiveProviders().isEmpty());
+    }
+
+    @Test
+    void createServiceProvider_CatalogNotLoaded_DoesNotQueryActiveProviders() {
+        // Arrange
+        when(serviceProviderRepository.existsByNameIgnoreCase(createRequest.getName())).thenReturn(false);
+        when(serviceProviderRepository.save(any(ServiceProvider.class))).thenReturn(testProvider);
+
+        // Act
+        serviceProviderService.createServiceProvider(createRequest, adminId);
+
+        // Assert
+        verify(providerCatalog).refresh();
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.PROVIDER, testProvider.getId().toString());
+        verify(serviceProviderRepository, never()).findAllActiveOrderByName();
+    }
+
     @Test
     void getProviderStats_Success() {
         // Arrange
@@ -0,0 +1,232 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.DomainEvent;
+import fiap.backend.domain.Subscription;
+import fiap.backend.domain.SubscriptionPlan;
+import fiap.backend.domain.User;
+import fiap.backend.repository.SubscriptionPlanRepository;
+import fiap.backend.repository.SubscriptionRepository;
+import fiap.backend.repository.UserRepository;
+import fiap.backend.service.outbox.DomainEventOutbox;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas aprovações concorrentes para o mesmo usuário, em transações reais sobre
+ * H2: a primeira aprova e segura a transação aberta enquanto a segunda roda.
+ * Ao final o usuário deve ter uma única assinatura ativa.
+ */
+@DisplayName("SubscriptionServiceImpl - Aprovações concorrentes")
+class SubscriptionApprovalConcurrencyTest {
+
+    private static ConfigurableApplicationContext context;
+
+    private SubscriptionService subscriptionService;
+    private SubscriptionRepository subscriptionRepository;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+
+    private UUID userId;
+    private UUID planId;
+    private final UUID adminUserId = UUID.randomUUID();
+
+    @BeforeAll
+    static void startContext() {
+        String url = "jdbc:h2:mem:subscription-approval-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        // Argumentos de linha de comando para prevalecer sobre o application.properties (Oracle)
+        context = new SpringApplicationBuilder(ApprovalConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.connection-test-query=SELECT 1",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false");
+
+        // Equivalente H2 do índice único parcial ux_subscriptions_active_user (V18)
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.execute("ALTER TABLE subscriptions ADD COLUMN active_user_id UUID "
+                + "GENERATED ALWAYS AS (CASE WHEN status = 'APPROVED' THEN user_id END)");
+        jdbc.execute("CREATE UNIQUE INDEX ux_subscriptions_active_user ON subscriptions (active_user_id)");
+    }
+
+    @AfterAll
+    static void stopContext() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        subscriptionService = context.getBean(SubscriptionService.class);
+        subscriptionRepository = context.getBean(SubscriptionRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        executor = Executors.newFixedThreadPool(2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = new User();
+            user.setFirstName("Maria");
+            user.setLastName("Silva");
+            user.setEmail("maria-" + UUID.randomUUID() + "@test.com");
+            user.setPasswordHash("hash");
+            userId = context.getBean(UserRepository.class).save(user).getId();
+
+            SubscriptionPlan plan = new SubscriptionPlan("Premium " + UUID.randomUUID(),
+                    BigDecimal.valueOf(99.90));
+            planId = context.getBean(SubscriptionPlanRepository.class).save(plan).getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Duas aprovações da mesma assinatura: a segunda falha na checagem de versão")
+    void duasAprovacoesDaMesmaAssinatura() throws Exception {
+        // Arrange
+        UUID subscriptionId = createPendingSubscription();
+
+        // Act
+        Future<?> second = raceWithOpenApproval(subscriptionId,
+                () -> subscriptionService.approveSubscription(subscriptionId, adminUserId));
+
+        // Assert
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertNotNull(failure.getCause());
+        Subscription approved = subscriptionRepository.findById(subscriptionId).orElseThrow();
+        assertEquals(Subscription.SubscriptionStatus.APPROVED, approved.getStatus());
+        assertEquals(1L, approved.getVersion());
+        assertEquals(1L, subscriptionRepository.countActiveSubscriptionsByUserId(userId));
+    }
+
+    @Test
+    @DisplayName("Duas aprovações de assinaturas diferentes do mesmo usuário: a segunda falha com assinatura ativa")
+    void duasAprovacoesDeAssinaturasDiferentes() throws Exception {
+        // Arrange
+        UUID first = createPendingSubscription();
+        UUID other = createPendingSubscription();
+
+        // Act
+        Future<?> second = raceWithOpenApproval(first,
+                () -> subscriptionService.approveSubscription(other, adminUserId));
+
+        // Assert: a segunda não vê a primeira (ainda não confirmada) e esbarra no índice único
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertEquals("User already has an active subscription", failure.getCause().getMessage());
+        assertEquals(Subscription.SubscriptionStatus.APPROVED,
+                subscriptionRepository.findById(first).orElseThrow().getStatus());
+        assertEquals(Subscription.SubscriptionStatus.PENDING,
+                subscriptionRepository.findById(other).orElseThrow().getStatus());
+        assertEquals(1L, subscriptionRepository.countActiveSubscriptionsByUserId(userId));
+    }
+
+    /**
+     * Aprova {@code subscriptionId} numa transação que fica aberta enquanto
+     * {@code competing} roda em outra thread; confirma a primeira quando a
+     * segunda termina ou fica bloqueada no lock da linha
+     */
+    private Future<?> raceWithOpenApproval(UUID subscriptionId, Runnable competing) throws Exception {
+        CountDownLatch approved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            subscriptionService.approveSubscription(subscriptionId, adminUserId);
+            subscriptionRepository.flush();
+            approved.countDown();
+            await(release);
+        }));
+        assertTrue(approved.await(10, TimeUnit.SECONDS), "primeira aprovação não chegou ao flush");
+
+        Future<?> second = executor.submit(competing);
+        try {
+            second.get(300, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // Bloqueada pela primeira transação, ou já falhou
+        }
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        return second;
+    }
+
+    private UUID createPendingSubscription() {
+        return transactionTemplate.execute(status -> subscriptionRepository.save(new Subscription(
+                context.getBean(UserRepository.class).getReferenceById(userId),
+                context.getBean(SubscriptionPlanRepository.class).getReferenceById(planId))).getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Só JPA, os repositórios de assinatura e o SubscriptionServiceImpl, com
+     * uma DomainEventOutbox que não publica nada
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class })
+    @EntityScan(basePackageClasses = Subscription.class)
+    @EnableJpaRepositories(basePackageClasses = SubscriptionRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = { SubscriptionRepository.class, SubscriptionPlanRepository.class,
+                            UserRepository.class }))
+    @Import({ SubscriptionServiceImpl.class, ActiveSubscriptionCache.class })
+    static class ApprovalConfig {
+
+        @Bean
+        DomainEventOutbox domainEventOutbox() {
+            return new DomainEventOutbox() {
+                @Override
+                public void publish(String aggregateType, UUID aggregateId, String eventType, Map<String, ?> payload) {
+                }
+
+                @Override
+                public void subscribe(String aggregateType, Consumer<DomainEvent> listener) {
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package fiap.backend.service;
+
+import fiap.backend.domain.SubscriptionPlan;
+import fiap.backend.dto.SubscriptionPlanResponse;
+import fiap.backend.repository.SubscriptionPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriptionPlanCatalog - Testes Unitários")
+class SubscriptionPlanCatalogTest {
+
+    @Mock
+    private SubscriptionPlanRepository subscriptionPlanRepository;
+
+    private SubscriptionPlanCatalog catalog;
+
+    private SubscriptionPlan premium;
+    private SubscriptionPlan basic;
+    private SubscriptionPlan legacy;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SubscriptionPlanCatalog(subscriptionPlanRepository, 60_000);
+        premium = plan("Premium", "99.90", null, true);
+        basic = plan("Basic", "29.90", 10, true);
+        legacy = plan("Legacy", "9.90", 5, false);
+    }
+
+    @Test
+    @DisplayName("Deve carregar uma única vez e servir todas as leituras da memória")
+    void deveCarregarUmaVez() {
+        // Arrange
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(premium, basic, legacy));
+
+        // Act
+        List<SubscriptionPlanResponse> active = catalog.getActivePlans();
+        List<SubscriptionPlanResponse> all = catalog.getAllPlans();
+        SubscriptionPlanResponse found = catalog.findPlan(basic.getId()).orElseThrow();
+
+        // Assert
+        assertEquals(List.of("Basic", "Premium"), active.stream().map(SubscriptionPlanResponse::getName).toList());
+        assertEquals(3, all.size());
+        assertEquals("Basic", found.getName());
+        assertEquals(1, catalog.getVersion());
+        verify(subscriptionPlanRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Deve informar o limite de planos nutricionais, null quando ilimitado")
+    void deveInformarLimiteDePlanosNutricionais() {
+        // Arrange
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(premium, basic, legacy));
+
+        // Act & Assert
+        assertEquals(10, catalog.getNutritionPlansLimit(basic.getId()));
+        assertNull(catalog.getNutritionPlansLimit(premium.getId()));
+        assertEquals(5, catalog.getNutritionPlansLimit(legacy.getId()));
+        verify(subscriptionPlanRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Deve recarregar e avançar a versão após uma escrita")
+    void deveRecarregarAposEscrita() {
+        // Arrange
+        when(subscriptionPlanRepository.findAll())
+                .thenReturn(List.of(premium, basic))
+                .thenReturn(List.of(premium));
+        catalog.getAllPlans();
+
+        // Act
+        catalog.refresh();
+
+        // Assert
+        assertEquals(2, catalog.getVersion());
+        assertEquals(1, catalog.getAllPlans().size());
+    }
+
+    @Test
+    @DisplayName("Recarga sem catálogo carregado não deve consultar o banco")
+    void recargaSemCatalogoNaoDeveConsultar() {
+        // Act
+        catalog.refresh();
+
+        // Assert
+        verifyNoInteractions(subscriptionPlanRepository);
+    }
+
+    @Test
+    @DisplayName("Deve recarregar uma vez ao buscar plano desconhecido (criado em outra instância)")
+    void deveRecarregarAoBuscarPlanoDesconhecido() {
+        // Arrange
+        SubscriptionPlan novo = plan("Novo", "49.90", 20, true);
+        when(subscriptionPlanRepository.findAll())
+                .thenReturn(List.of(basic))
+                .thenReturn(List.of(basic, novo));
+
+        // Act
+        catalog.getAllPlans();
+        Integer limit = catalog.getNutritionPlansLimit(novo.getId());
+
+        // Assert
+        assertEquals(20, limit);
+        assertEquals(2, catalog.getVersion());
+    }
+
+    @Test
+    @DisplayName("Não deve recarregar a cada plano desconhecido dentro do intervalo")
+    void naoDeveRecarregarACadaPlanoDesconhecido() {
+        // Arrange
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(basic));
+
+        // Act
+        catalog.getAllPlans();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(catalog.findPlan(UUID.randomUUID()).isEmpty());
+        }
+
+        // Assert
+        verify(subscriptionPlanRepository, times(2)).findAll();
+        assertEquals(2, catalog.getVersion());
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção para plano inexistente")
+    void deveLancarExcecaoParaPlanoInexistente() {
+        // Arrange
+        when(subscriptionPlanRepository.findAll()).thenReturn(List.of(basic));
+        UUID inexistente = UUID.randomUUID();
+
+        // Act & Assert
+        assertTrue(catalog.findPlan(inexistente).isEmpty());
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> catalog.getNutritionPlansLimit(inexistente));
+        assertEquals("Plano de assinatura não encontrado", exception.getMessage());
+    }
+
+    private static SubscriptionPlan plan(String name, String price, Integer limit, boolean active) {
+        SubscriptionPlan plan = new SubscriptionPlan(name, new BigDecimal(price), limit, null);
+        plan.setId(UUID.randomUUID());
+        plan.setIsActive(active);
+        return plan;
+    }
+}
@@ -4,6 +4,7 @@ import fiap.backend.domain.SubscriptionPlan;
 import fiap.backend.dto.SubscriptionPlanRequest;
 import fiap.backend.dto.SubscriptionPlanResponse;
 import fiap.backend.repository.SubscriptionPlanRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,12 @@ class SubscriptionPlanServiceImplTest {
     @Mock
     private SubscriptionPlanRepository subscriptionPlanRepository;
 
+    @Mock
+    private SubscriptionPlanCatalog subscriptionPlanCatalog;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private SubscriptionPlanServiceImpl subscriptionPlanService;
 
@@ -64,6 +71,8 @@ class SubscriptionPlanServiceImplTest {
         assertTrue(response.getIsActive());
         verify(subscriptionPlanRepository).existsByName(testRequest.getName());
         verify(subscriptionPlanRepository).save(any(SubscriptionPlan.class));
+        verify(subscriptionPlanCatalog).refresh();
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.SUBSCRIPTION_PLAN, testId.toString());
     }
 
     @Test
@@ -82,7 +91,7 @@ class SubscriptionPlanServiceImplTest {
     @Test
     void getPlanById_Success() {
         // Given
-        when(subscriptionPlanRepository.findById(testId)).thenReturn(Optional.of(testPlan));
+        when(subscriptionPlanCatalog.findPlan(testId)).thenReturn(Optional.of(toResponse(testPlan)));
 
         // When
         SubscriptionPlanResponse response = subscriptionPlanService.getPlanById(testId);
@@ -92,26 +101,26 @@ class SubscriptionPlanServiceImplTest {
         assertEquals(testPlan.getId(), response.getId());
         assertEquals(testPlan.getName(), response.getName());
         assertEquals(testPlan.getPrice(), response.getPrice());
-        verify(subscriptionPlanRepository).findById(testId);
+        verifyNoInteractions(subscriptionPlanRepository);
     }
 
     @Test
     void getPlanById_ThrowsException_WhenNotFound() {
         // Given
-        when(subscriptionPlanRepository.findById(testId)).thenReturn(Optional.empty());
+        when(subscriptionPlanCatalog.findPlan(testId)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
                 () -> subscriptionPlanService.getPlanById(testId));
         assertEquals("Plan not found", exception.getMessage());
-        verify(subscriptionPlanRepository).findById(testId);
+        verifyNoInteractions(subscriptionPlanRepository);
     }
 
     @Test
     void getAllActivePlans_Success() {
         // Given
-        List<SubscriptionPlan> activePlans = Arrays.asList(testPlan);
-        when(subscriptionPlanRepository.findAllActivePlansOrderByPrice()).thenReturn(activePlans);
+        List<SubscriptionPlanResponse> activePlans = Arrays.asList(toResponse(testPlan));
+        when(subscriptionPlanCatalog.getActivePlans()).thenReturn(activePlans);
 
         // When
         List<SubscriptionPlanResponse> responses = subscriptionPlanService.getAllActivePlans();
@@ -120,7 +129,7 @@ class SubscriptionPlanServiceImplTest {
         assertNotNull(responses);
         assertEquals(1, responses.size());
         assertEquals(testPlan.getName(), responses.get(0).getName());
-        verify(subscriptionPlanRepository).findAllActivePlansOrderByPrice();
+        verifyNoInteractions(subscriptionPlanRepository);
     }
 
     @Test
@@ -152,6 +161,8 @@ class SubscriptionPlanServiceImplTest {
         // Then
         verify(subscriptionPlanRepository).findById(testId);
         verify(subscriptionPlanRepository).save(testPlan);
+        assertFalse(testPlan.getIsActive());
+        verify(subscriptionPlanCatalog).refresh();
     }
 
     @Test
@@ -178,5 +189,11 @@ class SubscriptionPlanServiceImplTest {
         assertEquals("Plan not found", exception.getMessage());
         verify(subscriptionPlanRepository).existsById(testId);
         verify(subscriptionPlanRepository, never()).deleteById(any());
+        verify(subscriptionPlanCatalog, never()).refresh();
+    }
+
+    private static SubscriptionPlanResponse toResponse(SubscriptionPlan plan) {
+        return new SubscriptionPlanResponse(plan.getId(), plan.getName(), plan.getPrice(), plan.getCreatedAt(),
+                plan.getUpdatedAt(), plan.getIsActive());
     }
 }
@@ -3,28 +3,37 @@ package fiap.backend.service;
 import fiap.backend.domain.Subscription;
 import fiap.backend.domain.SubscriptionPlan;
 import fiap.backend.domain.User;
+import fiap.backend.dto.SubscriptionBatchResponse;
 import fiap.backend.dto.SubscriptionRequest;
 import fiap.backend.dto.SubscriptionResponse;
 import fiap.backend.dto.SubscriptionStatusUpdateRequest;
 import fiap.backend.repository.SubscriptionPlanRepository;
 import fiap.backend.repository.SubscriptionRepository;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.outbox.DomainEventOutbox;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +48,12 @@ class SubscriptionServiceImplTest {
         @Mock
         private UserRepository userRepository;
 
+        @Mock
+        private ActiveSubscriptionCache activeSubscriptionCache;
+
+        @Mock
+        private DomainEventOutbox domainEventOutbox;
+
         @InjectMocks
         private SubscriptionServiceImpl subscriptionService;
 
@@ -329,6 +344,22 @@ class SubscriptionServiceImplTest {
                 verify(subscriptionRepository).save(testSubscription);
         }
 
+        @Test
+        void approveSubscription_ConcurrentApprovalForSameUser() {
+                // Given: outra assinatura do usuário foi aprovada em paralelo (índice único)
+                when(subscriptionRepository.findByIdWithUserAndPlan(subscriptionId))
+                                .thenReturn(Optional.of(testSubscription));
+                when(subscriptionRepository.save(any(Subscription.class))).thenReturn(testSubscription);
+                doThrow(new DataIntegrityViolationException("ux_subscriptions_active_user"))
+                                .when(subscriptionRepository).flush();
+
+                // When & Then
+                RuntimeException exception = assertThrows(RuntimeException.class,
+                                () -> subscriptionService.approveSubscription(subscriptionId, adminUserId));
+                assertEquals("User already has an active subscription", exception.getMessage());
+                verifyNoInteractions(domainEventOutbox);
+        }
+
         @Test
         void approveSubscription_NotPending() {
                 // Given
@@ -390,6 +421,8 @@ class SubscriptionServiceImplTest {
                 assertNotNull(response);
                 verify(subscriptionRepository).findByIdWithUserAndPlan(subscriptionId);
                 verify(subscriptionRepository).save(testSubscription);
+                verify(domainEventOutbox).publish(eq(DomainEventOutbox.SUBSCRIPTION), eq(subscriptionId),
+                                eq(DomainEventOutbox.CANCELLED), anyMap());
         }
 
         @Test
@@ -440,18 +473,8 @@ class SubscriptionServiceImplTest {
                 UUID adminUserId = UUID.randomUUID();
                 testSubscription.setStatus(Subscription.SubscriptionStatus.PENDING);
 
-                // Criar uma assinatura ativa existente
-                Subscription activeSubscription = new Subscription();
-                activeSubscription.setId(UUID.randomUUID());
-                activeSubscription.setUser(testUser);
-                activeSubscription.setStatus(Subscription.SubscriptionStatus.APPROVED);
-
-                List<Subscription> activeSubscriptions = Arrays.asList(activeSubscription);
-
                 when(subscriptionRepository.findByIdWithUserAndPlan(subscriptionId))
                                 .thenReturn(Optional.of(testSubscription));
-                when(subscriptionRepository.findActiveSubscriptionsByUserId(userId))
-                                .thenReturn(activeSubscriptions);
                 when(subscriptionRepository.save(any(Subscription.class)))
                                 .thenReturn(testSubscription);
 
@@ -462,12 +485,19 @@ class SubscriptionServiceImplTest {
                 assertNotNull(result);
                 assertEquals(subscriptionId, result.getId());
 
-                // Verifica se o método para buscar assinaturas ativas foi chamado
-                verify(subscriptionRepository).findActiveSubscriptionsByUserId(userId);
+                // Cancelamento em um único UPDATE, antes de gravar a aprovação
+                InOrder inOrder = inOrder(subscriptionRepository);
+                inOrder.verify(subscriptionRepository).cancelOtherActiveSubscriptions(eq(userId), eq(subscriptionId),
+                                eq(Subscription.SubscriptionStatus.APPROVED),
+                                eq(Subscription.SubscriptionStatus.CANCELLED), any(LocalDateTime.class));
+                inOrder.verify(subscriptionRepository).save(testSubscription);
+                verify(subscriptionRepository, never()).findActiveSubscriptionsByUserId(any());
+                verify(subscriptionRepository, times(1)).save(any(Subscription.class));
 
-                // Verifica se save foi chamado pelo menos 2 vezes: 1 para cancelar a ativa + 1
-                // para aprovar a nova
-                verify(subscriptionRepository, atLeast(2)).save(any(Subscription.class));
+                // Cache local invalidado; o evento de domínio leva a invalidação às demais instâncias
+                verify(activeSubscriptionCache, atLeastOnce()).invalidate(userId);
+                verify(domainEventOutbox).publish(eq(DomainEventOutbox.SUBSCRIPTION), eq(subscriptionId),
+                                eq(DomainEventOutbox.APPROVED), anyMap());
         }
 
         @Test
@@ -479,18 +509,8 @@ class SubscriptionServiceImplTest {
                 SubscriptionStatusUpdateRequest request = new SubscriptionStatusUpdateRequest();
                 request.setStatus(Subscription.SubscriptionStatus.APPROVED);
 
-                // Criar uma assinatura ativa existente
-                Subscription activeSubscription = new Subscription();
-                activeSubscription.setId(UUID.randomUUID());
-                activeSubscription.setUser(testUser);
-                activeSubscription.setStatus(Subscription.SubscriptionStatus.APPROVED);
-
-                List<Subscription> activeSubscriptions = Arrays.asList(activeSubscription);
-
                 when(subscriptionRepository.findByIdWithUserAndPlan(subscriptionId))
                                 .thenReturn(Optional.of(testSubscription));
-                when(subscriptionRepository.findActiveSubscriptionsByUserId(userId))
-                                .thenReturn(activeSubscriptions);
                 when(subscriptionRepository.save(any(Subscription.class)))
                                 .thenReturn(testSubscription);
 
@@ -502,12 +522,11 @@ class SubscriptionServiceImplTest {
                 assertNotNull(result);
                 assertEquals(subscriptionId, result.getId());
 
-                // Verifica se o método para buscar assinaturas ativas foi chamado
-                verify(subscriptionRepository).findActiveSubscriptionsByUserId(userId);
-
-                // Verifica se save foi chamado pelo menos 2 vezes: 1 para cancelar a ativa + 1
-                // para aprovar a nova
-                verify(subscriptionRepository, atLeast(2)).save(any(Subscription.class));
+                // Cancela as demais ativas do usuário, sem carregar as entidades
+                verify(subscriptionRepository).cancelOtherActiveSubscriptions(eq(userId), eq(subscriptionId),
+                                eq(Subscription.SubscriptionStatus.APPROVED),
+                                eq(Subscription.SubscriptionStatus.CANCELLED), any(LocalDateTime.class));
+                verify(subscriptionRepository, times(1)).save(any(Subscription.class));
         }
 
         @Test
@@ -532,10 +551,87 @@ class SubscriptionServiceImplTest {
                 assertNotNull(result);
                 assertEquals(subscriptionId, result.getId());
 
-                // Verifica se o método para buscar assinaturas ativas NÃO foi chamado
-                verify(subscriptionRepository, never()).findActiveSubscriptionsByUserId(any());
+                // Verifica se as assinaturas ativas NÃO foram canceladas
+                verify(subscriptionRepository, never()).cancelOtherActiveSubscriptions(any(), any(), any(), any(),
+                                any());
 
                 // Verifica se save foi chamado apenas 1 vez para rejeitar
                 verify(subscriptionRepository, times(1)).save(any(Subscription.class));
         }
+
+        @Test
+        void approveSubscriptions_ShouldApprovePendingWithBulkUpdatesAndReportEachId() {
+                // Given
+                Subscription samePendingUser = new Subscription(testUser, testPlan);
+                samePendingUser.setId(UUID.randomUUID());
+                Subscription alreadyApproved = new Subscription(testUser, testPlan);
+                alreadyApproved.setId(UUID.randomUUID());
+                alreadyApproved.setStatus(Subscription.SubscriptionStatus.APPROVED);
+                UUID missingId = UUID.randomUUID();
+                List<UUID> ids = List.of(subscriptionId, samePendingUser.getId(), alreadyApproved.getId(), missingId);
+
+                when(subscriptionRepository.findAllByIdForUpdate(any()))
+                                .thenReturn(List.of(testSubscription, samePendingUser, alreadyApproved));
+
+                // When
+                SubscriptionBatchResponse result = subscriptionService.approveSubscriptions(ids, adminUserId);
+
+                // Then
+                assertEquals(4, result.getRequested());
+                assertEquals(1, result.getSucceeded());
+                assertEquals(3, result.getFailed());
+                assertEquals(ids, result.getResults().stream()
+                                .map(SubscriptionBatchResponse.Item::getSubscriptionId).toList());
+                assertEquals(Subscription.SubscriptionStatus.APPROVED, result.getResults().get(0).getStatus());
+                assertEquals("Another subscription of the same user is approved in this batch",
+                                result.getResults().get(1).getMessage());
+                assertEquals("Only pending subscriptions can be approved", result.getResults().get(2).getMessage());
+                assertEquals("Subscription not found", result.getResults().get(3).getMessage());
+                assertNull(result.getResults().get(3).getStatus());
+
+                verify(subscriptionRepository).cancelActiveSubscriptionsByUserIds(eq(Set.of(userId)),
+                                eq(Subscription.SubscriptionStatus.APPROVED),
+                                eq(Subscription.SubscriptionStatus.CANCELLED), any(LocalDateTime.class));
+                verify(subscriptionRepository).reviewPendingSubscriptions(eq(Set.of(subscriptionId)),
+                                eq(Subscription.SubscriptionStatus.PENDING),
+                                eq(Subscription.SubscriptionStatus.APPROVED), eq(adminUserId),
+                                any(LocalDateTime.class));
+                verify(subscriptionRepository, never()).save(any(Subscription.class));
+                verify(activeSubscriptionCache, atLeastOnce()).invalidate(userId);
+                verify(domainEventOutbox).publish(eq(DomainEventOutbox.SUBSCRIPTION), eq(subscriptionId),
+                                eq(DomainEventOutbox.APPROVED), anyMap());
+                verifyNoMoreInteractions(domainEventOutbox);
+        }
+
+        @Test
+        void rejectSubscriptions_ShouldNotCancelActiveSubscriptions() {
+                // Given
+                when(subscriptionRepository.findAllByIdForUpdate(any())).thenReturn(List.of(testSubscription));
+
+                // When
+                SubscriptionBatchResponse result = subscriptionService.rejectSubscriptions(
+                                List.of(subscriptionId, subscriptionId), adminUserId);
+
+                // Then
+                assertEquals(1, result.getRequested());
+                assertEquals(1, result.getSucceeded());
+                assertEquals(Subscription.SubscriptionStatus.REJECTED, result.getResults().get(0).getStatus());
+                verify(subscriptionRepository, never()).cancelActiveSubscriptionsByUserIds(any(), any(), any(), any());
+                verify(subscriptionRepository).reviewPendingSubscriptions(eq(Set.of(subscriptionId)),
+                                eq(Subscription.SubscriptionStatus.PENDING),
+                                eq(Subscription.SubscriptionStatus.REJECTED), eq(adminUserId),
+                                any(LocalDateTime.class));
+                verifyNoInteractions(activeSubscriptionCache);
+                verify(domainEventOutbox).publish(eq(DomainEventOutbox.SUBSCRIPTION), eq(subscriptionId),
+                                eq(DomainEventOutbox.REJECTED), anyMap());
+        }
+
+        @Test
+        void approveSubscriptions_EmptyBatch_ShouldThrowException() {
+                // When & Then
+                RuntimeException exception = assertThrows(RuntimeException.class,
+                                () -> subscriptionService.approveSubscriptions(Collections.emptyList(), adminUserId));
+                assertEquals("Batch must contain between 1 and 1000 subscription ids", exception.getMessage());
+                verifyNoInteractions(subscriptionRepository);
+        }
 }
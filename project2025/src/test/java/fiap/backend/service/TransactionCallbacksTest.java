@@ -0,0 +1,80 @@
+package fiap.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("TransactionCallbacks - Testes Unitários")
+class TransactionCallbacksTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Sem transação, afterCommit executa já e afterRollback não executa")
+    void semTransacao() {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger rollbacks = new AtomicInteger();
+
+        // Act
+        TransactionCallbacks.afterCommit(commits::incrementAndGet);
+        TransactionCallbacks.afterRollback(rollbacks::incrementAndGet);
+
+        // Assert
+        assertEquals(1, commits.get());
+        assertEquals(0, rollbacks.get());
+    }
+
+    @Test
+    @DisplayName("Com transação, afterCommit espera o commit")
+    void deveExecutarAposCommit() {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger rollbacks = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        TransactionCallbacks.afterCommit(commits::incrementAndGet);
+        TransactionCallbacks.afterRollback(rollbacks::incrementAndGet);
+        assertEquals(0, commits.get());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        // Assert
+        assertEquals(1, commits.get());
+        assertEquals(0, rollbacks.get());
+    }
+
+    @Test
+    @DisplayName("Com transação desfeita, só afterRollback executa")
+    void deveExecutarAposRollback() {
+        // Arrange
+        AtomicInteger commits = new AtomicInteger();
+        AtomicInteger rollbacks = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        TransactionCallbacks.afterCommit(commits::incrementAndGet);
+        TransactionCallbacks.afterRollback(rollbacks::incrementAndGet);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // Assert
+        assertEquals(0, commits.get());
+        assertEquals(1, rollbacks.get());
+    }
+}
@@ -4,22 +4,35 @@ import fiap.backend.domain.User;
 import fiap.backend.domain.UserPhoto;
 import fiap.backend.dto.UserPhotoResponse;
 import fiap.backend.repository.UserPhotoRepository;
+import fiap.backend.repository.UserPhotoSummary;
 import fiap.backend.repository.UserRepository;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import fiap.backend.service.storage.PhotoStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,6 +48,21 @@ class UserPhotoServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PhotoStorage photoStorage;
+
+    @Mock
+    private PhotoVariantService photoVariantService;
+
+    @Mock
+    private PhotoCache photoCache;
+
+    @Mock
+    private PhotoContentService photoContentService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     @InjectMocks
     private UserPhotoService userPhotoService;
 
@@ -44,6 +72,8 @@ class UserPhotoServiceTest {
     private MultipartFile validImageFile;
     private byte[] testImageData;
 
+    private static final String CONTENT_HASH = "a".repeat(64);
+
     @BeforeEach
     void setUp() {
         // Configurar dados de teste
@@ -52,7 +82,11 @@ class UserPhotoServiceTest {
         testUser.setId(testUserId);
         testUser.setEmail("test@example.com");
 
-        testImageData = "fake_image_data".getBytes();
+        ReflectionTestUtils.setField(userPhotoService, "maxFileSize", 5L * 1024 * 1024);
+
+        // Cabeçalho JPEG (FF D8 FF) seguido de dados fictícios
+        testImageData = new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0,
+                'f', 'a', 'k', 'e', '_', 'i', 'm', 'a', 'g', 'e' };
         testPhoto = new UserPhoto(testUser, testImageData, "test.jpg", "image/jpeg");
         testPhoto.setId(UUID.randomUUID());
 
@@ -70,7 +104,9 @@ class UserPhotoServiceTest {
     void testUploadUserPhoto_Success_NewPhoto() throws IOException {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(userPhotoRepository.findByUser(testUser)).thenReturn(Optional.empty());
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
         when(userPhotoRepository.save(any(UserPhoto.class))).thenReturn(testPhoto);
 
         // Act
@@ -80,8 +116,167 @@ class UserPhotoServiceTest {
         assertTrue(response.isSuccess());
         assertEquals("Foto de perfil atualizada com sucesso", response.getMessage());
         assertNotNull(response.getPhotoUrl());
-        verify(userPhotoRepository).save(any(UserPhoto.class));
+        verify(userPhotoRepository).save(argThat(photo -> CONTENT_HASH.equals(photo.getContentHash())
+                && photo.getPhotoData() == null
+                && photo.getFileSize() == testImageData.length));
         verify(userRepository).save(testUser);
+        verify(photoVariantService).scheduleVariants(CONTENT_HASH);
+    }
+
+    /**
+     * Dentro de uma transação as miniaturas só são agendadas depois do commit
+     */
+    @Test
+    void testUploadUserPhoto_SchedulesVariantsAfterCommit() throws IOException {
+        // Arrange
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
+        when(userPhotoRepository.save(any(UserPhoto.class))).thenReturn(testPhoto);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            UserPhotoResponse response = userPhotoService.uploadUserPhoto(testUserId, validImageFile);
+
+            // Assert
+            assertTrue(response.isSuccess());
+            verify(photoVariantService, never()).scheduleVariants(anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(photoVariantService).scheduleVariants(CONTENT_HASH);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Rollback do upload libera o arquivo já gravado no storage; commit não
+     */
+    @Test
+    void testUploadUserPhoto_PurgesStoredContentOnRollback() throws IOException {
+        // Arrange
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
+        when(userPhotoRepository.save(any(UserPhoto.class))).thenReturn(testPhoto);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userPhotoService.uploadUserPhoto(testUserId, validImageFile);
+
+            // Act
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            verify(photoContentService, never()).purgeIfUnreferenced(anyString());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Assert
+            verify(photoContentService).purgeIfUnreferenced(CONTENT_HASH);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Teste de upload com Content-Type de imagem mas conteúdo que não é imagem
+     */
+    @Test
+    void testUploadUserPhoto_RejectsContentNotMatchingImage() throws IOException {
+        // Arrange
+        MultipartFile disguisedFile = new MockMultipartFile(
+                "file",
+                "photo.jpg",
+                "image/jpeg",
+                "<html>not an image</html>".getBytes());
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+
+        // Act
+        UserPhotoResponse response = userPhotoService.uploadUserPhoto(testUserId, disguisedFile);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("Conteúdo do arquivo não é uma imagem JPEG, PNG ou GIF", response.getMessage());
+        verify(userPhotoRepository, never()).save(any(UserPhoto.class));
+    }
+
+    /**
+     * Teste de upload que grava o tipo identificado pelo conteúdo, não o declarado
+     */
+    @Test
+    void testUploadUserPhoto_UsesSniffedContentType() throws IOException {
+        // Arrange
+        byte[] png = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0 };
+        MultipartFile pngDeclaredAsJpeg = new MockMultipartFile("file", "photo.jpg", "image/jpeg", png);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
+        when(userPhotoRepository.save(any(UserPhoto.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        UserPhotoResponse response = userPhotoService.uploadUserPhoto(testUserId, pngDeclaredAsJpeg);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(Long.valueOf(png.length), response.getFileSize());
+    }
+
+    // Simula o storage lendo o stream até o fim, como a implementação real
+    private String consumeAndReturnHash(InvocationOnMock invocation) throws IOException {
+        invocation.getArgument(0, InputStream.class).transferTo(OutputStream.nullOutputStream());
+        return CONTENT_HASH;
+    }
+
+    /**
+     * Teste de substituição de foto: conteúdo antigo sem referências é removido do storage
+     */
+    @Test
+    void testUploadUserPhoto_ReleasesOldContent() throws IOException {
+        // Arrange
+        String oldHash = "b".repeat(64);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId))
+                .thenReturn(Optional.of(summary(testPhoto.getId(), oldHash)));
+        when(userPhotoRepository.save(any(UserPhoto.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        UserPhotoResponse response = userPhotoService.uploadUserPhoto(testUserId, validImageFile);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        verify(userPhotoRepository).deleteByUserId(testUserId);
+        verify(userPhotoRepository, never()).findByUser(any());
+        verify(photoContentService).purgeIfUnreferenced(oldHash);
+        verify(photoStorage, never()).delete(anyString());
+        verify(photoCache, atLeastOnce()).invalidate(testPhoto.getId());
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.PHOTO, testPhoto.getId().toString());
+    }
+
+    /**
+     * Teste de upload recusado quando o conteúdo compartilhado foi removido concorrentemente
+     */
+    @Test
+    void testUploadUserPhoto_ContentPurgedConcurrently() throws IOException {
+        // Arrange
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
+        when(userPhotoRepository.save(any(UserPhoto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(false);
+
+        // Act
+        UserPhotoResponse response = userPhotoService.uploadUserPhoto(testUserId, validImageFile);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("Não foi possível gravar a foto, tente novamente", response.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+        verify(photoVariantService, never()).scheduleVariants(anyString());
     }
 
     /**
@@ -91,7 +286,10 @@ class UserPhotoServiceTest {
     void testUploadUserPhoto_Success_UpdateExisting() throws IOException {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(userPhotoRepository.findByUser(testUser)).thenReturn(Optional.of(testPhoto));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(photoStorage.exists(CONTENT_HASH)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId))
+                .thenReturn(Optional.of(summary(testPhoto.getId(), CONTENT_HASH)));
         when(userPhotoRepository.save(any(UserPhoto.class))).thenReturn(testPhoto);
 
         // Act
@@ -100,7 +298,8 @@ class UserPhotoServiceTest {
         // Assert
         assertTrue(response.isSuccess());
         assertEquals("Foto de perfil atualizada com sucesso", response.getMessage());
-        verify(userPhotoRepository).save(testPhoto);
+        verify(userPhotoRepository).deleteByUserId(testUserId);
+        verify(userPhotoRepository).save(any(UserPhoto.class));
     }
 
     /**
@@ -229,7 +428,8 @@ class UserPhotoServiceTest {
     void testDeleteUserPhoto_Success() {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(userPhotoRepository.existsByUserId(testUserId)).thenReturn(true);
+        when(userPhotoRepository.findSummaryByUserId(testUserId))
+                .thenReturn(Optional.of(summary(testPhoto.getId(), null)));
 
         // Act
         UserPhotoResponse response = userPhotoService.deleteUserPhoto(testUserId);
@@ -242,6 +442,28 @@ class UserPhotoServiceTest {
         assertNull(testUser.getProfilePhotoUrl());
     }
 
+    /**
+     * Teste de remoção que delega a liberação do conteúdo (possivelmente compartilhado)
+     * à contagem de referências, sem apagar o arquivo diretamente
+     */
+    @Test
+    void testDeleteUserPhoto_ReleasesSharedContent() throws IOException {
+        // Arrange
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userPhotoRepository.findSummaryByUserId(testUserId))
+                .thenReturn(Optional.of(summary(testPhoto.getId(), CONTENT_HASH)));
+
+        // Act
+        UserPhotoResponse response = userPhotoService.deleteUserPhoto(testUserId);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        verify(userPhotoRepository).deleteByUserId(testUserId);
+        verify(photoContentService).purgeIfUnreferenced(CONTENT_HASH);
+        verify(photoStorage, never()).delete(anyString());
+        verify(photoCache, atLeastOnce()).invalidate(testPhoto.getId());
+    }
+
     /**
      * Teste de falha na remoção quando não há foto
      */
@@ -249,7 +471,7 @@ class UserPhotoServiceTest {
     void testDeleteUserPhoto_NoPhoto() {
         // Arrange
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
-        when(userPhotoRepository.existsByUserId(testUserId)).thenReturn(false);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.empty());
 
         // Act
         UserPhotoResponse response = userPhotoService.deleteUserPhoto(testUserId);
@@ -267,6 +489,8 @@ class UserPhotoServiceTest {
         // Arrange
         when(userPhotoRepository.countAllPhotos()).thenReturn(10L);
         when(userPhotoRepository.getTotalStorageUsed()).thenReturn(1048576L); // 1MB
+        when(photoContentService.getPhysicalStorageUsed()).thenReturn(262144L); // 256KB deduplicados
+        when(userPhotoRepository.getLegacyStorageUsed()).thenReturn(262144L); // 256KB em BLOB
 
         // Act
         UserPhotoService.PhotoStorageStats stats = userPhotoService.getStorageStats();
@@ -275,6 +499,8 @@ class UserPhotoServiceTest {
         assertEquals(10L, stats.getTotalPhotos());
         assertEquals(1048576L, stats.getTotalStorageBytes());
         assertEquals(1.0, stats.getTotalStorageMB(), 0.01);
+        assertEquals(524288L, stats.getPhysicalStorageBytes());
+        assertEquals(524288L, stats.getDeduplicatedBytes());
     }
 
     /**
@@ -300,13 +526,128 @@ class UserPhotoServiceTest {
     @Test
     void testGetPhotoMetadata_Success() {
         // Arrange
-        when(userPhotoRepository.findMetadataByUserId(testUserId)).thenReturn(Optional.of(testPhoto));
+        UserPhotoSummary metadata = summary(testPhoto.getId(), CONTENT_HASH);
+        when(userPhotoRepository.findSummaryByUserId(testUserId)).thenReturn(Optional.of(metadata));
 
         // Act
-        Optional<UserPhoto> result = userPhotoService.getPhotoMetadata(testUserId);
+        Optional<UserPhotoSummary> result = userPhotoService.getPhotoMetadata(testUserId);
 
         // Assert
         assertTrue(result.isPresent());
-        assertEquals(testPhoto, result.get());
+        assertEquals(testPhoto.getId(), result.get().getId());
+        verify(userPhotoRepository, never()).findByUserId(any());
+    }
+
+    /**
+     * Teste de URL da foto resolvida só pelos metadados
+     */
+    @Test
+    void testGetUserPhotoUrl() {
+        // Arrange
+        UUID otherUserId = UUID.randomUUID();
+        when(userPhotoRepository.findSummaryByUserId(testUserId))
+                .thenReturn(Optional.of(summary(testPhoto.getId(), CONTENT_HASH)));
+        when(userPhotoRepository.findSummaryByUserId(otherUserId)).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(userPhotoService, "defaultPhotoUrl", "/api/photos/default");
+
+        // Act
+        String photoUrl = userPhotoService.getUserPhotoUrl(testUserId);
+        String defaultUrl = userPhotoService.getUserPhotoUrl(otherUserId);
+
+        // Assert
+        assertEquals("/api/v1/user/photo/" + testPhoto.getId(), photoUrl);
+        assertEquals("/api/photos/default", defaultUrl);
+        verify(userPhotoRepository, never()).findByUserId(any());
+    }
+
+    /**
+     * Teste de leitura do conteúdo a partir do storage
+     */
+    @Test
+    void testGetPhotoContent_FromStorage() throws IOException {
+        // Arrange
+        UserPhoto stored = new UserPhoto(testUser, CONTENT_HASH, testImageData.length, "test.jpg", "image/jpeg");
+        Resource resource = new ByteArrayResource(testImageData);
+        when(photoStorage.load(CONTENT_HASH)).thenReturn(resource);
+
+        // Act
+        Resource result = userPhotoService.getPhotoContent(stored);
+
+        // Assert
+        assertSame(resource, result);
+    }
+
+    /**
+     * Teste de leitura do conteúdo de foto ainda não migrada (BLOB legado)
+     */
+    @Test
+    void testGetPhotoContent_LegacyBlob() throws IOException {
+        // Arrange
+        when(userPhotoRepository.findPhotoDataById(testPhoto.getId())).thenReturn(Optional.of(testImageData));
+
+        // Act
+        Resource result = userPhotoService.getPhotoContent(testPhoto);
+
+        // Assert
+        assertArrayEquals(testImageData, result.getContentAsByteArray());
+        verifyNoInteractions(photoStorage);
+    }
+
+    /**
+     * Teste de hash do conteúdo: armazenado para fotos no storage; para o BLOB legado,
+     * o BLOB é lido uma vez, gravado no storage e o hash persistido
+     */
+    @Test
+    void testResolveContentHash() throws Exception {
+        // Arrange
+        UserPhoto stored = new UserPhoto(testUser, CONTENT_HASH, testImageData.length, "test.jpg", "image/jpeg");
+        Resource resource = new ByteArrayResource(testImageData);
+        when(userPhotoRepository.findPhotoDataById(testPhoto.getId())).thenReturn(Optional.of(testImageData));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(userPhotoRepository.moveToStorage(testPhoto.getId(), CONTENT_HASH)).thenReturn(1);
+        when(photoStorage.load(CONTENT_HASH)).thenReturn(resource);
+
+        // Act
+        String storedHash = userPhotoService.resolveContentHash(stored);
+        String legacyHash = userPhotoService.resolveContentHash(testPhoto);
+        Resource content = userPhotoService.getPhotoContent(testPhoto);
+
+        // Assert
+        assertEquals(CONTENT_HASH, storedHash);
+        assertEquals(CONTENT_HASH, legacyHash);
+        assertEquals(CONTENT_HASH, testPhoto.getContentHash());
+        assertSame(resource, content);
+        verify(userPhotoRepository, times(1)).findPhotoDataById(testPhoto.getId());
+        verify(photoContentService, never()).purgeIfUnreferenced(anyString());
+    }
+
+    /**
+     * Foto trocada durante a migração sob demanda: o arquivo gravado é liberado
+     */
+    @Test
+    void testResolveContentHash_ReleasesContentWhenPhotoChanged() throws Exception {
+        // Arrange
+        when(userPhotoRepository.findPhotoDataById(testPhoto.getId())).thenReturn(Optional.of(testImageData));
+        when(photoStorage.store(any(InputStream.class))).thenAnswer(this::consumeAndReturnHash);
+        when(userPhotoRepository.moveToStorage(testPhoto.getId(), CONTENT_HASH)).thenReturn(0);
+
+        // Act
+        String hash = userPhotoService.resolveContentHash(testPhoto);
+
+        // Assert
+        assertEquals(CONTENT_HASH, hash);
+        verify(photoContentService).purgeIfUnreferenced(CONTENT_HASH);
+    }
+
+    private UserPhotoSummary summary(UUID photoId, String contentHash) {
+        return new UserPhotoSummary() {
+            public UUID getId() { return photoId; }
+            public String getFileName() { return "test.jpg"; }
+            public String getContentType() { return "image/jpeg"; }
+            public Long getFileSize() { return (long) testImageData.length; }
+            public String getContentHash() { return contentHash; }
+            public LocalDateTime getCreatedAt() { return LocalDateTime.now(); }
+            public LocalDateTime getUpdatedAt() { return LocalDateTime.now(); }
+        };
     }
 }
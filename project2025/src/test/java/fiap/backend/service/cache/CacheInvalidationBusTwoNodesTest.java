@@ -0,0 +1,129 @@
+package fiap.backend.service.cache;
+
+import fiap.backend.domain.CacheInvalidationEvent;
+import fiap.backend.repository.CacheInvalidationEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas instâncias da aplicação (dois contextos Spring) na mesma JVM,
+ * compartilhando um banco H2 em memória: o evento publicado por uma deve
+ * chegar à outra pela outbox.
+ */
+@DisplayName("CacheInvalidationBus - Duas instâncias")
+class CacheInvalidationBusTwoNodesTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:cache-bus-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "node-a");
+        nodeB = startNode(url, "node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Evento publicado em uma instância deve chegar só à outra")
+    void eventoDeveChegarAOutraInstancia() throws InterruptedException {
+        // Arrange
+        BlockingQueue<String> receivedByA = new LinkedBlockingQueue<>();
+        BlockingQueue<String> receivedByB = new LinkedBlockingQueue<>();
+        nodeA.getBean(CacheInvalidationBus.class).subscribe(CacheInvalidationBus.PHOTO, receivedByA::add);
+        nodeB.getBean(CacheInvalidationBus.class).subscribe(CacheInvalidationBus.PHOTO, receivedByB::add);
+        String photoId = UUID.randomUUID().toString();
+
+        // Act
+        nodeA.getBean(CacheInvalidationBus.class).publish(CacheInvalidationBus.PHOTO, photoId);
+
+        // Assert
+        assertEquals(photoId, receivedByB.poll(5, TimeUnit.SECONDS));
+        // A origem ignora o próprio evento (o cache local já foi invalidado no commit)
+        assertNull(receivedByA.poll(300, TimeUnit.MILLISECONDS));
+        assertNull(receivedByB.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Instâncias devem trocar eventos nos dois sentidos")
+    void instanciasDevemTrocarEventosNosDoisSentidos() throws InterruptedException {
+        // Arrange
+        BlockingQueue<String> receivedByA = new LinkedBlockingQueue<>();
+        BlockingQueue<String> receivedByB = new LinkedBlockingQueue<>();
+        nodeA.getBean(CacheInvalidationBus.class).subscribe(CacheInvalidationBus.PROVIDER, receivedByA::add);
+        nodeB.getBean(CacheInvalidationBus.class).subscribe(CacheInvalidationBus.PROVIDER, receivedByB::add);
+
+        // Act
+        nodeA.getBean(CacheInvalidationBus.class).publish(CacheInvalidationBus.PROVIDER, "de-a");
+        nodeB.getBean(CacheInvalidationBus.class).publish(CacheInvalidationBus.PROVIDER, "de-b");
+
+        // Assert
+        assertEquals("de-b", receivedByA.poll(5, TimeUnit.SECONDS));
+        assertEquals("de-a", receivedByB.poll(5, TimeUnit.SECONDS));
+        List<CacheInvalidationEvent> events = nodeA.getBean(CacheInvalidationEventRepository.class)
+                .findAllByOrderByIdAsc();
+        assertEquals(2, events.size());
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId) {
+        // Argumentos de linha de comando para prevalecer sobre o application.properties (Oracle)
+        return new SpringApplicationBuilder(NodeConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + url,
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.connection-test-query=SELECT 1",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.flyway.enabled=false",
+                        "--app.cache.invalidation.node-id=" + nodeId,
+                        "--app.cache.invalidation.poll-interval-ms=50");
+    }
+
+    /**
+     * Só JPA, a outbox e o barramento: sem web, segurança nem os demais serviços
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class })
+    @EntityScan(basePackageClasses = CacheInvalidationEvent.class)
+    @EnableJpaRepositories(basePackageClasses = CacheInvalidationEventRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = CacheInvalidationEventRepository.class))
+    @Import(DbPollingCacheInvalidationBus.class)
+    static class NodeConfig {
+    }
+}
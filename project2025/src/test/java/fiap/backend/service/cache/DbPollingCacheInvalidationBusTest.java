@@ -0,0 +1,169 @@
+package fiap.backend.service.cache;
+
+import fiap.backend.domain.CacheInvalidationEvent;
+import fiap.backend.repository.CacheInvalidationEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DbPollingCacheInvalidationBus - Testes Unitários")
+class DbPollingCacheInvalidationBusTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 10, 12, 0);
+
+    @Mock
+    private CacheInvalidationEventRepository repository;
+
+    private DbPollingCacheInvalidationBus bus;
+    private List<String> received;
+
+    @BeforeEach
+    void setUp() {
+        bus = new DbPollingCacheInvalidationBus(repository, "node-a", 1000, 60, 600);
+        received = new ArrayList<>();
+        bus.subscribe(CacheInvalidationBus.PHOTO, received::add);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o evento com a origem da instância")
+    void deveGravarEventoComOrigem() {
+        // Act
+        bus.publish(CacheInvalidationBus.PHOTO, "abc");
+
+        // Assert
+        ArgumentCaptor<CacheInvalidationEvent> captor = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(repository).save(captor.capture());
+        assertEquals(CacheInvalidationBus.PHOTO, captor.getValue().getEntityType());
+        assertEquals("abc", captor.getValue().getEntityKey());
+        assertEquals("node-a", captor.getValue().getOrigin());
+    }
+
+    @Test
+    @DisplayName("Deve repassar só os eventos de outras instâncias, uma vez cada")
+    void deveRepassarEventosDeOutrasInstanciasUmaVez() {
+        // Arrange
+        CacheInvalidationEvent proprio = event(1L, CacheInvalidationBus.PHOTO, "p1", "node-a", T0);
+        CacheInvalidationEvent outro = event(2L, CacheInvalidationBus.PHOTO, "p2", "node-b", T0.plusSeconds(1));
+        when(repository.findAllByOrderByIdAsc()).thenReturn(List.of(proprio, outro));
+        CacheInvalidationEvent novo = event(3L, CacheInvalidationBus.PHOTO, "p3", "node-b", T0.plusSeconds(2));
+        // A releitura da janela devolve de novo o evento 2
+        when(repository.findByCreatedAtAfterOrderByIdAsc(T0.plusSeconds(1).minusSeconds(60)))
+                .thenReturn(List.of(outro, novo));
+
+        // Act
+        int primeira = bus.poll();
+        int segunda = bus.poll();
+
+        // Assert
+        assertEquals(1, primeira);
+        assertEquals(1, segunda);
+        assertEquals(List.of("p2", "p3"), received);
+    }
+
+    @Test
+    @DisplayName("Deve repassar evento de transação longa que ficou visível depois de outros mais recentes")
+    void deveRepassarEventoAtrasadoDentroDaJanela() {
+        // Arrange
+        CacheInvalidationEvent recente = event(5L, CacheInvalidationBus.PHOTO, "recente", "node-b", T0);
+        CacheInvalidationEvent atrasado = event(4L, CacheInvalidationBus.PHOTO, "atrasado", "node-b",
+                T0.minusSeconds(10));
+        when(repository.findAllByOrderByIdAsc()).thenReturn(List.of(recente));
+        when(repository.findByCreatedAtAfterOrderByIdAsc(T0.minusSeconds(60)))
+                .thenReturn(List.of(atrasado, recente));
+
+        // Act
+        bus.poll();
+        bus.poll();
+
+        // Assert
+        assertEquals(List.of("recente", "atrasado"), received);
+    }
+
+    @Test
+    @DisplayName("Falha em um listener não deve impedir os demais")
+    void falhaEmListenerNaoDeveImpedirDemais() {
+        // Arrange
+        bus.subscribe(CacheInvalidationBus.PROVIDER, key -> {
+            throw new IllegalStateException("falha");
+        });
+        List<String> providers = new ArrayList<>();
+        bus.subscribe(CacheInvalidationBus.PROVIDER, providers::add);
+        when(repository.findAllByOrderByIdAsc()).thenReturn(List.of(
+                event(1L, CacheInvalidationBus.PROVIDER, "f1", "node-b", T0),
+                event(2L, CacheInvalidationBus.PHOTO, "p1", "node-b", T0)));
+
+        // Act
+        int dispatched = bus.poll();
+
+        // Assert
+        assertEquals(2, dispatched);
+        assertEquals(List.of("f1"), providers);
+        assertEquals(List.of("p1"), received);
+    }
+
+    @Test
+    @DisplayName("Deve limpar periodicamente os eventos fora da retenção")
+    void deveLimparEventosAntigos() {
+        // Arrange
+        when(repository.findAllByOrderByIdAsc())
+                .thenReturn(List.of(event(1L, CacheInvalidationBus.PHOTO, "p1", "node-b", T0)));
+        when(repository.findByCreatedAtAfterOrderByIdAsc(any())).thenReturn(List.of());
+
+        // Act
+        for (int i = 0; i < 60; i++) {
+            bus.poll();
+        }
+
+        // Assert
+        verify(repository, times(1)).deleteCreatedBefore(T0.minusSeconds(600));
+    }
+
+    @Test
+    @DisplayName("Subida não deve acessar o banco; a marca d'água vem na primeira leitura bem-sucedida")
+    void subidaNaoDeveAcessarBanco() {
+        // Arrange
+        when(repository.findLatestCreatedAt())
+                .thenThrow(new IllegalStateException("Table CACHE_INVALIDATION_EVENTS not found"))
+                .thenReturn(T0);
+        when(repository.findByCreatedAtAfterOrderByIdAsc(T0.minusSeconds(60))).thenReturn(List.of());
+        // Intervalo longo: as leituras do teste não concorrem com a thread de leitura
+        DbPollingCacheInvalidationBus bus = new DbPollingCacheInvalidationBus(repository, "node-a", 60_000, 60, 600);
+
+        // Act
+        bus.start();
+        try {
+            verifyNoInteractions(repository);
+            assertThrows(IllegalStateException.class, bus::poll);
+            int dispatched = bus.poll();
+
+            // Assert
+            assertEquals(0, dispatched);
+            verify(repository, times(2)).findLatestCreatedAt();
+            verify(repository, never()).findAllByOrderByIdAsc();
+        } finally {
+            bus.stop();
+        }
+    }
+
+    private static CacheInvalidationEvent event(Long id, String type, String key, String origin,
+            LocalDateTime createdAt) {
+        CacheInvalidationEvent event = new CacheInvalidationEvent(type, key, origin);
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "createdAt", createdAt);
+        return event;
+    }
+}
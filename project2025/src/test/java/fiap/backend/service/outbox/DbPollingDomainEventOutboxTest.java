@@ -0,0 +1,178 @@
+package fiap.backend.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.DomainEvent;
+import fiap.backend.repository.DomainEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DbPollingDomainEventOutbox - Testes Unitários")
+class DbPollingDomainEventOutboxTest {
+
+    @Mock
+    private DomainEventRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DbPollingDomainEventOutbox outbox;
+    private List<DomainEvent> received;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outbox = new DbPollingDomainEventOutbox(repository, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 1000, 10, 60, 3, 168);
+        received = new ArrayList<>();
+        outbox.subscribe(DomainEventOutbox.SUBSCRIPTION, received::add);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o evento com o payload em JSON")
+    void deveGravarEventoComPayloadJson() {
+        // Arrange
+        UUID subscriptionId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        // Act
+        outbox.publish(DomainEventOutbox.SUBSCRIPTION, subscriptionId, DomainEventOutbox.APPROVED,
+                Map.of("userId", userId));
+
+        // Assert
+        ArgumentCaptor<DomainEvent> captor = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(repository).save(captor.capture());
+        assertEquals(DomainEventOutbox.SUBSCRIPTION, captor.getValue().getAggregateType());
+        assertEquals(subscriptionId.toString(), captor.getValue().getAggregateId());
+        assertEquals(DomainEventOutbox.APPROVED, captor.getValue().getEventType());
+        assertEquals("{\"userId\":\"" + userId + "\"}", captor.getValue().getPayload());
+    }
+
+    @Test
+    @DisplayName("Deve entregar o lote reivindicado e marcá-lo como processado")
+    void deveEntregarLoteReivindicado() {
+        // Arrange
+        DomainEvent first = event(1L, 0);
+        DomainEvent second = event(2L, 0);
+        when(repository.findDeliverableIds(any(), any())).thenReturn(List.of(1L, 2L));
+        when(repository.claim(eq(List.of(1L, 2L)), anyString(), any(), any())).thenReturn(2);
+        when(repository.findByClaimTokenOrderByIdAsc(anyString())).thenReturn(List.of(first, second));
+
+        // Act
+        int delivered = outbox.poll();
+
+        // Assert
+        assertEquals(2, delivered);
+        assertEquals(List.of(first, second), received);
+        verify(repository).markProcessed(eq(List.of(1L, 2L)), anyString(), any());
+        verify(repository, never()).markFailed(any(), any(), any(), any(), any());
+        assertEquals(2.0, meterRegistry.counter(DbPollingDomainEventOutbox.EVENTS_NAME, "outcome", "delivered")
+                .count());
+        assertEquals(2, meterRegistry.timer(DbPollingDomainEventOutbox.DELIVERY_NAME).count());
+    }
+
+    @Test
+    @DisplayName("Não deve entregar eventos reivindicados por outra instância")
+    void naoDeveEntregarEventosDeOutraInstancia() {
+        // Arrange
+        when(repository.findDeliverableIds(any(), any())).thenReturn(List.of(1L));
+        when(repository.claim(any(), anyString(), any(), any())).thenReturn(0);
+
+        // Act
+        int delivered = outbox.poll();
+
+        // Assert
+        assertEquals(0, delivered);
+        assertTrue(received.isEmpty());
+        verify(repository, never()).findByClaimTokenOrderByIdAsc(any());
+        verify(repository, never()).markProcessed(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Falha do listener deve adiar o evento para nova tentativa")
+    void falhaDeveAdiarEvento() {
+        // Arrange
+        outbox.subscribe(DomainEventOutbox.SUBSCRIPTION, event -> {
+            throw new IllegalStateException("rollup indisponível");
+        });
+        when(repository.findDeliverableIds(any(), any())).thenReturn(List.of(1L));
+        when(repository.claim(any(), anyString(), any(), any())).thenReturn(1);
+        when(repository.findByClaimTokenOrderByIdAsc(anyString())).thenReturn(List.of(event(1L, 0)));
+
+        // Act
+        int delivered = outbox.poll();
+
+        // Assert
+        assertEquals(0, delivered);
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markFailed(eq(1L), anyString(),
+                eq("IllegalStateException: rollup indisponível"), retryAt.capture(), isNull());
+        assertTrue(retryAt.getValue().isAfter(LocalDateTime.now()));
+        verify(repository, never()).markProcessed(any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter(DbPollingDomainEventOutbox.EVENTS_NAME, "outcome", "retry")
+                .count());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar o evento ao esgotar as tentativas")
+    void deveEncerrarEventoAoEsgotarTentativas() {
+        // Arrange
+        outbox.subscribe(DomainEventOutbox.SUBSCRIPTION, event -> {
+            throw new IllegalStateException("payload inválido");
+        });
+        when(repository.findDeliverableIds(any(), any())).thenReturn(List.of(1L));
+        when(repository.claim(any(), anyString(), any(), any())).thenReturn(1);
+        when(repository.findByClaimTokenOrderByIdAsc(anyString())).thenReturn(List.of(event(1L, 2)));
+
+        // Act
+        outbox.poll();
+
+        // Assert
+        verify(repository).markFailed(eq(1L), anyString(), anyString(), isNull(), any(LocalDateTime.class));
+        assertEquals(1.0, meterRegistry.counter(DbPollingDomainEventOutbox.EVENTS_NAME, "outcome", "dead")
+                .count());
+    }
+
+    @Test
+    @DisplayName("Deve publicar pendentes e idade do pendente mais antigo")
+    void devePublicarMetricasDeAtraso() {
+        // Arrange
+        when(repository.findDeliverableIds(any(), any())).thenReturn(List.of());
+        when(repository.countByProcessedAtIsNull()).thenReturn(7L);
+        when(repository.findOldestPendingCreatedAt()).thenReturn(LocalDateTime.now().minusSeconds(30));
+
+        // Act
+        outbox.poll();
+
+        // Assert
+        assertEquals(7.0, meterRegistry.get(DbPollingDomainEventOutbox.PENDING_NAME).gauge().value());
+        assertTrue(meterRegistry.get(DbPollingDomainEventOutbox.LAG_NAME).gauge().value() >= 29.0);
+    }
+
+    private static DomainEvent event(Long id, int attempts) {
+        DomainEvent event = new DomainEvent(DomainEventOutbox.SUBSCRIPTION, UUID.randomUUID().toString(),
+                DomainEventOutbox.APPROVED, null);
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "attempts", attempts);
+        ReflectionTestUtils.setField(event, "createdAt", LocalDateTime.now().minusSeconds(1));
+        return event;
+    }
+}
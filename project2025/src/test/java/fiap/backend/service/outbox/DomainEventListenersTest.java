@@ -0,0 +1,73 @@
+package fiap.backend.service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fiap.backend.domain.DomainEvent;
+import fiap.backend.service.ActiveSubscriptionCache;
+import fiap.backend.service.cache.CacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DomainEventListeners - Testes Unitários")
+class DomainEventListenersTest {
+
+    @Mock
+    private DomainEventOutbox outbox;
+
+    @Mock
+    private ActiveSubscriptionCache activeSubscriptionCache;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private Consumer<DomainEvent> subscriptionListener;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        new DomainEventListeners(outbox, new ObjectMapper(), activeSubscriptionCache, cacheInvalidationBus);
+        ArgumentCaptor<Consumer<DomainEvent>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(outbox).subscribe(eq(DomainEventOutbox.SUBSCRIPTION), captor.capture());
+        subscriptionListener = captor.getValue();
+    }
+
+    @Test
+    @DisplayName("Deve invalidar a assinatura ativa do usuário aqui e nas demais instâncias")
+    void deveInvalidarAssinaturaAtiva() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        DomainEvent event = new DomainEvent(DomainEventOutbox.SUBSCRIPTION, UUID.randomUUID().toString(),
+                DomainEventOutbox.APPROVED, "{\"userId\":\"" + userId + "\",\"planId\":\"" + UUID.randomUUID() + "\"}");
+
+        // Act
+        subscriptionListener.accept(event);
+
+        // Assert
+        verify(activeSubscriptionCache).invalidate(userId);
+        verify(cacheInvalidationBus).publish(CacheInvalidationBus.ACTIVE_SUBSCRIPTION, userId.toString());
+    }
+
+    @Test
+    @DisplayName("Deve falhar o evento sem userId, para nova tentativa ou descarte pela outbox")
+    void deveFalharEventoSemUsuario() {
+        // Arrange
+        DomainEvent event = new DomainEvent(DomainEventOutbox.SUBSCRIPTION, UUID.randomUUID().toString(),
+                DomainEventOutbox.CANCELLED, "{}");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> subscriptionListener.accept(event));
+        verifyNoInteractions(activeSubscriptionCache, cacheInvalidationBus);
+    }
+}
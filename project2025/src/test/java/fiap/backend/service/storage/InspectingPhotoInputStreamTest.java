@@ -0,0 +1,68 @@
+package fiap.backend.service.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InspectingPhotoInputStream - Testes Unitários")
+class InspectingPhotoInputStreamTest {
+
+    @Test
+    @DisplayName("Deve identificar JPEG, PNG e GIF pelos magic bytes")
+    void deveIdentificarTiposPeloConteudo() throws IOException {
+        assertEquals("image/jpeg", consumir(new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0x00 }, 1024));
+        assertEquals("image/png", consumir(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1 }, 1024));
+        assertEquals("image/gif", consumir("GIF89a....".getBytes(), 1024));
+    }
+
+    @Test
+    @DisplayName("Deve contar os bytes lidos")
+    void deveContarBytesLidos() throws IOException {
+        // Arrange
+        byte[] conteudo = new byte[20_000];
+        conteudo[0] = (byte) 0xFF;
+        conteudo[1] = (byte) 0xD8;
+        conteudo[2] = (byte) 0xFF;
+
+        // Act
+        InspectingPhotoInputStream in = new InspectingPhotoInputStream(new ByteArrayInputStream(conteudo), 50_000);
+        in.transferTo(OutputStream.nullOutputStream());
+
+        // Assert
+        assertEquals(20_000, in.getBytesRead());
+    }
+
+    @Test
+    @DisplayName("Deve interromper a leitura ao exceder o tamanho máximo")
+    void deveInterromperAoExcederTamanho() {
+        // Arrange
+        byte[] conteudo = new byte[3 * 1024 * 1024];
+        conteudo[0] = (byte) 0xFF;
+        conteudo[1] = (byte) 0xD8;
+        conteudo[2] = (byte) 0xFF;
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> consumir(conteudo, 2 * 1024 * 1024));
+        assertEquals("Arquivo muito grande. Tamanho máximo: 2 MB", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar conteúdo que não é imagem, inclusive arquivos curtos")
+    void deveRejeitarConteudoQueNaoEhImagem() {
+        assertThrows(IllegalArgumentException.class, () -> consumir("<html></html>".getBytes(), 1024));
+        assertThrows(IllegalArgumentException.class, () -> consumir(new byte[] { (byte) 0xFF }, 1024));
+    }
+
+    private static String consumir(byte[] conteudo, long maxBytes) throws IOException {
+        try (InspectingPhotoInputStream in = new InspectingPhotoInputStream(new ByteArrayInputStream(conteudo), maxBytes)) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getDetectedContentType();
+        }
+    }
+}
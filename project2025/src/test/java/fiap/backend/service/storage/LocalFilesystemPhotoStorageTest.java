@@ -0,0 +1,86 @@
+package fiap.backend.service.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocalFilesystemPhotoStorage - Testes Unitários")
+class LocalFilesystemPhotoStorageTest {
+
+    private static final byte[] CONTEUDO = "fake_image_data".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path root;
+
+    private LocalFilesystemPhotoStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalFilesystemPhotoStorage(root.toString());
+    }
+
+    @Test
+    @DisplayName("Deve gravar conteúdo endereçado pelo SHA-256")
+    void deveGravarConteudoPeloHash() throws Exception {
+        // Act
+        String hash = storage.store(new ByteArrayInputStream(CONTEUDO));
+
+        // Assert
+        assertTrue(hash.matches("[0-9a-f]{64}"));
+        Path arquivo = root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+        assertTrue(Files.isRegularFile(arquivo));
+        assertArrayEquals(CONTEUDO, Files.readAllBytes(arquivo));
+        assertTrue(storage.exists(hash));
+
+        Resource resource = storage.load(hash);
+        assertEquals(CONTEUDO.length, resource.contentLength());
+        assertArrayEquals(CONTEUDO, resource.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("Deve retornar o mesmo hash para conteúdo repetido")
+    void deveDeduplicarConteudoRepetido() throws Exception {
+        // Act
+        String primeiro = storage.store(new ByteArrayInputStream(CONTEUDO));
+        String segundo = storage.store(new ByteArrayInputStream(CONTEUDO));
+
+        // Assert
+        assertEquals(primeiro, segundo);
+        try (var temporarios = Files.list(root.resolve("tmp"))) {
+            assertEquals(0, temporarios.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve remover conteúdo e falhar ao carregá-lo depois")
+    void deveRemoverConteudo() throws Exception {
+        // Arrange
+        String hash = storage.store(new ByteArrayInputStream(CONTEUDO));
+
+        // Act
+        storage.delete(hash);
+
+        // Assert
+        assertFalse(storage.exists(hash));
+        assertThrows(FileNotFoundException.class, () -> storage.load(hash));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar hash inválido")
+    void deveRejeitarHashInvalido() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> storage.load("../../etc/passwd"));
+
+        assertEquals("Hash de conteúdo inválido", ex.getMessage());
+    }
+}